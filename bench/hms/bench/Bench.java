@@ -0,0 +1,85 @@
+package hms.bench;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 간단한 측정기 (외부 라이브러리 없이)
+ * - 준비(warmup) 시간 동안 실행해서 JIT 컴파일을 끝낸 뒤, 측정 시간 동안 한 번씩 시간을 잽니다.
+ * - 결과: 초당 처리량, 평균 / p50 / p99 / 최대 지연시간(마이크로초)
+ */
+final class Bench {
+
+    @FunctionalInterface
+    interface Op {
+        /** 한 번 실행. i = 0부터 증가하는 실행 번호 (입력값을 돌려가며 고를 때 사용) */
+        void run(long i) throws Exception;
+    }
+
+    /** 측정 결과 한 줄 */
+    static final class Result {
+        final String name;
+        final long ops;
+        final double opsPerSec;
+        final double avgMicros;
+        final double p50Micros;
+        final double p99Micros;
+        final double maxMicros;
+
+        Result(String name, long ops, double opsPerSec, double avgMicros, double p50Micros, double p99Micros, double maxMicros) {
+            this.name = name;
+            this.ops = ops;
+            this.opsPerSec = opsPerSec;
+            this.avgMicros = avgMicros;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        /** 탭 구분 한 줄 (BenchMain이 읽어서 표/CSV로 정리) */
+        String toLine() {
+            return String.format(Locale.ROOT, "%s\t%d\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f",
+                    name, ops, opsPerSec, avgMicros, p50Micros, p99Micros, maxMicros);
+        }
+    }
+
+    private final long warmupNanos;
+    private final long measureNanos;
+
+    Bench(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+    }
+
+    Result run(String name, Op op) throws Exception {
+        long i = 0;
+
+        long end = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < end) op.run(i++);
+
+        long[] lat = new long[1024];
+        int n = 0;
+        long start = System.nanoTime();
+        end = start + measureNanos;
+        long now = start;
+        // 아주 느린 작업도 최소 1번은 측정
+        while (n == 0 || now < end) {
+            long t0 = System.nanoTime();
+            op.run(i++);
+            now = System.nanoTime();
+            if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+            lat[n++] = now - t0;
+        }
+        long elapsed = now - start;
+
+        Arrays.sort(lat, 0, n);
+        long sum = 0;
+        for (int k = 0; k < n; k++) sum += lat[k];
+        return new Result(name, n, n * 1e9 / elapsed, sum / 1e3 / n,
+                lat[percentileIndex(n, 0.50)] / 1e3, lat[percentileIndex(n, 0.99)] / 1e3, lat[n - 1] / 1e3);
+    }
+
+    private static int percentileIndex(int n, double p) {
+        return Math.min(n - 1, (int) Math.ceil(p * n) - 1);
+    }
+}
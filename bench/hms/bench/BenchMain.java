@@ -0,0 +1,119 @@
+package hms.bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벤치마크 실행기
+ * - 데이터 크기마다 작업 폴더(bench-work/크기/data)에 가짜 데이터를 만들고,
+ *   그 폴더에서 별도 JVM으로 Benchmarks를 실행합니다. (매니저들이 "data/..." 상대 경로를 쓰기 때문)
+ * - 결과를 표로 출력하고 CSV에 한 줄씩 추가하므로, 커밋(label)별로 비교할 수 있습니다.
+ *
+ * 사용법:
+ *   java -cp out/bench hms.bench.BenchMain [--sizes 1000,100000,1000000] [--warmup 1000] [--measure 3000]
+ *        [--label 커밋] [--filter 이름일부] [--out bench-results.csv] [--work bench-work] [--xmx 4g]
+ */
+public final class BenchMain {
+
+    private static final String CSV_HEADER = "label,time,rows,benchmark,ops,ops_per_sec,avg_us,p50_us,p99_us,max_us";
+
+    public static void main(String[] args) throws Exception {
+        String sizes = "1000,100000";
+        String warmup = "1000";
+        String measure = "3000";
+        String label = null;
+        String filter = "";
+        String outFile = "bench-results.csv";
+        String workDir = "bench-work";
+        String xmx = "4g";
+
+        for (int i = 0; i < args.length; i++) {
+            String v = (i + 1 < args.length) ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--sizes": sizes = v; i++; break;
+                case "--warmup": warmup = v; i++; break;
+                case "--measure": measure = v; i++; break;
+                case "--label": label = v; i++; break;
+                case "--filter": filter = v; i++; break;
+                case "--out": outFile = v; i++; break;
+                case "--work": workDir = v; i++; break;
+                case "--xmx": xmx = v; i++; break;
+                default:
+                    System.err.println("알 수 없는 옵션: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (label == null) label = gitRevision();
+
+        String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        Path csv = Paths.get(outFile).toAbsolutePath();
+        if (!Files.exists(csv)) {
+            Files.write(csv, List.of(CSV_HEADER), StandardCharsets.UTF_8);
+        }
+
+        System.out.printf("%-8s %-34s %10s %12s %10s %10s %10s%n", "rows", "benchmark", "ops", "ops/s", "avg(us)", "p50(us)", "p99(us)");
+        for (String s : sizes.split(",")) {
+            int rows = Integer.parseInt(s.trim());
+            Path dir = Paths.get(workDir, String.valueOf(rows)).toAbsolutePath();
+            System.err.println(">>> 데이터 생성: " + rows + "줄 -> " + dir);
+            DataGenerator.generate(dir, rows);
+
+            for (String line : runChild(dir, xmx, rows, warmup, measure, filter)) {
+                String[] f = line.split("\t");
+                System.out.printf("%-8d %-34s %10s %12s %10s %10s %10s%n", rows, f[0], f[1], f[2], f[3], f[4], f[5]);
+                Files.write(csv, List.of(String.join(",", label, time, String.valueOf(rows), String.join(",", f))),
+                        StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            }
+        }
+        System.err.println(">>> 결과 저장: " + csv);
+    }
+
+    /** 작업 폴더에서 Benchmarks를 실행하고 결과 줄("RESULT\t" 뒤)만 돌려줍니다. */
+    private static List<String> runChild(Path dir, String xmx, int rows, String warmup, String measure, String filter)
+            throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> cmd = new ArrayList<>(List.of(java, "-Xmx" + xmx, "-Dfile.encoding=" + System.getProperty("file.encoding"),
+                "-cp", System.getProperty("java.class.path"),
+                Benchmarks.class.getName(), String.valueOf(rows), warmup, measure));
+        if (!filter.isEmpty()) cmd.add(filter);
+        // 서버 설정(-Dhms.storage=btree 등)은 측정 JVM에도 그대로 넘김
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("hms.")) cmd.add(1, "-D" + name + "=" + System.getProperty(name));
+        }
+
+        Process p = new ProcessBuilder(cmd)
+                .directory(dir.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        List<String> results = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith("RESULT\t")) results.add(line.substring("RESULT\t".length()));
+            }
+        }
+        if (p.waitFor() != 0) {
+            throw new IllegalStateException("벤치마크 실행 실패 (rows=" + rows + ", exit=" + p.exitValue() + ")");
+        }
+        return results;
+    }
+
+    private static String gitRevision() {
+        try {
+            Process p = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String rev = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (p.waitFor(5, TimeUnit.SECONDS) && p.exitValue() == 0 && !rev.isEmpty()) return rev;
+        } catch (Exception ignored) {}
+        return "local";
+    }
+}
@@ -0,0 +1,207 @@
+package hms.bench;
+
+import hms.model.ReservationDataManager;
+import hms.model.RoomServiceDataManager;
+import hms.model.UserDataManager;
+import hms.network.NetworkMessage;
+import hms.network.ServerConnection;
+import hms.server.HMSServer;
+import hms.server.ServerConfig;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 벤치마크 본체 (BenchMain이 데이터 크기마다 생성된 폴더에서 별도 JVM으로 실행)
+ *
+ * manager.*  데이터 매니저 메서드 직접 호출
+ * server.*   같은 JVM에 띄운 HMSServer에 실제 클라이언트 연결(ServerConnection)로 요청 (프로토콜 + 명령 처리 포함)
+ *
+ * 결과는 "RESULT\t이름\t..." 줄로 표준 출력에 씁니다. (서버 로그 등 나머지 출력은 버림)
+ */
+public final class Benchmarks {
+
+    private static final String RESULT_PREFIX = "RESULT\t";
+
+    private final int rows;
+    private final Bench bench;
+    private final String filter;
+    private final PrintStream out;
+
+    private Benchmarks(int rows, Bench bench, String filter, PrintStream out) {
+        this.rows = rows;
+        this.bench = bench;
+        this.filter = filter;
+        this.out = out;
+    }
+
+    /** args: 행 수, 준비 시간(ms), 측정 시간(ms), [이름 필터] */
+    public static void main(String[] args) throws Exception {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        int rows = Integer.parseInt(args[0]);
+        Bench bench = new Bench(Long.parseLong(args[1]), Long.parseLong(args[2]));
+        String filter = (args.length > 3) ? args[3] : "";
+
+        Benchmarks b = new Benchmarks(rows, bench, filter, out);
+        b.runManagerBenchmarks();
+        b.runServerBenchmarks();
+        out.flush();
+        System.exit(0);
+    }
+
+    private void run(String name, Bench.Op op) throws Exception {
+        if (!name.contains(filter)) return;
+        out.println(RESULT_PREFIX + bench.run(name, op).toLine());
+        out.flush();
+    }
+
+    // ==========================================================
+    // 데이터 매니저 직접 호출
+    // ==========================================================
+    private void runManagerBenchmarks() throws Exception {
+        UserDataManager userMgr = new UserDataManager();
+        ReservationDataManager resMgr = new ReservationDataManager();
+        RoomServiceDataManager rsMgr = new RoomServiceDataManager();
+
+        Random rnd = new Random(1);
+        run("manager.login", i -> {
+            int u = rnd.nextInt(rows);
+            userMgr.findUserById(DataGenerator.userId(u)).getPassword().equals("pw" + u);
+        });
+
+        run("manager.availability", i -> {
+            LocalDate in = randomDay(rnd);
+            resMgr.getBookedRooms(in.toString(), in.plusDays(1 + rnd.nextInt(4)).toString());
+        });
+
+        List<String> suites = List.of("301", "302", "303", "304", "305", "306", "307", "308");
+        run("manager.availability_search_90d", i ->
+                resMgr.findAvailability(suites, randomDay(rnd).toString(), 90, 3));
+
+        List<String[]> pending = pendingReservations(resMgr.readAllReservations());
+        run("manager.checkin_checkout_reset", i -> {
+            String[] r = pending.get((int) (i % pending.size()));
+            resMgr.updateStatus(r[0], ReservationDataManager.STATUS_CHECKED_IN);
+            resMgr.processCheckoutByRoom(r[1], 0);
+            // 다음 바퀴(와 서버 측정)에서 다시 쓸 수 있도록 대기 상태로 되돌림
+            resMgr.updateStatus(r[0], ReservationDataManager.STATUS_PENDING);
+        });
+
+        List<String> orderIds = firstIds(rsMgr.getAllRequests(), 1000);
+        run("manager.rs_status_update", i ->
+                rsMgr.updateRequestStatus(orderIds.get((int) (i % orderIds.size())), (i % 2 == 0) ? "처리중" : "완료"));
+
+        // 서버가 같은 파일을 다시 읽도록 변경 기록을 정리
+        resMgr.close();
+    }
+
+    // ==========================================================
+    // 서버 경유 (클라이언트 -> 프로토콜 -> 명령 처리 -> 응답)
+    // ==========================================================
+    private void runServerBenchmarks() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        System.setProperty("hms.server.port", String.valueOf(port));
+
+        HMSServer server = new HMSServer(ServerConfig.fromSystemProperties());
+        Thread acceptor = new Thread(server::start, "bench-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        awaitPort(port);
+
+        ServerConnection conn = ServerConnection.getDefault();
+        Random rnd = new Random(2);
+
+        run("server.login", i -> {
+            int u = rnd.nextInt(rows);
+            check(conn.send("LOGIN", DataGenerator.userId(u) + ",pw" + u));
+        });
+
+        run("server.availability", i -> {
+            LocalDate in = randomDay(rnd);
+            check(conn.send("RES_GET_BOOKED", in + "," + in.plusDays(1 + rnd.nextInt(4))));
+        });
+
+        @SuppressWarnings("unchecked")
+        List<String[]> all = (List<String[]>) conn.send("RES_GET_ALL", null).getData();
+        List<String[]> pending = pendingReservations(all);
+        run("server.checkin_checkout_reset", i -> {
+            String[] r = pending.get((int) (i % pending.size()));
+            check(conn.send("RES_UPDATE_STATUS", r[0] + "," + ReservationDataManager.STATUS_CHECKED_IN));
+            check(conn.send("RES_CHECKOUT", r[1] + ",0"));
+            check(conn.send("RES_UPDATE_STATUS", r[0] + "," + ReservationDataManager.STATUS_PENDING));
+        });
+
+        // 1년치 보고서 (계산 방식별)
+        String year = DataGenerator.FIRST_DAY + "," + DataGenerator.FIRST_DAY.plusDays(364);
+        for (String mode : new String[]{"rollup", "serial", "parallel"}) {
+            run("server.report_1y_" + mode, i -> check(conn.send("REPORT_GENERATE", year + "," + mode)));
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String[]> orders = (List<String[]>) conn.send("RS_GET_ALL_REQUESTS", null).getData();
+        List<String> orderIds = firstIds(orders, 1000);
+        run("server.rs_status_update", i -> check(conn.send("RS_UPDATE_REQ_STATUS",
+                orderIds.get((int) (i % orderIds.size())) + "," + ((i % 2 == 0) ? "처리중" : "완료"))));
+
+        conn.closeAll();
+        server.shutdown();
+    }
+
+    // ==========================================================
+    // 도우미
+    // ==========================================================
+    private static LocalDate randomDay(Random rnd) {
+        return DataGenerator.FIRST_DAY.plusDays(rnd.nextInt(DataGenerator.DAYS));
+    }
+
+    /** 체크인/체크아웃 반복에 쓸 대기 예약 {예약번호, 객실} (최대 1000건) */
+    private static List<String[]> pendingReservations(List<String[]> rows) {
+        List<String[]> list = new ArrayList<>();
+        for (String[] r : rows) {
+            if (r.length > ReservationDataManager.RES_IDX_STATUS
+                    && r[ReservationDataManager.RES_IDX_STATUS].equals(ReservationDataManager.STATUS_PENDING)) {
+                list.add(new String[]{r[ReservationDataManager.RES_IDX_ID], r[ReservationDataManager.RES_IDX_ROOM_NUM]});
+                if (list.size() == 1000) break;
+            }
+        }
+        return list;
+    }
+
+    private static List<String> firstIds(List<String[]> rows, int max) {
+        List<String> ids = new ArrayList<>();
+        for (String[] r : rows) {
+            ids.add(r[0]);
+            if (ids.size() == max) break;
+        }
+        return ids;
+    }
+
+    private static void check(NetworkMessage res) {
+        if (res == null || !res.isSuccess()) {
+            throw new IllegalStateException("요청 실패: " + (res == null ? "응답 없음" : res.getMessage()));
+        }
+    }
+
+    private static void awaitPort(int port) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            try {
+                new Socket("127.0.0.1", port).close(); // 연결되면 바로 닫음
+                return;
+            } catch (Exception e) {
+                Thread.sleep(50);
+            }
+        }
+        throw new IllegalStateException("서버가 시작되지 않았습니다.");
+    }
+}
@@ -0,0 +1,127 @@
+package hms.bench;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * 벤치마크용 가짜 data/*.txt 생성기
+ * - 같은 크기/시드로 만들면 항상 같은 파일이 나오므로, 커밋 간 결과를 비교할 수 있습니다.
+ * - 회원/예약/룸서비스 주문을 각각 rows줄씩 만들고, 객실은 실제와 같은 24개(101~308)입니다.
+ * - 예약 기간: FIRST_DAY부터 DAYS일, 상태는 체크아웃 70% / 대기(카드/현장결제) 30% (투숙 중인 예약은 없음)
+ */
+final class DataGenerator {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    static final int DAYS = 3 * 365;
+    static final long SEED = 20251130L;
+
+    static final String[] GRADES = {"스탠다드", "디럭스", "스위트"};
+    static final int[] PRICES = {100000, 150000, 300000};
+
+    private static final String[] SERVICE_STATUS = {"대기중", "처리중", "완료", "결제완료"};
+    private static final String[][] MENU = {
+            {"1", "햄버거", "15000", "식품"}, {"2", "콜라", "3000", "음료"}, {"3", "피자", "10000", "식품"},
+            {"4", "사이다", "3000", "음료"}, {"5", "와인", "60000", "주류"}};
+    private static final DateTimeFormatter ID_DATE = DateTimeFormatter.ofPattern("yyMMdd");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private DataGenerator() {}
+
+    static String roomNumber(int index) {
+        return (index / 8 + 1) + String.format("%02d", index % 8 + 1);
+    }
+
+    static String userId(int i) {
+        return "bench" + i;
+    }
+
+    /** dir/data 아래에 rows 크기의 데이터 파일을 새로 만듭니다. (벤치마크가 데이터를 바꾸므로 실행마다 새로) */
+    static void generate(Path dir, int rows) throws IOException {
+        Path data = dir.resolve("data");
+        Files.createDirectories(data);
+        Random rnd = new Random(SEED);
+        // 서버가 기본 문자셋(FileReader/FileWriter)으로 읽고 쓰므로 같은 문자셋으로 생성
+        Charset cs = Charset.defaultCharset();
+
+        try (PrintWriter pw = writer(data.resolve("rooms.txt"), cs)) {
+            for (int i = 0; i < 24; i++) pw.println(roomNumber(i) + "," + GRADES[i / 8] + "," + PRICES[i / 8]);
+        }
+
+        try (PrintWriter pw = writer(data.resolve("room_service_menu.txt"), cs)) {
+            for (String[] m : MENU) pw.println(String.join(",", m));
+        }
+
+        try (PrintWriter pw = writer(data.resolve("userinfo.txt"), cs)) {
+            pw.println("admin,admin123,관리자,010-0000-0000,99,admin");
+            for (int i = 0; i < rows; i++) {
+                pw.println(userId(i) + ",pw" + i + ",회원" + i + ",010-" + String.format("%04d-%04d", i / 10000 % 10000, i % 10000)
+                        + "," + (20 + i % 50) + ",user");
+            }
+        }
+
+        try (PrintWriter pw = writer(data.resolve("reservation_info.txt"), cs)) {
+            for (int i = 0; i < rows; i++) {
+                LocalDate in = FIRST_DAY.plusDays(rnd.nextInt(DAYS));
+                int nights = 1 + rnd.nextInt(4);
+                int room = rnd.nextInt(24);
+                String status;
+                String payment;
+                int r = rnd.nextInt(10);
+                if (r < 7) {
+                    status = "CHECKED_OUT";
+                    payment = "카드결제";
+                } else {
+                    status = "PENDING";
+                    payment = (r == 9) ? "현장결제" : "카드결제";
+                }
+                String checkoutTime = status.equals("CHECKED_OUT") ? in.plusDays(nights) + " 10:30:00" : "";
+                String lateFee = (status.equals("CHECKED_OUT") && rnd.nextInt(10) == 0) ? "20000" : "0";
+                pw.println(String.join(",",
+                        in.format(ID_DATE) + "-" + String.format("%06d", i % 1_000_000),
+                        "손님" + i, "010-1234-" + String.format("%04d", i % 10000),
+                        in.toString(), in.plusDays(nights).toString(), "15:00", "11:00",
+                        String.valueOf(1 + rnd.nextInt(4)), GRADES[room / 8], roomNumber(room),
+                        String.valueOf((long) PRICES[room / 8] * nights), payment, status, checkoutTime,
+                        userId(rnd.nextInt(rows)), lateFee));
+            }
+        }
+
+        try (PrintWriter pw = writer(data.resolve("room_service_requests.txt"), cs)) {
+            LocalDateTime base = FIRST_DAY.atStartOfDay();
+            for (int i = 0; i < rows; i++) {
+                LocalDateTime t = base.plusSeconds((long) rnd.nextInt(DAYS) * 86400 + rnd.nextInt(86400));
+                String[] item = MENU[rnd.nextInt(MENU.length)];
+                int qty = 1 + rnd.nextInt(3);
+                pw.println(String.join(",",
+                        "R" + t.format(ID_DATE) + "-" + String.format("%03d", i + 1),
+                        roomNumber(rnd.nextInt(24)), item[1] + " x " + qty,
+                        String.valueOf(Long.parseLong(item[2]) * qty),
+                        SERVICE_STATUS[rnd.nextInt(SERVICE_STATUS.length)], t.format(TIMESTAMP)));
+            }
+        }
+
+        Files.deleteIfExists(data.resolve("reservation_changes.log"));
+        // 합치기 도중 멈춰 남은 봉인 파일(reservation_changes.log.번호)도 함께
+        try (DirectoryStream<Path> sealed = Files.newDirectoryStream(data, "reservation_changes.log.*")) {
+            for (Path p : sealed) Files.deleteIfExists(p);
+        }
+        // hms.storage=btree로 만든 저장 파일도 지워서 새 .txt에서 다시 옮기도록
+        for (String db : new String[]{"rooms.db", "userinfo.db", "reservation_info.db", "room_service_requests.db"}) {
+            Files.deleteIfExists(data.resolve(db));
+        }
+        // 빈 파일
+        Files.write(data.resolve("folio_charges.txt"), new byte[0]);
+        Files.write(data.resolve("room_history.txt"), new byte[0]);
+    }
+
+    private static PrintWriter writer(Path p, Charset cs) throws IOException {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(p), cs), 1 << 16));
+    }
+}
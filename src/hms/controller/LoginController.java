@@ -3,14 +3,11 @@ package hms.controller;
 import hms.model.User;
 import hms.model.UserDataManager;
 import hms.network.NetworkMessage; // ⭐ [NEW] NetworkMessage 임포트
+import hms.network.ServerConnection;
 import hms.view.AdminMainFrame;
 import hms.view.UserMainFrame;
 import javax.swing.JOptionPane;
 import java.util.List;
-// ⭐ [NEW] 통신에 필요한 임포트 추가
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.Socket;
 
 public class LoginController {
 
@@ -19,10 +16,6 @@ public class LoginController {
     private final ReservationController resController;
     private final RoomController roomController;
 
-    // ⭐ [NEW] 통신 설정 (UserController와 동일)
-    private final String SERVER_IP = "127.0.0.1";
-    private final int SERVER_PORT = 5000;
-
     /**
      * ⭐ [핵심] LoginFrame에서 모든 Controller 인스턴스를 주입받는 생성자
      */
@@ -38,12 +31,8 @@ public class LoginController {
 
     // ⭐ [NEW] 서버 통신 헬퍼 메서드 (RoomServiceController와 동일 구조)
     private NetworkMessage sendRequest(String cmd, Object data) {
-        try (Socket s = new Socket(SERVER_IP, SERVER_PORT);
-             ObjectOutputStream out = new ObjectOutputStream(s.getOutputStream());
-             ObjectInputStream in = new ObjectInputStream(s.getInputStream())) {
-            out.writeObject(new NetworkMessage(cmd, data));
-            out.flush();
-            return (NetworkMessage) in.readObject();
+        try {
+            return ServerConnection.getDefault().send(cmd, data);
         } catch (Exception e) {
             System.err.println("로그인 통신 오류: " + e.getMessage());
             return new NetworkMessage(false, "통신 오류", null);
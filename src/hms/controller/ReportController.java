@@ -1,26 +1,15 @@
 package hms.controller;
 
 import hms.network.NetworkMessage;
-import java.io.*;
-import java.net.Socket;
+import hms.network.ServerConnection;
 import java.util.HashMap;
 import java.util.Map;
 
 public class ReportController {
 
-    private final String SERVER_IP = "127.0.0.1";
-    private final int SERVER_PORT = 5000;
-
     private NetworkMessage send(String cmd, Object data) {
-        // 여기서 SERVER_IP 변수를 사용합니다.
-        try (Socket s = new Socket(SERVER_IP, SERVER_PORT);
-             ObjectOutputStream out = new ObjectOutputStream(s.getOutputStream());
-             ObjectInputStream in = new ObjectInputStream(s.getInputStream())) {
-
-            out.writeObject(new NetworkMessage(cmd, data));
-            out.flush();
-            return (NetworkMessage) in.readObject();
-
+        try {
+            return ServerConnection.getDefault().send(cmd, data);
         } catch (Exception e) {
             return new NetworkMessage(false, "통신오류", null);
         }
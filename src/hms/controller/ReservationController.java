@@ -1,14 +1,19 @@
 package hms.controller;
 
+import hms.model.Reservation;
+import hms.model.UpdateResult;
+import hms.model.VersionClock;
 import hms.network.NetworkMessage;
+import hms.network.ServerConnection;
 import hms.util.LateFeeCalculator;
-import java.io.*;
-import java.net.Socket;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.text.NumberFormat;
 import java.util.Locale;
 import java.time.LocalDate;
@@ -16,34 +21,28 @@ import java.time.temporal.ChronoUnit;
 
 public class ReservationController {
 
-    // [중요] 파일 데이터 구조에 맞춘 인덱스 정의
-    public static final int RES_IDX_ID = 0;
-    public static final int RES_IDX_CHECKIN_DATE = 3;
-    public static final int RES_IDX_SCHED_CHECKOUT_DATE = 4;
-    public static final int RES_IDX_ROOM_NUM = 9;
-    public static final int RES_IDX_TOTAL_PRICE = 10;
-    public static final int RES_IDX_STATUS = 12;
-    public static final int RES_IDX_CHECKOUT_TIME = 13;     // 실제 체크아웃 시간
+    // [중요] 파일 데이터 구조에 맞춘 인덱스 정의 (칸 위치는 Reservation에서 한 곳만 정의, 서버와 동일)
+    public static final int RES_IDX_ID = Reservation.IDX_ID;
+    public static final int RES_IDX_CHECKIN_DATE = Reservation.IDX_CHECK_IN_DATE;
+    public static final int RES_IDX_SCHED_CHECKOUT_DATE = Reservation.IDX_CHECKOUT_DATE;
+    public static final int RES_IDX_ROOM_NUM = Reservation.IDX_ROOM_NUM;
+    public static final int RES_IDX_TOTAL_PRICE = Reservation.IDX_TOTAL_PRICE;
+    public static final int RES_IDX_STATUS = Reservation.IDX_STATUS;
+    public static final int RES_IDX_CHECKOUT_TIME = Reservation.IDX_CHECKOUT_TIME;     // 실제 체크아웃 시간
 
-    // [NEW] 지연 요금이 저장될 인덱스 (14번째 칸)
-    public static final int RES_IDX_LATE_FEE = 14;
+    // [NEW] 지연 요금이 저장될 인덱스 (15번째 칸, 14번은 회원 ID)
+    public static final int RES_IDX_LATE_FEE = Reservation.IDX_LATE_FEE;
 
     public static final String STATUS_PENDING = "PENDING";
     public static final String STATUS_CHECKED_IN = "CHECKED_IN";
     public static final String STATUS_CHECKED_OUT = "CHECKED_OUT";
 
-    private String serverIp = "127.0.0.1";
-    private int serverPort = 5000;
+    // 예약번호 -> 마지막으로 조회한 행 버전 (상태 변경 시 충돌 검사용)
+    private final Map<String, Long> seenVersions = new ConcurrentHashMap<>();
 
     private NetworkMessage sendRequest(String command, Object data) {
-        try (Socket socket = new Socket(serverIp, serverPort);
-             ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-             ObjectInputStream in = new ObjectInputStream(socket.getInputStream())) {
-
-            out.writeObject(new NetworkMessage(command, data));
-            out.flush();
-            return (NetworkMessage) in.readObject();
-
+        try {
+            return ServerConnection.getDefault().send(command, data);
         } catch (Exception e) {
             System.err.println("네트워크 오류: " + e.getMessage());
             return new NetworkMessage(false, "통신 오류", null);
@@ -133,6 +132,15 @@ public class ReservationController {
         return sendRequest("RES_SAVE", data).isSuccess();
     }
 
+    /**
+     * 빈 방 확인과 예약 저장을 서버에서 한 번에 처리합니다. (RES_BOOK)
+     * 조회 후 확정 사이에 다른 사람이 같은 방을 먼저 예약했다면 저장하지 않고 실패를 돌려줍니다.
+     * @return 서버 응답 (성공 시 data = 예약번호, 실패 시 message로 사유 구분)
+     */
+    public NetworkMessage bookReservation(Map<String, Object> data) {
+        return sendRequest("RES_BOOK", data);
+    }
+
     public String[] searchReservation(String name, String phoneNumber) {
         NetworkMessage res = sendRequest("RES_SEARCH", name + "," + phoneNumber);
         if (res.isSuccess() && res.getData() instanceof String[]) {
@@ -143,13 +151,33 @@ public class ReservationController {
 
     public String[] getReservationDetailsById(String reservationId) {
         // ⭐ [CRITICAL FIX] res 변수 선언 누락 수정
-        NetworkMessage res = sendRequest("RES_GET_BY_ID", reservationId);
-        if (res.isSuccess()) return (String[]) res.getData();
+        // 행과 함께 받은 버전은 기억해 두었다가 상태 변경 요청에 같이 보냄 (그 사이 다른 단말에서 바뀌었으면 거절됨)
+        NetworkMessage res = sendRequest("RES_GET_VERSIONED", reservationId);
+        if (res.isSuccess() && res.getData() instanceof Map) {
+            Map<String, Object> versioned = (Map<String, Object>) res.getData();
+            seenVersions.put(reservationId, ((Number) versioned.get("version")).longValue());
+            return (String[]) versioned.get("row");
+        }
         return null;
     }
 
-    public boolean updateReservationStatus(String reservationId, String newStatus) {
-        return sendRequest("RES_UPDATE_STATUS", reservationId + "," + newStatus).isSuccess();
+    /** 회원 ID로 해당 회원의 예약 목록을 조회합니다. (파일 순서) */
+    public List<String[]> getReservationsByUserId(String userId) {
+        NetworkMessage res = sendRequest("RES_GET_BY_USER", userId);
+        if (res.isSuccess() && res.getData() instanceof List) return (List<String[]>) res.getData();
+        return new ArrayList<>();
+    }
+
+    /**
+     * 예약 상태를 바꿉니다. getReservationDetailsById로 조회한 뒤라면 그때의 버전을 같이 보내므로,
+     * 그 사이 다른 단말에서 먼저 바뀌었으면 STALE로 실패합니다. (다시 조회 후 재시도)
+     */
+    public UpdateResult updateReservationStatus(String reservationId, String newStatus) {
+        // 한 번 쓴 버전은 버림 (성공하면 서버 버전이 바뀌므로 다음 변경 전에 다시 조회)
+        Long version = seenVersions.remove(reservationId);
+        String data = reservationId + "," + newStatus + "," + ((version == null) ? VersionClock.ANY : version);
+        NetworkMessage res = sendRequest("RES_UPDATE_STATUS", data);
+        return UpdateResult.of(res.isSuccess(), res.getMessage());
     }
 
     public List<String> getBookedRooms(String checkInStr, String checkOutStr) {
@@ -158,32 +186,46 @@ public class ReservationController {
         return new ArrayList<>();
     }
 
+    /**
+     * 여러 날짜 빈 방 검색: fromStr부터 days일 동안, 각 날짜에 체크인해서 nights박 가능한 객실을 한 번에 조회합니다.
+     * @param grade 객실 등급 (null이면 전체 객실)
+     * @return 체크인일("yyyy-MM-dd", 날짜순) -> 가능한 객실 번호 목록 (없으면 빈 목록)
+     */
+    public Map<String, List<String>> findAvailability(String grade, String fromStr, int days, int nights) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("grade", grade);
+        data.put("from", fromStr);
+        data.put("days", days);
+        data.put("nights", nights);
+        NetworkMessage res = sendRequest("RES_FIND_AVAILABILITY", data);
+        if (res.isSuccess() && res.getData() instanceof Map) return (Map<String, List<String>>) res.getData();
+        return new LinkedHashMap<>();
+    }
+
+    /**
+     * [fromStr, toStr) 기간의 날짜별 예약된 객실 목록을 한 번에 조회합니다.
+     * @return "yyyy-MM-dd" -> 그 날 밤 예약된 객실 번호 목록 (날짜순)
+     */
+    public Map<String, List<String>> getBookedRoomsByNight(String fromStr, String toStr) {
+        NetworkMessage res = sendRequest("RES_GET_BOOKED_RANGE", fromStr + "," + toStr);
+        if (res.isSuccess() && res.getData() instanceof Map) return (Map<String, List<String>>) res.getData();
+        return new LinkedHashMap<>();
+    }
+
     public boolean validateReservationAndCheckIn(String lastSixDigits, String inputRoomNumber) {
         return sendRequest("RES_VALIDATE_CHECKIN", lastSixDigits + "," + inputRoomNumber).isSuccess();
     }
 
     public long getRoomCharge(String[] reservationData) {
-        if (reservationData.length > RES_IDX_TOTAL_PRICE) {
-            try {
-                return Long.parseLong(reservationData[RES_IDX_TOTAL_PRICE].replaceAll("[^0-9]", ""));
-            } catch (Exception e) { return 0; }
-        }
-        return 0;
+        return Reservation.of(reservationData).totalPrice();
     }
 
     // ==========================================================
     // [추가] 파일에 저장된 지연 요금을 가져오는 메서드 (보고서용)
     // ==========================================================
     public int getSavedLateFee(String[] reservationData) { // <--- NEW METHOD
-        // 데이터 길이가 인덱스보다 커야만 읽을 수 있음 (옛날 데이터나 체크인 상태 대비)
-        if (reservationData.length > RES_IDX_LATE_FEE) {
-            try {
-                return Integer.parseInt(reservationData[RES_IDX_LATE_FEE].trim());
-            } catch (NumberFormatException e) {
-                return 0;
-            }
-        }
-        return 0; // 지연료 정보가 없으면 0원
+        // 지연료 칸이 없거나(옛날 데이터, 체크인 상태) 숫자가 아니면 0원
+        return (int) Reservation.of(reservationData).lateFee();
     }
 
     // ==========================================================
@@ -216,10 +258,7 @@ public class ReservationController {
         String checkInDateStr = resData[RES_IDX_CHECKIN_DATE];
         String scheduledCheckoutStr = resData[RES_IDX_SCHED_CHECKOUT_DATE];
 
-        long roomPrice = 0;
-        try {
-            roomPrice = Long.parseLong(resData[RES_IDX_TOTAL_PRICE].replaceAll("[^0-9]", ""));
-        } catch (Exception e) { roomPrice = 0; }
+        long roomPrice = Reservation.of(resData).totalPrice();
 
         // 현재 시간(실제 체크아웃)
         LocalDateTime now = LocalDateTime.now();
@@ -1,23 +1,19 @@
 package hms.controller;
 
+import hms.model.RoomDataManager;
+import hms.model.UpdateResult;
 import hms.network.NetworkMessage;
-import java.io.*;
-import java.net.Socket;
+import hms.network.ServerConnection;
 import java.util.*;
 
 public class RoomController {
-    // 🔧 문제 원인 해결: 110.46.46.92 → 127.0.0.1
-    private final String SERVER_IP = "127.0.0.1";
-    private final int SERVER_PORT = 5000;
+    // getAllRooms 행의 버전 칸 (updateRoom에 같이 보냄)
+    public static final int ROOM_IDX_VERSION = RoomDataManager.IDX_VERSION;
 
-    // 공통 전송 메소드
+    // 공통 전송 메소드 (서버 주소는 ServerConnection에서 관리)
     private NetworkMessage send(String cmd, Object data) {
-        try (Socket s = new Socket(SERVER_IP, SERVER_PORT);
-             ObjectOutputStream out = new ObjectOutputStream(s.getOutputStream());
-             ObjectInputStream in = new ObjectInputStream(s.getInputStream())) {
-            out.writeObject(new NetworkMessage(cmd, data));
-            out.flush();
-            return (NetworkMessage) in.readObject();
+        try {
+            return ServerConnection.getDefault().send(cmd, data);
         } catch (Exception e) {
             return new NetworkMessage(false, "통신오류", null);
         }
@@ -38,13 +34,16 @@ public class RoomController {
     }
 
     // [핵심 수정] 사유(reason) 파라미터 추가
-    public boolean updateRoom(String roomNum, String grade, int price, String reason) {
+    // version: getAllRooms 행의 버전 칸 값. 그 사이 다른 단말에서 수정됐으면 STALE
+    public UpdateResult updateRoom(String roomNum, String grade, int price, String reason, long version) {
         Map<String, Object> data = new HashMap<>();
         data.put("roomNum", roomNum);
         data.put("grade", grade);
         data.put("price", price);
         data.put("reason", reason); // ⭐ 서버로 사유 전송
-        return send("ROOM_UPDATE", data).isSuccess();
+        data.put("version", version);
+        NetworkMessage res = send("ROOM_UPDATE", data);
+        return UpdateResult.of(res.isSuccess(), res.getMessage());
     }
 
     public boolean deleteRoom(String roomNum) {
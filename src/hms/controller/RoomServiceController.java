@@ -1,26 +1,58 @@
 package hms.controller;
 
 import hms.network.NetworkMessage;
-import java.io.*;
-import java.net.Socket;
+import hms.network.ServerConnection;
+
+import java.io.Closeable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class RoomServiceController {
-    private final String SERVER_IP = "127.0.0.1";
-    private final int SERVER_PORT = 5000;
+
+    /** 주문 실시간 알림 수신 (백그라운드 스레드에서 호출되므로 화면 갱신은 EDT로 넘길 것) */
+    public interface OrderFeedListener {
+        /** 주문이 새로 생기거나 상태가 바뀜 (변경 후 주문 행) */
+        void orderChanged(String[] order);
+
+        /** 서버 연결이 끊김 (다시 구독하면 전체 목록부터 새로 받음) */
+        void feedClosed();
+    }
+
+    /** 메뉴 주문 화면 첫 로딩에 필요한 데이터 */
+    public static final class MenuScreen {
+        public final List<String> categories;
+        public final List<String[]> menu;
+
+        MenuScreen(List<String> categories, List<String[]> menu) {
+            this.categories = categories;
+            this.menu = menu;
+        }
+    }
 
     private NetworkMessage send(String cmd, Object data) {
-        try (Socket s = new Socket(SERVER_IP, SERVER_PORT);
-             ObjectOutputStream out = new ObjectOutputStream(s.getOutputStream());
-             ObjectInputStream in = new ObjectInputStream(s.getInputStream())) {
-            out.writeObject(new NetworkMessage(cmd, data));
-            out.flush();
-            return (NetworkMessage) in.readObject();
+        try {
+            return ServerConnection.getDefault().send(cmd, data);
         } catch (Exception e) {
             return new NetworkMessage(false, "통신오류", null);
         }
     }
 
+    // 응답을 기다리지 않고 보냄 (실패 시 통신오류 메시지로 끝남)
+    private CompletableFuture<NetworkMessage> sendAsync(String cmd, Object data) {
+        return ServerConnection.getDefault().sendAsync(cmd, data)
+                .exceptionally(e -> new NetworkMessage(false, "통신오류", null));
+    }
+
+    /** 카테고리 목록 + 전체 메뉴를 한 번에 요청해서 받음 (왕복 1회) */
+    public MenuScreen loadMenuScreen() {
+        CompletableFuture<NetworkMessage> categories = sendAsync("RS_GET_CATEGORIES", null);
+        CompletableFuture<NetworkMessage> menu = sendAsync("RS_GET_ALL_MENU", null);
+        NetworkMessage c = categories.join();
+        NetworkMessage m = menu.join();
+        return new MenuScreen(c.isSuccess() ? (List<String>) c.getData() : new ArrayList<>(),
+                m.isSuccess() ? (List<String[]>) m.getData() : new ArrayList<>());
+    }
+
     public List<String> getAllCategories() {
         NetworkMessage res = send("RS_GET_CATEGORIES", null);
         return res.isSuccess() ? (List<String>) res.getData() : new ArrayList<>();
@@ -77,6 +109,34 @@ public class RoomServiceController {
         return res.isSuccess() ? (List<String[]>) res.getData() : new ArrayList<>();
     }
 
+    /**
+     * 객실의 미결제 룸서비스 청구 내역 (체크아웃 정산용)
+     * @return {"charges": List<String[]> (각 {주문번호, 시각, 품목, 금액}), "total": Long}, 실패 시 null
+     */
+    public Map<String, Object> getRoomFolio(String room) {
+        NetworkMessage res = send("RS_GET_ROOM_FOLIO", room);
+        return res.isSuccess() ? (Map<String, Object>) res.getData() : null;
+    }
+
+    /**
+     * 주문 실시간 알림을 구독합니다. (RS_SUBSCRIBE, 전용 연결)
+     * @param initialOrders 구독 시점의 전체 주문을 채워 받을 목록
+     * @return 구독 해제용 핸들, 서버가 지원하지 않거나 연결 실패 시 null
+     */
+    public Closeable subscribeOrders(List<String[]> initialOrders, OrderFeedListener listener) {
+        try {
+            ServerConnection.Subscription sub = ServerConnection.getDefault().subscribe("RS_SUBSCRIBE", null, msg -> {
+                if (msg.getData() instanceof String[]) listener.orderChanged((String[]) msg.getData());
+                // 그 외(PING)는 연결 확인용
+            }, listener::feedClosed);
+            if (!sub.getInitial().isSuccess()) return null;
+            initialOrders.addAll((List<String[]>) sub.getInitial().getData());
+            return sub;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public boolean updateRequestStatus(String id, String status) {
         return send("RS_UPDATE_REQ_STATUS", id + "," + status).isSuccess();
     }
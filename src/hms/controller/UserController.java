@@ -1,31 +1,19 @@
 package hms.controller;
 
+import hms.model.UpdateResult;
 import hms.model.User;
 import hms.network.NetworkMessage;
-import java.io.*;
-import java.net.Socket;
+import hms.network.ServerConnection;
 import java.util.List;
 
 public class UserController {
 
     private User currentlyLoggedInUser = null;
-    private String serverIp = "127.0.0.1"; // 서버 IP
-    private int serverPort = 5000;
-
     // 통신 헬퍼 메소드 (sendRequest)
     private NetworkMessage sendRequest(String command, Object data) {
-        // 소켓 생성 및 서버 연결(IP, Port)
-        try (Socket socket = new Socket(serverIp, serverPort);
-             // 출력 스트림 생성
-             ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-             //입력 스트림 생성
-             ObjectInputStream in = new ObjectInputStream(socket.getInputStream())) {
-            //객체 전송
-            out.writeObject(new NetworkMessage(command, data));
-            out.flush();
-            //응답 수신
-            return (NetworkMessage) in.readObject();
-
+        // 공용 연결 풀에서 연결을 빌려 요청 전송 + 응답 수신 (서버 주소/재연결은 ServerConnection 담당)
+        try {
+            return ServerConnection.getDefault().send(command, data);
         } catch (Exception e) { // 예외 처리
             System.err.println("서버 통신 오류: " + e.getMessage());
             return new NetworkMessage(false, "통신 오류", null);
@@ -123,16 +111,17 @@ public class UserController {
     }
 
     // ⭐ 6. [추가 기능] 관리자 권한으로 사용자 정보 수정 (EditUserDialog 지원) ⭐
-    public boolean updateUserByAdmin(User updatedUser) {
+    // updatedUser에 조회 때 받은 버전을 담아 보내면, 그 사이 다른 곳에서 수정된 경우 STALE
+    public UpdateResult updateUserByAdmin(User updatedUser) {
         try {
             // ⭐ HMSServer의 USER_UPDATE_ADMIN 명령에 맞춤
             NetworkMessage response = sendRequest("USER_UPDATE_ADMIN", updatedUser);
-            return response.isSuccess();
+            return UpdateResult.of(response.isSuccess(), response.getMessage());
 
         } catch (Exception e) {
             System.err.println("관리자 수정 요청 중 오류 발생: " + e.getMessage());
         }
-        return false;
+        return UpdateResult.FAILED;
     }
 
     /**
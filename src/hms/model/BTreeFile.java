@@ -0,0 +1,591 @@
+package hms.model;
+
+import hms.util.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 페이지 단위 B+트리 파일 (키 long -> 값 byte[], 파일 하나)
+ * - 페이지는 PAGE_SIZE(8KB) 고정, 페이지 끝 4바이트에 CRC32. 읽을 때 맞지 않으면 손상으로 보고 IOException.
+ * - 바뀐 페이지는 제자리에 덮어쓰지 않고 파일 끝에 새로 씁니다. (copy-on-write)
+ *   commit = 새 페이지 쓰기 -> fsync -> 헤더(새 루트 위치) 쓰기 -> fsync
+ *   헤더는 0/1번 페이지에 번갈아 쓰므로, 도중에 멈춰도 마지막으로 끝난 commit 상태로 열립니다.
+ * - 버려진 옛 페이지가 살아 있는 페이지의 VACUUM_RATIO배를 넘으면 살아 있는 데이터만 새 파일로 옮깁니다. (vacuum)
+ *   vacuum은 별도 스레드에서 돌고 commit의 성공/실패와 상관없습니다. (실패하면 기존 파일을 계속 쓰고 다음 commit 때 다시 시도)
+ * - 삭제로 덜 찬 페이지는 합치지 않습니다. (비면 부모에서 빼고, 나머지는 vacuum 때 정리)
+ * - commit 사이에는 바뀐 경로의 페이지만 메모리에 두고, commit 후에는 모두 내려놓습니다. (다음 변경 때 필요한 페이지만 다시 읽음)
+ * - 메서드는 모두 synchronized (호출 순서대로 한 번에 하나씩)
+ */
+final class BTreeFile implements Closeable {
+
+    static final int PAGE_SIZE = 8192;
+    /** 값 하나의 최대 길이 (페이지를 반으로 나누면 항상 들어가도록) */
+    static final int MAX_VALUE = 4000;
+
+    private static final long MAGIC = 0x484D5342_54524545L; // "HMSBTREE"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 60;
+    private static final long NO_PAGE = -1;
+    private static final long FIRST_DATA_PAGE = 2;
+
+    private static final byte LEAF = 1;
+    private static final byte BRANCH = 2;
+    private static final int NODE_HEADER = 3;                 // 종류(1) + 개수(2)
+    private static final int NODE_LIMIT = PAGE_SIZE - 4;      // CRC 앞까지
+    private static final int LEAF_ENTRY_OVERHEAD = 12;        // 키(8) + 길이(4)
+    private static final int MAX_BRANCH_KEYS = (NODE_LIMIT - NODE_HEADER - 8) / 16;
+
+    private static final int VACUUM_RATIO = 3;
+    private static final long VACUUM_MIN_PAGES = 1024;        // 8MB 미만이면 정리하지 않음
+
+    /** 키/값을 순서대로 받는 쪽 */
+    interface EntryVisitor {
+        void entry(long key, byte[] value) throws IOException;
+    }
+
+    /** 메모리에 올린 노드 (페이지 하나) */
+    private static final class Node {
+        long page = NO_PAGE;            // 디스크 위치 (NO_PAGE = 아직 쓰지 않은 새 노드)
+        final boolean leaf;
+        final List<Long> keys = new ArrayList<>();
+        final List<byte[]> values;      // 잎 노드
+        final List<Long> childPages;    // 가지 노드 (자식 수 = 키 수 + 1)
+        final List<Node> children;      // 가지 노드: 읽어 둔 자식 (null = 아직 안 읽음)
+        boolean dirty;
+        int bytes = NODE_HEADER;        // 잎 노드 직렬화 크기
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+            this.values = leaf ? new ArrayList<>() : null;
+            this.childPages = leaf ? null : new ArrayList<>();
+            this.children = leaf ? null : new ArrayList<>();
+        }
+    }
+
+    /** 노드가 둘로 나뉜 결과 */
+    private static final class Split {
+        final long separator;   // 오른쪽 노드의 가장 작은 키
+        final Node right;
+
+        Split(long separator, Node right) {
+            this.separator = separator;
+            this.right = right;
+        }
+    }
+
+    private final Path path;
+    private final long vacuumMinPages;
+    private FileChannel channel;
+    private volatile boolean closed;
+
+    // 마지막 commit 상태 (헤더)
+    private long txn;
+    private long rootPage;
+    private long pageCount;     // 다음에 쓸 페이지 번호
+    private long livePages;
+    private long entries;
+
+    // commit 전 변경 중인 트리 (null이면 rootPage를 그대로 사용)
+    private Node root;
+    private boolean changed;
+
+    // vacuum 중 바뀐 키 (옮긴 뒤 다시 맞춤, null이면 vacuum 중이 아님)
+    private Set<Long> vacuumTouched;
+    private Thread vacuumThread;
+
+    BTreeFile(Path path) throws IOException {
+        this(path, VACUUM_MIN_PAGES);
+    }
+
+    /** @param vacuumMinPages 파일이 이 페이지 수를 넘어야 vacuum (Long.MAX_VALUE면 하지 않음) */
+    BTreeFile(Path path, long vacuumMinPages) throws IOException {
+        this.path = path;
+        this.vacuumMinPages = vacuumMinPages;
+        open();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            txn = 0;
+            rootPage = NO_PAGE;
+            pageCount = FIRST_DATA_PAGE;
+            livePages = 0;
+            entries = 0;
+            writeHeader();
+            channel.force(true);
+            return;
+        }
+        loadHeader();
+    }
+
+    /** 두 헤더 칸 중 온전하고 더 최근인 것을 읽음 (= 마지막으로 끝난 commit) */
+    private void loadHeader() throws IOException {
+        ByteBuffer a = readHeader(0);
+        ByteBuffer b = readHeader(1);
+        ByteBuffer h = (a == null) ? b : (b == null) ? a : (a.getLong(16) >= b.getLong(16) ? a : b);
+        if (h == null) throw new IOException("저장소 헤더 손상: " + path);
+        txn = h.getLong(16);
+        rootPage = h.getLong(24);
+        pageCount = h.getLong(32);
+        livePages = h.getLong(40);
+        entries = h.getLong(48);
+    }
+
+    /** 헤더 칸 하나를 읽어 검사 (깨졌으면 null) */
+    private ByteBuffer readHeader(int slot) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(buf, (long) slot * PAGE_SIZE);
+        if (buf.position() < HEADER_SIZE) return null;
+        if (buf.getLong(0) != MAGIC || buf.getInt(8) != VERSION || buf.getInt(12) != PAGE_SIZE) return null;
+        if (buf.getInt(56) != crc(buf.array(), 0, 56)) return null;
+        return buf;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE);
+        buf.putLong(0, MAGIC).putInt(8, VERSION).putInt(12, PAGE_SIZE)
+                .putLong(16, txn).putLong(24, rootPage).putLong(32, pageCount)
+                .putLong(40, livePages).putLong(48, entries);
+        buf.putInt(56, crc(buf.array(), 0, 56));
+        writeFully(buf, (txn % 2) * PAGE_SIZE);
+    }
+
+    synchronized long size() {
+        return entries;
+    }
+
+    // ==========================================================
+    // 조회
+    // ==========================================================
+    synchronized byte[] get(long key) throws IOException {
+        Node n = root();
+        while (n != null && !n.leaf) n = child(n, childIndex(n, key));
+        if (n == null) return null;
+        int i = Collections.binarySearch(n.keys, key);
+        return (i >= 0) ? n.values.get(i) : null;
+    }
+
+    /** 마지막 commit 상태의 모든 키/값을 키 순서로 (commit하지 않은 변경은 보이지 않음) */
+    synchronized void scan(EntryVisitor visitor) throws IOException {
+        if (rootPage != NO_PAGE) scan(rootPage, visitor);
+    }
+
+    private void scan(long page, EntryVisitor visitor) throws IOException {
+        Node n = readNode(page);
+        if (n.leaf) {
+            for (int i = 0; i < n.keys.size(); i++) visitor.entry(n.keys.get(i), n.values.get(i));
+        } else {
+            for (long child : n.childPages) scan(child, visitor);
+        }
+    }
+
+    // ==========================================================
+    // 변경 (commit해야 파일에 반영)
+    // ==========================================================
+    synchronized void put(long key, byte[] value) throws IOException {
+        if (value.length > MAX_VALUE) throw new IOException("값이 너무 깁니다 (" + value.length + "바이트, 키 " + key + ")");
+        if (vacuumTouched != null) vacuumTouched.add(key);
+        Node r = root();
+        if (r == null) {
+            r = new Node(true);
+            root = r;
+        }
+        Split s = insert(r, key, value);
+        if (s != null) {
+            Node top = new Node(false);
+            top.dirty = true;
+            top.childPages.add(NO_PAGE);
+            top.children.add(r);
+            top.keys.add(s.separator);
+            top.childPages.add(NO_PAGE);
+            top.children.add(s.right);
+            root = top;
+        }
+        changed = true;
+    }
+
+    /** @return 지운 키가 있었으면 true */
+    synchronized boolean delete(long key) throws IOException {
+        if (vacuumTouched != null) vacuumTouched.add(key);
+        Node r = root();
+        if (r == null) return false;
+        int result = remove(r, key);
+        if (result == NOT_FOUND) return false;
+        if (result == EMPTIED) {
+            drop(r);
+            root = null;
+            rootPage = NO_PAGE;
+        } else {
+            // 자식이 하나만 남은 가지 루트는 한 단계 내림
+            while (!root.leaf && root.keys.isEmpty()) {
+                Node only = child(root, 0);
+                drop(root);
+                root = only;
+            }
+        }
+        changed = true;
+        return true;
+    }
+
+    private Split insert(Node n, long key, byte[] value) throws IOException {
+        markDirty(n);
+        if (n.leaf) {
+            int i = Collections.binarySearch(n.keys, key);
+            if (i >= 0) {
+                n.bytes += value.length - n.values.get(i).length;
+                n.values.set(i, value);
+            } else {
+                i = -i - 1;
+                n.keys.add(i, key);
+                n.values.add(i, value);
+                n.bytes += LEAF_ENTRY_OVERHEAD + value.length;
+                entries++;
+            }
+            return (n.bytes > NODE_LIMIT) ? splitLeaf(n, i == n.keys.size() - 1) : null;
+        }
+
+        int idx = childIndex(n, key);
+        Split s = insert(child(n, idx), key, value);
+        if (s == null) return null;
+        n.keys.add(idx, s.separator);
+        n.childPages.add(idx + 1, NO_PAGE);
+        n.children.add(idx + 1, s.right);
+        return (n.keys.size() > MAX_BRANCH_KEYS) ? splitBranch(n, idx == n.keys.size() - 1) : null;
+    }
+
+    /**
+     * @param appended 맨 끝에 추가하다가 넘친 경우: 새 항목만 오른쪽으로 보내서 왼쪽을 꽉 찬 채로 둠
+     *                 (키가 계속 커지는 추가에서 페이지가 반씩 비지 않도록)
+     */
+    private static Split splitLeaf(Node n, boolean appended) {
+        // 그 밖에는 두 쪽 중 큰 쪽이 가장 작아지는 위치에서 나눔 (값이 MAX_VALUE 이하면 양쪽 모두 한 페이지에 들어감)
+        int mid = n.keys.size() - 1;
+        int best = appended ? 0 : Integer.MAX_VALUE;
+        int left = NODE_HEADER;
+        for (int i = 1; i < n.keys.size(); i++) {
+            left += LEAF_ENTRY_OVERHEAD + n.values.get(i - 1).length;
+            int larger = Math.max(left, n.bytes - left + NODE_HEADER);
+            if (larger < best) {
+                best = larger;
+                mid = i;
+            }
+        }
+
+        Node right = new Node(true);
+        right.dirty = true;
+        for (int i = mid; i < n.keys.size(); i++) {
+            right.keys.add(n.keys.get(i));
+            right.values.add(n.values.get(i));
+            right.bytes += LEAF_ENTRY_OVERHEAD + n.values.get(i).length;
+        }
+        n.keys.subList(mid, n.keys.size()).clear();
+        n.values.subList(mid, n.values.size()).clear();
+        n.bytes -= right.bytes - NODE_HEADER;
+        return new Split(right.keys.get(0), right);
+    }
+
+    private static Split splitBranch(Node n, boolean appended) {
+        int mid = appended ? n.keys.size() - 1 : n.keys.size() / 2;
+        long separator = n.keys.get(mid);
+        Node right = new Node(false);
+        right.dirty = true;
+        right.keys.addAll(n.keys.subList(mid + 1, n.keys.size()));
+        right.childPages.addAll(n.childPages.subList(mid + 1, n.childPages.size()));
+        right.children.addAll(n.children.subList(mid + 1, n.children.size()));
+        n.keys.subList(mid, n.keys.size()).clear();
+        n.childPages.subList(mid + 1, n.childPages.size()).clear();
+        n.children.subList(mid + 1, n.children.size()).clear();
+        return new Split(separator, right);
+    }
+
+    private static final int NOT_FOUND = 0;
+    private static final int REMOVED = 1;
+    private static final int EMPTIED = 2;   // 지운 뒤 노드가 비었음 (부모에서 빼야 함)
+
+    private int remove(Node n, long key) throws IOException {
+        if (n.leaf) {
+            int i = Collections.binarySearch(n.keys, key);
+            if (i < 0) return NOT_FOUND;
+            markDirty(n);
+            n.bytes -= LEAF_ENTRY_OVERHEAD + n.values.get(i).length;
+            n.keys.remove(i);
+            n.values.remove(i);
+            entries--;
+            return n.keys.isEmpty() ? EMPTIED : REMOVED;
+        }
+
+        int idx = childIndex(n, key);
+        Node c = child(n, idx);
+        int result = remove(c, key);
+        if (result == NOT_FOUND) return NOT_FOUND;
+        markDirty(n);
+        if (result == EMPTIED) {
+            drop(c);
+            n.childPages.remove(idx);
+            n.children.remove(idx);
+            if (!n.keys.isEmpty()) n.keys.remove(idx == 0 ? 0 : idx - 1);
+            if (n.children.isEmpty()) return EMPTIED;
+        }
+        return REMOVED;
+    }
+
+    /** 키가 들어갈 자식 위치 (구분 키와 같으면 오른쪽) */
+    private static int childIndex(Node n, long key) {
+        int i = Collections.binarySearch(n.keys, key);
+        return (i >= 0) ? i + 1 : -i - 1;
+    }
+
+    private Node root() throws IOException {
+        if (root == null && rootPage != NO_PAGE) root = readNode(rootPage);
+        return root;
+    }
+
+    private Node child(Node n, int idx) throws IOException {
+        Node c = n.children.get(idx);
+        if (c == null) {
+            c = readNode(n.childPages.get(idx));
+            n.children.set(idx, c);
+        }
+        return c;
+    }
+
+    /** 바꾸기 전에 호출: 옛 페이지는 더 이상 살아 있지 않음 (commit 때 새 위치에 씀) */
+    private void markDirty(Node n) {
+        if (n.dirty) return;
+        if (n.page != NO_PAGE) livePages--;
+        n.dirty = true;
+    }
+
+    /** 트리에서 빠지는 노드 */
+    private void drop(Node n) {
+        if (!n.dirty && n.page != NO_PAGE) livePages--;
+    }
+
+    // ==========================================================
+    // commit
+    // ==========================================================
+    /** 바뀐 페이지를 쓰고 헤더를 바꿉니다. 실패하면 마지막 commit 상태로 되돌리고 IOException. */
+    synchronized void commit() throws IOException {
+        if (!changed) return;
+        try {
+            if (root != null) {
+                writeDirty(root);
+                rootPage = root.page;
+            }
+            channel.force(false);
+            txn++;
+            writeHeader();
+            channel.force(false);
+        } catch (IOException e) {
+            // 헤더를 쓰지 못했으면 파일은 이전 상태 그대로 -> 메모리도 디스크의 마지막 commit으로
+            rollback();
+            throw e;
+        }
+        root = null;
+        changed = false;
+        notifyAll(); // 파일 교체를 기다리는 vacuum
+
+        long used = pageCount - FIRST_DATA_PAGE;
+        if (vacuumTouched == null && !closed && used > vacuumMinPages && used > (long) VACUUM_RATIO * livePages) {
+            startVacuum();
+        }
+    }
+
+    /** commit하지 않은 변경을 모두 버리고 마지막 commit 상태로 되돌립니다. */
+    synchronized void rollback() throws IOException {
+        root = null;
+        changed = false;
+        notifyAll();
+        loadHeader();
+    }
+
+    /** 자식부터 (자식의 새 위치를 알아야 부모를 쓸 수 있음) */
+    private void writeDirty(Node n) throws IOException {
+        if (!n.dirty) return;
+        if (!n.leaf) {
+            for (int i = 0; i < n.children.size(); i++) {
+                Node c = n.children.get(i);
+                if (c != null && c.dirty) {
+                    writeDirty(c);
+                    n.childPages.set(i, c.page);
+                }
+            }
+        }
+        n.page = pageCount++;
+        writeFully(serialize(n), n.page * PAGE_SIZE);
+        n.dirty = false;
+        livePages++;
+    }
+
+    private static ByteBuffer serialize(Node n) {
+        ByteBuffer buf = ByteBuffer.allocate(PAGE_SIZE);
+        buf.put(n.leaf ? LEAF : BRANCH);
+        buf.putShort((short) n.keys.size());
+        if (n.leaf) {
+            for (int i = 0; i < n.keys.size(); i++) {
+                byte[] v = n.values.get(i);
+                buf.putLong(n.keys.get(i)).putInt(v.length).put(v);
+            }
+        } else {
+            buf.putLong(n.childPages.get(0));
+            for (int i = 0; i < n.keys.size(); i++) {
+                buf.putLong(n.keys.get(i)).putLong(n.childPages.get(i + 1));
+            }
+        }
+        buf.putInt(NODE_LIMIT, crc(buf.array(), 0, NODE_LIMIT));
+        buf.clear();
+        return buf;
+    }
+
+    private Node readNode(long page) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(PAGE_SIZE);
+        readFully(buf, page * PAGE_SIZE);
+        if (buf.position() < PAGE_SIZE || buf.getInt(NODE_LIMIT) != crc(buf.array(), 0, NODE_LIMIT)) {
+            throw new IOException("저장소 페이지 손상: " + path + " #" + page);
+        }
+        buf.flip();
+        byte type = buf.get();
+        int count = buf.getShort() & 0xFFFF;
+        Node n = new Node(type == LEAF);
+        n.page = page;
+        if (n.leaf) {
+            for (int i = 0; i < count; i++) {
+                n.keys.add(buf.getLong());
+                byte[] v = new byte[buf.getInt()];
+                buf.get(v);
+                n.values.add(v);
+                n.bytes += LEAF_ENTRY_OVERHEAD + v.length;
+            }
+        } else {
+            n.childPages.add(buf.getLong());
+            n.children.add(null);
+            for (int i = 0; i < count; i++) {
+                n.keys.add(buf.getLong());
+                n.childPages.add(buf.getLong());
+                n.children.add(null);
+            }
+        }
+        return n;
+    }
+
+    // ==========================================================
+    // vacuum: 살아 있는 데이터만 새 파일로 옮긴 뒤 교체 (별도 스레드)
+    // - 옮기기는 잠금 없이 시작 시점의 commit 상태에서 읽습니다. (copy-on-write라 그 페이지들은 덮어쓰이지 않음)
+    // - 그동안 바뀐 키만 잠금 안에서 다시 맞춘 뒤, commit하지 않은 변경이 없을 때 파일을 바꿉니다.
+    // ==========================================================
+    private void startVacuum() {
+        long snapshot = rootPage;
+        vacuumTouched = new HashSet<>();
+        vacuumThread = new Thread(() -> vacuum(snapshot), "hms-btree-vacuum");
+        vacuumThread.setDaemon(true);
+        vacuumThread.start();
+    }
+
+    private void vacuum(long snapshot) {
+        Path tmp = Paths.get(path + ".tmp");
+        try {
+            Files.deleteIfExists(tmp);
+            // try-with-resources 대신 finally: 교체 전에 잠금 안에서 먼저 닫아야 하므로 (close는 두 번 불러도 됨)
+            BTreeFile out = new BTreeFile(tmp, Long.MAX_VALUE);
+            try {
+                final int[] batch = {0};
+                if (snapshot != NO_PAGE) {
+                    scan(snapshot, (key, value) -> {
+                        out.put(key, value);
+                        // 메모리에 쌓이지 않도록 중간중간 commit (키 순서로 넣으므로 버려지는 페이지는 오른쪽 끝 경로뿐)
+                        if (++batch[0] % 20_000 == 0) out.commit();
+                    });
+                }
+                synchronized (this) {
+                    while (changed && !closed) wait();
+                    if (closed) return;
+                    for (long key : vacuumTouched) {
+                        byte[] value = get(key);
+                        if (value == null) out.delete(key);
+                        else out.put(key, value);
+                    }
+                    out.commit();
+                    out.close();
+                    replaceWith(tmp);
+                }
+            } finally {
+                out.close();
+            }
+            Log.info("저장소", "vacuum 완료", "file", path);
+        } catch (IOException | RuntimeException e) {
+            if (!closed) Log.error("저장소", "vacuum 실패 - 기존 파일 계속 사용", e, "file", path);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {}
+            synchronized (this) {
+                vacuumTouched = null; // 이후 commit에서 다시 시작할 수 있음 (임시 파일을 지운 뒤에)
+            }
+        }
+    }
+
+    /** 옮긴 파일로 교체 (잠금 안, commit하지 않은 변경이 없을 때). 실패하면 원래 파일을 다시 엶 */
+    private void replaceWith(Path tmp) throws IOException {
+        root = null; // 조회로 읽어 둔 옛 파일의 루트
+        channel.close();
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            open();
+        }
+    }
+
+    /** 진행 중인 vacuum이 끝날 때까지 기다립니다. */
+    void awaitVacuum() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = vacuumThread;
+        }
+        if (t != null) t.join();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        notifyAll();
+        channel.close();
+    }
+
+    // ==========================================================
+    // 파일 입출력
+    // ==========================================================
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) break;
+        }
+    }
+
+    private void writeFully(ByteBuffer buf, long position) throws IOException {
+        long pos = position;
+        while (buf.hasRemaining()) pos += channel.write(buf, pos);
+    }
+
+    private static int crc(byte[] b, int off, int len) {
+        CRC32 crc = new CRC32();
+        crc.update(b, off, len);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,92 @@
+package hms.model;
+
+import hms.util.Log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * B+트리 파일에 저장 (hms.storage=btree)
+ * - data/xxx.txt -> data/xxx.db, 값 = 줄(UTF-8)
+ * - append는 한 행 put 후 바로 commit, checkpoint는 바뀐 행만 put/delete 후 한 번 commit
+ *   (행 수가 늘어도 변경 한 번에 쓰는 양은 바뀐 행이 든 페이지 수에 비례)
+ * - .db가 없으면 처음 열 때 .txt의 모든 줄(빈 줄 포함)을 줄 번호를 키로 옮겨 옵니다.
+ *   임시 파일(.db.tmp)에 다 쓴 뒤 이름을 바꾸므로, 도중에 멈추면 다음 시작 때 처음부터 다시 옮깁니다.
+ */
+final class BTreeRowRepository implements RowRepository {
+
+    private static final int MIGRATE_COMMIT_ROWS = 10_000;
+
+    private final BTreeFile file;
+
+    private BTreeRowRepository(BTreeFile file) {
+        this.file = file;
+    }
+
+    static BTreeRowRepository open(String textPath) throws IOException {
+        Path text = Paths.get(textPath);
+        Path db = Paths.get(textPath.endsWith(".txt") ? textPath.substring(0, textPath.length() - 4) + ".db" : textPath + ".db");
+        if (!Files.exists(db)) migrate(text, db);
+        return new BTreeRowRepository(new BTreeFile(db));
+    }
+
+    /** .txt -> .db 한 번 옮기기 */
+    private static void migrate(Path text, Path db) throws IOException {
+        Path tmp = Paths.get(db + ".tmp");
+        Files.deleteIfExists(tmp);
+        long rows = 0;
+        try (BTreeFile out = new BTreeFile(tmp)) {
+            if (Files.exists(text)) {
+                try (BufferedReader br = Files.newBufferedReader(text, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        out.put(rows++, line.getBytes(StandardCharsets.UTF_8));
+                        if (rows % MIGRATE_COMMIT_ROWS == 0) out.commit();
+                    }
+                }
+            }
+            out.commit();
+        }
+        Files.move(tmp, db, StandardCopyOption.ATOMIC_MOVE);
+        Log.info("저장소", "텍스트 파일을 B-트리 파일로 옮김", "from", text, "to", db, "rows", rows);
+    }
+
+    @Override
+    public void load(RowVisitor visitor) throws IOException {
+        file.scan((key, value) -> visitor.row(key, ChunkedLineReader.split(value, value.length)));
+    }
+
+    @Override
+    public synchronized void append(long key, String line) throws IOException {
+        file.put(key, line.getBytes(StandardCharsets.UTF_8));
+        file.commit();
+    }
+
+    @Override
+    public synchronized void checkpoint(Map<Long, String> changed, Supplier<List<String>> all) throws IOException {
+        if (changed.isEmpty()) return;
+        try {
+            for (Map.Entry<Long, String> e : changed.entrySet()) {
+                if (e.getValue() == null) file.delete(e.getKey());
+                else file.put(e.getKey(), e.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            file.rollback();
+            throw e;
+        }
+        file.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
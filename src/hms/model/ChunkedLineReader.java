@@ -0,0 +1,125 @@
+package hms.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 쉼표 구분 데이터 파일을 구간씩 읽는 도구 (서버 시작 시 큰 파일 로드용)
+ * - FileChannel.read로 READ_CHUNK씩 버퍼 하나에 채워 가며, 바이트에서 줄 끝/쉼표 위치를 직접 찾고 칸마다 한 번만 문자열로 만듭니다.
+ *   (BufferedReader.readLine + split처럼 줄 문자열을 만든 뒤 다시 잘라내지 않음)
+ * - 메모리 매핑은 쓰지 않습니다. 매핑은 채널을 닫아도 GC 전까지 남아서, Windows에서는 그동안 같은 파일을
+ *   checkpoint(임시 파일 -> 원본 교체)로 바꿀 수 없기 때문입니다. 읽기가 끝나면 파일에 남는 것이 없습니다.
+ * - 결과는 line.split(",", -1)과 같습니다: 빈 칸 유지, 빈 줄은 {""}
+ * - 줄 끝은 \n, \r, \r\n 모두 인정하고, 마지막 줄에 줄바꿈이 없어도 읽습니다. (BufferedReader.readLine과 동일)
+ * - 파일은 UTF-8로 읽습니다.
+ */
+final class ChunkedLineReader {
+
+    /** 한 줄씩 받는 쪽 */
+    interface LineHandler {
+        void line(String[] fields);
+    }
+
+    private static final long READ_CHUNK = 1L << 20; // 1MB
+    private static final int MAX_BUFFER = Integer.MAX_VALUE - 8;
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte COMMA = ',';
+
+    private ChunkedLineReader() {}
+
+    /**
+     * 파일의 모든 줄을 순서대로 handler에 넘깁니다.
+     * @return 읽은 줄 수
+     */
+    static int forEachLine(Path path, LineHandler handler) throws IOException {
+        return forEachLine(path, handler, READ_CHUNK);
+    }
+
+    /** @param chunk 버퍼 크기 (줄 하나가 더 길면 늘림, 테스트에서 구간 경계를 만들 때 작게 줌) */
+    static int forEachLine(Path path, LineHandler handler, long chunk) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 작은 파일에 큰 버퍼를 잡지 않도록 파일 크기까지만
+            byte[] a = new byte[(int) Math.max(1, Math.min(Math.min(chunk, ch.size()), MAX_BUFFER))];
+            ByteBuffer buf = ByteBuffer.wrap(a);
+            int lines = 0;
+            boolean eof = false;
+
+            while (true) {
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                int limit = buf.position();
+
+                int start = 0;
+                int pos = 0;
+                while (pos < limit) {
+                    byte b = a[pos];
+                    if (b != LF && b != CR) {
+                        pos++;
+                        continue;
+                    }
+                    // \r\n이 구간 경계에 걸리면 다음 구간을 채운 뒤 다시 읽음
+                    if (b == CR && pos + 1 == limit && !eof) break;
+                    handler.line(split(a, start, pos - start));
+                    lines++;
+                    pos += (b == CR && pos + 1 < limit && a[pos + 1] == LF) ? 2 : 1;
+                    start = pos;
+                }
+
+                if (eof) {
+                    if (start < limit) {
+                        handler.line(split(a, start, limit - start));
+                        lines++;
+                    }
+                    return lines;
+                }
+                if (start == 0) {
+                    // 버퍼 안에 끝나는 줄이 없음 -> 버퍼를 늘려 이어서 채움
+                    if (a.length >= MAX_BUFFER) throw new IOException("한 줄이 너무 깁니다: " + path);
+                    a = Arrays.copyOf(a, (int) Math.min((long) a.length * 2, MAX_BUFFER));
+                    buf = ByteBuffer.wrap(a);
+                    buf.position(limit);
+                    continue;
+                }
+                // 끝나지 않은 줄을 앞으로 옮기고 그 뒤를 채움
+                System.arraycopy(a, start, a, 0, limit - start);
+                buf.clear();
+                buf.position(limit - start);
+            }
+        }
+    }
+
+    /** UTF-8 한 줄(줄바꿈 없음)의 앞 len바이트를 쉼표로 나눔 (split(",", -1)과 같음) */
+    static String[] split(byte[] scratch, int len) {
+        return split(scratch, 0, len);
+    }
+
+    /** bytes[from, from + len)을 쉼표로 나눔 */
+    private static String[] split(byte[] bytes, int from, int len) {
+        int to = from + len;
+        int fields = 1;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == COMMA) fields++;
+        }
+        String[] out = new String[fields];
+        int f = 0;
+        int s = from;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == COMMA) {
+                out[f++] = new String(bytes, s, i - s, StandardCharsets.UTF_8);
+                s = i + 1;
+            }
+        }
+        out[f] = new String(bytes, s, to - s, StandardCharsets.UTF_8);
+        return out;
+    }
+}
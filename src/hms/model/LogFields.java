@@ -0,0 +1,61 @@
+package hms.model;
+
+/**
+ * 변경 기록 파일(UserJournal, RoomServiceRequestLog) 한 줄의 칸 나누기/합치기
+ * - 칸은 쉼표로 나누므로, 값 안의 '%' ',' 줄바꿈은 %25 %2C %0A %0D로 바꿔 적습니다.
+ *   (품목 "피자 x 1, 콜라 x 2"나 쉼표가 들어간 이름/비밀번호도 한 칸으로 되돌아옴)
+ * - 바꿀 글자가 없는 값은 그대로 적히므로, 예전에 쓴 기록도 같은 방법으로 읽힙니다. (값에 '%'가 없는 한)
+ */
+final class LogFields {
+
+    private LogFields() {}
+
+    static String join(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) sb.append(',');
+            escape(sb, fields[i]);
+        }
+        return sb.toString();
+    }
+
+    static String[] split(String body) {
+        String[] parts = body.split(",", -1);
+        for (int i = 0; i < parts.length; i++) parts[i] = unescape(parts[i]);
+        return parts;
+    }
+
+    private static void escape(StringBuilder sb, String s) {
+        if (s == null) return;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '%': sb.append("%25"); break;
+                case ',': sb.append("%2C"); break;
+                case '\n': sb.append("%0A"); break;
+                case '\r': sb.append("%0D"); break;
+                default: sb.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('%') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '%' && i + 2 < s.length()) {
+                String code = s.substring(i + 1, i + 3);
+                switch (code) {
+                    case "25": sb.append('%'); i += 2; continue;
+                    case "2C": sb.append(','); i += 2; continue;
+                    case "0A": sb.append('\n'); i += 2; continue;
+                    case "0D": sb.append('\r'); i += 2; continue;
+                    default: break;
+                }
+            }
+            sb.append(c); // 모르는 % 조합은 그대로 (예전 기록의 값)
+        }
+        return sb.toString();
+    }
+}
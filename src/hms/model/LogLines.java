@@ -0,0 +1,96 @@
+package hms.model;
+
+import hms.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 변경 기록 파일(ReservationChangeLog, UserJournal, RoomServiceRequestLog) 공통 줄 형식
+ * - 한 줄 = "본문,CRC32(16진수)\n". 줄바꿈까지 쓰인 줄만 완성된 기록입니다.
+ * - replay는 앞에서부터 완성되고 CRC가 맞는 줄만 넘기고, 처음 어긋난 줄에서 멈춥니다.
+ *   그 뒤는 믿을 수 없으므로 파일을 마지막 정상 줄 끝까지 잘라냅니다.
+ *   (남겨 두면 다음 기록이 끊긴 줄 뒤에 이어 붙어, 응답까지 한 기록도 다음 복구 때 함께 버려짐)
+ */
+final class LogLines {
+
+    /** CRC를 확인한 본문을 차례로 받는 쪽 */
+    interface BodyHandler {
+        void body(String body);
+    }
+
+    private LogLines() {}
+
+    /** 파일에 쓸 한 줄 (줄바꿈 포함) */
+    static String line(String body) {
+        return body + "," + crc(body) + "\n";
+    }
+
+    /** CRC가 맞으면 CRC 앞부분, 아니면(끊긴 줄 포함) null */
+    static String verifiedBody(String line) {
+        int lastComma = line.lastIndexOf(',');
+        if (lastComma < 0) return null;
+        String body = line.substring(0, lastComma);
+        return crc(body).equals(line.substring(lastComma + 1)) ? body : null;
+    }
+
+    static String crc(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * 정상 줄의 본문을 순서대로 handler에 넘기고, 손상된 꼬리는 잘라냅니다. (기록을 더 붙이기 전에 호출)
+     * @param category 로그 분류 (예: "예약")
+     * @return 넘긴 줄 수
+     */
+    static int replay(Path path, String category, BodyHandler handler) throws IOException {
+        if (!Files.exists(path)) return 0;
+
+        long good = 0;   // 마지막 정상 줄의 끝 위치
+        long size;
+        int count = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(256);
+            long pos = 0;
+            int b;
+            while ((b = in.read()) >= 0) {
+                pos++;
+                if (b != '\n') {
+                    buf.write(b);
+                    continue;
+                }
+                String line = buf.toString(StandardCharsets.UTF_8);
+                buf.reset();
+                String body = verifiedBody(line);
+                if (body == null) {
+                    Log.warn(category, "변경 기록 손상 - 이후 기록 무시", "line", line);
+                    break;
+                }
+                handler.body(body);
+                count++;
+                good = pos;
+            }
+            size = Files.size(path);
+        }
+
+        if (good < size) {
+            // 끊긴 줄(줄바꿈 없음) 또는 손상된 줄부터 끝까지 잘라냄
+            Log.warn(category, "변경 기록의 손상된 꼬리 잘라냄", "offset", good, "bytes", size - good);
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ch.truncate(good);
+                ch.force(true);
+            }
+        }
+        return count;
+    }
+}
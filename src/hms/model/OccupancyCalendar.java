@@ -0,0 +1,208 @@
+package hms.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 날짜(1박)별 객실 점유 비트맵 달력
+ * - 밤마다 BitSet 하나 (비트 = 객실), "이 날 밤 예약된 객실"을 나타냅니다.
+ * - 여러 날짜에 걸친 빈 방 검색은 "연속된 n박의 빈 방 = 각 밤 빈 방 비트맵의 AND"로 계산합니다.
+ * - 같은 방/같은 밤에 예약이 겹쳐 있을 수 있으므로 비트 대신 개수를 세고, 0보다 크면 점유로 봅니다.
+ * - 현장결제 PENDING 예약은 자동 취소 시각이 지나면 달력에서 뺍니다. (시간은 되돌아가지 않으므로 조회 시 한 번씩 정리)
+ * - ReservationStore.Listener로 등록되어 예약 추가/상태 변경 시 바로 갱신됩니다.
+ */
+class OccupancyCalendar implements ReservationStore.Listener {
+
+    /** 한 밤의 객실별 예약 수 + 점유 비트맵 */
+    private static final class Night {
+        int[] counts = new int[0];
+        final BitSet occupied = new BitSet();
+
+        void add(int slot, int delta) {
+            if (slot >= counts.length) counts = Arrays.copyOf(counts, Math.max(slot + 1, counts.length * 2));
+            counts[slot] += delta;
+            occupied.set(slot, counts[slot] > 0);
+        }
+
+        boolean isEmpty() {
+            return occupied.isEmpty();
+        }
+    }
+
+    /** 자동 취소될 수 있는 현장결제 예약 (정리 시 달력에서 빼기 위해 보관) */
+    private static final class OnsiteStay {
+        final int slot;
+        final long start;
+        final long end;
+
+        OnsiteStay(int slot, long start, long end) {
+            this.slot = slot;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof OnsiteStay)) return false;
+            OnsiteStay s = (OnsiteStay) o;
+            return slot == s.slot && start == s.start && end == s.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(slot, start, end);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 객실번호 <-> 비트 위치
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    private final TreeMap<Long, Night> nights = new TreeMap<>();
+    // 체크인일 순 현장결제 PENDING 예약 (아직 취소되지 않은 것만)
+    private final TreeMap<Long, List<OnsiteStay>> onsiteByStart = new TreeMap<>();
+    // 체크인일이 이보다 이른 현장결제 PENDING 예약은 이미 달력에서 빠져 있음
+    private long expiredBefore = Long.MIN_VALUE;
+
+    // ==========================================================
+    // 갱신 (ReservationStore 알림)
+    // ==========================================================
+    @Override
+    public void rowChanged(Reservation oldRow, Reservation newRow) {
+        lock.writeLock().lock();
+        try {
+            if (oldRow != null) apply(oldRow, -1);
+            if (newRow != null) apply(newRow, +1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Reservation row, int delta) {
+        if (!row.has(Reservation.IDX_STATUS)) return;
+        if (row.status() == ReservationStatus.CHECKED_OUT) return;
+        if (!row.hasStayDates()) return;
+
+        long in = row.checkInDay();
+        long out = row.checkOutDay();
+        int slot = slotOf(Reservation.roomKey(row.room()));
+        if (row.isOnsitePending()) {
+            if (in < expiredBefore) return; // 이미 자동 취소되어 달력에 없음
+            OnsiteStay stay = new OnsiteStay(slot, in, out);
+            if (delta > 0) {
+                onsiteByStart.computeIfAbsent(in, k -> new ArrayList<>(1)).add(stay);
+            } else {
+                List<OnsiteStay> list = onsiteByStart.get(in);
+                if (list != null) {
+                    list.remove(stay);
+                    if (list.isEmpty()) onsiteByStart.remove(in);
+                }
+            }
+        }
+        mark(slot, in, out, delta);
+    }
+
+    private void mark(int slot, long in, long out, int delta) {
+        for (long d = in; d < out; d++) {
+            Night n = nights.get(d);
+            if (n == null) {
+                if (delta < 0) continue;
+                n = new Night();
+                nights.put(d, n);
+            }
+            n.add(slot, delta);
+            if (n.isEmpty()) nights.remove(d);
+        }
+    }
+
+    private int slotOf(String room) {
+        Integer slot = slots.get(room);
+        if (slot == null) {
+            slot = slots.size();
+            slots.put(room, slot);
+        }
+        return slot;
+    }
+
+    /** 자동 취소 시각이 지난 현장결제 예약을 달력에서 뺌 (쓰기 잠금이 필요할 때만 잡음) */
+    private void expireOnsite(long cancelledBefore) {
+        lock.readLock().lock();
+        try {
+            if (cancelledBefore <= expiredBefore) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (cancelledBefore <= expiredBefore) return;
+            SortedMap<Long, List<OnsiteStay>> expired = onsiteByStart.headMap(cancelledBefore);
+            for (List<OnsiteStay> list : expired.values()) {
+                for (OnsiteStay s : list) mark(s.slot, s.start, s.end, -1);
+            }
+            expired.clear();
+            expiredBefore = cancelledBefore;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // 조회
+    // ==========================================================
+    /**
+     * 체크인 후보일마다 n박 연속으로 비어 있는 객실 목록
+     * @param rooms  검색 대상 객실 (예: 한 등급의 객실들)
+     * @param from   첫 체크인 후보일
+     * @param days   후보일 수 (from ~ from + days - 1)
+     * @param stayNights 숙박일수 (1 이상)
+     * @return 체크인일("yyyy-MM-dd", 날짜순) -> 그 날부터 n박 가능한 객실 번호 (입력 순서)
+     */
+    Map<String, List<String>> findAvailability(List<String> rooms, LocalDate from, int days, int stayNights,
+                                               LocalDate today, LocalTime now) {
+        expireOnsite(RoomAvailabilityIndex.cancelledBefore(today, now));
+
+        long start = from.toEpochDay();
+        int span = days + stayNights - 1;
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        if (days <= 0 || stayNights <= 0) return result;
+
+        lock.readLock().lock();
+        try {
+            // 검색 대상 객실 비트맵 (달력에 한 번도 나오지 않은 객실은 항상 비어 있음)
+            BitSet target = new BitSet();
+            for (String room : rooms) {
+                Integer slot = slots.get(Reservation.roomKey(room));
+                if (slot != null) target.set(slot);
+            }
+
+            // 밤마다 빈 방 = 대상 & ~점유
+            BitSet[] free = new BitSet[span];
+            for (int i = 0; i < span; i++) {
+                BitSet f = (BitSet) target.clone();
+                Night n = nights.get(start + i);
+                if (n != null) f.andNot(n.occupied);
+                free[i] = f;
+            }
+
+            for (int i = 0; i < days; i++) {
+                BitSet avail = (BitSet) free[i].clone();
+                for (int k = 1; k < stayNights && !avail.isEmpty(); k++) avail.and(free[i + k]);
+
+                List<String> list = new ArrayList<>();
+                for (String room : rooms) {
+                    Integer slot = slots.get(Reservation.roomKey(room));
+                    if (slot == null || avail.get(slot)) list.add(room);
+                }
+                result.put(LocalDate.ofEpochDay(start + i).toString(), list);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+}
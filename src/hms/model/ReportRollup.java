@@ -0,0 +1,193 @@
+package hms.model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.*;
+
+/**
+ * 보고서(REPORT_GENERATE)용 일별 집계
+ * - 예약/룸서비스 주문이 바뀔 때마다 날짜별 칸(bucket)에 더하고 빼서, 보고서는 기간 내 칸만 합산합니다.
+ * - 기존 보고서 계산 규칙과 결과가 같도록 나눠 담습니다.
+ *   · 객실/지연료 매출: 기간 [S, E]와 겹치는(rIn <= E, rOut >= S) 예약의 금액 전체
+ *       = 체크인일이 [S, E]인 예약(체크인일 칸) + 체크인일 < S <= 체크아웃일인 예약(S 날짜의 이월 칸)
+ *   · 점유 객실 수: 예약 [rIn, rOut)과 [S, E]가 겹치는 밤 수 = 밤마다 투숙 중인 예약 수의 합
+ *   · 룸서비스 매출: 결제완료 주문을 주문 시각의 날짜 칸에
+ * - 날짜 형식이 이상한 행(체크아웃 < 체크인 등)은 칸에 나누지 않고 따로 두었다가 보고서 때 직접 계산합니다.
+ */
+public class ReportRollup implements ReservationStore.Listener, RoomServiceDataManager.RequestListener {
+
+    /** 기간 합계 */
+    public static final class Totals {
+        public final long roomRevenue;
+        public final long fnbRevenue;
+        public final long lateFeeRevenue;
+        public final long occupiedNights;
+
+        Totals(long roomRevenue, long fnbRevenue, long lateFeeRevenue, long occupiedNights) {
+            this.roomRevenue = roomRevenue;
+            this.fnbRevenue = fnbRevenue;
+            this.lateFeeRevenue = lateFeeRevenue;
+            this.occupiedNights = occupiedNights;
+        }
+    }
+
+    // 하루 칸의 항목 위치
+    private static final int ROOM_BY_CHECK_IN = 0;
+    private static final int ROOM_CARRY = 1;      // 이 날짜 이전에 체크인해서 이 날짜 이후(포함) 체크아웃하는 예약
+    private static final int LATE_BY_CHECK_IN = 2;
+    private static final int LATE_CARRY = 3;
+    private static final int OCCUPIED = 4;
+    private static final int FNB = 5;
+    private static final int FIELDS = 6;
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("uuuuMMdd").withResolverStyle(ResolverStyle.STRICT);
+
+    private final TreeMap<Long, long[]> days = new TreeMap<>();
+    // 칸에 나눌 수 없는 행 (기존 방식대로 보고서 때 계산)
+    private final List<Reservation> irregularReservations = new ArrayList<>();
+    private final List<String[]> irregularOrders = new ArrayList<>();
+
+    /** 어디에도 연결하지 않은 빈 집계 (rowChanged/requestChanged를 직접 불러 채움) */
+    public ReportRollup() {
+    }
+
+    /** 예약/룸서비스 데이터에 연결합니다. (이미 있는 데이터는 연결 시 한 번에 반영) */
+    public ReportRollup(ReservationDataManager resMgr, RoomServiceDataManager rsMgr) {
+        resMgr.addListener(this);
+        rsMgr.addRequestListener(this);
+    }
+
+    // ==========================================================
+    // 예약 변경
+    // ==========================================================
+    @Override
+    public synchronized void rowChanged(Reservation oldRow, Reservation newRow) {
+        if (oldRow != null) applyReservation(oldRow, -1);
+        if (newRow != null) applyReservation(newRow, +1);
+    }
+
+    private void applyReservation(Reservation r, int sign) {
+        if (r.columnCount() < 12 || !r.hasStayDates()) return; // 기간 조회에서 빠지는 행
+        long in = r.checkInDay();
+        long out = r.checkOutDay();
+        if (out < in) {
+            if (sign > 0) irregularReservations.add(r);
+            else removeReservation(irregularReservations, r);
+            return;
+        }
+
+        long room = r.roomRevenue();
+        long late = r.lateFeeRevenue();
+        if (room != 0 || late != 0) {
+            add(in, ROOM_BY_CHECK_IN, sign * room);
+            add(in, LATE_BY_CHECK_IN, sign * late);
+            for (long d = in + 1; d <= out; d++) {
+                add(d, ROOM_CARRY, sign * room);
+                add(d, LATE_CARRY, sign * late);
+            }
+        }
+        for (long d = in; d < out; d++) add(d, OCCUPIED, sign);
+    }
+
+    // ==========================================================
+    // 룸서비스 주문 변경
+    // ==========================================================
+    @Override
+    public synchronized void requestChanged(String[] oldRow, String[] newRow) {
+        if (oldRow != null) applyOrder(oldRow, -1);
+        if (newRow != null) applyOrder(newRow, +1);
+    }
+
+    private void applyOrder(String[] p, int sign) {
+        if (p.length < 6 || !p[4].trim().equals(RoomServiceDataManager.STATUS_PAID)) return;
+        long price;
+        try {
+            price = Long.parseLong(p[3]);
+            Long.parseLong(p[5].trim());
+        } catch (NumberFormatException e) {
+            return; // 기존 보고서에서도 제외되는 주문
+        }
+
+        Long day = orderDay(p[5].trim());
+        if (day == null) {
+            if (sign > 0) irregularOrders.add(p.clone());
+            else removeRow(irregularOrders, p);
+            return;
+        }
+        add(day, FNB, sign * price);
+    }
+
+    /** "yyyyMMddHHmmss" 주문 시각의 날짜 (형식이 다르면 null) */
+    private static Long orderDay(String ts) {
+        if (ts.length() != 14 || Long.parseLong(ts.substring(8)) > 235959) return null;
+        try {
+            return LocalDate.parse(ts.substring(0, 8), DAY).toEpochDay();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void removeReservation(List<Reservation> list, Reservation r) {
+        for (Iterator<Reservation> it = list.iterator(); it.hasNext(); ) {
+            if (Arrays.equals(it.next().row(), r.row())) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    private static void removeRow(List<String[]> list, String[] row) {
+        for (Iterator<String[]> it = list.iterator(); it.hasNext(); ) {
+            if (Arrays.equals(it.next(), row)) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    private void add(long day, int field, long delta) {
+        if (delta == 0) return;
+        days.computeIfAbsent(day, k -> new long[FIELDS])[field] += delta;
+    }
+
+    // ==========================================================
+    // 보고서
+    // ==========================================================
+    /** [start, end] 기간 (양 끝 포함) 합계 */
+    public synchronized Totals summarize(LocalDate start, LocalDate end) {
+        long s = start.toEpochDay();
+        long e = end.toEpochDay();
+        long room = 0, late = 0, occ = 0, fnb = 0;
+
+        if (s <= e) {
+            for (long[] b : days.subMap(s, true, e, true).values()) {
+                room += b[ROOM_BY_CHECK_IN];
+                late += b[LATE_BY_CHECK_IN];
+                occ += b[OCCUPIED];
+                fnb += b[FNB];
+            }
+        }
+        long[] first = days.get(s);
+        if (first != null) {
+            room += first[ROOM_CARRY];
+            late += first[LATE_CARRY];
+        }
+
+        for (Reservation r : irregularReservations) {
+            if (s <= r.checkOutDay() && e >= r.checkInDay()) {
+                room += r.roomRevenue();
+                late += r.lateFeeRevenue();
+            }
+        }
+
+        long startTs = Long.parseLong(start.format(DAY) + "000000");
+        long endTs = Long.parseLong(end.format(DAY) + "235959");
+        for (String[] p : irregularOrders) {
+            long ts = Long.parseLong(p[5].trim());
+            if (ts >= startTs && ts <= endTs) fnb += Long.parseLong(p[3]);
+        }
+
+        return new Totals(room, fnb, late, occ);
+    }
+}
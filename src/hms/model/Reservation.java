@@ -0,0 +1,157 @@
+package hms.model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 예약 1건 (예약 파일 한 줄)
+ * - 칸 위치(IDX_*)는 여기 한 곳에서만 정의합니다. (서버/클라이언트 공통)
+ * - 날짜/금액/상태처럼 자주 비교하는 칸은 만들 때 한 번만 숫자·enum으로 바꿔 두고,
+ *   나머지 글자 칸은 원본 그대로 둡니다. (파일로 다시 쓰면 원본과 같은 줄)
+ * - 한 번 만들면 바뀌지 않습니다. 값을 바꿀 때는 toRow()로 받은 사본을 고쳐서 새로 만듭니다.
+ * - 칸이 모자라거나 형식이 깨진 줄도 그대로 담습니다. (날짜는 NO_DATE, 금액은 0, 상태는 UNKNOWN)
+ */
+public final class Reservation {
+
+    // 칸 위치
+    public static final int IDX_ID = 0;
+    public static final int IDX_NAME = 1;
+    public static final int IDX_PHONE = 2;
+    public static final int IDX_CHECK_IN_DATE = 3;
+    public static final int IDX_CHECKOUT_DATE = 4;      // 예정 체크아웃 날짜
+    public static final int IDX_IN_TIME = 5;
+    public static final int IDX_OUT_TIME = 6;
+    public static final int IDX_GUESTS = 7;
+    public static final int IDX_GRADE = 8;
+    public static final int IDX_ROOM_NUM = 9;
+    public static final int IDX_TOTAL_PRICE = 10;
+    public static final int IDX_PAYMENT_METHOD = 11;
+    public static final int IDX_STATUS = 12;
+    public static final int IDX_CHECKOUT_TIME = 13;     // 실제 체크아웃 시각
+    public static final int IDX_USER_ID = 14;
+    public static final int IDX_LATE_FEE = 15;
+
+    public static final String PAYMENT_CARD = "카드결제";
+    public static final String PAYMENT_ONSITE = "현장결제";
+
+    /** 날짜 칸이 없거나 형식이 틀린 경우 */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private final String[] cols;
+    private final ReservationStatus status;
+    private final long checkInDay;   // epochDay
+    private final long checkOutDay;  // epochDay
+    private final long totalPrice;
+    private final long lateFee;
+
+    private Reservation(String[] cols) {
+        this.cols = cols;
+        this.status = has(IDX_STATUS) ? ReservationStatus.fromCode(cols[IDX_STATUS]) : ReservationStatus.UNKNOWN;
+        this.checkInDay = epochDay(IDX_CHECK_IN_DATE);
+        this.checkOutDay = epochDay(IDX_CHECKOUT_DATE);
+        this.totalPrice = number(IDX_TOTAL_PRICE);
+        this.lateFee = number(IDX_LATE_FEE);
+    }
+
+    /** 칸 배열로 만듭니다. (배열을 복사하지 않으므로 넘긴 뒤에는 고치지 말 것) */
+    public static Reservation of(String[] cols) {
+        return new Reservation(cols);
+    }
+
+    /** 예약 파일 한 줄로 만듭니다. (빈 칸 유지) */
+    public static Reservation parse(String line) {
+        return new Reservation(line.split(",", -1));
+    }
+
+    private long epochDay(int idx) {
+        if (!has(idx)) return NO_DATE;
+        try {
+            return LocalDate.parse(cols[idx]).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+
+    private long number(int idx) {
+        if (!has(idx)) return 0;
+        String s = cols[idx].trim();
+        if (s.isEmpty()) return 0;
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // ==========================================================
+    // 원본 칸
+    // ==========================================================
+    public int columnCount() { return cols.length; }
+
+    public boolean has(int idx) { return idx < cols.length; }
+
+    /** idx번 칸 원본 (없으면 빈 문자열) */
+    public String column(int idx) { return has(idx) ? cols[idx] : ""; }
+
+    /** 빈 줄(칸 없음 또는 예약번호 없음) */
+    public boolean isBlank() { return cols.length == 0 || cols[IDX_ID].isEmpty(); }
+
+    public String id() { return column(IDX_ID); }
+    public String name() { return column(IDX_NAME); }
+    public String phone() { return column(IDX_PHONE); }
+    public String room() { return column(IDX_ROOM_NUM); }
+
+    /** 객실 번호 색인/잠금용 키 (앞뒤 공백 제거). 예약 가능 색인, 점유 달력, 객실 잠금이 모두 이 값으로 비교 */
+    static String roomKey(String room) { return (room == null) ? "" : room.trim(); }
+    public String paymentMethod() { return column(IDX_PAYMENT_METHOD); }
+    public String userId() { return column(IDX_USER_ID); }
+
+    /** 전송/저장용 칸 배열 (같은 패키지 전용, 공유하므로 고치지 말 것) */
+    String[] row() { return cols; }
+
+    /** 칸 배열 사본 */
+    public String[] toRow() { return cols.clone(); }
+
+    /** 예약 파일에 쓸 한 줄 */
+    public String toLine() { return String.join(",", cols); }
+
+    // ==========================================================
+    // 미리 바꿔 둔 값
+    // ==========================================================
+    public ReservationStatus status() { return status; }
+
+    /** 상태 칸 원본 (상태 칸이 없으면 빈 문자열) */
+    public String statusCode() { return column(IDX_STATUS); }
+
+    public long checkInDay() { return checkInDay; }
+    public long checkOutDay() { return checkOutDay; }
+
+    /** 체크인/체크아웃 날짜가 둘 다 올바른지 */
+    public boolean hasStayDates() { return checkInDay != NO_DATE && checkOutDay != NO_DATE; }
+
+    /** 객실 요금 (없거나 숫자가 아니면 0) */
+    public long totalPrice() { return totalPrice; }
+
+    /** 저장된 지연료 (없거나 숫자가 아니면 0) */
+    public long lateFee() { return lateFee; }
+
+    /** 현장결제 PENDING 예약 (체크인일 18시가 지나면 자동 취소 대상) */
+    public boolean isOnsitePending() {
+        return status == ReservationStatus.PENDING && paymentMethod().equals(PAYMENT_ONSITE);
+    }
+
+    // ==========================================================
+    // 매출 인정 규칙 (보고서)
+    // ==========================================================
+    /** CHECKED_IN/OUT은 무조건, PENDING은 카드결제만 객실 매출로 인정 */
+    public long roomRevenue() {
+        boolean counted = status == ReservationStatus.CHECKED_IN || status == ReservationStatus.CHECKED_OUT
+                || (status == ReservationStatus.PENDING && paymentMethod().equals(PAYMENT_CARD));
+        return counted ? totalPrice : 0;
+    }
+
+    /** 지연료는 CHECKED_OUT일 때만 */
+    public long lateFeeRevenue() {
+        return (status == ReservationStatus.CHECKED_OUT) ? lateFee : 0;
+    }
+}
@@ -0,0 +1,205 @@
+package hms.model;
+
+import hms.util.Log;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 예약 변경 기록 파일 (추가 전용)
+ * - 예약 추가와 체크인/체크아웃마다 예약 파일을 건드리는 대신, 한 줄씩 기록 파일 뒤에 붙입니다.
+ * - 한 줄 = "A,예약 파일 한 줄의 칸들...,CRC" (새 예약) 또는 "U,예약번호,상태,체크아웃시각,지연료,CRC" (상태 변경)
+ *   (A는 예약번호가 이미 있으면, U는 변경 후 값 그대로라 여러 번 적용해도 결과가 같음)
+ * - 쓰기는 짧은 잠금 안에서 하고, fsync는 잠금 밖에서 묶어서 합니다. (group commit)
+ *   fsync 중에 들어온 기록들은 다음 fsync 한 번으로 함께 내려쓰므로, 여러 객실의 변경이 fsync를 하나씩 기다리지 않습니다.
+ * - 합치기(compaction)는 rotate로 지금 파일을 봉인(경로.번호)하고 새 파일에 이어 쓴 뒤,
+ *   봉인한 기록을 예약 파일에 반영하고 나서 deleteSealed로 지웁니다. (예약 파일을 쓰는 동안에도 기록은 계속 붙일 수 있음)
+ * - 서버 시작 시 봉인된 파일(번호 순) -> 지금 파일 순서로 다시 적용(replay)합니다.
+ * - 줄 형식과 replay는 LogLines: CRC가 처음 맞지 않는 줄(쓰다가 끊긴 줄 포함)에서 멈추고 그 뒤는 모두 버리며,
+ *   파일도 마지막 정상 줄까지 잘라냅니다. CRC는 맞는데 칸 수가 맞지 않는 줄은 그 줄만 건너뜁니다.
+ */
+class ReservationChangeLog implements Closeable {
+
+    static final String RECORD_ADD = "A";
+    static final String RECORD_UPDATE = "U";
+
+    private final Path path;
+    private final Object forceLock = new Object(); // fsync는 한 번에 하나 (잠금 순서: forceLock -> this)
+    private FileChannel channel;
+    private int pending;   // 지금 파일(봉인 전)의 기록 수
+    private int sealedPending; // 봉인했지만 아직 지우지 않은 파일들의 기록 수
+    private long written;  // 지금까지 파일에 쓴 기록 수 (this 잠금)
+    private long forced;   // 디스크에 내려쓴 것이 확인된 기록 수 (forceLock 잠금)
+    private long sealedSeq; // 마지막으로 봉인한 파일 번호
+
+    ReservationChangeLog(String path) {
+        this.path = Paths.get(path);
+    }
+
+    /**
+     * 봉인된 파일과 지금 파일의 유효한 변경 목록을 순서대로 읽습니다. (기록을 붙이기 전에 호출)
+     * 각 원소 = {"A", 예약 칸...} 또는 {"U", 예약번호, 상태, 체크아웃시각, 지연료}
+     */
+    synchronized List<String[]> replay() throws IOException {
+        List<String[]> changes = new ArrayList<>();
+        TreeMap<Long, Path> sealed = sealedFiles();
+        sealedPending = 0;
+        for (Path f : sealed.values()) sealedPending += replayFile(f, changes);
+        sealedSeq = sealed.isEmpty() ? 0 : sealed.lastKey();
+        pending = replayFile(path, changes);
+        return changes;
+    }
+
+    private static int replayFile(Path file, List<String[]> changes) throws IOException {
+        int[] count = {0};
+        LogLines.replay(file, "예약", body -> {
+            String[] rec = parse(body);
+            if (rec == null) {
+                Log.warn("예약", "형식이 맞지 않는 변경 기록 건너뜀", "body", body);
+                return;
+            }
+            changes.add(rec);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /** 새 예약 한 건(예약 파일 한 줄의 칸들)을 붙이고 디스크에 내려쓸 때까지 기다립니다. */
+    void appendAdd(String[] row) throws IOException {
+        String[] fields = new String[row.length + 1];
+        fields[0] = RECORD_ADD;
+        System.arraycopy(row, 0, fields, 1, row.length);
+        write(LogFields.join(fields));
+    }
+
+    /** 상태 변경 한 건을 붙이고 디스크에 내려쓸 때까지 기다립니다. */
+    void append(String id, String status, String checkoutTime, String lateFee) throws IOException {
+        write(LogFields.join(RECORD_UPDATE, id, status, checkoutTime, lateFee));
+    }
+
+    private void write(String body) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(LogLines.line(body).getBytes(StandardCharsets.UTF_8));
+        long mine;
+        synchronized (this) {
+            FileChannel ch = channel();
+            while (buf.hasRemaining()) ch.write(buf);
+            pending++;
+            mine = ++written;
+        }
+        synchronized (forceLock) {
+            if (forced >= mine) return; // 다른 스레드의 fsync에 함께 내려써짐
+            long upTo;
+            FileChannel ch;
+            synchronized (this) {
+                upTo = written;
+                ch = channel();
+            }
+            // 쓰기 잠금(this)은 놓은 채로 fsync: 그동안 다른 기록이 계속 붙고, 다음 fsync가 한꺼번에 내려씀
+            ch.force(false);
+            forced = upTo;
+        }
+    }
+
+    /** 아직 예약 파일에 합치지 않은 기록 수 (봉인된 파일 포함) */
+    synchronized int pendingCount() {
+        return pending + sealedPending;
+    }
+
+    /**
+     * 지금 파일을 봉인하고 이후 기록은 새 파일에 씁니다. (합치기 시작할 때)
+     * @return 봉인 번호 (합치기에 성공하면 deleteSealed에 넘김), 지금 파일이 비어 있으면 마지막 봉인 번호
+     */
+    long rotate() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                if (pending == 0) return sealedSeq;
+                if (channel != null) {
+                    channel.force(false);
+                    channel.close();
+                    channel = null;
+                }
+                forced = written;
+                sealedSeq++;
+                Files.move(path, sealedPath(sealedSeq));
+                sealedPending += pending;
+                pending = 0;
+                return sealedSeq;
+            }
+        }
+    }
+
+    /** 예약 파일에 반영한 뒤 호출: 번호가 upTo 이하인 봉인 파일을 지웁니다. */
+    synchronized void deleteSealed(long upTo) throws IOException {
+        for (Map.Entry<Long, Path> e : sealedFiles().entrySet()) {
+            if (e.getKey() <= upTo) Files.deleteIfExists(e.getValue());
+        }
+        if (upTo >= sealedSeq) sealedPending = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private Path sealedPath(long seq) {
+        return Paths.get(path + "." + seq);
+    }
+
+    /** 봉인된 파일들 (번호 -> 경로, 번호 순) */
+    private TreeMap<Long, Path> sealedFiles() throws IOException {
+        TreeMap<Long, Path> out = new TreeMap<>();
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir == null || !Files.isDirectory(dir)) return out;
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, path.getFileName() + ".*")) {
+            for (Path f : files) {
+                String suffix = f.getFileName().toString().substring(prefix.length());
+                try {
+                    out.put(Long.parseLong(suffix), f);
+                } catch (NumberFormatException ignored) {
+                    // 번호가 아닌 파일 (.tmp 등)
+                }
+            }
+        }
+        return out;
+    }
+
+    /** CRC를 확인한 본문 -> 기록 칸 배열 (맨 앞이 종류), 형식이 다르면 null */
+    private static String[] parse(String body) {
+        String[] parts = LogFields.split(body);
+        switch (parts[0]) {
+            case RECORD_UPDATE:
+                return (parts.length == 5) ? parts : null;
+            case RECORD_ADD:
+                // 예약번호/상태까지는 있어야 함
+                return (parts.length > 1 + Reservation.IDX_STATUS) ? parts : null;
+            default:
+                return null;
+        }
+    }
+}
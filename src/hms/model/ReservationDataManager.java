@@ -1,37 +1,76 @@
 package hms.model;
 
+import hms.util.Log;
+
 import java.io.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
 
 public class ReservationDataManager {
 
     private static final String RESERVATION_FILE = "data/reservation_info.txt";
-
-    // 인덱스 상수 (최종 구조에 맞춤)
-    public static final int RES_IDX_ID = 0;
-    public static final int RES_IDX_NAME = 1;
-    public static final int RES_IDX_PHONE = 2;
-    public static final int RES_IDX_CHECK_IN_DATE = 3;
-    public static final int RES_IDX_CHECKOUT_DATE = 4;
-    public static final int RES_IDX_ROOM_NUM = 9;
-    public static final int RES_IDX_TOTAL_PRICE = 10;
-    public static final int RES_IDX_PAYMENT_METHOD = 11; // ⭐ [NEW] 결제 방식 인덱스 (위치 11)
-    public static final int RES_IDX_STATUS = 12;
-    public static final int RES_IDX_CHECKOUT_TIME = 13;
-    public static final int RES_IDX_USER_ID = 14;
-    public static final int RES_IDX_LATE_FEE = 15; // 지연료 인덱스
-
+    private static final String CHANGE_LOG_FILE = "data/reservation_changes.log";
+
+    // 변경 기록을 예약 파일에 합치는 주기(초)와, 기록이 이만큼 쌓이면 주기를 기다리지 않고 합침
+    private static final long COMPACT_INTERVAL_SECONDS = Long.getLong("hms.reservation.compactSeconds", 30);
+    private static final int COMPACT_THRESHOLD = Integer.getInteger("hms.reservation.compactThreshold", 1000);
+
+    // 인덱스 상수 (칸 위치는 Reservation에서 한 곳만 정의)
+    public static final int RES_IDX_ID = Reservation.IDX_ID;
+    public static final int RES_IDX_NAME = Reservation.IDX_NAME;
+    public static final int RES_IDX_PHONE = Reservation.IDX_PHONE;
+    public static final int RES_IDX_CHECK_IN_DATE = Reservation.IDX_CHECK_IN_DATE;
+    public static final int RES_IDX_CHECKOUT_DATE = Reservation.IDX_CHECKOUT_DATE;
+    public static final int RES_IDX_ROOM_NUM = Reservation.IDX_ROOM_NUM;
+    public static final int RES_IDX_TOTAL_PRICE = Reservation.IDX_TOTAL_PRICE;
+    public static final int RES_IDX_PAYMENT_METHOD = Reservation.IDX_PAYMENT_METHOD; // ⭐ [NEW] 결제 방식 인덱스 (위치 11)
+    public static final int RES_IDX_STATUS = Reservation.IDX_STATUS;
+    public static final int RES_IDX_CHECKOUT_TIME = Reservation.IDX_CHECKOUT_TIME;
+    public static final int RES_IDX_USER_ID = Reservation.IDX_USER_ID;
+    public static final int RES_IDX_LATE_FEE = Reservation.IDX_LATE_FEE; // 지연료 인덱스
+
+    // ReservationStatus.code()와 같은 값 (통신 데이터/기존 코드 호환용)
     public static final String STATUS_PENDING = "PENDING";
     public static final String STATUS_CHECKED_IN = "CHECKED_IN";
     public static final String STATUS_CHECKED_OUT = "CHECKED_OUT";
 
+    // 파일 내용을 한 번만 읽어 두는 메모리 저장소 (조회는 모두 여기서)
+    private final ReservationStore store = new ReservationStore();
+    // 객실별 투숙 구간 색인 (예약 가능 객실 조회용, 저장소 변경 시 자동 갱신)
+    private final RoomAvailabilityIndex availability = new RoomAvailabilityIndex();
+    // 날짜별 객실 점유 비트맵 (여러 날짜 빈 방 검색용)
+    private final OccupancyCalendar calendar = new OccupancyCalendar();
+    // 예약 파일 저장 방식 (hms.storage: text / btree)
+    private final RowRepository repository;
+    // 같은 객실의 "확인 후 변경"(예약/체크인/체크아웃)은 한 번에 하나씩, 다른 객실은 동시에
+    private final RoomLocks roomLocks = new RoomLocks(Integer.getInteger("hms.reservation.lockStripes", 64));
+    // 예약 추가/상태 변경은 예약 파일을 건드리지 않고 변경 기록에 한 줄씩 추가 (fsync는 여러 요청이 묶어서 한 번)
+    private final ReservationChangeLog changeLog = new ReservationChangeLog(CHANGE_LOG_FILE);
+    // 기록 쓰기+메모리 반영(읽기 잠금, 여러 객실이 함께) / 합치기 시작 때 기록 파일 봉인(쓰기 잠금, 짧게)
+    // -> 봉인한 기록은 모두 메모리에 반영된 뒤이므로, 그 다음 예약 파일에 쓰면 봉인한 기록을 지워도 됨
+    private final ReadWriteLock logLock = new ReentrantReadWriteLock();
+    // 합치기는 한 번에 하나 (예약 파일 쓰기는 이 잠금만 잡고, 요청 처리와는 겹쳐서 진행)
+    private final Object compactLock = new Object();
+    private final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "hms-reservation-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
     public ReservationDataManager() {
         File file = new File(RESERVATION_FILE);
         if (!file.exists()) {
@@ -41,9 +80,54 @@ public class ReservationDataManager {
                 }
                 file.createNewFile();
             } catch (IOException e) {
-                e.printStackTrace();
+                Log.error("예약", "파일 생성 실패", e, "file", file);
             }
         }
+
+        // 서버 시작 시 파일 전체를 메모리에 올림
+        try {
+            repository = RowRepository.open(RESERVATION_FILE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("예약 저장소 열기 실패: " + e.getMessage(), e);
+        }
+        try {
+            store.load(repository);
+            Log.info("예약", "데이터 로드 완료", "rows", store.size());
+        } catch (IOException e) {
+            Log.error("예약", "파일 읽기 실패", e);
+        }
+
+        store.addListener(availability);
+        store.addListener(calendar);
+
+        // 지난 실행에서 예약 파일에 합치지 못한 변경 기록을 다시 적용
+        try {
+            List<String[]> changes = changeLog.replay();
+            for (String[] c : changes) {
+                if (c[0].equals(ReservationChangeLog.RECORD_ADD)) {
+                    Reservation row = Reservation.of(Arrays.copyOfRange(c, 1, c.length));
+                    // 이미 예약 파일에 합쳐진 예약이면 건너뜀
+                    if (store.findById(row.id()) == null) store.addNew(row);
+                    continue;
+                }
+                store.update(c[1], parts -> {
+                    parts = padToLateFee(parts);
+                    parts[RES_IDX_STATUS] = c[2];
+                    parts[RES_IDX_CHECKOUT_TIME] = c[3];
+                    parts[RES_IDX_LATE_FEE] = c[4];
+                    return parts;
+                });
+            }
+            if (!changes.isEmpty()) {
+                Log.info("예약", "변경 기록 복구", "records", changes.size());
+                compact();
+            }
+        } catch (IOException e) {
+            Log.error("예약", "변경 기록 읽기 실패", e);
+        }
+
+        compactor.scheduleWithFixedDelay(this::compact,
+                COMPACT_INTERVAL_SECONDS, COMPACT_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     // ==========================================================
@@ -55,35 +139,53 @@ public class ReservationDataManager {
      * @return 투숙 중이면 true, 아니면 false
      */
     public boolean isRoomCheckedIn(String roomNumber) {
-        // 파일 기반 로직: 모든 예약을 순회하며 해당 방 번호와 상태를 확인
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
+        // (객실번호 + 상태) 인덱스에서 바로 확인
+        return store.findFirstByRoomAndStatus(roomNumber, ReservationStatus.CHECKED_IN) != null;
+    }
 
-                // 데이터 길이가 최소 상태 인덱스(12)보다 길어야 합니다.
-                if (parts.length > RES_IDX_STATUS) {
 
-                    // 1. 방 번호 일치 확인 (공백 제거)
-                    boolean isRoomMatch = parts[RES_IDX_ROOM_NUM].trim().equals(roomNumber.trim());
+    // 1. 예약 저장 (빈 방인지 확인하지 않음, 예전 클라이언트 호환용)
+    public boolean saveReservation(Map<String, Object> data) {
+        Lock lock = roomLocks.of((String) data.get("room"));
+        lock.lock();
+        try {
+            appendReservation(data);
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                    // 2. 상태 확인
-                    String currentStatus = parts[RES_IDX_STATUS].trim();
+    // 1-1. 빈 방 확인 + 예약 저장을 한 번에
+    /**
+     * 객실 잠금을 잡은 채로 [체크인, 체크아웃) 기간이 비어 있는지 확인하고 예약을 저장합니다.
+     * 같은 객실에 대한 예약/체크인/체크아웃은 이 잠금으로 한 번에 하나씩만 진행되므로
+     * 두 사람이 동시에 같은 방을 확정해도 한 건만 저장됩니다. (다른 객실은 서로 기다리지 않음)
+     * @return 예약번호, 이미 예약된 기간이면 null
+     * @throws IOException 파일 저장 실패
+     */
+    public String bookIfAvailable(Map<String, Object> data) throws IOException {
+        String room = Reservation.roomKey((String) data.get("room"));
+        LocalDate checkIn = LocalDate.parse((String) data.get("checkIn"));
+        LocalDate checkOut = LocalDate.parse((String) data.get("checkOut"));
+        final ZoneId kstZone = ZoneId.of("Asia/Seoul");
 
-                    if (isRoomMatch && currentStatus.equals(STATUS_CHECKED_IN)) {
-                        return true;
-                    }
-                }
+        Lock lock = roomLocks.of(room);
+        lock.lock();
+        try {
+            if (availability.isBooked(room, checkIn, checkOut, LocalDate.now(kstZone), LocalTime.now(kstZone))) {
+                return null;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            return appendReservation(data);
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
-
-    // 1. 예약 저장
-    public boolean saveReservation(Map<String, Object> data) {
+    // 예약 한 줄을 만들어 변경 기록에 추가 (객실 잠금 안에서 호출, 예약 파일에는 다음 합치기 때 반영)
+    private String appendReservation(Map<String, Object> data) throws IOException {
         String datePart = new SimpleDateFormat("yyMMdd").format(new Date());
         int randomPart = (int) (Math.random() * 900000) + 100000;
         String confirmationId = datePart + "-" + randomPart;
@@ -107,277 +209,279 @@ public class ReservationDataManager {
                 "0" // [NEW] 지연료 초기값 (인덱스 15)
         );
 
-        try (FileWriter fw = new FileWriter(RESERVATION_FILE, true);
-             PrintWriter pw = new PrintWriter(fw)) {
-            pw.println(line);
-            return true;
-        } catch (IOException e) {
-            return false;
+        Reservation row = Reservation.parse(line);
+        logLock.readLock().lock();
+        try {
+            try {
+                changeLog.appendAdd(row.row());
+            } catch (IOException e) {
+                Log.error("예약", "예약 저장 실패", e, "room", data.get("room"));
+                throw e;
+            }
+            // 기록이 디스크에 반영된 경우에만 메모리에도 반영
+            store.addNew(row);
+        } finally {
+            logLock.readLock().unlock();
         }
+        compactIfFull();
+        return confirmationId;
     }
 
     // 2. 예약 검색 (기존 유지)
     public String[] searchReservation(String name, String phoneNumber) {
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length < 3) continue;
-                if (parts[RES_IDX_NAME].trim().equals(name) && parts[RES_IDX_PHONE].trim().equals(phoneNumber)) {
-                    return parts;
-                }
-            }
-        } catch (IOException e) {
-        }
-        return null;
+        return rowOf(store.findByNamePhone(name, phoneNumber));
     }
 
     // 3. ID로 조회 (기존 유지)
     public String[] getReservationById(String id) {
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length > 0 && parts[RES_IDX_ID].trim().equals(id)) {
-                    return parts;
-                }
-            }
-        } catch (IOException e) {
-        }
-        return null;
+        return rowOf(store.findById(id));
+    }
+
+    // 3-0. ID로 조회 (서버 내부용, 날짜/금액/상태가 이미 변환된 값)
+    public Reservation findReservation(String id) {
+        return store.findById(id);
+    }
+
+    // 3-0-1. 예약의 현재 버전 (updateStatus에 돌려보내는 값, 없으면 VersionClock.ANY)
+    // 행과 함께 보낼 때는 이 값을 먼저 읽을 것 (사이에 바뀌면 수정이 거절되는 쪽으로만 어긋남)
+    public long getReservationVersion(String id) {
+        return store.versionOf(id);
+    }
+
+    // 3-1. 회원 ID로 조회 (해당 회원의 모든 예약, 파일 순서)
+    public List<String[]> getReservationsByUserId(String userId) {
+        return rowsOf(store.findByUserId(userId));
+    }
+
+    // 통신용 칸 배열 (저장소와 같은 배열을 공유, 저장소는 배열을 고치지 않고 교체함)
+    private static String[] rowOf(Reservation r) {
+        return (r == null) ? null : r.row();
+    }
+
+    private static List<String[]> rowsOf(List<Reservation> list) {
+        List<String[]> out = new ArrayList<>(list.size());
+        for (Reservation r : list) out.add(r.row());
+        return out;
     }
 
     // 4. 상태 업데이트 (기존 유지)
     public boolean updateStatus(String id, String newStatus) {
-        List<String> lines = new ArrayList<>();
-        boolean updated = false;
+        return updateStatus(id, newStatus, VersionClock.ANY).isUpdated();
+    }
+
+    /**
+     * 상태 업데이트 (버전 검사)
+     * @param expectedVersion 조회 때 받은 버전. 그 사이 다른 단말에서 바뀌었으면 STALE (ANY면 검사 안 함)
+     */
+    public UpdateResult updateStatus(String id, String newStatus, long expectedVersion) {
         String checkoutTime = newStatus.equals(STATUS_CHECKED_OUT)
                 ? new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()) : "";
 
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length > RES_IDX_STATUS && parts[RES_IDX_ID].equals(id)) {
-                    if (parts.length <= RES_IDX_LATE_FEE) {
-                        String[] newParts = new String[RES_IDX_LATE_FEE + 1];
-                        System.arraycopy(parts, 0, newParts, 0, parts.length);
-                        for (int i = parts.length; i < newParts.length; i++) newParts[i] = "";
-                        parts = newParts;
-                    }
-
-                    parts[RES_IDX_STATUS] = newStatus;
-                    if (newStatus.equals(STATUS_CHECKED_OUT)) {
-                        parts[RES_IDX_CHECKOUT_TIME] = checkoutTime;
-                    }
-                    lines.add(String.join(",", parts));
-                    updated = true;
-                } else {
-                    lines.add(line);
+        Reservation target = store.findById(id);
+        if (target == null) return UpdateResult.NOT_FOUND;
+        // 예약의 객실 번호는 바뀌지 않으므로 먼저 찾은 행의 객실로 잠금
+        Lock lock = roomLocks.of(target.room());
+        lock.lock();
+        try {
+            return applyChange(id, expectedVersion, parts -> {
+                parts[RES_IDX_STATUS] = newStatus;
+                if (newStatus.equals(STATUS_CHECKED_OUT)) {
+                    parts[RES_IDX_CHECKOUT_TIME] = checkoutTime;
                 }
-            }
-        } catch (IOException e) {
-            return false;
+                return parts;
+            });
+        } finally {
+            lock.unlock();
         }
-
-        if (updated) {
-            try (PrintWriter pw = new PrintWriter(new FileWriter(RESERVATION_FILE))) {
-                for (String l : lines) pw.println(l);
-                return true;
-            } catch (IOException e) {
-                return false;
-            }
-        }
-        return false;
     }
 
     // 5. 예약된 방 목록
+    // 체크아웃되지 않은 예약 중 [inStr, outStr)과 겹치는 객실 (현장결제 자동 취소 건 제외, 객실당 1번)
     public List<String> getBookedRooms(String inStr, String outStr) {
-        List<String> booked = new ArrayList<>();
         LocalDate checkIn = LocalDate.parse(inStr);//요청 체크인 날찌
         LocalDate checkOut = LocalDate.parse(outStr);//요청 체크아웃 날짜
-        //  [NEW] 자동 취소 로직에 필요한 시간 및 날짜 설정 (KST 기준)
-        final LocalTime cancelTime = LocalTime.of(18, 0);
+        // 자동 취소 판단은 KST 기준 현재 시각
         final ZoneId kstZone = ZoneId.of("Asia/Seoul");
-        final LocalDate today = LocalDate.now(kstZone);
-        final LocalTime currentTime = LocalTime.now(kstZone);
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length < RES_IDX_STATUS) continue;
-                String status = parts[RES_IDX_STATUS];
-                String paymentMethod = parts[RES_IDX_PAYMENT_METHOD]; // 현장결제/카드결제
-                // 1. 체크아웃된 방은 무시합니다. (재판매 가능)
-                if (status.equals(STATUS_CHECKED_OUT)) continue;
-                //  2. [핵심 로직] PENDING 현장결제 예약에 대한 자동 취소 로직
-                // 상태가 PENDING이고, 결제 방식이 현장결제인 경우
-                if (status.equals(STATUS_PENDING) && paymentMethod.equals("현장결제")) {
-                    try {
-                        LocalDate rIn = LocalDate.parse(parts[RES_IDX_CHECK_IN_DATE]);
-                        // a) 체크인 날짜가 이미 지났거나 (rIn.isBefore(today))
-                        // b) 체크인 날짜가 오늘이고, 현재 시간이 18시를 넘겼다면 (rIn.isEqual(today) && currentTime.isAfter(cancelTime))
-                        if (rIn.isBefore(today) || (rIn.isEqual(today) && currentTime.isAfter(cancelTime))) {
-                            // 자동 취소된 것으로 간주하고, 예약된 방 목록에 추가하지 않음 (continue)
-                            continue;
-                        }
-                    } catch (Exception e) {
-                        // 날짜 파싱 오류 발생 시, 안전하게 계속 유효한 것으로 간주 (아래 3번 로직으로 진행)
-                    }
-                }
-                // 3. 날짜 겹침 확인 (자동 취소되지 않은 유효한 예약 건만 진행)
-                try {
-                    LocalDate rIn = LocalDate.parse(parts[RES_IDX_CHECK_IN_DATE]);
-                    LocalDate rOut = LocalDate.parse(parts[RES_IDX_CHECKOUT_DATE]);
-
-                    if (checkIn.isBefore(rOut) && checkOut.isAfter(rIn)) {
-                        booked.add(parts[RES_IDX_ROOM_NUM]);
-                    }
-                } catch (Exception e) { /* 날짜 파싱 오류 무시 */ }
-            }
-        } catch (IOException e) {
-        }
-        return booked;
+        return availability.bookedRooms(checkIn, checkOut, LocalDate.now(kstZone), LocalTime.now(kstZone));
     }
 
-    // 6. 체크아웃 처리 (지연료 포함) (기존 유지)
-    public boolean processCheckoutByRoom(String roomNumber, int lateFee) {
-        String targetId = null;
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length > RES_IDX_STATUS) {
-                    // 방 번호가 같고, 아직 체크인 상태인 예약을 찾음
-                    if (parts[RES_IDX_ROOM_NUM].trim().equals(roomNumber) &&
-                            parts[RES_IDX_STATUS].trim().equals(STATUS_CHECKED_IN)) {
-                        targetId = parts[RES_IDX_ID];
-                        break;
-                    }
-                }
-            }
-        } catch (IOException e) {
-            return false;
-        }
+    // 5-1. 기간 전체의 날짜별 예약된 방 목록 (달력/여러 날짜 조회를 한 번에)
+    public Map<String, List<String>> getBookedRoomsByNight(String fromStr, String toStr) {
+        final ZoneId kstZone = ZoneId.of("Asia/Seoul");
+        return availability.bookedRoomsByNight(LocalDate.parse(fromStr), LocalDate.parse(toStr),
+                LocalDate.now(kstZone), LocalTime.now(kstZone));
+    }
 
-        if (targetId == null) return false;
+    // 예약 변경 알림 등록 (보고서 집계 등, 같은 패키지에서만)
+    void addListener(ReservationStore.Listener listener) {
+        store.addListener(listener);
+    }
+
+    // 5-2. 빈 방 검색: from부터 days일 동안 각 날짜에 체크인해서 nights박 가능한 객실
+    // (예: "앞으로 90일 중 스위트 3박이 가능한 첫 날짜")
+    public static final int MAX_SEARCH_DAYS = 366;
+    public static final int MAX_SEARCH_NIGHTS = 60;
+
+    public Map<String, List<String>> findAvailability(List<String> rooms, String fromStr, int days, int nights) {
+        final ZoneId kstZone = ZoneId.of("Asia/Seoul");
+        days = Math.min(days, MAX_SEARCH_DAYS);
+        nights = Math.min(nights, MAX_SEARCH_NIGHTS);
+        return calendar.findAvailability(rooms, LocalDate.parse(fromStr), days, nights,
+                LocalDate.now(kstZone), LocalTime.now(kstZone));
+    }
 
-        List<String> lines = new ArrayList<>();
-        boolean updated = false;
+    // 6. 체크아웃 처리 (지연료 포함) (기존 유지)
+    public boolean processCheckoutByRoom(String roomNumber, int lateFee) {
         String checkoutTime = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
 
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length > RES_IDX_STATUS && parts[RES_IDX_ID].equals(targetId)) {
-                    if (parts.length <= RES_IDX_LATE_FEE) {
-                        String[] newParts = new String[RES_IDX_LATE_FEE + 1];
-                        System.arraycopy(parts, 0, newParts, 0, parts.length);
-                        for (int i = parts.length; i < newParts.length; i++) newParts[i] = "";
-                        parts = newParts;
-                    }
-
-                    parts[RES_IDX_STATUS] = STATUS_CHECKED_OUT;
-                    parts[RES_IDX_CHECKOUT_TIME] = checkoutTime;
-                    parts[RES_IDX_LATE_FEE] = String.valueOf(lateFee);
+        Lock lock = roomLocks.of(roomNumber);
+        lock.lock();
+        try {
+            // 방 번호가 같고, 아직 체크인 상태인 예약을 찾음
+            Reservation target = store.findFirstByRoomAndStatus(roomNumber, ReservationStatus.CHECKED_IN);
+            if (target == null) return false;
+
+            return applyChange(target.id(), VersionClock.ANY, parts -> {
+                parts[RES_IDX_STATUS] = STATUS_CHECKED_OUT;
+                parts[RES_IDX_CHECKOUT_TIME] = checkoutTime;
+                parts[RES_IDX_LATE_FEE] = String.valueOf(lateFee);
+                return parts;
+            }).isUpdated();
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                    lines.add(String.join(",", parts));
-                    updated = true;
-                } else {
-                    lines.add(line);
-                }
+    // ==========================================================
+    // 변경 기록 / 합치기
+    // ==========================================================
+    /**
+     * 예약 한 건의 상태/체크아웃시각/지연료를 바꿉니다.
+     * 변경 기록에 먼저 쓰고(디스크 반영 확인 후) 메모리에 적용하므로, 실패하면 아무것도 바뀌지 않습니다.
+     * 객실 잠금 안에서 호출: 같은 예약(= 같은 객실)의 버전 확인과 변경 사이에 다른 요청이 끼어들 수 없습니다.
+     * 다른 객실의 변경과는 기록 쓰기/fsync를 함께 진행합니다.
+     */
+    private UpdateResult applyChange(String id, long expectedVersion, UnaryOperator<String[]> change) {
+        logLock.readLock().lock();
+        try {
+            Reservation current = store.findById(id);
+            if (current == null || !current.has(RES_IDX_STATUS)) return UpdateResult.NOT_FOUND;
+            if (!VersionClock.matches(expectedVersion, store.versionOf(id))) return UpdateResult.STALE;
+
+            String[] next = change.apply(padToLateFee(current.toRow()));
+            try {
+                changeLog.append(next[RES_IDX_ID].trim(), next[RES_IDX_STATUS],
+                        next[RES_IDX_CHECKOUT_TIME], next[RES_IDX_LATE_FEE]);
+            } catch (IOException e) {
+                Log.error("예약", "변경 기록 실패", e, "reservation", id);
+                return UpdateResult.FAILED;
             }
-        } catch (IOException e) {
-            return false;
+            store.update(id, parts -> next);
+        } finally {
+            logLock.readLock().unlock();
         }
+        compactIfFull();
+        return UpdateResult.UPDATED;
+    }
 
-        if (updated) {
-            try (PrintWriter pw = new PrintWriter(new FileWriter(RESERVATION_FILE))) {
-                for (String l : lines) pw.println(l);
-                return true;
+    private void compactIfFull() {
+        if (changeLog.pendingCount() >= COMPACT_THRESHOLD) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * 쌓인 변경 기록을 예약 파일에 반영하고 기록을 지웁니다. (백그라운드 주기 실행)
+     * - 기록 파일 봉인만 요청 처리와 잠깐 겹치지 않게 하고, 예약 파일 쓰기(text 방식은 전체 다시 쓰기 + fsync)는
+     *   잠금 밖에서 하므로 그동안에도 예약/체크인/체크아웃은 새 기록 파일에 계속 붙습니다.
+     */
+    void compact() {
+        synchronized (compactLock) {
+            if (changeLog.pendingCount() == 0) return;
+            long sealed;
+            logLock.writeLock().lock();
+            try {
+                sealed = changeLog.rotate();
+            } catch (IOException e) {
+                Log.error("예약", "변경 기록 봉인 실패 - 다음 주기에 다시 시도", e);
+                return;
+            } finally {
+                logLock.writeLock().unlock();
+            }
+            try {
+                // 바뀐/추가된 예약만 저장소에 반영 (text 방식은 파일 전체를 임시 파일에 쓴 뒤 교체)
+                // 봉인 뒤의 변경이 함께 쓰여도, 새 기록 파일에 남아 있으므로 다시 적용할 뿐 결과는 같음
+                store.flushTo(repository);
             } catch (IOException e) {
-                return false;
+                Log.error("예약", "파일 합치기 실패 - 다음 주기에 다시 시도", e);
+                return;
+            }
+            try {
+                changeLog.deleteSealed(sealed);
+            } catch (IOException e) {
+                // 기록이 남아 있어도 같은 값을 다시 적용할 뿐이므로 안전
+                Log.error("예약", "변경 기록 지우기 실패", e);
             }
         }
-        return false;
+    }
+
+    /** 서버 종료 시: 남은 변경 기록을 예약 파일에 합치고 기록 파일과 저장소를 닫습니다. */
+    public void close() {
+        compactor.shutdown();
+        compact();
+        try {
+            changeLog.close();
+        } catch (IOException ignored) {}
+        try {
+            repository.close();
+        } catch (IOException ignored) {}
+    }
+
+    // 예전 형식(지연료 칸 없음) 행은 지연료 인덱스까지 빈 칸으로 늘림
+    private static String[] padToLateFee(String[] parts) {
+        if (parts.length > RES_IDX_LATE_FEE) return parts;
+        String[] newParts = new String[RES_IDX_LATE_FEE + 1];
+        System.arraycopy(parts, 0, newParts, 0, parts.length);
+        for (int i = parts.length; i < newParts.length; i++) newParts[i] = "";
+        return newParts;
     }
 
     // 7. 보고서용 조회 (기존 유지)
     public List<String[]> getReservationsByPeriod(String startStr, String endStr) {
-        List<String[]> list = new ArrayList<>();
-        LocalDate startDate = LocalDate.parse(startStr);
-        LocalDate endDate = LocalDate.parse(endStr);
-
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length < 12) continue;
-
-                try {
-                    LocalDate checkIn = LocalDate.parse(parts[RES_IDX_CHECK_IN_DATE]);
-                    LocalDate checkOut = LocalDate.parse(parts[RES_IDX_CHECKOUT_DATE]);
-                    if (!startDate.isAfter(checkOut) && !endDate.isBefore(checkIn)) {
-                        list.add(parts);
-                    }
-                } catch (Exception e) {
-                    continue;
-                }
+        return rowsOf(findReservationsByPeriod(LocalDate.parse(startStr), LocalDate.parse(endStr)));
+    }
+
+    // 7-1. 기간 [start, end]와 겹치는 예약 (날짜는 읽을 때 변환해 둔 값으로 비교, 날짜가 깨진 행은 제외)
+    public List<Reservation> findReservationsByPeriod(LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        List<Reservation> list = new ArrayList<>();
+        for (Reservation r : store.allRows()) {
+            if (r.columnCount() < 12 || !r.hasStayDates()) continue;
+            if (start <= r.checkOutDay() && end >= r.checkInDay()) {
+                list.add(r);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         return list;
     }
+
     // 예약 전체조회 admin
     public List<String[]> readAllReservations() {
         List<String[]> allReservations = new ArrayList<>();
 
-        // ⭐ [주의] 파일 경로 상수(RESERVATION_FILE)를 사용합니다.
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-
-                // 데이터가 비어있지 않다면 리스트에 추가
-                if (parts.length > 0 && !parts[0].isEmpty()) {
-                    allReservations.add(parts);
-                }
+        for (Reservation r : store.allRows()) {
+            // 데이터가 비어있지 않다면 리스트에 추가
+            if (!r.isBlank()) {
+                allReservations.add(r.row());
             }
-        } catch (IOException e) {
-            System.err.println("Error reading all reservations: " + e.getMessage());
         }
         return allReservations;
     }
 
     // ⭐ [수정됨] 예약 검증 (체크인 및 룸서비스 인증용) (기존 유지)
     public boolean validateRoomServiceAccess(String reservationCode, String roomNumber) {
-        try (BufferedReader br = new BufferedReader(new FileReader(RESERVATION_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-
-                if (parts.length > RES_IDX_STATUS) {
-                    boolean isIdMatch = parts[RES_IDX_ID].equals(reservationCode) ||
-                            parts[RES_IDX_ID].endsWith("-" + reservationCode);
-
-                    boolean isRoomMatch = parts[RES_IDX_ROOM_NUM].equals(roomNumber);
-
-                    if (isIdMatch && isRoomMatch) {
-                        String currentStatus = parts[RES_IDX_STATUS];
-
-                        if (currentStatus.equals(STATUS_CHECKED_IN)) {
-                            return true;
-                        } else {
-                            return false;
-                        }
-                    }
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return false;
+        // 예약번호(전체 또는 뒤 6자리) + 객실번호가 맞는 첫 예약이 투숙 중인지 확인
+        Reservation r = store.findByCodeAndRoom(reservationCode, roomNumber);
+        return r != null && r.status() == ReservationStatus.CHECKED_IN;
     }
 }
\ No newline at end of file
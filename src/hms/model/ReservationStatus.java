@@ -0,0 +1,34 @@
+package hms.model;
+
+/**
+ * 예약 상태 (예약 파일 12번 칸)
+ * - code는 파일/통신에 쓰는 문자열 그대로입니다.
+ * - 알 수 없는 값(빈 칸, 예전 데이터 등)은 UNKNOWN으로 읽고, 원래 문자열은 Reservation에 그대로 남습니다.
+ */
+public enum ReservationStatus {
+    PENDING("PENDING"),
+    CHECKED_IN("CHECKED_IN"),
+    CHECKED_OUT("CHECKED_OUT"),
+    UNKNOWN("");
+
+    private final String code;
+
+    ReservationStatus(String code) {
+        this.code = code;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    /** 파일 문자열 -> 상태 (대소문자/공백까지 정확히 같아야 함, 기존 equals 비교와 동일) */
+    public static ReservationStatus fromCode(String code) {
+        if (code == null) return UNKNOWN;
+        switch (code) {
+            case "PENDING": return PENDING;
+            case "CHECKED_IN": return CHECKED_IN;
+            case "CHECKED_OUT": return CHECKED_OUT;
+            default: return UNKNOWN;
+        }
+    }
+}
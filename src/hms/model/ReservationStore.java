@@ -0,0 +1,335 @@
+package hms.model;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+import static hms.model.Reservation.*;
+
+/**
+ * 예약 파일(reservation_info.txt)의 메모리 사본 + 조회용 해시 인덱스
+ * - 서버 시작 시 파일을 한 번만 읽고, 이후 조회는 인덱스로 바로 찾습니다. (파일 크기와 무관)
+ * - 파일의 모든 줄(빈 줄/깨진 줄 포함)을 순서대로 보관하므로, 그대로 다시 저장하면 원본과 같습니다.
+ * - 행은 읽을 때 한 번만 Reservation으로 바꿔 두고(날짜/금액/상태), 변경 시 새 Reservation으로 교체합니다.
+ *   (이미 클라이언트로 보내는 중인 배열이 바뀌지 않도록)
+ * - 같은 조건에 여러 행이 걸리면 파일에서 먼저 나온 행을 돌려줍니다. (기존 파일 순회와 동일한 결과)
+ * - 행이 추가/교체될 때마다 Listener에 알려서, 날짜별 색인 등 파생 자료를 함께 갱신할 수 있습니다.
+ * - 행마다 저장소(RowRepository) 키를 들고 있고, 교체된 행과 addNew로 추가한 행은 다음 flushTo 때 그 키로 내려씁니다.
+ *   (그 전까지는 매니저의 변경 기록 파일에만 있음)
+ * - 행마다 버전(VersionClock)을 붙여 두고 추가/교체 때 새 번호로 바꿉니다. (낙관적 동시성 검사용, 파일에는 쓰지 않음)
+ */
+class ReservationStore {
+
+    /** 행 변경 알림 (쓰기 잠금 안에서 호출되므로 짧게 처리할 것) */
+    interface Listener {
+        /**
+         * @param oldRow 교체 전 행 (새로 추가된 경우 null)
+         * @param newRow 교체 후 행
+         */
+        void rowChanged(Reservation oldRow, Reservation newRow);
+    }
+
+    /** 파일의 한 줄 */
+    private static final class Entry {
+        final int pos;   // 파일 내 순서
+        final long key;  // 저장소 키
+        Reservation row;
+        long version;
+
+        Entry(int pos, long key, Reservation row, long version) {
+            this.pos = pos;
+            this.key = key;
+            this.row = row;
+            this.version = version;
+        }
+    }
+
+    /** 키 하나에 여러 행이 걸리는 인덱스 (파일 순서 유지) */
+    private static final class MultiIndex {
+        private final Map<String, TreeMap<Integer, Entry>> map = new HashMap<>();
+
+        void add(String key, Entry e) {
+            if (key == null) return;
+            map.computeIfAbsent(key, k -> new TreeMap<>()).put(e.pos, e);
+        }
+
+        void remove(String key, Entry e) {
+            if (key == null) return;
+            TreeMap<Integer, Entry> m = map.get(key);
+            if (m == null) return;
+            m.remove(e.pos);
+            if (m.isEmpty()) map.remove(key);
+        }
+
+        Entry first(String key) {
+            TreeMap<Integer, Entry> m = map.get(key);
+            return (m == null) ? null : m.firstEntry().getValue();
+        }
+
+        Collection<Entry> get(String key) {
+            TreeMap<Integer, Entry> m = map.get(key);
+            return (m == null) ? Collections.emptyList() : m.values();
+        }
+
+        void clear() { map.clear(); }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> lines = new ArrayList<>();
+
+    private final MultiIndex byId = new MultiIndex();          // 예약번호
+    private final MultiIndex bySuffix = new MultiIndex();      // 예약번호 '-' 뒤 6자리 (룸서비스 인증용)
+    private final MultiIndex byNamePhone = new MultiIndex();   // 이름 + 전화번호
+    private final MultiIndex byRoomStatus = new MultiIndex();  // 객실번호 + 상태
+    private final MultiIndex byUserId = new MultiIndex();      // 예약한 회원 ID
+
+    private final List<Listener> listeners = new ArrayList<>();
+    private final VersionClock versions = new VersionClock();
+
+    private long nextKey;
+    // 마지막 flushTo 이후 교체/추가된 행 (키 -> 행)
+    private Map<Long, Entry> dirty = new HashMap<>();
+
+    /** 리스너를 등록하고, 이미 들어 있는 행들을 추가된 것으로 한 번씩 알려줍니다. */
+    void addListener(Listener listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.add(listener);
+            for (Entry e : lines) listener.rowChanged(null, e.row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // 로드 / 저장용 스냅샷
+    // ==========================================================
+    /** 서버 시작 시 한 번 호출 (리스너 등록 전) */
+    void load(RowRepository repository) throws IOException {
+        lock.writeLock().lock();
+        try {
+            lines.clear();
+            byId.clear(); bySuffix.clear(); byNamePhone.clear(); byRoomStatus.clear(); byUserId.clear();
+            dirty.clear();
+            nextKey = 0;
+            repository.load((key, fields) -> appendLocked(key, Reservation.of(fields)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 마지막 flushTo 이후 교체/추가된 행을 저장소에 내려씁니다.
+     * 실패하면 IOException, 그 행들은 다음 flushTo 때 다시 씁니다.
+     */
+    void flushTo(RowRepository repository) throws IOException {
+        Map<Long, Entry> taken;
+        Map<Long, String> changed = new TreeMap<>();
+        lock.writeLock().lock();
+        try {
+            taken = dirty;
+            dirty = new HashMap<>();
+            for (Entry e : taken.values()) changed.put(e.key, e.row.toLine());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            repository.checkpoint(changed, this::snapshotLines);
+        } catch (IOException | RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                for (Entry x : taken.values()) dirty.putIfAbsent(x.key, x);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    /** 파일에 그대로 쓸 수 있는 전체 줄 (파일 순서) */
+    List<String> snapshotLines() {
+        lock.readLock().lock();
+        try {
+            List<String> out = new ArrayList<>(lines.size());
+            for (Entry e : lines) out.add(e.row.toLine());
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 전체 행 (파일 순서, 빈 줄 포함) */
+    List<Reservation> allRows() {
+        lock.readLock().lock();
+        try {
+            List<Reservation> out = new ArrayList<>(lines.size());
+            for (Entry e : lines) out.add(e.row);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return lines.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // 조회 (O(1) 해시 조회 + 결과 개수)
+    // ==========================================================
+    Reservation findById(String id) {
+        return firstRow(byId, id == null ? null : id.trim());
+    }
+
+    Reservation findByNamePhone(String name, String phone) {
+        return firstRow(byNamePhone, namePhoneKey(name, phone));
+    }
+
+    Reservation findFirstByRoomAndStatus(String room, ReservationStatus status) {
+        return firstRow(byRoomStatus, roomStatusKey(room, status.code()));
+    }
+
+    /** 예약번호 전체 또는 뒤 6자리 + 객실번호가 모두 맞는 첫 예약 */
+    Reservation findByCodeAndRoom(String code, String room) {
+        lock.readLock().lock();
+        try {
+            Entry best = null;
+            for (MultiIndex idx : new MultiIndex[]{byId, bySuffix}) {
+                for (Entry e : idx.get(code)) {
+                    if (e.row.has(IDX_STATUS) && e.row.room().equals(room)
+                            && (best == null || e.pos < best.pos)) {
+                        best = e;
+                    }
+                }
+            }
+            return (best == null) ? null : best.row;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 예약번호로 찾은 행의 버전 (없으면 VersionClock.ANY)
+     * 행과 함께 내보낼 때는 버전을 먼저 읽을 것 (사이에 바뀌면 이후 수정이 거절되는 쪽으로만 어긋남)
+     */
+    long versionOf(String id) {
+        if (id == null) return VersionClock.ANY;
+        lock.readLock().lock();
+        try {
+            Entry e = byId.first(id.trim());
+            return (e == null) ? VersionClock.ANY : e.version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Reservation> findByUserId(String userId) {
+        lock.readLock().lock();
+        try {
+            List<Reservation> out = new ArrayList<>();
+            for (Entry e : byUserId.get(userId)) out.add(e.row);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Reservation firstRow(MultiIndex idx, String key) {
+        if (key == null) return null;
+        lock.readLock().lock();
+        try {
+            Entry e = idx.first(key);
+            return (e == null) ? null : e.row;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // 변경
+    // ==========================================================
+    /** 아직 저장소에 없는 행을 새 키로 끝에 추가 (다음 flushTo 때 내려씀) */
+    void addNew(Reservation row) {
+        lock.writeLock().lock();
+        try {
+            Entry e = appendLocked(nextKey, row);
+            dirty.put(e.key, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 예약번호로 행을 찾아 새 행으로 교체합니다.
+     * @param change 기존 칸 배열 사본을 받아 새 칸 배열을 돌려주는 함수
+     * @return 교체된 새 행, 해당 예약이 없으면 null
+     */
+    Reservation update(String id, UnaryOperator<String[]> change) {
+        lock.writeLock().lock();
+        try {
+            Entry e = (id == null) ? null : byId.first(id.trim());
+            if (e == null || !e.row.has(IDX_STATUS)) return null;
+            Reservation updated = Reservation.of(change.apply(e.row.toRow()));
+            Reservation old = e.row;
+            unindex(e);
+            e.row = updated;
+            e.version = versions.next();
+            index(e);
+            dirty.put(e.key, e);
+            for (Listener l : listeners) l.rowChanged(old, updated);
+            return updated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Entry appendLocked(long key, Reservation row) {
+        Entry e = new Entry(lines.size(), key, row, versions.next());
+        lines.add(e);
+        nextKey = Math.max(nextKey, key + 1);
+        index(e);
+        for (Listener l : listeners) l.rowChanged(null, row);
+        return e;
+    }
+
+    private void index(Entry e) {
+        Reservation r = e.row;
+        if (r.isBlank()) return;
+        String id = r.id().trim();
+        byId.add(id, e);
+        int dash = id.lastIndexOf('-');
+        if (dash >= 0) bySuffix.add(id.substring(dash + 1), e);
+        if (r.has(IDX_PHONE)) byNamePhone.add(namePhoneKey(r.name(), r.phone()), e);
+        if (r.has(IDX_STATUS)) byRoomStatus.add(roomStatusKey(r.room(), r.statusCode()), e);
+        if (r.has(IDX_USER_ID)) byUserId.add(r.userId().trim(), e);
+    }
+
+    private void unindex(Entry e) {
+        Reservation r = e.row;
+        if (r.isBlank()) return;
+        String id = r.id().trim();
+        byId.remove(id, e);
+        int dash = id.lastIndexOf('-');
+        if (dash >= 0) bySuffix.remove(id.substring(dash + 1), e);
+        if (r.has(IDX_PHONE)) byNamePhone.remove(namePhoneKey(r.name(), r.phone()), e);
+        if (r.has(IDX_STATUS)) byRoomStatus.remove(roomStatusKey(r.room(), r.statusCode()), e);
+        if (r.has(IDX_USER_ID)) byUserId.remove(r.userId().trim(), e);
+    }
+
+    private static String namePhoneKey(String name, String phone) {
+        if (name == null || phone == null) return null;
+        return name.trim() + '\u0000' + phone.trim();
+    }
+
+    private static String roomStatusKey(String room, String status) {
+        if (room == null || status == null) return null;
+        return room.trim() + '\u0000' + status.trim();
+    }
+}
@@ -0,0 +1,198 @@
+package hms.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 객실별 투숙 구간 색인 (예약 가능 여부 조회용)
+ * - 체크아웃되지 않은 예약을 객실마다 [체크인, 체크아웃) 구간으로, 시작일 순 TreeMap에 보관합니다.
+ * - "[in, out)과 겹치는 예약이 있는가"는 시작일이 (in - 최장 숙박일수, out) 사이인 구간만 보면 되므로
+ *   객실당 O(log n + k)로 답합니다. (전체 예약을 훑지 않음)
+ * - ReservationStore.Listener로 등록되어 예약 추가/상태 변경 시 바로 갱신됩니다.
+ * - 객실 번호는 Reservation.roomKey(앞뒤 공백 제거)로 색인하고 조회합니다.
+ * - 현장결제 PENDING 예약의 자동 취소(체크인일 18시 경과)는 시간이 지나며 바뀌므로 조회 시점에 판단합니다.
+ */
+class RoomAvailabilityIndex implements ReservationStore.Listener {
+
+    static final LocalTime ONSITE_CANCEL_TIME = LocalTime.of(18, 0);
+
+    /** 예약 1건의 숙박 구간 (epochDay 기준, end는 체크아웃일이라 포함하지 않음) */
+    private static final class Stay {
+        final long start;
+        final long end;
+        final boolean onsitePending; // 자동 취소 대상이 될 수 있는 예약
+
+        Stay(long start, long end, boolean onsitePending) {
+            this.start = start;
+            this.end = end;
+            this.onsitePending = onsitePending;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Stay)) return false;
+            Stay s = (Stay) o;
+            return start == s.start && end == s.end && onsitePending == s.onsitePending;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end, onsitePending);
+        }
+    }
+
+    /** 객실 하나의 구간 목록 */
+    private static final class RoomStays {
+        final TreeMap<Long, List<Stay>> byStart = new TreeMap<>();
+        long maxLength; // 가장 긴 숙박일수 (겹침 검색 범위를 정하는 데 사용, 줄어들지는 않음)
+
+        void add(Stay s) {
+            byStart.computeIfAbsent(s.start, k -> new ArrayList<>(1)).add(s);
+            maxLength = Math.max(maxLength, s.end - s.start);
+        }
+
+        void remove(Stay s) {
+            List<Stay> list = byStart.get(s.start);
+            if (list == null) return;
+            list.remove(s);
+            if (list.isEmpty()) byStart.remove(s.start);
+        }
+
+        /** [from, to)와 겹치는 유효한 구간이 하나라도 있는지 */
+        boolean overlaps(long from, long to, long cancelledBefore) {
+            if (to <= from) return false;
+            for (List<Stay> list : byStart.subMap(from - maxLength, false, to, false).values()) {
+                for (Stay s : list) {
+                    if (s.end > from && !isCancelled(s, cancelledBefore)) return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RoomStays> rooms = new HashMap<>();
+
+    // ==========================================================
+    // 갱신 (ReservationStore 알림)
+    // ==========================================================
+    @Override
+    public void rowChanged(Reservation oldRow, Reservation newRow) {
+        lock.writeLock().lock();
+        try {
+            if (oldRow != null) apply(oldRow, false);
+            if (newRow != null) apply(newRow, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Reservation row, boolean add) {
+        if (!row.has(Reservation.IDX_STATUS)) return;
+        // 체크아웃된 방은 재판매 가능하므로 색인하지 않음
+        if (row.status() == ReservationStatus.CHECKED_OUT) return;
+        // 날짜 형식 오류 행은 예약된 방으로 보지 않음 (기존 동작과 동일)
+        if (!row.hasStayDates()) return;
+
+        Stay stay = new Stay(row.checkInDay(), row.checkOutDay(), row.isOnsitePending());
+        String room = Reservation.roomKey(row.room());
+        if (add) {
+            rooms.computeIfAbsent(room, k -> new RoomStays()).add(stay);
+        } else {
+            RoomStays rs = rooms.get(room);
+            if (rs != null) rs.remove(stay);
+        }
+    }
+
+    // ==========================================================
+    // 조회
+    // ==========================================================
+    /**
+     * [checkIn, checkOut) 기간에 이미 예약된 객실 번호 목록 (객실번호 순, 중복 없음)
+     * @param today/now 현장결제 자동 취소 판단 기준 (KST)
+     */
+    List<String> bookedRooms(LocalDate checkIn, LocalDate checkOut, LocalDate today, LocalTime now) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        long cancelledBefore = cancelledBefore(today, now);
+
+        List<String> booked = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, RoomStays> e : rooms.entrySet()) {
+                if (e.getValue().overlaps(from, to, cancelledBefore)) booked.add(e.getKey());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Collections.sort(booked);
+        return booked;
+    }
+
+    /** 객실 하나가 [checkIn, checkOut) 기간에 이미 예약되어 있는지 (예약 확정 직전 확인용) */
+    boolean isBooked(String room, LocalDate checkIn, LocalDate checkOut, LocalDate today, LocalTime now) {
+        lock.readLock().lock();
+        try {
+            RoomStays rs = rooms.get(Reservation.roomKey(room));
+            return rs != null && rs.overlaps(checkIn.toEpochDay(), checkOut.toEpochDay(), cancelledBefore(today, now));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * [from, to) 기간의 날짜별 예약된 객실 목록 (한 번의 조회로 여러 날짜를 확인할 때)
+     * - 결과의 키는 "yyyy-MM-dd" (날짜순), 값은 그 날 밤 투숙 중인 객실 번호 (객실번호 순)
+     * - [in, out) 기간의 예약 현황은 in ~ out-1 날짜 목록의 합집합과 같습니다.
+     */
+    Map<String, List<String>> bookedRoomsByNight(LocalDate from, LocalDate to, LocalDate today, LocalTime now) {
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+        long cancelledBefore = cancelledBefore(today, now);
+
+        Map<Long, TreeSet<String>> nights = new TreeMap<>();
+        for (long d = start; d < end; d++) nights.put(d, new TreeSet<>());
+        if (nights.isEmpty()) return new LinkedHashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, RoomStays> e : rooms.entrySet()) {
+                RoomStays rs = e.getValue();
+                for (List<Stay> list : rs.byStart.subMap(start - rs.maxLength, false, end, false).values()) {
+                    for (Stay s : list) {
+                        if (isCancelled(s, cancelledBefore)) continue;
+                        for (long d = Math.max(s.start, start); d < Math.min(s.end, end); d++) {
+                            nights.get(d).add(e.getKey());
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (Map.Entry<Long, TreeSet<String>> e : nights.entrySet()) {
+            result.put(LocalDate.ofEpochDay(e.getKey()).toString(), new ArrayList<>(e.getValue()));
+        }
+        return result;
+    }
+
+    // ==========================================================
+    // 현장결제 자동 취소 규칙
+    // ==========================================================
+    /**
+     * 체크인일이 이 값(epochDay)보다 이르면 자동 취소된 예약
+     * - 체크인일이 지났거나, 체크인일이 오늘이고 18시가 지났으면 취소
+     */
+    static long cancelledBefore(LocalDate today, LocalTime now) {
+        return now.isAfter(ONSITE_CANCEL_TIME) ? today.toEpochDay() + 1 : today.toEpochDay();
+    }
+
+    private static boolean isCancelled(Stay s, long cancelledBefore) {
+        return s.onsitePending && s.start < cancelledBefore;
+    }
+}
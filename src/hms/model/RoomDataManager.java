@@ -1,16 +1,46 @@
 package hms.model;
 
+import hms.util.Log;
+
 import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class RoomDataManager {
     // 경로를 src/hms/files/ 로 통일했습니다.
     private static final String ROOM_FILE = "data/rooms.txt";
     private static final String HISTORY_FILE = "data/room_history.txt";
 
+    // getAllRooms 행의 버전 칸 (객실번호, 등급, 가격, 버전)
+    public static final int IDX_VERSION = 3;
+
+    /** 객실 파일 한 줄 + 저장소 키 + 버전 (바뀌지 않음, 수정하면 새로 만듦) */
+    private static final class Row {
+        final String[] parts;
+        final long key;
+        final long version;
+
+        Row(String[] parts, long key, long version) {
+            this.parts = parts;
+            this.key = key;
+            this.version = version;
+        }
+    }
+
+    // 객실 파일 내용 (파일 순서, 3칸 미만 줄도 그대로 보관)
+    // 조회는 잠금 없이 현재 목록을 그대로 읽고, 변경은 writeLock 안에서 저장소(hms.storage: text / btree)에
+    // 먼저 쓴 뒤 새 목록으로 통째로 교체 (파일 전체를 다시 쓰는 동안에도 조회는 기다리지 않음)
+    private volatile List<Row> rows = Collections.emptyList();
+    private final Object writeLock = new Object();
+    private final VersionClock versions = new VersionClock();
+    private long nextKey;
+    private final RowRepository repository;
+
     public RoomDataManager() {
         File file = new File(ROOM_FILE);
         if (!file.exists()) {
@@ -18,6 +48,27 @@ public class RoomDataManager {
             if (file.getParentFile() != null) file.getParentFile().mkdirs();
             initDummyData(); // 초기 데이터 생성
         }
+
+        List<Row> loaded = new ArrayList<>();
+        try {
+            repository = RowRepository.open(ROOM_FILE);
+            repository.load((key, parts) -> {
+                loaded.add(new Row(parts, key, versions.next()));
+                nextKey = key + 1;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("객실 저장소 열기 실패: " + e.getMessage(), e);
+        }
+        rows = Collections.unmodifiableList(loaded);
+    }
+
+    /** 서버 종료 시 저장소를 닫습니다. */
+    public void close() {
+        synchronized (writeLock) {
+            try {
+                repository.close();
+            } catch (IOException ignored) {}
+        }
     }
 
     // [1단계 핵심] 초기 데이터 생성 로직 수정 (1층:스탠다드, 2층:디럭스, 3층:스위트)
@@ -43,79 +94,87 @@ public class RoomDataManager {
                     pw.println(roomNum + "," + grade + "," + price);
                 }
             }
-            System.out.println(">>> rooms.txt 파일이 자동으로 생성되었습니다. (총 24개 객실)");
+            Log.info("객실", "rooms.txt 파일이 자동으로 생성되었습니다.", "rooms", 24);
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.error("객실", "rooms.txt 생성 실패", e);
         }
     }
 
-    // 모든 객실 조회
+    // 모든 객실 조회 (객실번호, 등급, 가격, 버전) - 버전은 updateRoom에 돌려보내는 값
     public List<String[]> getAllRooms() {
         List<String[]> list = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(ROOM_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 3) list.add(parts);
-            }
-        } catch (IOException e) { e.printStackTrace(); }
+        for (Row row : rows) {
+            String[] parts = row.parts;
+            if (parts.length >= 3) list.add(new String[]{parts[0], parts[1], parts[2], String.valueOf(row.version)});
+        }
         return list;
     }
 
     // [예약 시스템 연동용] 특정 객실 가격 조회 메서드 추가
     public int getRoomPrice(String roomNumber) {
-        try (BufferedReader br = new BufferedReader(new FileReader(ROOM_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
+        try {
+            for (Row row : rows) {
+                String[] parts = row.parts;
                 // 방 번호 일치 시 가격 리턴
                 if (parts.length >= 3 && parts[0].equals(roomNumber)) {
                     return Integer.parseInt(parts[2].trim());
                 }
             }
-        } catch (Exception e) { e.printStackTrace(); }
+        } catch (Exception e) { Log.error("객실", "가격 읽기 실패", e, "room", roomNumber); }
         return 0; // 못 찾으면 0
     }
 
     // 객실 추가
     public boolean addRoom(String roomNum, String grade, int price) {
-        if (getRoom(roomNum) != null) return false; // 중복 방지
-
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ROOM_FILE, true))) {
-            pw.println(roomNum + "," + grade + "," + price);
+        synchronized (writeLock) {
+            if (getRoom(roomNum) != null) return false; // 중복 방지
+
+            String line = roomNum + "," + grade + "," + price;
+            try {
+                repository.append(nextKey, line);
+            } catch (IOException e) { return false; }
+            List<Row> next = new ArrayList<>(rows);
+            next.add(new Row(line.split(",", -1), nextKey++, versions.next()));
+            rows = Collections.unmodifiableList(next);
             return true;
-        } catch (IOException e) { return false; }
+        }
     }
 
     // [핵심 수정] 객실 수정: 사유(reason)를 받아서 이력 파일에 기록
     public boolean updateRoom(String roomNum, String newGrade, int newPrice, String reason) {
-        List<String> lines = new ArrayList<>();
-        boolean updated = false;
-        String oldPrice = "0"; // 기록용 예전 가격
-
-        try (BufferedReader br = new BufferedReader(new FileReader(ROOM_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 3 && parts[0].equals(roomNum)) {
-                    oldPrice = parts[2]; // 수정 전 가격 저장
-                    lines.add(roomNum + "," + newGrade + "," + newPrice); // 새 정보로 교체
-                    updated = true;
-                } else {
-                    lines.add(line);
+        return updateRoom(roomNum, newGrade, newPrice, reason, VersionClock.ANY).isUpdated();
+    }
+
+    /**
+     * 객실 수정 (버전 검사)
+     * @param expectedVersion getAllRooms에서 받은 버전. 그 사이 다른 곳에서 수정됐으면 STALE (ANY면 검사 안 함)
+     */
+    public UpdateResult updateRoom(String roomNum, String newGrade, int newPrice, String reason, long expectedVersion) {
+        synchronized (writeLock) {
+            Row current = findRow(roomNum);
+            if (current == null) return UpdateResult.NOT_FOUND;
+            if (!VersionClock.matches(expectedVersion, current.version)) return UpdateResult.STALE;
+
+            List<Row> next = new ArrayList<>(rows);
+            Map<Long, String> changed = new TreeMap<>();
+            String oldPrice = current.parts[2]; // 기록용 예전 가격
+            long version = versions.next();
+
+            for (int i = 0; i < next.size(); i++) {
+                Row row = next.get(i);
+                if (row.parts.length >= 3 && row.parts[0].equals(roomNum)) {
+                    String line = roomNum + "," + newGrade + "," + newPrice; // 새 정보로 교체
+                    next.set(i, new Row(line.split(",", -1), row.key, version));
+                    changed.put(row.key, line);
                 }
             }
-        } catch (IOException e) { return false; }
 
-        if (updated) {
-            boolean success = rewriteFile(lines);
-            if (success) {
-                // 수정 성공 시 히스토리 저장
-                saveHistory(roomNum, oldPrice, String.valueOf(newPrice), reason);
-            }
-            return success;
+            if (!save(changed, next)) return UpdateResult.FAILED;
+            rows = Collections.unmodifiableList(next);
+            // 수정 성공 시 히스토리 저장
+            saveHistory(roomNum, oldPrice, String.valueOf(newPrice), reason);
+            return UpdateResult.UPDATED;
         }
-        return false;
     }
 
     // [신규 기능] 이력 저장 메서드 (room_history.txt)
@@ -126,49 +185,55 @@ public class RoomDataManager {
                     now, roomNum, oldPrice, newPrice, reason);
             bw.write(log);
             bw.newLine();
-            System.out.println("LOG SAVED: " + log);
+            Log.info("객실", "가격 변경 이력 저장", "room", roomNum, "oldPrice", oldPrice, "newPrice", newPrice, "reason", reason);
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.error("객실", "가격 변경 이력 저장 실패", e, "room", roomNum);
         }
     }
 
     // 객실 삭제
     public boolean deleteRoom(String roomNum) {
-        List<String> lines = new ArrayList<>();
-        boolean deleted = false;
-        try (BufferedReader br = new BufferedReader(new FileReader(ROOM_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 3 && parts[0].equals(roomNum)) {
-                    deleted = true;
+        synchronized (writeLock) {
+            List<Row> next = new ArrayList<>();
+            Map<Long, String> changed = new TreeMap<>();
+            for (Row row : rows) {
+                if (row.parts.length >= 3 && row.parts[0].equals(roomNum)) {
+                    changed.put(row.key, null);
                 } else {
-                    lines.add(line);
+                    next.add(row);
                 }
             }
-        } catch (IOException e) { return false; }
 
-        if (deleted) return rewriteFile(lines);
-        return false;
+            if (!changed.isEmpty() && save(changed, next)) {
+                rows = Collections.unmodifiableList(next);
+                return true;
+            }
+            return false;
+        }
     }
 
     // 내부 헬퍼: 단일 객실 찾기
     private String[] getRoom(String roomNum) {
-        try (BufferedReader br = new BufferedReader(new FileReader(ROOM_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 3 && parts[0].equals(roomNum)) return parts;
-            }
-        } catch (IOException e) {}
+        Row row = findRow(roomNum);
+        return (row == null) ? null : row.parts;
+    }
+
+    private Row findRow(String roomNum) {
+        for (Row row : rows) {
+            if (row.parts.length >= 3 && row.parts[0].equals(roomNum)) return row;
+        }
         return null;
     }
 
-    // 내부 헬퍼: 파일 덮어쓰기
-    private boolean rewriteFile(List<String> lines) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ROOM_FILE))) {
-            for (String l : lines) pw.println(l);
+    // 내부 헬퍼: 바뀐 줄을 저장소에 반영 (text 방식은 전체 줄을 임시 파일에 쓴 뒤 교체)
+    private boolean save(Map<Long, String> changed, List<Row> all) {
+        try {
+            repository.checkpoint(changed, () -> {
+                List<String> lines = new ArrayList<>(all.size());
+                for (Row row : all) lines.add(String.join(",", row.parts));
+                return lines;
+            });
             return true;
         } catch (IOException e) { return false; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package hms.model;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 객실 번호별 잠금 (고정 개수의 잠금을 객실 번호 해시로 나눠 씀)
+ * - 같은 객실의 예약/체크인/체크아웃은 한 번에 하나씩, 다른 객실은 동시에 진행됩니다.
+ * - 객실마다 잠금을 만들지 않으므로 객실이 늘어도 메모리는 그대로입니다.
+ *   (서로 다른 객실이 같은 칸에 걸리면 잠시 같이 기다릴 뿐, 결과는 달라지지 않음)
+ * - 한 번에 객실 하나의 잠금만 잡습니다. (여러 객실을 함께 잡지 않으므로 교착 없음)
+ */
+final class RoomLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /** @param stripes 잠금 개수 (2의 거듭제곱으로 올림) */
+    RoomLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(2, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) this.stripes[i] = new ReentrantLock();
+    }
+
+    /** room의 잠금 (lock() 후 finally에서 unlock()) */
+    Lock of(String room) {
+        int h = Reservation.roomKey(room).hashCode();
+        h ^= (h >>> 16); // 해시의 위쪽 비트도 칸 선택에 반영
+        return stripes[h & mask];
+    }
+}
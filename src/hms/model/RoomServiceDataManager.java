@@ -1,19 +1,45 @@
 package hms.model;
 
+import hms.util.Log;
+
 import java.io.*;
 import java.nio.file.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class RoomServiceDataManager {
 
     private static final String MENU_FILE_PATH = "data/room_service_menu.txt";
     private static final String REQUEST_FILE_PATH = "data/room_service_requests.txt";
+    private static final String REQUEST_LOG_PATH = "data/room_service_changes.log";
 
     // ⭐ 두 개의 메모리 캐시
     private final List<String[]> menuCache = Collections.synchronizedList(new ArrayList<>());
-    private final List<String[]> requestCache = Collections.synchronizedList(new ArrayList<>());
+    // 주문은 인덱스가 있는 저장소에 (주문번호/상태/객실/시각별 조회)
+    private final RoomServiceRequestStore requestStore = new RoomServiceRequestStore();
+    // 주문 파일 저장 방식 (hms.storage: text / btree, 메뉴는 작아서 항상 텍스트 파일)
+    private final RowRepository requestRepository;
+    // 주문 변경(변경 기록 추가 + 저장소 반영 예약)은 한 번에 하나씩, 같은 순서로
+    private final Object requestWriteLock = new Object();
+
+    /** 주문 변경 알림 (저장소 쓰기 잠금 안, 주로 변경 기록 쓰기 스레드에서 호출되므로 짧게 처리할 것) */
+    public interface RequestListener {
+        /**
+         * @param oldRow 변경 전 주문 (새 주문이면 null)
+         * @param newRow 변경 후 주문
+         */
+        void requestChanged(String[] oldRow, String[] newRow);
+    }
+
+    // 주문 변경은 파일 전체를 다시 쓰지 않고 변경 기록에 묶어서 추가 (전용 쓰기 스레드)
+    private final RoomServiceRequestLog requestLog = new RoomServiceRequestLog(REQUEST_LOG_PATH,
+            RoomServiceRequestLog.Durability.parse(System.getProperty("hms.roomservice.durability", "fsync")),
+            Long.getLong("hms.roomservice.commitWindowMillis", 2),
+            Integer.getInteger("hms.roomservice.compactThreshold", 1000),
+            Long.getLong("hms.roomservice.compactSeconds", 30));
 
     private AtomicLong menuIdCounter = new AtomicLong(0);
     private AtomicLong requestIdCounter = new AtomicLong(0);
@@ -30,8 +56,16 @@ public class RoomServiceDataManager {
         initializeFile(MENU_FILE_PATH);
         initializeFile(REQUEST_FILE_PATH);
 
+        try {
+            requestRepository = RowRepository.open(REQUEST_FILE_PATH);
+        } catch (IOException e) {
+            throw new UncheckedIOException("룸서비스 주문 저장소 열기 실패: " + e.getMessage(), e);
+        }
+
         loadMenuCache();
         loadRequestCache();
+        replayRequestLog();
+        requestLog.start(this::saveRequestsToFile);
     }
 
     private void initializeFile(String filePath) {
@@ -62,31 +96,62 @@ public class RoomServiceDataManager {
             }
         } catch (Exception e) {}
         menuIdCounter.set(max + 1);
-        System.out.println(">>> [룸서비스] 메뉴 로드 완료: " + menuCache.size() + "개");
+        Log.info("룸서비스", "메뉴 로드 완료", "items", menuCache.size());
     }
 
     private void loadRequestCache() {
-        requestCache.clear();
+        try {
+            requestStore.load(requestRepository);
+        } catch (Exception e) {}
         long max = 0;
-        try (BufferedReader br = new BufferedReader(new FileReader(REQUEST_FILE_PATH))) {
-            String l;
-            while ((l = br.readLine()) != null) {
-                String[] p = l.split(",", -1); // -1 중요
-                if (p.length >= 6) {
-                    requestCache.add(p);
-                    // ID 형식: R241127-001 -> 뒷부분 숫자 추출
-                    try {
-                        String[] idParts = p[0].split("-");
-                        if(idParts.length > 1) {
-                            long c = Long.parseLong(idParts[1]);
-                            if (c > max) max = c;
-                        }
-                    } catch (Exception e) {}
+        for (String[] p : requestStore.allRows()) {
+            // ID 형식: R241127-001 -> 뒷부분 숫자 추출
+            try {
+                String[] idParts = p[0].split("-");
+                if(idParts.length > 1) {
+                    long c = Long.parseLong(idParts[1]);
+                    if (c > max) max = c;
                 }
-            }
-        } catch (Exception e) {}
+            } catch (Exception e) {}
+        }
         requestIdCounter.set(max + 1);
-        System.out.println(">>> [룸서비스] 주문 로드 완료: " + requestCache.size() + "건");
+        Log.info("룸서비스", "주문 로드 완료", "orders", requestStore.size());
+    }
+
+    // 지난 실행에서 주문 파일에 합치지 못한 변경 기록을 다시 적용 (리스너 등록 전이라 알림 없음)
+    private void replayRequestLog() {
+        try {
+            List<String[]> records = requestLog.replay();
+            for (String[] r : records) {
+                if (r[0].equals(RoomServiceRequestLog.RECORD_ADD)) {
+                    String[] row = Arrays.copyOfRange(r, 1, 7);
+                    if (requestStore.update(row[0], old -> row) == null) {
+                        requestStore.add(row);
+                        try {
+                            long c = Long.parseLong(row[0].split("-")[1]);
+                            if (c >= requestIdCounter.get()) requestIdCounter.set(c + 1);
+                        } catch (Exception e) {}
+                    }
+                } else {
+                    requestStore.update(r[1], p -> { p[4] = r[2]; return p; });
+                }
+            }
+            if (!records.isEmpty()) {
+                Log.info("룸서비스", "변경 기록 복구", "records", records.size());
+            }
+        } catch (IOException e) {
+            Log.error("룸서비스", "변경 기록 읽기 실패", e);
+        }
+    }
+
+    /** 리스너를 등록하고, 이미 있는 주문들을 새 주문으로 한 번씩 알려줍니다. */
+    void addRequestListener(RequestListener listener) {
+        requestStore.addListener(listener, true);
+    }
+
+    /** 이후에 생기는 주문 변경만 알려받는 리스너를 등록합니다. (실시간 알림용) */
+    public void addLiveRequestListener(RequestListener listener) {
+        requestStore.addListener(listener, false);
     }
 
     // --- 저장 ---
@@ -99,13 +164,52 @@ public class RoomServiceDataManager {
         } catch (Exception e) { return false; }
     }
 
+    // 변경 기록 쓰기 스레드에서만 호출 (compaction)
+    // 바뀐 주문만 저장소에 반영 (text 방식은 전체 줄을 임시 파일에 쓴 뒤 원본과 교체)
     private boolean saveRequestsToFile() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(REQUEST_FILE_PATH))) {
-            synchronized (requestCache) {
-                for (String[] p : requestCache) pw.println(String.join(",", p));
-            }
+        try {
+            requestStore.flushTo(requestRepository);
             return true;
-        } catch (Exception e) { return false; }
+        } catch (IOException e) {
+            Log.error("룸서비스", "주문 저장 실패", e);
+            return false;
+        }
+    }
+
+    // 기록이 디스크 반영 수준까지 끝날 때까지 기다림 (잠금 밖에서 호출)
+    private boolean awaitDurable(CompletableFuture<Boolean> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            Log.error("룸서비스", "주문 반영 실패", e.getCause());
+            return false;
+        }
+    }
+
+    // 기록 한 줄을 붙이고, 디스크 반영 수준까지 끝난 뒤에 저장소에 반영 (requestWriteLock 안에서 호출)
+    // - 기록에 실패하면 반영하지 않으므로, 리스너(주문 알림 등)는 디스크에 남은 변경만 봅니다.
+    // - 반영은 쓰기 스레드가 기록 순서대로, compaction 전에 실행합니다. (합친 주문 파일과 기록 어디에도 없는 변경이 생기지 않음)
+    // - ASYNC는 기록을 기다리지 않는 설정이므로 바로 반영합니다. (기록은 같은 값이라 합친 뒤에 쓰여도 안전)
+    private CompletableFuture<Boolean> appendAndApply(Runnable apply, String... fields) {
+        if (requestLog.getDurability() == RoomServiceRequestLog.Durability.ASYNC) {
+            requestLog.append(fields);
+            apply.run();
+            return CompletableFuture.completedFuture(true);
+        }
+        return requestLog.append(apply, fields);
+    }
+
+    /** 서버 종료 시: 남은 주문 변경 기록을 모두 쓰고 주문 파일에 합친 뒤 저장소를 닫습니다. */
+    public void close() {
+        try {
+            requestLog.close();
+        } catch (IOException ignored) {}
+        try {
+            requestRepository.close();
+        } catch (IOException ignored) {}
     }
 
     // --- 메뉴 관련 메서드 ---
@@ -162,82 +266,83 @@ public class RoomServiceDataManager {
     }
 
     // --- 주문(Request) 관련 메서드 ---
+    /** @return 주문번호, 변경 기록에 실패하면 null (주문은 반영되지 않음) */
     public String addServiceRequest(String r, String i, long t) {
         String id = "R" + ID_DATE_FORMATTER.format(java.time.LocalDateTime.now()) + "-" + String.format("%03d", requestIdCounter.getAndIncrement());
         String time = java.time.LocalDateTime.now().format(TIMESTAMP_FORMATTER);
+        // 주문 파일은 쉼표로 칸을 나누므로 품목 구분은 기존 데이터처럼 "; " ("피자 x 1, 콜라 x 2" -> "피자 x 1; 콜라 x 2")
+        i = (i == null) ? "" : i.replaceAll("\\s*,\\s*", "; ");
 
-        synchronized (requestCache) {
-            requestCache.add(new String[]{id, r, i, String.valueOf(t), STATUS_PENDING, time});
-            saveRequestsToFile();
+        String[] row = {id, r, i, String.valueOf(t), STATUS_PENDING, time};
+        CompletableFuture<Boolean> durable;
+        synchronized (requestWriteLock) {
+            durable = appendAndApply(() -> requestStore.add(row),
+                    RoomServiceRequestLog.RECORD_ADD, id, r, i, String.valueOf(t), STATUS_PENDING, time);
         }
-        return id;
+        return awaitDurable(durable) ? id : null;
     }
 
     public List<String[]> getAllRequests() {
-        synchronized (requestCache) {
-            return new ArrayList<>(requestCache);
-        }
+        return requestStore.allRows();
     }
 
     public List<String[]> getRequestsByStatus(String s) {
-        List<String[]> list = new ArrayList<>();
-        synchronized (requestCache) {
-            for(String[] p : requestCache) {
-                if(p.length >= 5 && p[4].trim().equals(s)) list.add(p);
-            }
+        return requestStore.findByStatus(s);
+    }
+
+    /** 객실의 모든 주문 (주문 순서) */
+    public List<String[]> getRequestsByRoom(String room) {
+        return requestStore.findByRoom(room);
+    }
+
+    /**
+     * 객실 청구 내역 (체크아웃 정산용): 아직 결제되지 않은 '완료' 주문과 합계
+     * - 상태는 앞뒤 공백을 빼고 비교합니다. (체크아웃 화면이 '완료' 목록을 받아 객실로 거르던 것과 같은 결과)
+     * @return {"charges": List<String[]> (각 {주문번호, 시각, 품목, 금액}, 주문 순서), "total": Long}
+     */
+    public Map<String, Object> getRoomFolio(String room) {
+        List<String[]> charges = new ArrayList<>();
+        long total = 0;
+        for (String[] p : requestStore.findByRoom(room)) {
+            if (!p[4].trim().equals(STATUS_COMPLETED)) continue;
+            charges.add(new String[]{p[0], p[5], p[2], p[3]});
+            try { total += Long.parseLong(p[3]); } catch (Exception e) {}
         }
-        return list;
+        Map<String, Object> folio = new HashMap<>();
+        folio.put("charges", charges);
+        folio.put("total", total);
+        return folio;
     }
 
     public boolean updateRequestStatus(String id, String s) {
-        synchronized (requestCache) {
-            for(int k=0; k<requestCache.size(); k++) {
-                String[] p = requestCache.get(k);
-                if(p.length >= 6 && p[0].equals(id)) {
-                    p[4] = s;
-                    requestCache.set(k, p);
-                    return saveRequestsToFile();
-                }
+        CompletableFuture<Boolean> durable = null;
+        synchronized (requestWriteLock) {
+            if (requestStore.findById(id) != null) {
+                durable = appendAndApply(() -> requestStore.update(id, p -> { p[4] = s; return p; }),
+                        RoomServiceRequestLog.RECORD_STATUS, id, s);
             }
         }
-        return false;
+        return durable != null && awaitDurable(durable);
     }
 
     public boolean updateStatusByRoomAndStatus(String r, String ts, String ns) {
-        synchronized (requestCache) {
-            boolean updated = false;
-            for(int k=0; k<requestCache.size(); k++) {
-                String[] p = requestCache.get(k);
-                if(p.length >= 5 && p[1].equals(r) && p[4].equals(ts)) {
-                    p[4] = ns;
-                    requestCache.set(k, p);
-                    updated = true;
-                }
+        // 바뀐 주문마다 기록 한 줄 (쓰기 스레드가 한 묶음으로 모아 씀), 각 줄이 기록되면 그 주문만 반영, 모두 반영되어야 성공
+        CompletableFuture<Boolean> durable = null;
+        synchronized (requestWriteLock) {
+            for (String[] p : requestStore.findByRoomAndStatus(r, ts)) {
+                String id = p[0];
+                CompletableFuture<Boolean> f = appendAndApply(() -> requestStore.update(id, row -> { row[4] = ns; return row; }),
+                        RoomServiceRequestLog.RECORD_STATUS, id, ns);
+                durable = (durable == null) ? f : durable.thenCombine(f, (a, b) -> a && b);
             }
-            if(updated) return saveRequestsToFile();
         }
-        return false;
+        return durable != null && awaitDurable(durable);
     }
 
     // 보고서용
     public List<String[]> getPaidRequestsByPeriod(String startStr, String endStr) {
-        List<String[]> list = new ArrayList<>();
         long startInt = Long.parseLong(startStr.replace("-", "") + "000000");
         long endInt = Long.parseLong(endStr.replace("-", "") + "235959");
-
-        synchronized (requestCache) {
-            for(String[] parts : requestCache) {
-                if (parts.length < 6) continue;
-                if (parts[4].trim().equals(STATUS_PAID)) {
-                    try {
-                        long timestamp = Long.parseLong(parts[5].trim());
-                        if (timestamp >= startInt && timestamp <= endInt) {
-                            list.add(parts);
-                        }
-                    } catch (NumberFormatException e) {}
-                }
-            }
-        }
-        return list;
+        return requestStore.findByStatusAndTime(STATUS_PAID, startInt, endInt);
     }
-}
\ No newline at end of file
+}
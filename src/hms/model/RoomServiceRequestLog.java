@@ -0,0 +1,258 @@
+package hms.model;
+
+import hms.util.Log;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 룸서비스 주문 변경 기록 파일 (추가 전용, 묶음 쓰기)
+ * - 주문 추가/상태 변경마다 주문 파일 전체를 다시 쓰는 대신, 한 줄씩 기록 파일 끝에 붙입니다.
+ * - 한 줄 = "A,주문번호,객실,품목,금액,상태,시각,CRC" 또는 "S,주문번호,상태,CRC" (변경 후 값이라 여러 번 적용해도 결과가 같음)
+ *   값 안의 쉼표 등은 LogFields로 바꿔 적습니다.
+ * - 전용 쓰기 스레드가 짧은 시간(commitWindowMillis) 동안 모인 기록을 한 번에 쓰고 fsync도 한 번만 합니다. (group commit)
+ *   요청한 쪽은 돌려받은 future로 디스크 반영을 기다립니다.
+ * - 기록이 쌓이거나 주기가 되면 쓰기 스레드가 compaction(주문 파일에 합치고 기록 비우기)을 실행합니다.
+ * - 줄 형식과 replay는 LogLines: CRC가 처음 맞지 않는 줄(쓰다가 끊긴 줄 포함)에서 멈추고 그 뒤는 모두 버리며,
+ *   파일도 마지막 정상 줄까지 잘라냅니다. CRC는 맞는데 칸 수가 맞지 않는 줄은 그 줄만 건너뜁니다.
+ */
+class RoomServiceRequestLog implements Closeable {
+
+    static final String RECORD_ADD = "A";
+    static final String RECORD_STATUS = "S";
+
+    /** 디스크 반영 수준 (-Dhms.roomservice.durability) */
+    enum Durability {
+        FSYNC,  // 묶음마다 fsync 후 응답 (기본, 가장 안전)
+        WRITE,  // 운영체제에 쓴 뒤 응답, fsync는 compaction 때 (서버 프로세스가 죽어도 안전, 전원 장애 시 최근 기록 유실 가능)
+        ASYNC;  // 쓰기를 기다리지 않고 바로 응답 (가장 빠름)
+
+        static Durability parse(String s) {
+            return Durability.valueOf(s.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** 쓰기 스레드 안에서 주문 파일을 다시 쓰는 작업 (성공하면 true) */
+    interface Compactor {
+        boolean rewrite();
+    }
+
+    private static final class Pending {
+        final String line;
+        final Runnable apply; // 기록이 끝나면 쓰기 스레드가 실행 (없으면 null)
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+
+        Pending(String line, Runnable apply) {
+            this.line = line;
+            this.apply = apply;
+        }
+    }
+
+    private static final Pending STOP = new Pending("", null);
+
+    private final Path path;
+    private final Durability durability;
+    private final long windowNanos;
+    private final int compactThreshold;
+    private final long compactIntervalNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private FileChannel channel;
+    private int pending; // 아직 주문 파일에 합치지 않은 기록 수 (쓰기 스레드만 사용)
+    private Thread writer;
+    private Compactor compactor;
+
+    RoomServiceRequestLog(String path, Durability durability, long windowMillis, int compactThreshold, long compactIntervalSeconds) {
+        this.path = Paths.get(path);
+        this.durability = durability;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.compactThreshold = compactThreshold;
+        this.compactIntervalNanos = TimeUnit.SECONDS.toNanos(compactIntervalSeconds);
+    }
+
+    Durability getDurability() { return durability; }
+
+    /** 기록 파일의 유효한 변경 목록을 읽습니다. (쓰기 스레드 시작 전에 호출) */
+    List<String[]> replay() throws IOException {
+        List<String[]> records = new ArrayList<>();
+        LogLines.replay(path, "룸서비스", body -> {
+            String[] rec = parse(body);
+            if (rec == null) {
+                Log.warn("룸서비스", "형식이 맞지 않는 변경 기록 건너뜀", "body", body);
+                return;
+            }
+            records.add(rec);
+        });
+        pending = records.size();
+        return records;
+    }
+
+    /** 쓰기 스레드를 시작합니다. */
+    synchronized void start(Compactor compactor) {
+        this.compactor = compactor;
+        writer = new Thread(this::writeLoop, "hms-roomservice-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 기록 한 줄을 쓰기 대기열에 넣습니다. (호출 순서 = 파일에 쓰이는 순서)
+     * @return 디스크 반영 수준(Durability)까지 끝나면 true, 쓰기 실패면 false로 완료되는 future
+     */
+    CompletableFuture<Boolean> append(String... fields) {
+        return append(null, fields);
+    }
+
+    /**
+     * append와 같고, 기록이 디스크 반영 수준까지 끝나면 쓰기 스레드가 apply를 실행합니다.
+     * - future 완료 전, 그리고 다음 compaction 전에 실행되므로, 합친 주문 파일에 빠진 채 기록만 비워지는 일이 없습니다.
+     * - 쓰기에 실패하면 실행하지 않습니다.
+     */
+    CompletableFuture<Boolean> append(Runnable apply, String... fields) {
+        Pending p = new Pending(LogLines.line(LogFields.join(fields)), apply);
+        queue.add(p);
+        return p.done;
+    }
+
+    /** 대기열에 남은 기록을 모두 쓰고 합친 뒤 쓰기 스레드를 멈춥니다. */
+    @Override
+    public void close() throws IOException {
+        Thread t;
+        synchronized (this) {
+            t = writer;
+            writer = null;
+        }
+        if (t == null) return;
+        queue.add(STOP);
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==========================================================
+    // 쓰기 스레드
+    // ==========================================================
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        long lastCompact = System.nanoTime();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                Pending first = queue.poll(Math.max(1, compactIntervalNanos - (System.nanoTime() - lastCompact)), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    // 첫 기록 이후 잠깐 더 모아서 한 번에 씀
+                    long deadline = System.nanoTime() + windowNanos;
+                    long left;
+                    while ((left = deadline - System.nanoTime()) > 0) {
+                        Pending more = queue.poll(left, TimeUnit.NANOSECONDS);
+                        if (more == null) break;
+                        batch.add(more);
+                        if (more == STOP) break;
+                    }
+                    queue.drainTo(batch);
+                    stop = batch.remove(STOP);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                stop = true;
+            }
+            if (stop || pending >= compactThreshold || System.nanoTime() - lastCompact >= compactIntervalNanos) {
+                compact();
+                lastCompact = System.nanoTime();
+            }
+        }
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException ignored) {}
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        if (batch.isEmpty()) return;
+        boolean ok;
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (Pending p : batch) sb.append(p.line);
+            ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            FileChannel ch = channel();
+            while (buf.hasRemaining()) ch.write(buf);
+            if (durability == Durability.FSYNC) ch.force(false);
+            pending += batch.size();
+            ok = true;
+        } catch (IOException e) {
+            Log.error("룸서비스", "변경 기록 실패", e);
+            ok = false;
+        }
+        for (Pending p : batch) {
+            if (ok && p.apply != null) {
+                try {
+                    p.apply.run();
+                } catch (RuntimeException e) {
+                    Log.error("룸서비스", "주문 반영 실패", e);
+                    p.done.complete(false);
+                    continue;
+                }
+            }
+            p.done.complete(ok);
+        }
+    }
+
+    /** 주문 파일에 합치고 기록을 비웁니다. (대기열에 남은 기록은 합친 뒤에 다시 쓰여도 같은 값이라 안전) */
+    private void compact() {
+        if (pending == 0 || compactor == null) return;
+        if (!compactor.rewrite()) {
+            Log.warn("룸서비스", "주문 파일 합치기 실패 - 다음 주기에 다시 시도");
+            return;
+        }
+        try {
+            FileChannel ch = channel();
+            ch.truncate(0);
+            ch.force(true);
+            pending = 0;
+        } catch (IOException e) {
+            Log.error("룸서비스", "변경 기록 비우기 실패", e);
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /** CRC를 확인한 본문 -> 기록 칸 배열, 칸 수가 맞지 않으면 null */
+    static String[] parse(String body) {
+        String[] parts = LogFields.split(body);
+        switch (parts[0]) {
+            case RECORD_ADD:
+                if (parts.length == 7) return parts;
+                // 값을 바꿔 적기 전에 쓴 기록: 품목("A x 1, B x 2")의 쉼표로 칸이 늘어남 -> 앞 3칸/뒤 3칸 사이가 품목
+                if (parts.length > 7) {
+                    String items = String.join(",", Arrays.copyOfRange(parts, 3, parts.length - 3));
+                    return new String[]{parts[0], parts[1], parts[2], items,
+                            parts[parts.length - 3], parts[parts.length - 2], parts[parts.length - 1]};
+                }
+                return null;
+            case RECORD_STATUS:
+                return (parts.length == 3) ? parts : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package hms.model;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * 룸서비스 주문 파일(room_service_requests.txt)의 메모리 사본 + 조회용 인덱스
+ * - 주문번호 / 상태 / 객실 / 객실+상태 / 상태별 주문 시각 순 인덱스를 함께 관리하므로,
+ *   주방 대기 목록이나 객실별 주문 조회가 전체 주문 수가 아닌 결과 개수에 비례합니다.
+ * - 한 줄 = {주문번호, 객실, 품목, 금액, 상태, 시각(yyyyMMddHHmmss)} (6칸 미만 줄은 읽을 때 버림, 기존과 동일)
+ * - 행(String[])은 한 번 넣으면 수정하지 않고, 상태 변경 시 새 배열로 교체합니다. (인덱스도 같은 잠금 안에서 함께 갱신)
+ * - 목록 조회 결과는 모두 파일 순서이고, 같은 주문번호가 여러 줄이면 먼저 나온 줄을 찾습니다. (기존 목록 순회와 동일)
+ * - 행마다 저장소(RowRepository) 키를 들고 있고, 추가/교체된 행은 다음 flushTo 때 그 키로 내려씁니다.
+ */
+class RoomServiceRequestStore {
+
+    private static final int IDX_ID = 0;
+    private static final int IDX_ROOM = 1;
+    private static final int IDX_STATUS = 4;
+    private static final int IDX_TIME = 5;
+
+    /** 파일의 한 줄 */
+    private static final class Entry {
+        final int pos;   // 파일 내 순서
+        final long key;  // 저장소 키
+        String[] row;
+
+        Entry(int pos, long key, String[] row) {
+            this.pos = pos;
+            this.key = key;
+            this.row = row;
+        }
+    }
+
+    /** 키 하나에 여러 행이 걸리는 인덱스 (파일 순서 유지) */
+    private static final class MultiIndex {
+        private final Map<String, TreeMap<Integer, Entry>> map = new HashMap<>();
+
+        void add(String key, Entry e) {
+            map.computeIfAbsent(key, k -> new TreeMap<>()).put(e.pos, e);
+        }
+
+        void remove(String key, Entry e) {
+            TreeMap<Integer, Entry> m = map.get(key);
+            if (m == null) return;
+            m.remove(e.pos);
+            if (m.isEmpty()) map.remove(key);
+        }
+
+        Entry first(String key) {
+            TreeMap<Integer, Entry> m = map.get(key);
+            return (m == null) ? null : m.firstEntry().getValue();
+        }
+
+        Collection<Entry> get(String key) {
+            TreeMap<Integer, Entry> m = map.get(key);
+            return (m == null) ? Collections.emptyList() : m.values();
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> lines = new ArrayList<>();
+
+    private final MultiIndex byId = new MultiIndex();          // 주문번호
+    private final MultiIndex byStatus = new MultiIndex();      // 상태 (앞뒤 공백 제거)
+    private final MultiIndex byRoom = new MultiIndex();        // 객실번호
+    private final MultiIndex byRoomStatus = new MultiIndex();  // 객실번호 + 상태 (일괄 변경용, 파일 값 그대로 비교)
+    // 상태 -> 주문 시각 -> (파일 순서 -> 행) : 기간 조회용 (시각이 숫자가 아닌 줄은 제외)
+    private final Map<String, TreeMap<Long, TreeMap<Integer, Entry>>> byStatusTime = new HashMap<>();
+
+    private final List<RoomServiceDataManager.RequestListener> listeners = new ArrayList<>();
+
+    private long nextKey;
+    // 마지막 flushTo 이후 추가/교체된 행 (키 -> 행)
+    private Map<Long, Entry> dirty = new HashMap<>();
+
+    /**
+     * 리스너를 등록합니다.
+     * @param replay true면 이미 들어 있는 주문들을 새 주문으로 한 번씩 알려줌
+     */
+    void addListener(RoomServiceDataManager.RequestListener listener, boolean replay) {
+        lock.writeLock().lock();
+        try {
+            listeners.add(listener);
+            if (replay) {
+                for (Entry e : lines) listener.requestChanged(null, e.row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // 로드 / 저장용 스냅샷
+    // ==========================================================
+    /** 서버 시작 시 한 번 호출 (리스너 등록 전) */
+    void load(RowRepository repository) throws IOException {
+        lock.writeLock().lock();
+        try {
+            // 빈 칸 유지 (split(",", -1)과 같음)
+            repository.load((key, p) -> {
+                nextKey = Math.max(nextKey, key + 1);
+                if (p.length >= 6) appendLocked(key, p);
+            });
+            dirty.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 마지막 flushTo 이후 추가/교체된 행을 저장소에 내려씁니다.
+     * 실패하면 IOException, 그 행들은 다음 flushTo 때 다시 씁니다.
+     */
+    void flushTo(RowRepository repository) throws IOException {
+        Map<Long, Entry> taken;
+        Map<Long, String> changed = new TreeMap<>();
+        lock.writeLock().lock();
+        try {
+            taken = dirty;
+            dirty = new HashMap<>();
+            for (Entry e : taken.values()) changed.put(e.key, String.join(",", e.row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            repository.checkpoint(changed, this::snapshotLines);
+        } catch (IOException | RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                for (Entry x : taken.values()) dirty.putIfAbsent(x.key, x);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    /** 파일에 그대로 쓸 수 있는 전체 줄 (파일 순서) */
+    List<String> snapshotLines() {
+        lock.readLock().lock();
+        try {
+            List<String> out = new ArrayList<>(lines.size());
+            for (Entry e : lines) out.add(String.join(",", e.row));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 전체 주문 (파일 순서) */
+    List<String[]> allRows() {
+        lock.readLock().lock();
+        try {
+            List<String[]> out = new ArrayList<>(lines.size());
+            for (Entry e : lines) out.add(e.row);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return lines.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // 조회 (결과 개수에 비례)
+    // ==========================================================
+    String[] findById(String id) {
+        if (id == null) return null;
+        lock.readLock().lock();
+        try {
+            Entry e = byId.first(id);
+            return (e == null) ? null : e.row;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<String[]> findByStatus(String status) {
+        return rows(byStatus, status == null ? null : status.trim());
+    }
+
+    List<String[]> findByRoom(String room) {
+        return rows(byRoom, room);
+    }
+
+    /** 객실번호와 상태가 정확히 같은 주문 (파일 순서) */
+    List<String[]> findByRoomAndStatus(String room, String status) {
+        return rows(byRoomStatus, (room == null || status == null) ? null : roomStatusKey(room, status));
+    }
+
+    /**
+     * 상태가 status이고 주문 시각이 [from, to]인 주문 (파일 순서)
+     * @param from, to yyyyMMddHHmmss 숫자
+     */
+    List<String[]> findByStatusAndTime(String status, long from, long to) {
+        lock.readLock().lock();
+        try {
+            TreeMap<Long, TreeMap<Integer, Entry>> times = byStatusTime.get(status.trim());
+            if (times == null || from > to) return new ArrayList<>();
+            TreeMap<Integer, Entry> hits = new TreeMap<>();
+            for (TreeMap<Integer, Entry> m : times.subMap(from, true, to, true).values()) hits.putAll(m);
+            List<String[]> out = new ArrayList<>(hits.size());
+            for (Entry e : hits.values()) out.add(e.row);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String[]> rows(MultiIndex idx, String key) {
+        List<String[]> out = new ArrayList<>();
+        if (key == null) return out;
+        lock.readLock().lock();
+        try {
+            for (Entry e : idx.get(key)) out.add(e.row);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // 변경 (인덱스 갱신 + 리스너 알림을 한 번에)
+    // ==========================================================
+    void add(String[] row) {
+        lock.writeLock().lock();
+        try {
+            Entry e = appendLocked(nextKey++, row);
+            dirty.put(e.key, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 주문번호로 행을 찾아 새 행으로 교체합니다.
+     * @param change 기존 행 사본을 받아 새 행을 돌려주는 함수
+     * @return 교체된 새 행, 해당 주문이 없으면 null
+     */
+    String[] update(String id, UnaryOperator<String[]> change) {
+        if (id == null) return null;
+        lock.writeLock().lock();
+        try {
+            Entry e = byId.first(id);
+            if (e == null) return null;
+            replaceLocked(e, change.apply(e.row.clone()));
+            return e.row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Entry appendLocked(long key, String[] row) {
+        Entry e = new Entry(lines.size(), key, row);
+        lines.add(e);
+        index(e);
+        for (RoomServiceDataManager.RequestListener l : listeners) l.requestChanged(null, row);
+        return e;
+    }
+
+    private void replaceLocked(Entry e, String[] updated) {
+        String[] old = e.row;
+        unindex(e);
+        e.row = updated;
+        index(e);
+        dirty.put(e.key, e);
+        for (RoomServiceDataManager.RequestListener l : listeners) l.requestChanged(old, updated);
+    }
+
+    private void index(Entry e) {
+        String[] r = e.row;
+        byId.add(r[IDX_ID], e);
+        byStatus.add(r[IDX_STATUS].trim(), e);
+        byRoom.add(r[IDX_ROOM], e);
+        byRoomStatus.add(roomStatusKey(r[IDX_ROOM], r[IDX_STATUS]), e);
+        Long t = timestamp(r);
+        if (t != null) {
+            byStatusTime.computeIfAbsent(r[IDX_STATUS].trim(), k -> new TreeMap<>())
+                    .computeIfAbsent(t, k -> new TreeMap<>()).put(e.pos, e);
+        }
+    }
+
+    private void unindex(Entry e) {
+        String[] r = e.row;
+        byId.remove(r[IDX_ID], e);
+        byStatus.remove(r[IDX_STATUS].trim(), e);
+        byRoom.remove(r[IDX_ROOM], e);
+        byRoomStatus.remove(roomStatusKey(r[IDX_ROOM], r[IDX_STATUS]), e);
+        Long t = timestamp(r);
+        if (t == null) return;
+        TreeMap<Long, TreeMap<Integer, Entry>> times = byStatusTime.get(r[IDX_STATUS].trim());
+        if (times == null) return;
+        TreeMap<Integer, Entry> m = times.get(t);
+        if (m == null) return;
+        m.remove(e.pos);
+        if (m.isEmpty()) times.remove(t);
+        if (times.isEmpty()) byStatusTime.remove(r[IDX_STATUS].trim());
+    }
+
+    private static Long timestamp(String[] r) {
+        try {
+            return Long.parseLong(r[IDX_TIME].trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String roomStatusKey(String room, String status) {
+        return room + '\u0000' + status;
+    }
+}
@@ -0,0 +1,53 @@
+package hms.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 데이터 파일 하나(예약/주문/회원/객실)의 저장 방식
+ * - 각 매니저는 시작할 때 load로 전체 행을 메모리에 올리고, 이후 변경은 append/checkpoint로만 내려씁니다.
+ * - 행마다 키(long)가 있고, load는 키 순서(= 처음 추가된 순서)로 돌려줍니다.
+ *   매니저는 읽은 키를 행과 함께 들고 있다가 그 행이 바뀌면 같은 키로 checkpoint에 넘깁니다.
+ * - 저장 방식은 -Dhms.storage로 고릅니다.
+ *   text  : 기존 .txt 파일 (기본). checkpoint마다 파일 전체를 임시 파일에 쓰고 교체
+ *   btree : 같은 이름의 .db 파일 (BTreeFile). checkpoint 때 바뀐 행만 씀
+ *           .db가 없으면 처음 열 때 .txt 내용을 한 번 옮겨 옵니다. (이후 .txt는 갱신되지 않음)
+ * - 변경 기록(ReservationChangeLog 등)은 그대로 두고, 기록을 합치는(compaction) 대상만 이 저장소입니다.
+ */
+interface RowRepository extends Closeable {
+
+    /** 행을 하나씩 받는 쪽 (칸은 split(",", -1)과 같음) */
+    interface RowVisitor {
+        void row(long key, String[] fields);
+    }
+
+    /** 저장된 모든 행을 키 순서로 넘깁니다. (서버 시작 시 한 번) */
+    void load(RowVisitor visitor) throws IOException;
+
+    /** 새 행 하나를 바로 내려씁니다. (key는 지금까지 쓴 어떤 키보다 커야 함) */
+    void append(long key, String line) throws IOException;
+
+    /**
+     * 바뀐 행들을 반영합니다. 실패하면 IOException (이전 checkpoint 상태가 그대로 남음)
+     * @param changed 키 -> 새 줄 (null이면 삭제)
+     * @param all     전체 줄 (파일 순서, 파일 전체를 다시 쓰는 방식만 사용)
+     */
+    void checkpoint(Map<Long, String> changed, Supplier<List<String>> all) throws IOException;
+
+    /** -Dhms.storage에 따라 textPath(.txt)에 해당하는 저장소를 엽니다. */
+    static RowRepository open(String textPath) throws IOException {
+        String type = System.getProperty("hms.storage", "text").trim().toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "text":
+                return new TextFileRepository(textPath);
+            case "btree":
+                return BTreeRowRepository.open(textPath);
+            default:
+                throw new IllegalArgumentException("알 수 없는 저장 방식 (hms.storage): " + type);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package hms.model;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 기존 .txt 파일 그대로 저장 (hms.storage=text, 기본)
+ * - 키는 읽을 때의 줄 번호입니다. 파일에는 키가 없으므로 append/checkpoint는 키를 보지 않습니다.
+ * - append = 파일 끝에 한 줄 추가, checkpoint = 전체 줄을 임시 파일에 쓰고 fsync 후 원본과 교체
+ *   (쓰는 도중 실패해도 원본이 깨지지 않음)
+ */
+final class TextFileRepository implements RowRepository {
+
+    private final Path path;
+
+    TextFileRepository(String path) {
+        this.path = Paths.get(path);
+    }
+
+    @Override
+    public void load(RowVisitor visitor) throws IOException {
+        if (!Files.exists(path)) return;
+        long[] key = {0};
+        ChunkedLineReader.forEachLine(path, fields -> visitor.row(key[0]++, fields));
+    }
+
+    @Override
+    public synchronized void append(long key, String line) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(path.toFile(), true))) {
+            pw.println(line);
+            if (pw.checkError()) throw new IOException("파일 쓰기 실패: " + path);
+        }
+    }
+
+    @Override
+    public synchronized void checkpoint(Map<Long, String> changed, Supplier<List<String>> all) throws IOException {
+        Path tmp = Paths.get(path + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+            PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(fos)));
+            for (String l : all.get()) pw.println(l);
+            pw.flush();
+            if (pw.checkError()) throw new IOException("임시 파일 쓰기 실패: " + tmp);
+            // 교체 전에 디스크에 내려써야 기록을 비운 뒤 전원이 나가도 안전
+            fos.getFD().sync();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,31 @@
+package hms.model;
+
+/**
+ * 버전 검사가 있는 수정 요청의 결과
+ * - 실패 응답의 메시지는 message() 값을 그대로 쓰므로, 클라이언트는 of()로 다시 구분할 수 있습니다.
+ */
+public enum UpdateResult {
+    UPDATED("수정"),
+    STALE("버전충돌"),      // 조회한 뒤 다른 단말에서 먼저 바뀜 -> 다시 조회 후 재시도
+    NOT_FOUND("대상없음"),
+    FAILED("저장실패");
+
+    private final String message;
+
+    UpdateResult(String message) {
+        this.message = message;
+    }
+
+    public String message() { return message; }
+
+    public boolean isUpdated() { return this == UPDATED; }
+
+    /** 응답(성공 여부 + 메시지)에서 결과를 되찾습니다. 모르는 실패 메시지는 FAILED */
+    public static UpdateResult of(boolean success, String message) {
+        if (success) return UPDATED;
+        for (UpdateResult r : values()) {
+            if (r != UPDATED && r.message.equals(message)) return r;
+        }
+        return FAILED;
+    }
+}
@@ -16,14 +16,26 @@ public class User implements Serializable { // ⭐ implements Serializable 추
     private String phoneNumber;
     private int age;
     private String role;
+    // 서버가 붙이는 행 버전 (VersionClock, 0 = 모름). 수정 요청에 그대로 돌려보내면 그 사이 바뀐 경우 거절됨
+    private long version;
 
     public User(String id, String password, String name, String phoneNumber, int age, String role) {
+        this(id, password, name, phoneNumber, age, role, VersionClock.ANY);
+    }
+
+    public User(String id, String password, String name, String phoneNumber, int age, String role, long version) {
         this.id = id;
         this.password = password;
         this.name = name;
         this.phoneNumber = phoneNumber;
         this.age = age;
         this.role = role;
+        this.version = version;
+    }
+
+    /** 같은 내용에 버전만 바꾼 사본 */
+    public User withVersion(long version) {
+        return new User(id, password, name, phoneNumber, age, role, version);
     }
 
     // --- Getter 메서드들 ---
@@ -52,4 +64,8 @@ public class User implements Serializable { // ⭐ implements Serializable 추
     public String getRole() {
         return role;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
\ No newline at end of file
@@ -1,23 +1,58 @@
 package hms.model;
 
+import hms.util.Log;
+
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * UserDataManager (메모리 캐싱 적용 버전)
  * - 기존: 요청 때마다 파일 열기 -> 읽기 -> 닫기 (매우 느림)
  * - 변경: 서버 켤 때 1번만 로드 -> 이후엔 메모리(RAM)에서 0.001초만에 조회
+ * - 조회(로그인, ID 중복 확인)는 ID 해시 맵에서 잠금 없이, 변경(가입/수정/삭제)만 writeLock으로 한 번에 하나씩
+ * - 변경은 회원 파일 전체를 다시 쓰지 않고 변경 기록(UserJournal)에 한 줄 추가, 회원 파일은 백그라운드에서 주기적으로 갱신
+ * - 회원 파일 저장 방식은 hms.storage (text / btree, RowRepository)
+ * - 메모리의 회원마다 버전(VersionClock)을 붙여 두고, 수정 요청의 버전이 다르면 덮어쓰지 않습니다. (updateUser)
  */
 public class UserDataManager {
 
+    // 변경 기록을 회원 파일에 합치는 주기(초) / 이만큼 쌓이면 주기와 관계없이 바로 합침
+    private static final long SNAPSHOT_INTERVAL_SECONDS = Long.getLong("hms.user.snapshotSeconds", 30);
+    private static final int SNAPSHOT_THRESHOLD = Integer.getInteger("hms.user.snapshotThreshold", 500);
+
     private final String filePath = "data/userinfo.txt";
+    private final String journalPath = "data/userinfo_changes.log";
     private final String delimiter = ",";
 
     // ⭐ 핵심: 파일 내용을 담아둘 메모리 공간 (캐시)
-    // 여러 사람이 동시에 접속해도 문제 없도록 동기화된 리스트 사용
-    private final List<User> userCache = Collections.synchronizedList(new ArrayList<>());
+    // byId  : ID -> 사용자 (동시 조회용, 같은 ID가 여러 줄이면 파일에서 먼저 나온 줄)
+    // users : 파일 순서 그대로의 목록. 바꿀 때마다 새 목록으로 통째로 교체 (읽는 쪽은 잠금 없이 그대로 사용)
+    private final Map<String, User> byId = new ConcurrentHashMap<>();
+    private volatile List<User> users = Collections.emptyList();
+    private final Object writeLock = new Object();
+    private final VersionClock versions = new VersionClock();
+
+    // 저장소 키 (writeLock 안에서만, users와 같은 순서) / 다음 키 / 마지막 snapshot 이후 바뀐 행 (키 -> 줄, null = 삭제)
+    private final List<Long> keys = new ArrayList<>();
+    private long nextKey;
+    private final Map<Long, String> dirty = new HashMap<>();
+    private final RowRepository repository;
+
+    private final UserJournal journal = new UserJournal(journalPath);
+    private final ScheduledExecutorService snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "hms-user-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
 
     public UserDataManager() {
         // 1. 파일이 없으면 생성
@@ -27,22 +62,37 @@ public class UserDataManager {
                 if (file.getParentFile() != null) file.getParentFile().mkdirs();
                 file.createNewFile();
             } catch (IOException e) {
-                e.printStackTrace();
+                Log.error("사용자", "파일 생성 실패", e, "file", file);
             }
         }
+        try {
+            repository = RowRepository.open(filePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("회원 저장소 열기 실패: " + e.getMessage(), e);
+        }
 
-        // 2. 서버 시작 시, 파일 내용을 전부 읽어서 userCache(메모리)에 저장
+        // 2. 서버 시작 시, 파일 내용을 전부 읽어서 메모리 캐시에 저장
         loadDataToMemory();
+
+        // 3. 지난 실행에서 회원 파일에 합치지 못한 변경 기록을 다시 적용
+        replayJournal();
+
+        snapshotter.scheduleWithFixedDelay(this::snapshot,
+                SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     // --- [내부 메서드] 파일 -> 메모리 로드 ---
     private void loadDataToMemory() {
-        userCache.clear(); // 기존 데이터 비우기
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(delimiter);
-                if (data.length == 6) {
+        List<User> loaded = new ArrayList<>();
+        List<Long> loadedKeys = new ArrayList<>();
+        long[] maxKey = {-1};
+        try {
+            repository.load((key, data) -> {
+                maxKey[0] = Math.max(maxKey[0], key);
+                // line.split(",")처럼 끝의 빈 칸은 버리고 셈
+                int n = data.length;
+                while (n > 0 && data[n - 1].isEmpty()) n--;
+                if (n == 6) {
                     try {
                         String id = data[0];
                         String password = data[1]; // 암호화 없이 저장된 상태라면 그대로
@@ -52,57 +102,162 @@ public class UserDataManager {
                         String role = data[5];
 
                         // 메모리 리스트에 추가
-                        userCache.add(new User(id, password, name, number, age, role));
+                        loaded.add(new User(id, password, name, number, age, role, versions.next()));
+                        loadedKeys.add(key);
                     } catch (NumberFormatException ignored) {}
                 }
-            }
-            System.out.println(">>> [사용자] 데이터 로드 완료: " + userCache.size() + "명");
+            });
+            Log.info("사용자", "데이터 로드 완료", "users", loaded.size());
         } catch (IOException e) {
-            System.err.println("사용자 파일 읽기 실패: " + e.getMessage());
+            Log.error("사용자", "파일 읽기 실패", e);
+        }
+        synchronized (writeLock) {
+            byId.clear(); // 기존 데이터 비우기
+            for (User user : loaded) byId.putIfAbsent(user.getId(), user);
+            users = Collections.unmodifiableList(loaded);
+            keys.clear();
+            keys.addAll(loadedKeys);
+            nextKey = maxKey[0] + 1;
+            dirty.clear();
         }
     }
 
-    // --- [내부 메서드] 메모리 -> 파일 저장 (덮어쓰기) ---
-    private boolean saveMemoryToFile() {
-        // ⭐ [핵심 수정] PrintWriter 생성자에 true를 추가하여 autoFlush 활성화
-        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(filePath, false)), true)) {
-            synchronized (userCache) { // 저장 중엔 다른 작업 대기
-                for (User user : userCache) {
-                    String csvLine = String.join(delimiter,
-                            user.getId(),
-                            user.getPassword(),
-                            user.getName(),
-                            user.getPhoneNumber(),
-                            String.valueOf(user.getAge()),
-                            user.getRole()
-                    );
-                    out.println(csvLine);
+    private void replayJournal() {
+        try {
+            List<String[]> records = journal.replay();
+            synchronized (writeLock) {
+                for (String[] r : records) {
+                    if (r[0].equals(UserJournal.RECORD_DELETE)) {
+                        removeFromMemory(r[1]);
+                    } else {
+                        try {
+                            putInMemory(new User(r[1], r[2], r[3], r[4], Integer.parseInt(r[5]), r[6]));
+                        } catch (NumberFormatException ignored) {}
+                    }
                 }
             }
-            return true; // 자동 플러시로 인해 즉시 저장됩니다.
+            if (!records.isEmpty()) {
+                Log.info("사용자", "변경 기록 복구", "records", records.size());
+                snapshot();
+            }
+        } catch (IOException e) {
+            Log.error("사용자", "변경 기록 읽기 실패", e);
+        }
+    }
+
+    // --- [내부 메서드] 메모리 반영 (writeLock 안에서만) ---
+    // 같은 ID가 있으면 그 자리를 바꾸고, 없으면 끝에 추가 (새 버전을 붙여서 보관)
+    private void putInMemory(User user) {
+        user = user.withVersion(versions.next());
+        List<User> next = new ArrayList<>(users);
+        boolean replaced = false;
+        for (int i = 0; i < next.size(); i++) {
+            if (next.get(i).getId().equals(user.getId())) {
+                next.set(i, user);
+                dirty.put(keys.get(i), toCsv(user));
+                replaced = true;
+                break;
+            }
+        }
+        if (!replaced) {
+            next.add(user);
+            keys.add(nextKey);
+            dirty.put(nextKey++, toCsv(user));
+        }
+        byId.put(user.getId(), user);
+        users = Collections.unmodifiableList(next);
+    }
+
+    private void removeFromMemory(String id) {
+        if (byId.remove(id) == null) return;
+        List<User> next = new ArrayList<>(users);
+        // 같은 ID가 여러 줄이면 모두 삭제
+        for (int i = next.size() - 1; i >= 0; i--) {
+            if (next.get(i).getId().equals(id)) {
+                next.remove(i);
+                dirty.put(keys.remove(i), null);
+            }
+        }
+        users = Collections.unmodifiableList(next);
+    }
+
+    private String toCsv(User user) {
+        return String.join(delimiter,
+                user.getId(),
+                user.getPassword(),
+                user.getName(),
+                user.getPhoneNumber(),
+                String.valueOf(user.getAge()),
+                user.getRole()
+        );
+    }
+
+    // --- [내부 메서드] 변경 한 건: 기록 파일에 먼저 쓰고(디스크 반영 확인 후) 메모리에 적용 ---
+    private boolean journalThenApply(String type, User user, String deleteId) {
+        try {
+            if (type.equals(UserJournal.RECORD_DELETE)) journal.appendDelete(deleteId);
+            else journal.appendUser(type, user);
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.error("사용자", "변경 기록 실패", e, "user", (user != null) ? user.getId() : deleteId);
             return false;
         }
+        if (type.equals(UserJournal.RECORD_DELETE)) removeFromMemory(deleteId);
+        else putInMemory(user);
+
+        if (journal.pendingCount() >= SNAPSHOT_THRESHOLD) {
+            snapshotter.execute(this::snapshot);
+        }
+        return true;
+    }
+
+    // --- [내부 메서드] 메모리 -> 파일 저장 (변경 기록 합치기, 백그라운드 주기 실행) ---
+    // 임시 파일에 쓴 뒤 원본과 교체하므로 쓰는 도중 실패해도 원본이 깨지지 않고, 조회는 계속 가능
+    void snapshot() {
+        synchronized (writeLock) {
+            if (journal.pendingCount() == 0) return;
+            try {
+                // 바뀐 회원만 저장소에 반영 (text 방식은 전체 줄을 임시 파일에 쓴 뒤 원본과 교체)
+                repository.checkpoint(new TreeMap<>(dirty), this::csvLines);
+                dirty.clear();
+            } catch (IOException e) {
+                Log.error("사용자", "파일 저장 실패 - 다음 주기에 다시 시도", e);
+                return;
+            }
+            try {
+                journal.truncate();
+            } catch (IOException e) {
+                // 기록이 남아 있어도 같은 값을 다시 적용할 뿐이므로 안전
+                Log.error("사용자", "변경 기록 비우기 실패", e);
+            }
+        }
+    }
+
+    /** 서버 종료 시: 남은 변경 기록을 회원 파일에 합치고 기록 파일을 닫습니다. */
+    public void close() {
+        snapshotter.shutdown();
+        snapshot();
+        try {
+            journal.close();
+        } catch (IOException ignored) {}
+        try {
+            repository.close();
+        } catch (IOException ignored) {}
+    }
+
+    private List<String> csvLines() {
+        List<String> lines = new ArrayList<>(users.size());
+        for (User user : users) lines.add(toCsv(user));
+        return lines;
     }
 
     // =========================================================
-    //  아래 메서드들은 이제 파일을 읽지 않고 'userCache'만 봅니다.
+    //  아래 메서드들은 이제 파일을 읽지 않고 메모리 캐시만 봅니다.
     // =========================================================
 
-    // 1. ID로 사용자 찾기 (로그인 시 사용 - 매우 빨라짐)
+    // 1. ID로 사용자 찾기 (로그인 시 사용 - 해시 조회, 잠금 없음)
     public User findUserById(String id) {
-        //다중 접속 환경을 고려하여 동기화된 리스트에서 검색 수행
-        synchronized (userCache) {
-            for (User user : userCache) {
-                //메모리에 로드된 사용 객체의 ID와 요청된 ID 대조
-                if (user.getId().equals(id)) {
-                    return user;
-                    //일치하는 사용자 객체 반환
-                }
-            }
-        }
-        return null; // 일치하지 않는 사용자일 경우 null 반환
+        if (id == null) return null;
+        return byId.get(id); // 일치하지 않는 사용자일 경우 null 반환
     }
 
     // 2. ID 중복 확인
@@ -111,48 +266,38 @@ public class UserDataManager {
     }
 
     // 3. 사용자 추가 (회원가입)
+    // 같은 ID가 동시에 가입하면 먼저 들어온 쪽만 성공 (중복 확인과 추가를 한 번에)
     public boolean addUser(User user) {
-        // 메모리에 먼저 추가
-        userCache.add(user);
-        // 그 다음 파일에 저장
-        // ⭐ 메모리에 추가한 직후이므로, 캐시에서 바로 조회하면 새로 가입한 사용자가 보입니다.
-        return saveMemoryToFile();
+        synchronized (writeLock) {
+            if (byId.containsKey(user.getId())) return false;
+            // ⭐ 기록 직후 메모리에 반영되므로, 캐시에서 바로 조회하면 새로 가입한 사용자가 보입니다.
+            return journalThenApply(UserJournal.RECORD_ADD, user, null);
+        }
     }
 
     // 4. 사용자 삭제
     public boolean deleteUser(String userIdToDelete) {
-        synchronized (userCache) {
-            boolean removed = userCache.removeIf(user -> user.getId().equals(userIdToDelete));
-            if (removed) {
-                return saveMemoryToFile();
-            }
+        synchronized (writeLock) {
+            if (!byId.containsKey(userIdToDelete)) return false;
+            return journalThenApply(UserJournal.RECORD_DELETE, null, userIdToDelete);
         }
-        return false;
     }
 
     // 5. 사용자 정보 수정
-    public boolean updateUser(User updatedUser) {
-        synchronized (userCache) {
-            boolean found = false;
-            for (int i = 0; i < userCache.size(); i++) {
-                if (userCache.get(i).getId().equals(updatedUser.getId())) {
-                    userCache.set(i, updatedUser); // 메모리 수정
-                    found = true;
-                    break;
-                }
-            }
-            if (found) {
-                return saveMemoryToFile(); // 파일 저장
-            }
+    // updatedUser의 버전이 지금 버전과 다르면(조회 뒤 다른 곳에서 수정됨) 덮어쓰지 않고 STALE (버전 0은 검사 안 함)
+    public UpdateResult updateUser(User updatedUser) {
+        synchronized (writeLock) {
+            User current = byId.get(updatedUser.getId());
+            if (current == null) return UpdateResult.NOT_FOUND;
+            if (!VersionClock.matches(updatedUser.getVersion(), current.getVersion())) return UpdateResult.STALE;
+            return journalThenApply(UserJournal.RECORD_UPDATE, updatedUser, null)
+                    ? UpdateResult.UPDATED : UpdateResult.FAILED;
         }
-        return false;
     }
 
     // 6. 모든 사용자 조회 (관리자용)
     public List<User> readAllUsers() {
-        // 캐시된 리스트의 복사본을 반환 (안전성 위해)
-        synchronized (userCache) {
-            return new ArrayList<>(userCache);
-        }
+        // 현재 목록의 복사본을 반환 (안전성 위해)
+        return new ArrayList<>(users);
     }
-}
\ No newline at end of file
+}
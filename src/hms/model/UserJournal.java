@@ -0,0 +1,114 @@
+package hms.model;
+
+import hms.util.Log;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 회원 변경 기록 파일 (추가 전용)
+ * - 가입/수정/삭제마다 회원 파일 전체를 다시 쓰는 대신, 한 줄씩 뒤에 붙입니다.
+ * - 한 줄 = "A|U,아이디,비밀번호,이름,전화번호,나이,권한,CRC" 또는 "D,아이디,CRC"
+ *   값 안의 쉼표 등은 LogFields로 바꿔 적습니다. (쉼표가 들어간 이름/비밀번호)
+ *   (A/U는 변경 후 회원 정보 전체라 여러 번 적용해도 결과가 같음)
+ * - 서버 시작 시 기록을 다시 적용하고, 주기적으로 회원 파일에 합친 뒤(snapshot) 비웁니다.
+ * - 줄 형식과 replay는 LogLines: CRC가 처음 맞지 않는 줄(쓰다가 끊긴 줄 포함)에서 멈추고 그 뒤는 모두 버리며,
+ *   파일도 마지막 정상 줄까지 잘라냅니다. CRC는 맞는데 칸 수가 맞지 않는 줄은 그 줄만 건너뜁니다.
+ */
+class UserJournal implements Closeable {
+
+    static final String RECORD_ADD = "A";
+    static final String RECORD_UPDATE = "U";
+    static final String RECORD_DELETE = "D";
+
+    private final Path path;
+    private FileChannel channel;
+    private int pending; // 아직 회원 파일에 합치지 않은 기록 수
+
+    UserJournal(String path) {
+        this.path = Paths.get(path);
+    }
+
+    /** 기록 파일의 유효한 변경 목록을 읽습니다. 각 원소 = {종류, 아이디, (A/U면) 비밀번호, 이름, 전화번호, 나이, 권한} */
+    synchronized List<String[]> replay() throws IOException {
+        List<String[]> records = new ArrayList<>();
+        LogLines.replay(path, "사용자", body -> {
+            String[] rec = parse(body);
+            if (rec == null) {
+                // 값을 바꿔 적기 전에 쓴, 쉼표가 들어간 회원 기록 등 (어느 칸의 쉼표인지 알 수 없음)
+                Log.warn("사용자", "형식이 맞지 않는 변경 기록 건너뜀", "body", body);
+                return;
+            }
+            records.add(rec);
+        });
+        pending = records.size();
+        return records;
+    }
+
+    /** 가입(A) 또는 수정(U) 한 건을 붙이고 디스크에 내려쓸 때까지 기다립니다. */
+    synchronized void appendUser(String type, User user) throws IOException {
+        write(LogFields.join(type, user.getId(), user.getPassword(), user.getName(), user.getPhoneNumber(),
+                String.valueOf(user.getAge()), user.getRole()));
+    }
+
+    /** 삭제 한 건을 붙이고 디스크에 내려쓸 때까지 기다립니다. */
+    synchronized void appendDelete(String id) throws IOException {
+        write(LogFields.join(RECORD_DELETE, id));
+    }
+
+    synchronized int pendingCount() {
+        return pending;
+    }
+
+    /** 회원 파일에 모두 합친 뒤 호출: 기록을 비웁니다. */
+    synchronized void truncate() throws IOException {
+        FileChannel ch = channel();
+        ch.truncate(0);
+        ch.force(true);
+        pending = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void write(String body) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(LogLines.line(body).getBytes(StandardCharsets.UTF_8));
+        FileChannel ch = channel();
+        while (buf.hasRemaining()) ch.write(buf);
+        ch.force(false);
+        pending++;
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /** CRC를 확인한 본문 -> 기록 칸 배열, 칸 수가 맞지 않으면 null */
+    static String[] parse(String body) {
+        String[] parts = LogFields.split(body);
+        switch (parts[0]) {
+            case RECORD_ADD:
+            case RECORD_UPDATE:
+                return (parts.length == 7) ? parts : null;
+            case RECORD_DELETE:
+                return (parts.length == 2) ? parts : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hms.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 행 버전 번호 발급 (낙관적 동시성 검사용, 매니저마다 하나)
+ * - 행을 읽어 들이거나 추가/수정할 때마다 새 번호를 붙입니다.
+ *   클라이언트는 조회할 때 받은 번호를 수정 요청에 같이 보내고, 그 사이 행이 바뀌었으면 서버가 수정하지 않습니다.
+ * - 번호는 메모리에만 있고 파일에는 쓰지 않습니다. 대신 서버 시작 시각(ms x 1000)부터 세므로
+ *   재시작 전에 받은 번호가 재시작 뒤의 번호와 겹치지 않습니다. (1ms에 1000번 넘게 바뀌지 않는 한)
+ */
+public final class VersionClock {
+
+    /** 버전 검사 없이 수정 (버전을 보내지 않는 예전 클라이언트) */
+    public static final long ANY = 0;
+
+    private final AtomicLong last = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    VersionClock() {}
+
+    long next() {
+        return last.incrementAndGet();
+    }
+
+    /** expected가 ANY이거나 current와 같으면 true */
+    static boolean matches(long expected, long current) {
+        return expected == ANY || expected == current;
+    }
+}
@@ -0,0 +1,66 @@
+package hms.network;
+
+import java.io.*;
+
+/**
+ * 바이너리 프로토콜: [int 길이][본문] 프레임 단위로 주고받습니다. (본문 형식은 BinaryCodec 참고)
+ * - 버전은 핸드셰이크에서 정한 값 (2부터 요청 번호 포함)
+ */
+class BinaryChannel implements MessageChannel {
+
+    // 비정상 데이터로 거대한 배열을 할당하지 않도록 프레임 크기 제한
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream(512);
+    private final int version;
+
+    BinaryChannel(InputStream rawIn, OutputStream rawOut, int version) {
+        this.in = new DataInputStream(rawIn);
+        this.out = new DataOutputStream(rawOut);
+        this.version = version;
+    }
+
+    @Override
+    public NetworkMessage read() throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new StreamCorruptedException("잘못된 프레임 길이: " + length);
+        }
+        byte[] body = new byte[length];
+        in.readFully(body);
+        NetworkMessage msg = BinaryCodec.decode(body, version);
+        msg.setWireSize(4 + length);
+        return msg;
+    }
+
+    @Override
+    public boolean awaitMessage() throws IOException {
+        in.mark(1);
+        int b = in.read();
+        in.reset();
+        return b >= 0;
+    }
+
+    @Override
+    public synchronized void write(NetworkMessage msg) throws IOException {
+        frame.reset();
+        BinaryCodec.encode(msg, new DataOutputStream(frame), version);
+        out.writeInt(frame.size());
+        frame.writeTo(out);
+        out.flush();
+        msg.setWireSize(4 + frame.size());
+    }
+
+    @Override
+    public boolean isBinary() { return true; }
+
+    @Override
+    public boolean supportsRequestIds() { return version >= BinaryCodec.PIPELINING_VERSION; }
+
+    @Override
+    public void close() throws IOException {
+        try { out.close(); } finally { in.close(); }
+    }
+}
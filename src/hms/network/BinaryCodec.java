@@ -0,0 +1,319 @@
+package hms.network;
+
+import hms.model.User;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * NetworkMessage 바이너리 인코더/디코더
+ *
+ * 본문 형식:
+ *   short  명령 id (Command.getId, 응답은 -1, 목록에 없는 명령은 -2 + 명령 문자열)
+ *   byte   플래그 (bit0 = success)
+ *   varint 요청 번호 (버전 2부터, 0 = 없음)
+ *   string 메시지
+ *   value  데이터
+ *
+ * 버전은 핸드셰이크("HMSB" + 버전 1바이트)로 정합니다. 서버는 1~VERSION을 모두 받고, 클라이언트는 VERSION부터 시도합니다.
+ *   2: 요청 번호 추가 / 3: USER 값 끝에 행 버전(varint) 추가
+ *
+ * value = 1바이트 태그 + 내용. 정수/길이는 가변 길이(varint)로 적어서 작은 값은 1~3바이트만 씁니다.
+ * List<String[]> (예약/주문 목록)는 ROWS 태그로 행마다 태그 없이 문자열만 연속으로 적습니다.
+ * 여기에 없는 타입은 SERIALIZED 태그로 자바 직렬화 바이트를 그대로 넣습니다.
+ */
+final class BinaryCodec {
+
+    static final int VERSION = 3;
+    static final int MIN_VERSION = 1;
+    // 요청 번호(NetworkMessage.requestId)를 주고받는 첫 버전
+    static final int PIPELINING_VERSION = 2;
+    // User.version(행 버전)을 주고받는 첫 버전 (이전 버전에서는 0 = 검사 안 함)
+    static final int ROW_VERSION_VERSION = 3;
+    static final int HANDSHAKE_LENGTH = 5;
+
+    private static final short NO_COMMAND = -1;
+    private static final short CUSTOM_COMMAND = -2;
+
+    private static final int FLAG_SUCCESS = 1;
+
+    // 값 태그
+    private static final int T_NULL = 0;
+    private static final int T_STRING = 1;
+    private static final int T_INT = 2;
+    private static final int T_LONG = 3;
+    private static final int T_DOUBLE = 4;
+    private static final int T_TRUE = 5;
+    private static final int T_FALSE = 6;
+    private static final int T_STRING_ARRAY = 7;
+    private static final int T_LIST = 8;
+    private static final int T_MAP = 9;
+    private static final int T_USER = 10;
+    private static final int T_ROWS = 11;
+    private static final int T_SERIALIZED = 12;
+
+    private BinaryCodec() {}
+
+    static byte[] handshake(int version) {
+        return new byte[]{'H', 'M', 'S', 'B', (byte) version};
+    }
+
+    /** @return 핸드셰이크의 버전, 형식이 다르거나 모르는 버전이면 -1 */
+    static int handshakeVersion(byte[] hello) {
+        if (hello.length != HANDSHAKE_LENGTH || hello[0] != 'H' || hello[1] != 'M' || hello[2] != 'S' || hello[3] != 'B') return -1;
+        int v = hello[4];
+        return (v >= MIN_VERSION && v <= VERSION) ? v : -1;
+    }
+
+    // ==========================================================
+    // 인코딩
+    // ==========================================================
+    static void encode(NetworkMessage msg, DataOutputStream out, int version) throws IOException {
+        String cmd = msg.getCommand();
+        if (cmd == null) {
+            out.writeShort(NO_COMMAND);
+        } else {
+            Command known = Command.fromName(cmd);
+            if (known != null) {
+                out.writeShort(known.getId());
+            } else {
+                out.writeShort(CUSTOM_COMMAND);
+                writeString(out, cmd);
+            }
+        }
+        out.writeByte(msg.isSuccess() ? FLAG_SUCCESS : 0);
+        if (version >= PIPELINING_VERSION) writeVarInt(out, msg.getRequestId());
+        writeString(out, msg.getMessage());
+        writeValue(out, msg.getData(), version);
+    }
+
+    private static void writeValue(DataOutputStream out, Object v, int version) throws IOException {
+        if (v == null) {
+            out.writeByte(T_NULL);
+        } else if (v instanceof String) {
+            out.writeByte(T_STRING);
+            writeString(out, (String) v);
+        } else if (v instanceof Integer) {
+            out.writeByte(T_INT);
+            writeVarLong(out, (Integer) v);
+        } else if (v instanceof Long) {
+            out.writeByte(T_LONG);
+            writeVarLong(out, (Long) v);
+        } else if (v instanceof Double) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble((Double) v);
+        } else if (v instanceof Boolean) {
+            out.writeByte((Boolean) v ? T_TRUE : T_FALSE);
+        } else if (v instanceof String[]) {
+            out.writeByte(T_STRING_ARRAY);
+            writeStringArray(out, (String[]) v);
+        } else if (v instanceof User) {
+            out.writeByte(T_USER);
+            writeUser(out, (User) v, version);
+        } else if (v instanceof List) {
+            List<?> list = (List<?>) v;
+            if (isRows(list)) {
+                out.writeByte(T_ROWS);
+                writeVarInt(out, list.size());
+                for (Object row : list) writeStringArray(out, (String[]) row);
+            } else {
+                out.writeByte(T_LIST);
+                writeVarInt(out, list.size());
+                for (Object item : list) writeValue(out, item, version);
+            }
+        } else if (v instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) v;
+            out.writeByte(T_MAP);
+            writeVarInt(out, map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                writeValue(out, e.getKey(), version);
+                writeValue(out, e.getValue(), version);
+            }
+        } else if (v instanceof Serializable) {
+            out.writeByte(T_SERIALIZED);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(v);
+            }
+            writeVarInt(out, bytes.size());
+            bytes.writeTo(out);
+        } else {
+            throw new NotSerializableException(v.getClass().getName());
+        }
+    }
+
+    private static boolean isRows(List<?> list) {
+        if (list.isEmpty()) return false;
+        for (Object o : list) {
+            if (!(o instanceof String[])) return false;
+        }
+        return true;
+    }
+
+    private static void writeUser(DataOutputStream out, User u, int version) throws IOException {
+        writeString(out, u.getId());
+        writeString(out, u.getPassword());
+        writeString(out, u.getName());
+        writeString(out, u.getPhoneNumber());
+        writeVarLong(out, u.getAge());
+        writeString(out, u.getRole());
+        if (version >= ROW_VERSION_VERSION) writeVarLong(out, u.getVersion());
+    }
+
+    private static void writeStringArray(DataOutputStream out, String[] arr) throws IOException {
+        writeVarInt(out, arr.length);
+        for (String s : arr) writeString(out, s);
+    }
+
+    // null은 길이 0, 나머지는 (바이트 수 + 1)
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, b.length + 1);
+        out.write(b);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    // 음수도 짧게 적도록 zigzag 변환 후 varint
+    private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+        long z = (v << 1) ^ (v >> 63);
+        while ((z & ~0x7FL) != 0) {
+            out.writeByte((int) ((z & 0x7F) | 0x80));
+            z >>>= 7;
+        }
+        out.writeByte((int) z);
+    }
+
+    // ==========================================================
+    // 디코딩
+    // ==========================================================
+    static NetworkMessage decode(byte[] body, int version) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+
+        short cmdId = in.readShort();
+        String cmd;
+        if (cmdId == NO_COMMAND) {
+            cmd = null;
+        } else if (cmdId == CUSTOM_COMMAND) {
+            cmd = readString(in);
+        } else {
+            Command known = Command.fromId(cmdId);
+            if (known == null) throw new StreamCorruptedException("알 수 없는 명령 id: " + cmdId);
+            cmd = known.name();
+        }
+        boolean success = (in.readUnsignedByte() & FLAG_SUCCESS) != 0;
+        int requestId = (version >= PIPELINING_VERSION) ? readVarInt(in) : 0;
+        String message = readString(in);
+        Object data = readValue(in, version);
+        NetworkMessage msg = new NetworkMessage(cmd, success, message, data);
+        msg.setRequestId(requestId);
+        return msg;
+    }
+
+    private static Object readValue(DataInputStream in, int version) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case T_NULL: return null;
+            case T_STRING: return readString(in);
+            case T_INT: return (int) readVarLong(in);
+            case T_LONG: return readVarLong(in);
+            case T_DOUBLE: return in.readDouble();
+            case T_TRUE: return Boolean.TRUE;
+            case T_FALSE: return Boolean.FALSE;
+            case T_STRING_ARRAY: return readStringArray(in);
+            case T_USER: {
+                User u = new User(readString(in), readString(in), readString(in), readString(in),
+                        (int) readVarLong(in), readString(in));
+                return (version >= ROW_VERSION_VERSION) ? u.withVersion(readVarLong(in)) : u;
+            }
+            case T_ROWS: {
+                int n = readCount(in, 1);
+                List<String[]> rows = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) rows.add(readStringArray(in));
+                return rows;
+            }
+            case T_LIST: {
+                int n = readCount(in, 1);
+                List<Object> list = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) list.add(readValue(in, version));
+                return list;
+            }
+            case T_MAP: {
+                int n = readCount(in, 2);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < n; i++) map.put(readValue(in, version), readValue(in, version));
+                return map;
+            }
+            case T_SERIALIZED: {
+                byte[] b = new byte[readCount(in, 1)];
+                in.readFully(b);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(b))) {
+                    return ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new InvalidClassException(e.getMessage());
+                }
+            }
+            default:
+                throw new StreamCorruptedException("알 수 없는 값 태그: " + tag);
+        }
+    }
+
+    private static String[] readStringArray(DataInputStream in) throws IOException {
+        String[] arr = new String[readCount(in, 1)];
+        for (int i = 0; i < arr.length; i++) arr[i] = readString(in);
+        return arr;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int n = readVarInt(in);
+        if (n == 0) return null;
+        if (n < 0 || n - 1 > in.available()) throw new StreamCorruptedException("잘못된 문자열 길이: " + n);
+        byte[] b = new byte[n - 1];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 개수/길이 varint를 읽고, 항목마다 최소 minBytes바이트가 필요하다고 보고 본문의 남은 바이트와 비교합니다.
+     * (in은 본문 byte[] 위의 스트림이라 available()이 정확히 남은 바이트 수)
+     * 음수이거나 남은 바이트로 담을 수 없는 값이면 배열/목록을 만들기 전에 거부합니다.
+     */
+    private static int readCount(DataInputStream in, int minBytes) throws IOException {
+        int n = readVarInt(in);
+        if (n < 0 || (long) n * minBytes > in.available()) {
+            throw new StreamCorruptedException("잘못된 개수/길이: " + n + " (남은 바이트 " + in.available() + ")");
+        }
+        return n;
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new StreamCorruptedException("잘못된 varint");
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long z = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            z |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return (z >>> 1) ^ -(z & 1);
+        }
+        throw new StreamCorruptedException("잘못된 varint");
+    }
+}
@@ -0,0 +1,91 @@
+package hms.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 서버 명령어 목록
+ * - 바이너리 프로토콜에서는 명령어 문자열 대신 2바이트 id만 전송합니다.
+ * - id는 한 번 정하면 바꾸지 않습니다. (구버전 클라이언트 호환) 새 명령은 같은 그룹의 빈 번호를 씁니다.
+ */
+public enum Command {
+    // [1] 회원 관리 (1xx)
+    LOGIN(101),
+    SIGNUP(102),
+    DELETE_USER(103),
+    USER_GET_BY_ID(104),
+    USER_GET_ALL(105),
+    USER_ADD_ADMIN(106),
+    USER_UPDATE_ADMIN(107),
+
+    // [2] 예약 관리 (2xx)
+    RES_SAVE(201),
+    RES_SEARCH(202),
+    RES_GET_BY_ID(203),
+    RES_UPDATE_STATUS(204),
+    RES_GET_BOOKED(205),
+    RES_CHECKOUT(206),
+    RES_VALIDATE_CHECKIN(207),
+    RES_GET_ALL(208),
+    RES_ROOM_CHECKIN_STATUS(209),
+    RES_GET_BY_USER(210),
+    RES_GET_BOOKED_RANGE(211),
+    RES_FIND_AVAILABILITY(212),
+    RES_BOOK(213),
+    RES_GET_VERSIONED(214),
+
+    // [3] 룸서비스 관리 (3xx)
+    RS_GET_ALL_MENU(301),
+    RS_GET_CATEGORIES(302),
+    RS_GET_MENU_BY_CAT(303),
+    RS_ADD_MENU(304),
+    RS_UPDATE_MENU(305),
+    RS_DELETE_MENU(306),
+    RS_ADD_REQUEST(307),
+    RS_GET_ALL_REQUESTS(308),
+    RS_GET_REQ_BY_STATUS(309),
+    RS_UPDATE_REQ_STATUS(310),
+    RS_UPDATE_STATUS_BY_ROOM(311),
+    RS_GET_ROOM_FOLIO(312),
+    RS_SUBSCRIBE(313),
+
+    // [4] 보고서 (4xx)
+    REPORT_GENERATE(401),
+
+    // [5] 객실 및 가격 관리 (5xx)
+    ROOM_GET_ALL(501),
+    ROOM_GET_PRICE(502),
+    ROOM_ADD(503),
+    ROOM_UPDATE(504),
+    ROOM_DELETE(505),
+
+    // [6] 운영 (6xx)
+    ADMIN_METRICS(601);
+
+    private static final Map<Short, Command> BY_ID = new HashMap<>();
+    private static final Map<String, Command> BY_NAME = new HashMap<>();
+    static {
+        for (Command c : values()) {
+            BY_ID.put(c.id, c);
+            BY_NAME.put(c.name(), c);
+        }
+    }
+
+    private final short id;
+
+    Command(int id) {
+        this.id = (short) id;
+    }
+
+    public short getId() { return id; }
+
+    /** @return 해당 id의 명령, 없으면 null */
+    public static Command fromId(short id) {
+        return BY_ID.get(id);
+    }
+
+    /** @return 해당 이름의 명령, 없으면 null */
+    public static Command fromName(String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
+}
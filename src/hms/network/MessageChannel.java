@@ -0,0 +1,95 @@
+package hms.network;
+
+import java.io.*;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * 소켓 하나 위에서 NetworkMessage를 주고받는 통로
+ * - 바이너리 프로토콜(BinaryChannel)과 기존 자바 직렬화(ObjectStreamChannel) 두 가지 구현이 있습니다.
+ * - 어떤 방식을 쓸지는 연결 직후 한 번 협상합니다.
+ * - read는 한 스레드에서만, write는 여러 스레드에서 불러도 됩니다. (메시지 단위로 하나씩 씀)
+ */
+public interface MessageChannel extends Closeable {
+
+    NetworkMessage read() throws IOException, ClassNotFoundException;
+
+    void write(NetworkMessage msg) throws IOException;
+
+    /**
+     * 다음 메시지의 첫 바이트가 올 때까지 기다립니다. (읽지 않고 확인만, read와 같은 스레드에서 호출)
+     * @return 첫 바이트 전에 상대가 연결을 닫았으면 false
+     * @throws java.net.SocketTimeoutException 읽기 시간 초과
+     */
+    boolean awaitMessage() throws IOException;
+
+    /** @return 바이너리 프로토콜이면 true */
+    boolean isBinary();
+
+    /** @return 요청 번호(NetworkMessage.getRequestId)를 주고받으면 true (바이너리 프로토콜 2 이상) */
+    default boolean supportsRequestIds() { return false; }
+
+    // ==========================================================
+    // 협상
+    // ==========================================================
+
+    /**
+     * [클라이언트] 서버에 연결된 소켓에서 통로를 엽니다.
+     * @param binaryVersion 바이너리 핸드셰이크 버전 (0이면 자바 직렬화).
+     *                      서버가 그 버전을 받지 않으면 ProtocolException, 구버전 서버가 바로 연결을 닫으면 EOFException
+     */
+    static MessageChannel connect(Socket socket, int binaryVersion) throws IOException {
+        OutputStream rawOut = new BufferedOutputStream(socket.getOutputStream());
+        InputStream rawIn = new BufferedInputStream(socket.getInputStream());
+        if (binaryVersion == 0) {
+            return new ObjectStreamChannel(rawIn, rawOut);
+        }
+
+        byte[] hello = BinaryCodec.handshake(binaryVersion);
+        rawOut.write(hello);
+        rawOut.flush();
+        DataInputStream din = new DataInputStream(rawIn);
+        byte[] reply = new byte[hello.length];
+        din.readFully(reply, 0, 2);
+        if ((reply[0] & 0xFF) == 0xAC && (reply[1] & 0xFF) == 0xED) {
+            // 구버전 서버는 핸드셰이크 대신 직렬화 스트림 헤더(0xACED)를 먼저 보냄
+            throw new ProtocolException("서버가 바이너리 프로토콜을 지원하지 않습니다.");
+        }
+        din.readFully(reply, 2, reply.length - 2);
+        if (!Arrays.equals(reply, hello)) {
+            throw new ProtocolException("서버가 바이너리 프로토콜 " + binaryVersion + "을 지원하지 않습니다.");
+        }
+        return new BinaryChannel(rawIn, rawOut, binaryVersion);
+    }
+
+    /**
+     * [서버] 접속한 클라이언트가 보낸 첫 바이트를 보고 방식을 결정합니다.
+     * - 0xACED (자바 직렬화 스트림 헤더) -> ObjectStreamChannel
+     * - "HMSB" + 버전(1~최신) -> 같은 핸드셰이크로 응답 후 그 버전의 BinaryChannel
+     */
+    static MessageChannel accept(Socket socket) throws IOException {
+        OutputStream rawOut = new BufferedOutputStream(socket.getOutputStream());
+        InputStream rawIn = new BufferedInputStream(socket.getInputStream());
+
+        rawIn.mark(2);
+        int b0 = rawIn.read();
+        int b1 = rawIn.read();
+        rawIn.reset();
+        if (b0 < 0 || b1 < 0) throw new EOFException();
+
+        if (b0 == 0xAC && b1 == 0xED) {
+            return new ObjectStreamChannel(rawIn, rawOut);
+        }
+
+        byte[] hello = new byte[BinaryCodec.HANDSHAKE_LENGTH];
+        new DataInputStream(rawIn).readFully(hello);
+        int version = BinaryCodec.handshakeVersion(hello);
+        if (version < 0) {
+            throw new ProtocolException("알 수 없는 프로토콜");
+        }
+        rawOut.write(hello);
+        rawOut.flush();
+        return new BinaryChannel(rawIn, rawOut, version);
+    }
+}
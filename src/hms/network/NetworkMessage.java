@@ -9,6 +9,11 @@ public class NetworkMessage implements Serializable {
     private Object data;     // 데이터 (Map, String, User 객체 등)
     private boolean success; // 성공 여부
     private String message;  // 응답 메시지
+    // 요청 번호 (0 = 없음). 번호를 붙인 요청은 서버가 동시에 처리하고, 응답에 같은 번호를 붙여 끝나는 대로 보냄
+    // 바이너리 프로토콜 2 이상에서만 전송 (자바 직렬화 방식은 항상 0)
+    private transient int requestId;
+    // 이 메시지를 읽거나 쓸 때 오간 바이트 수 (통로가 채움, 서버 통계용)
+    private transient int wireSize;
 
     public NetworkMessage() {}
 
@@ -25,8 +30,20 @@ public class NetworkMessage implements Serializable {
         this.data = data;
     }
 
+    // 바이너리 디코딩용 (BinaryCodec)
+    NetworkMessage(String command, boolean success, String message, Object data) {
+        this.command = command;
+        this.success = success;
+        this.message = message;
+        this.data = data;
+    }
+
     public String getCommand() { return command; }
     public Object getData() { return data; }
     public boolean isSuccess() { return success; }
     public String getMessage() { return message; }
+    public int getRequestId() { return requestId; }
+    public void setRequestId(int requestId) { this.requestId = requestId; }
+    public int getWireSize() { return wireSize; }
+    void setWireSize(int wireSize) { this.wireSize = wireSize; }
 }
\ No newline at end of file
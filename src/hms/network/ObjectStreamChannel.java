@@ -0,0 +1,106 @@
+package hms.network;
+
+import java.io.*;
+
+/**
+ * 기존 방식: NetworkMessage를 자바 직렬화(ObjectOutputStream)로 주고받습니다.
+ * (바이너리 프로토콜을 모르는 상대와 통신할 때의 대체 경로)
+ * - 메시지 크기(wireSize)는 스트림을 지나간 바이트 수로 셉니다. (읽기는 한 스레드, 쓰기는 잠금 안에서만 하므로 정확)
+ */
+class ObjectStreamChannel implements MessageChannel {
+
+    private final ObjectOutputStream out;
+    private final ObjectInputStream in;
+    private final InputStream rawIn; // 다음 메시지 확인용 (ObjectInputStream은 메시지 사이에서 미리 읽지 않음)
+    private final CountingInputStream inCounter;
+    private final CountingOutputStream outCounter;
+
+    ObjectStreamChannel(InputStream rawIn, OutputStream rawOut) throws IOException {
+        this.rawIn = rawIn;
+        this.inCounter = new CountingInputStream(rawIn);
+        this.outCounter = new CountingOutputStream(rawOut);
+        // 헤더를 먼저 내보내야 상대방의 ObjectInputStream 생성이 막히지 않음
+        this.out = new ObjectOutputStream(outCounter);
+        this.out.flush();
+        this.in = new ObjectInputStream(inCounter);
+    }
+
+    @Override
+    public NetworkMessage read() throws IOException, ClassNotFoundException {
+        long before = inCounter.count;
+        NetworkMessage msg = (NetworkMessage) in.readObject();
+        msg.setWireSize((int) (inCounter.count - before));
+        return msg;
+    }
+
+    @Override
+    public boolean awaitMessage() throws IOException {
+        rawIn.mark(1);
+        int b = rawIn.read();
+        rawIn.reset();
+        return b >= 0;
+    }
+
+    @Override
+    public synchronized void write(NetworkMessage msg) throws IOException {
+        long before = outCounter.count;
+        out.writeObject(msg);
+        // 같은 스트림을 계속 쓰므로 참조 캐시를 비움 (수정된 String[]이 이전 값으로 전송되지 않도록)
+        out.reset();
+        out.flush();
+        msg.setWireSize((int) (outCounter.count - before));
+    }
+
+    @Override
+    public boolean isBinary() { return false; }
+
+    @Override
+    public void close() throws IOException {
+        try { out.close(); } finally { in.close(); }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) { super(in); }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) { super(out); }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len); // FilterOutputStream 기본 구현은 1바이트씩 씀
+            count += len;
+        }
+    }
+}
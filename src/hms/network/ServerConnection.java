@@ -0,0 +1,435 @@
+package hms.network;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 클라이언트 공용 서버 연결 관리자
+ * - 기존: 컨트롤러가 요청마다 소켓 + Object 스트림을 새로 열고 닫음
+ * - 변경: 한 번 연 연결을 풀에 보관했다가 다음 요청에 재사용 (서버는 한 연결에서 여러 요청을 처리함)
+ * - 재사용한 연결이 끊겨 있으면 새 연결로 한 번 다시 보냅니다.
+ *   서버가 요청을 받지 못했을 때만(보내기 실패, 응답 첫 바이트 전에 연결이 닫히거나 끊김) 다시 보내고,
+ *   응답 시간 초과 등은 서버가 이미 처리했을 수 있으므로 다시 보내지 않습니다. (예약/주문이 두 번 들어가지 않도록)
+ * - 기본은 바이너리 프로토콜 최신 버전, 서버가 지원하지 않으면 한 단계씩 낮추고 끝내 안 되면 자바 직렬화로 전환합니다.
+ *   (-Dhms.protocol=serial 로 고정 가능)
+ * - sendAsync: 요청 번호를 붙여 한 연결(파이프라인)에 응답을 기다리지 않고 연달아 보냅니다.
+ *   서버는 동시에 처리해 끝난 순서대로 번호를 붙여 돌려주므로, 화면 하나에 필요한 요청 여러 개가 왕복 한 번에 끝납니다.
+ *   서버가 요청 번호를 모르면(바이너리 2 미만) 풀 연결로 각각 send 합니다.
+ */
+public class ServerConnection {
+
+    private static final ServerConnection DEFAULT = new ServerConnection(
+            System.getProperty("hms.server.host", "127.0.0.1"),
+            Integer.getInteger("hms.server.port", 5000),
+            Integer.getInteger("hms.client.poolSize", 4));
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 3000;
+    private static final int READ_TIMEOUT_MILLIS = 60 * 1000;
+    // 서버의 유휴 연결 종료 시간(기본 10분)보다 짧게 잡아서, 서버가 이미 닫은 연결을 쓰지 않도록 함
+    private static final long MAX_IDLE_MILLIS = 4 * 60 * 1000;
+    // 구독 연결: 서버가 알림이 없을 때도 주기적으로(기본 30초) PING을 보내므로, 이보다 오래 조용하면 끊긴 것으로 봄
+    private static final int SUBSCRIPTION_READ_TIMEOUT_MILLIS = 90 * 1000;
+
+    private final String host;
+    private final int port;
+    private final int maxIdleConnections;
+    private final BlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    // 시도할 바이너리 프로토콜 버전 (0 = 자바 직렬화)
+    private volatile int protocol =
+            "serial".equalsIgnoreCase(System.getProperty("hms.protocol", "binary")) ? 0 : BinaryCodec.VERSION;
+    private Pipeline pipeline; // sendAsync용 연결 (this로 잠금)
+
+    // 파이프라인을 쓸 수 없을 때 sendAsync를 대신 처리
+    private static final ExecutorService FALLBACK =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hms-async-", 0).factory());
+
+    public ServerConnection(String host, int port, int maxIdleConnections) {
+        this.host = host;
+        this.port = port;
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    /** 모든 컨트롤러가 함께 쓰는 기본 연결 관리자 */
+    public static ServerConnection getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 요청 1건을 보내고 응답을 받습니다.
+     * @throws IOException 서버에 연결할 수 없거나 새 연결에서도 통신에 실패한 경우
+     */
+    public NetworkMessage send(String command, Object data) throws IOException, ClassNotFoundException {
+        NetworkMessage req = new NetworkMessage(command, data);
+
+        Connection conn = borrow();
+        if (conn != null) {
+            try {
+                if (conn.sendIfOpen(req)) {
+                    NetworkMessage res = conn.channel.read();
+                    release(conn);
+                    return res;
+                }
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                conn.close();
+                throw e;
+            }
+            // 서버 재시작, 유휴 시간 초과 등으로 이미 끊긴 연결 -> 버리고 새 연결로 재시도
+            conn.close();
+        }
+
+        conn = open();
+        try {
+            NetworkMessage res = conn.exchange(req);
+            release(conn);
+            return res;
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 요청 1건을 파이프라인으로 보내고 응답을 기다리지 않습니다.
+     * 여러 건을 연달아 부른 뒤 join하면 왕복 한 번 시간에 모두 받습니다. (응답 순서는 보낸 순서와 다를 수 있음)
+     * 실패하면 future가 IOException(연결 끊김/시간 초과) 등으로 끝납니다.
+     */
+    public CompletableFuture<NetworkMessage> sendAsync(String command, Object data) {
+        return sendAsync(new NetworkMessage(command, data), true);
+    }
+
+    private CompletableFuture<NetworkMessage> sendAsync(NetworkMessage req, boolean retry) {
+        Pipeline p;
+        boolean reused;
+        synchronized (this) {
+            reused = (pipeline != null && pipeline.isUsable());
+            if (!reused) {
+                if (pipeline != null) pipeline.close(new IOException("유휴 시간 초과"));
+                pipeline = null;
+                if (protocol >= BinaryCodec.PIPELINING_VERSION) {
+                    try {
+                        pipeline = Pipeline.open(this, open());
+                    } catch (IOException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                }
+            }
+            p = pipeline;
+        }
+        if (p == null) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return send(req.getCommand(), req.getData());
+                } catch (IOException | ClassNotFoundException e) {
+                    throw new CompletionException(e);
+                }
+            }, FALLBACK);
+        }
+
+        CompletableFuture<NetworkMessage> f = p.submit(req);
+        if (!reused || !retry) return f;
+        // 재사용한 연결이 그사이 끊겨 있어 서버가 요청을 받지 못했으면(서버 재시작 등) 새 연결로 한 번 다시 보냄
+        return f.exceptionallyCompose(e -> {
+            Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+            if (cause instanceof NotDeliveredException) return sendAsync(req, false);
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    /**
+     * 구독 요청을 보내고, 이후 서버가 보내는 알림을 받는 전용 연결을 엽니다. (풀에 넣지 않음)
+     * 첫 응답이 성공이면 백그라운드 스레드가 알림을 읽어 onMessage에 넘기고,
+     * 연결이 끊기면(close() 호출 제외) onClosed를 한 번 호출합니다.
+     */
+    public Subscription subscribe(String command, Object data,
+                                  Consumer<NetworkMessage> onMessage, Runnable onClosed)
+            throws IOException, ClassNotFoundException {
+        Connection conn = open();
+        NetworkMessage first;
+        try {
+            conn.socket.setSoTimeout(SUBSCRIPTION_READ_TIMEOUT_MILLIS);
+            first = conn.exchange(new NetworkMessage(command, data));
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+        Subscription sub = new Subscription(conn, first);
+        if (!first.isSuccess()) {
+            conn.close();
+            return sub;
+        }
+        Thread reader = new Thread(() -> sub.readLoop(onMessage, onClosed), "hms-subscription-" + command);
+        reader.setDaemon(true);
+        reader.start();
+        return sub;
+    }
+
+    /** 구독 연결 1개 */
+    public static final class Subscription implements Closeable {
+        private final Connection conn;
+        private final NetworkMessage initial;
+        private volatile boolean closed;
+
+        private Subscription(Connection conn, NetworkMessage initial) {
+            this.conn = conn;
+            this.initial = initial;
+        }
+
+        /** 구독 요청에 대한 첫 응답 (성공이면 보통 현재 전체 목록) */
+        public NetworkMessage getInitial() { return initial; }
+
+        private void readLoop(Consumer<NetworkMessage> onMessage, Runnable onClosed) {
+            try {
+                while (!closed) onMessage.accept(conn.channel.read());
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                // 연결 끊김
+            } finally {
+                conn.close();
+                if (!closed) onClosed.run();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            conn.close();
+        }
+    }
+
+    /** 보관 중인 연결을 모두 닫습니다. (로그아웃/프로그램 종료 시) */
+    public void closeAll() {
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) conn.close();
+        Pipeline p;
+        synchronized (this) {
+            p = pipeline;
+            pipeline = null;
+        }
+        if (p != null) p.close(new IOException("연결을 닫았습니다."));
+    }
+
+    // 최근에 쓴 연결부터 꺼냄 (오래 놀던 연결은 닫고 건너뜀)
+    private Connection borrow() {
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            if (conn.isUsable()) return conn;
+            conn.close();
+        }
+        return null;
+    }
+
+    private void release(Connection conn) {
+        conn.touch();
+        if (idle.size() >= maxIdleConnections || !idle.offerFirst(conn)) {
+            conn.close();
+        }
+    }
+
+    private Connection open() throws IOException {
+        while (true) {
+            int version = protocol;
+            try {
+                return open(version);
+            } catch (ProtocolException | EOFException e) {
+                // 그 버전을 모르는 서버 (구버전 서버는 모르는 핸드셰이크를 받으면 바로 연결을 닫음)
+                //  -> 한 단계 낮춰 다시 시도, 바이너리를 아예 모르면 이후로는 직렬화 방식만 사용
+                if (version == 0) throw e;
+                protocol = (version > BinaryCodec.MIN_VERSION) ? version - 1 : 0;
+            }
+        }
+    }
+
+    private Connection open(int binaryVersion) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            return new Connection(socket, MessageChannel.connect(socket, binaryVersion));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /** 서버가 요청을 받지 못한 것으로 보는 실패 (보내기 실패, 응답 전에 연결이 닫힘) - 이때만 새 연결로 다시 보냄 */
+    private static final class NotDeliveredException extends IOException {
+        NotDeliveredException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    // ==========================================================
+    // 연결 1개 (소켓 + 메시지 통로)
+    // ==========================================================
+    private static class Connection {
+        private final Socket socket;
+        private final MessageChannel channel;
+        private long lastUsed = System.currentTimeMillis();
+
+        Connection(Socket socket, MessageChannel channel) {
+            this.socket = socket;
+            this.channel = channel;
+        }
+
+        NetworkMessage exchange(NetworkMessage req) throws IOException, ClassNotFoundException {
+            channel.write(req);
+            return channel.read();
+        }
+
+        /**
+         * 재사용한 연결로 요청을 보내고 응답 첫 바이트를 기다립니다. (true면 이어서 channel.read())
+         * @return 보내기에 실패했거나 응답 전에 연결이 닫히거나 끊겼으면 false (서버가 요청을 받지 못함 -> 다시 보내도 됨)
+         * @throws IOException 응답 시간 초과 등 (서버가 이미 처리했을 수 있음 -> 다시 보내면 안 됨)
+         */
+        boolean sendIfOpen(NetworkMessage req) throws IOException {
+            try {
+                channel.write(req);
+            } catch (IOException e) {
+                return false;
+            }
+            return awaitReply();
+        }
+
+        // 응답 첫 바이트를 기다림: 그 전에 연결이 닫혔거나(EOF) 끊겼으면(reset, 닫힌 연결에 보낸 경우) false
+        // 시간 초과(SocketTimeoutException)는 SocketException이 아니므로 그대로 던짐
+        boolean awaitReply() throws IOException {
+            try {
+                return channel.awaitMessage();
+            } catch (SocketException e) {
+                return false;
+            }
+        }
+
+        boolean isUsable() {
+            return !socket.isClosed() && System.currentTimeMillis() - lastUsed < MAX_IDLE_MILLIS;
+        }
+
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        void close() {
+            try { socket.close(); } catch (IOException ignored) {}
+        }
+    }
+
+    // ==========================================================
+    // 파이프라인 연결 1개 (요청 번호 -> 응답 대기 future)
+    // ==========================================================
+    private static final class Pipeline {
+        private final ServerConnection owner;
+        private final Connection conn;
+        private final Map<Integer, CompletableFuture<NetworkMessage>> pending = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+        private volatile IOException failure;
+        private volatile long replies;          // 받기 시작한 응답 수 (읽기 스레드만 증가)
+        private volatile boolean closedByServer; // 메시지 사이에서 서버가 연결을 닫음
+
+        private Pipeline(ServerConnection owner, Connection conn) {
+            this.owner = owner;
+            this.conn = conn;
+        }
+
+        static Pipeline open(ServerConnection owner, Connection conn) throws IOException {
+            if (!conn.channel.supportsRequestIds()) {
+                conn.close();
+                return null;
+            }
+            conn.socket.setSoTimeout(0); // 요청이 없을 때도 읽기 스레드가 계속 기다림 (시간 초과는 요청마다 따로)
+            Pipeline p = new Pipeline(owner, conn);
+            Thread reader = new Thread(p::readLoop, "hms-pipeline-reader");
+            reader.setDaemon(true);
+            reader.start();
+            return p;
+        }
+
+        CompletableFuture<NetworkMessage> submit(NetworkMessage req) {
+            int id;
+            do { id = nextId.incrementAndGet(); } while (id == 0); // 0은 "번호 없음"
+            final int key = id;
+            CompletableFuture<NetworkMessage> f = new CompletableFuture<>();
+            pending.put(key, f);
+            f.whenComplete((res, e) -> pending.remove(key));
+
+            req.setRequestId(key);
+            long repliesBefore = replies;
+            boolean written = false;
+            try {
+                conn.channel.write(req);
+                conn.touch();
+                written = true;
+            } catch (IOException | RuntimeException e) {
+                close(e instanceof IOException ? (IOException) e : new IOException("요청 전송 실패", e));
+            }
+            // close가 pending을 비운 뒤에 넣었을 수도 있으므로 다시 확인
+            IOException err = failure;
+            if (err != null) f.completeExceptionally(err);
+
+            // 보내기 실패, 또는 보낸 뒤 응답이 하나도 오지 않은 채 서버가 연결을 닫음 -> 서버가 받지 못한 요청
+            boolean sent = written;
+            return f.orTimeout(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                    .exceptionallyCompose(e -> {
+                        if (e instanceof TimeoutException) return CompletableFuture.failedFuture(new IOException("서버 응답 시간 초과"));
+                        if (!sent || (closedByServer && replies == repliesBefore)) {
+                            return CompletableFuture.failedFuture(new NotDeliveredException("요청이 서버에 전달되지 않았습니다.", e));
+                        }
+                        return CompletableFuture.failedFuture(e);
+                    });
+        }
+
+        private void readLoop() {
+            try {
+                while (true) {
+                    if (!conn.awaitReply()) {
+                        closedByServer = true;
+                        close(new EOFException("서버가 연결을 닫았습니다."));
+                        return;
+                    }
+                    replies++;
+                    NetworkMessage res = conn.channel.read();
+                    conn.touch();
+                    CompletableFuture<NetworkMessage> f = pending.remove(res.getRequestId());
+                    if (f != null) f.complete(res); // 시간 초과로 이미 포기한 요청의 응답은 버림
+                }
+            } catch (IOException e) {
+                close(e);
+            } catch (ClassNotFoundException | RuntimeException e) {
+                close(new IOException("서버 응답을 읽지 못했습니다.", e));
+            }
+        }
+
+        boolean isUsable() {
+            return failure == null && conn.isUsable();
+        }
+
+        /** 연결을 닫고 기다리던 요청을 모두 실패시킴 */
+        void close(IOException cause) {
+            if (failure == null) failure = cause;
+            conn.close();
+            synchronized (owner) {
+                if (owner.pipeline == this) owner.pipeline = null;
+            }
+            for (Integer id : pending.keySet()) {
+                CompletableFuture<NetworkMessage> f = pending.remove(id);
+                if (f != null) f.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package hms.server;
+
+import hms.network.Command;
+import hms.network.NetworkMessage;
+
+/**
+ * [6] 운영 명령
+ */
+final class AdminCommands {
+
+    private AdminCommands() {}
+
+    static void register(CommandRegistry registry, ServerMetrics metrics) {
+        // 명령별 처리 시간 분포/호출 수 등 (ServerMetrics.toMessageData 참고)
+        registry.register(Command.ADMIN_METRICS, req -> new NetworkMessage(true, "지표", metrics.toMessageData()));
+    }
+}
@@ -0,0 +1,13 @@
+package hms.server;
+
+import hms.network.NetworkMessage;
+
+/**
+ * 명령 1개 처리 (요청 -> 응답)
+ * - 여러 연결에서 동시에 불리므로 공유 상태는 데이터 매니저에 맡깁니다.
+ * - 예외를 던지면 그 요청의 연결을 닫습니다. (파이프라인 요청은 실패 응답)
+ */
+@FunctionalInterface
+interface CommandHandler {
+    NetworkMessage handle(NetworkMessage req);
+}
@@ -0,0 +1,112 @@
+package hms.server;
+
+import hms.network.Command;
+import hms.network.NetworkMessage;
+import hms.util.Log;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 명령 id(Command) -> 처리기 표
+ * - 서버 시작 시 도메인별 XxxCommands.register로 한 번 채우고, 이후에는 읽기만 합니다.
+ * - 명령마다 호출/오류/실패 수, 처리 중인 요청 수, 주고받은 바이트, 처리 시간 분포(LatencyHistogram)를 따로 셉니다.
+ *   오류 = 처리기가 예외를 던짐, 실패 = 처리기가 실패 응답(success=false)을 돌려줌 (로그인 실패, 저장 실패, 버전충돌 등)
+ *   (여러 스레드가 동시에 더해도 경합이 적은 LongAdder)
+ * - 처리 시간은 처리기 실행 시간입니다. (요청을 읽고 응답을 쓰는 시간은 제외)
+ * - 처리 시간이 hms.log.slowMillis(기본 1000ms) 이상인 요청은 WARN 로그를 남깁니다.
+ * - 목록에 없거나 처리기가 없는 명령은 "알수없는명령" 실패 응답
+ */
+final class CommandRegistry {
+
+    /** 명령 1개의 처리 통계 */
+    static final class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+
+        long getCalls() { return latency.count(); }
+        long getErrors() { return errors.sum(); }
+        long getFailures() { return failures.sum(); }
+        long getInFlight() { return inFlight.sum(); }
+        long getBytesIn() { return bytesIn.sum(); }
+        long getBytesOut() { return bytesOut.sum(); }
+        LatencyHistogram getLatency() { return latency; }
+    }
+
+    private final Map<Command, CommandHandler> handlers = new EnumMap<>(Command.class);
+    private final Map<Command, Stats> stats = new EnumMap<>(Command.class);
+    private final long slowNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("hms.log.slowMillis", 1000));
+
+    /** 처리기 등록 (같은 명령을 두 번 등록하면 IllegalStateException) */
+    void register(Command command, CommandHandler handler) {
+        if (handlers.putIfAbsent(command, handler) != null) {
+            throw new IllegalStateException("이미 등록된 명령: " + command);
+        }
+        stats.put(command, new Stats());
+    }
+
+    /** 요청 1건을 해당 처리기에 넘기고 응답을 돌려줍니다. */
+    NetworkMessage dispatch(NetworkMessage req) {
+        Command command = Command.fromName(req.getCommand());
+        CommandHandler handler = (command == null) ? null : handlers.get(command);
+        if (handler == null) return new NetworkMessage(false, "알수없는명령", null);
+
+        Stats s = stats.get(command);
+        s.bytesIn.add(req.getWireSize());
+        s.inFlight.increment();
+        long start = System.nanoTime();
+        try {
+            NetworkMessage res = handler.handle(req);
+            if (res == null || !res.isSuccess()) s.failures.increment();
+            return res;
+        } catch (RuntimeException e) {
+            s.errors.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            s.latency.record(elapsed);
+            s.inFlight.decrement();
+            if (elapsed >= slowNanos) {
+                // 문자열 인자(객실 번호, 예약 번호, 날짜 등)만 남김 (Map/User는 내용이 크거나 민감, LOGIN은 비밀번호 포함)
+                Object data = req.getData();
+                boolean showArgs = (data instanceof String) && command != Command.LOGIN;
+                Log.warn("서버", "느린 요청", "command", command, "durationMs", TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        "args", showArgs ? data : "-");
+            }
+        }
+    }
+
+    /** 응답을 보낸 뒤 크기를 더합니다. (res.getWireSize는 통로가 쓴 뒤에 채워짐) */
+    void recordResponse(NetworkMessage req, NetworkMessage res) {
+        Command command = Command.fromName(req.getCommand());
+        Stats s = (command == null) ? null : stats.get(command);
+        if (s != null) s.bytesOut.add(res.getWireSize());
+    }
+
+    /** 등록된 명령별 통계 (읽기 전용) */
+    Map<Command, Stats> stats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /** 한 번 이상 호출된 명령의 통계 표 (서버 종료 시 출력용) */
+    String summary() {
+        StringBuilder sb = new StringBuilder(String.format("%-26s %10s %8s %8s %12s %12s %12s%n",
+                "명령", "호출", "오류", "실패", "p50(us)", "p99(us)", "최대(us)"));
+        for (Map.Entry<Command, Stats> e : stats.entrySet()) {
+            Stats s = e.getValue();
+            long calls = s.getCalls();
+            if (calls == 0) continue;
+            LatencyHistogram h = s.latency;
+            sb.append(String.format("%-26s %10d %8d %8d %12.1f %12.1f %12.1f%n", e.getKey(), calls, s.getErrors(), s.getFailures(),
+                    h.percentile(50) / 1000.0, h.percentile(99) / 1000.0, h.max() / 1000.0));
+        }
+        return sb.toString();
+    }
+}
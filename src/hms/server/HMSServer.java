@@ -3,296 +3,346 @@ package hms.server;
 import hms.model.ReservationDataManager;
 import hms.model.RoomDataManager;
 import hms.model.RoomServiceDataManager;
-import hms.model.User;
 import hms.model.UserDataManager;
+import hms.network.MessageChannel;
 import hms.network.NetworkMessage;
+import hms.util.Log;
 
 import java.io.*;
+import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
-import java.util.List;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HMSServer {
+
+    private final ServerConfig config;
+
+    // 데이터 매니저
+    private final UserDataManager userMgr;
+    private final ReservationDataManager resMgr;
+    private final RoomServiceDataManager rsMgr;
+    private final RoomDataManager roomMgr;
+    private final ReportEngine reportEngine;
+    private final OrderFeed orderFeed;
+    // 명령 id -> 처리기 (명령별 처리 통계 포함)
+    private final CommandRegistry commands = new CommandRegistry();
+    // 명령별 지표 내보내기 (ADMIN_METRICS / HTTP / JMX)
+    private final ServerMetrics metrics;
+
+    // 접속 관리
+    private final Set<Socket> activeSockets = ConcurrentHashMap.newKeySet();
+    private final Map<InetAddress, AtomicInteger> connectionsPerHost = new ConcurrentHashMap<>();
+    private final Semaphore connectionSlots;
+    private final ExecutorService workers;
+    // POOL 모드: 대기 큐에서 queueTimeoutMillis를 넘긴 연결을 꺼내 혼잡 응답 (VIRTUAL 모드는 null)
+    private final ScheduledExecutorService queueReaper;
+    // 파이프라인 요청 처리 (요청마다 가상 스레드 1개, 연결별 동시 처리 수는 RequestPipeline이 제한)
+    private final ExecutorService requests =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hms-request-", 0).factory());
+    private volatile ServerSocket serverSocket;
+    private volatile boolean running = true;
+
+    public HMSServer(ServerConfig config) {
+        this.config = config;
+
+        // 1. 모든 데이터 매니저 생성
+        this.userMgr = new UserDataManager();
+        this.resMgr = new ReservationDataManager();
+        this.rsMgr = new RoomServiceDataManager();
+        this.roomMgr = new RoomDataManager();
+        // 보고서 계산기 (기본: 일별 집계 합산)
+        this.reportEngine = ReportEngine.fromSystemProperties(resMgr, rsMgr);
+        // 룸서비스 주문 실시간 알림
+        this.orderFeed = OrderFeed.fromSystemProperties();
+        rsMgr.addLiveRequestListener(orderFeed);
+        this.metrics = ServerMetrics.fromSystemProperties(commands, activeSockets::size);
+        registerCommands();
+
+        // 2. 클라이언트 처리용 실행기 생성
+        this.connectionSlots = new Semaphore(config.getMaxConnections());
+        this.workers = createExecutor(config);
+        this.queueReaper = (workers instanceof ThreadPoolExecutor) ? startQueueReaper((ThreadPoolExecutor) workers) : null;
+    }
+
     public static void main(String[] args) {
-        try (ServerSocket serverSocket = new ServerSocket(5000)) {
-            System.out.println(">>> HMS 서버(Port:5000)가 시작되었습니다.");
+        // 로그 파일 (-Dhms.log.file=경로, 빈 값이면 콘솔만)
+        String logFile = System.getProperty("hms.log.file", "logs/hms-server.log");
+        if (!logFile.isEmpty()) Log.toFile(logFile);
+        HMSServer server = new HMSServer(ServerConfig.fromSystemProperties());
+        // Ctrl+C / kill 시 처리 중인 요청을 마무리하고 종료
+        Runtime.getRuntime().addShutdownHook(new Thread(server::shutdown, "hms-shutdown"));
+        server.start();
+    }
 
-            // 1. 모든 데이터 매니저 생성
-            UserDataManager userMgr = new UserDataManager();
-            ReservationDataManager resMgr = new ReservationDataManager();
-            RoomServiceDataManager rsMgr = new RoomServiceDataManager();
-            RoomDataManager roomMgr = new RoomDataManager();
+    private static ExecutorService createExecutor(ServerConfig config) {
+        if (config.getMode() == ServerConfig.ExecutionMode.POOL) {
+            // 워커 수와 대기 큐가 모두 찬 경우 RejectedExecutionException -> 접속 거절 응답
+            return new ThreadPoolExecutor(
+                    config.getWorkerThreads(), config.getWorkerThreads(),
+                    60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                    namedThreadFactory("hms-worker-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+        // 접속마다 가상 스레드 1개 (플랫폼 스레드를 점유하지 않음)
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hms-client-", 0).factory());
+    }
 
-            while (true) {
-                Socket clientSocket = serverSocket.accept();
-                System.out.println(">>> 클라이언트 접속: " + clientSocket.getInetAddress());
-                // 동시 처리를 위해 별도 스레드 생성
-                new Thread(() -> handleClient(clientSocket, userMgr, resMgr, rsMgr, roomMgr)).start();
+    // POOL 모드에서는 연결이 끊길 때까지 워커를 점유하므로, 워커가 모두 찬 동안 큐에 들어온 연결은
+    // 앞선 연결이 끊길 때까지(최대 유휴 시간) 응답 없이 기다리게 됨 -> 일정 시간 넘게 기다린 연결은 꺼내서 거절
+    private ScheduledExecutorService startQueueReaper(ThreadPoolExecutor pool) {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getQueueTimeoutMillis());
+        long periodMillis = Math.max(10, Math.min(1000, config.getQueueTimeoutMillis() / 2));
+        ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("hms-queue-reaper-"));
+        reaper.scheduleWithFixedDelay(() -> {
+            long now = System.nanoTime();
+            for (Runnable r : pool.getQueue()) {
+                // 큐는 들어온 순서이므로 기다린 시간이 짧은 연결을 만나면 끝
+                if (!(r instanceof QueuedClient) || now - ((QueuedClient) r).queuedAt < timeoutNanos) break;
+                QueuedClient c = (QueuedClient) r;
+                if (pool.remove(c)) {
+                    releaseSlot(c.host);
+                    reject(c.socket, "서버가 혼잡합니다. 잠시 후 다시 시도해주세요.");
+                }
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return reaper;
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // ==========================================================
+    // 서버 시작 / 종료
+    // ==========================================================
+    public void start() {
+        try (ServerSocket ss = new ServerSocket(config.getPort())) {
+            this.serverSocket = ss;
+            Log.info("서버", "HMS 서버가 시작되었습니다.", "port", config.getPort(), "mode", config.getMode(),
+                    "maxConnections", config.getMaxConnections());
+            metrics.start();
+
+            while (running) {
+                Socket clientSocket;
+                try {
+                    clientSocket = ss.accept();
+                } catch (SocketException e) {
+                    if (!running) break; // shutdown()에서 소켓을 닫은 경우
+                    throw e;
+                }
+                Log.debug("서버", "클라이언트 접속", "remote", clientSocket.getInetAddress());
+                dispatch(clientSocket);
+            }
+        } catch (IOException e) { Log.error("서버", "서버 소켓 오류", e, "port", config.getPort()); }
+    }
+
+    /**
+     * 새 연결을 받지 않고, 처리 중인 요청이 끝날 때까지 기다린 뒤 종료합니다.
+     * 대기 중(요청 없이 열려 있는) 연결은 입력을 닫아 바로 정리합니다.
+     */
+    public void shutdown() {
+        if (!running) return;
+        running = false;
+        Log.info("서버", "HMS 서버 종료 중...", "connections", activeSockets.size());
+
+        try {
+            if (serverSocket != null) serverSocket.close();
+        } catch (IOException ignored) {}
+
+        for (Socket s : activeSockets) {
+            try { s.shutdownInput(); } catch (IOException ignored) {}
+        }
+        orderFeed.close();
+        metrics.close();
+        if (queueReaper != null) queueReaper.shutdownNow();
+
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(config.getShutdownGraceSeconds(), TimeUnit.SECONDS)) {
+                for (Socket s : activeSockets) closeQuietly(s);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // 연결 처리가 끝날 때 파이프라인 요청도 보통 모두 끝나 있지만, 강제로 끊은 연결의 요청은 남아 있을 수 있음
+        // -> 데이터 매니저를 닫기 전에 끝날 때까지 기다림
+        awaitTermination(requests);
+        reportEngine.shutdown();
+        resMgr.close();
+        userMgr.close();
+        rsMgr.close();
+        roomMgr.close();
+        Log.info("서버", "명령별 처리 통계" + System.lineSeparator() + commands.summary().stripTrailing());
+        Log.info("서버", "HMS 서버가 종료되었습니다.");
+        Log.flush();
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(config.getShutdownGraceSeconds(), TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+                if (!executor.awaitTermination(config.getShutdownGraceSeconds(), TimeUnit.SECONDS)) {
+                    Log.warn("서버", "끝나지 않은 요청이 있는 채로 종료합니다.");
+                }
             }
-        } catch (IOException e) { e.printStackTrace(); }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 
-    private static void handleClient(Socket socket, UserDataManager userMgr, ReservationDataManager resMgr, RoomServiceDataManager rsMgr, RoomDataManager roomMgr) {
-        try (
-                ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-                ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
-        ) {
+    // ==========================================================
+    // 접속 한도 확인 후 실행기에 위임
+    // ==========================================================
+    private void dispatch(Socket socket) {
+        InetAddress host = socket.getInetAddress();
+
+        if (!connectionSlots.tryAcquire()) {
+            reject(socket, "서버 접속 한도를 초과했습니다. 잠시 후 다시 시도해주세요.");
+            return;
+        }
+        AtomicInteger hostCount = connectionsPerHost.computeIfAbsent(host, h -> new AtomicInteger());
+        if (hostCount.incrementAndGet() > config.getMaxConnectionsPerHost()) {
+            releaseSlot(host);
+            reject(socket, "이 단말의 동시 접속 수가 너무 많습니다.");
+            return;
+        }
+
+        try {
+            workers.execute(new QueuedClient(socket, host));
+        } catch (RejectedExecutionException e) {
+            releaseSlot(host);
+            reject(socket, "서버가 혼잡합니다. 잠시 후 다시 시도해주세요.");
+        }
+    }
+
+    /** 실행기에 넘긴 연결 1개 (POOL 모드에서는 큐에서 기다린 시간을 확인) */
+    private final class QueuedClient implements Runnable {
+        final Socket socket;
+        final InetAddress host;
+        final long queuedAt = System.nanoTime();
+
+        QueuedClient(Socket socket, InetAddress host) {
+            this.socket = socket;
+            this.host = host;
+        }
+
+        @Override
+        public void run() {
+            try {
+                handleClient(socket);
+            } finally {
+                releaseSlot(host);
+            }
+        }
+    }
+
+    private void releaseSlot(InetAddress host) {
+        connectionSlots.release();
+        connectionsPerHost.computeIfPresent(host, (h, c) -> c.decrementAndGet() <= 0 ? null : c);
+    }
+
+    // 거절 응답 1건을 보내고 연결을 닫습니다. (클라이언트는 success=false 메시지를 받음)
+    // 클라이언트가 보낸 요청을 잠깐 읽어서 버린 뒤 닫아야 클라이언트 쪽에서 Broken pipe가 나지 않습니다.
+    private void reject(Socket socket, String reason) {
+        Log.warn("서버", "접속 거절", "remote", socket.getInetAddress(), "reason", reason);
+        Thread.ofVirtual().name("hms-reject").start(() -> {
+            try {
+                socket.setSoTimeout(1000);
+                MessageChannel channel = MessageChannel.accept(socket); // 클라이언트가 이해하는 방식으로 응답
+                channel.write(new NetworkMessage(false, reason, null));
+                socket.shutdownOutput();
+                InputStream in = socket.getInputStream();
+                byte[] drain = new byte[1024];
+                while (in.read(drain) != -1) { /* 클라이언트가 닫을 때까지 버림 */ }
+            } catch (IOException ignored) {
+            } finally {
+                closeQuietly(socket);
+            }
+        });
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try { socket.close(); } catch (IOException ignored) {}
+    }
+
+    // ==========================================================
+    // 클라이언트 1명 처리 (하나의 연결에서 여러 요청을 처리)
+    // - 요청 번호가 없는 요청은 순서대로 하나씩 처리
+    // - 요청 번호가 있는 요청(바이너리 2 이상)은 응답을 기다리지 않고 동시에 처리, 끝난 순서대로 응답
+    // ==========================================================
+    private void handleClient(Socket socket) {
+        activeSockets.add(socket);
+        RequestPipeline pipeline = null;
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            if (config.getIdleTimeoutMillis() > 0) s.setSoTimeout(config.getIdleTimeoutMillis());
+            // 첫 바이트를 보고 바이너리 / 자바 직렬화 중 클라이언트가 쓰는 방식을 선택
+            MessageChannel channel = MessageChannel.accept(s);
+            if (channel.supportsRequestIds() && config.getPipelineDepth() > 0) {
+                pipeline = new RequestPipeline(channel, requests, config.getPipelineDepth(), commands);
+            }
+
             while (true) {
+                NetworkMessage req;
                 try {
-                    NetworkMessage req = (NetworkMessage) in.readObject();
-                    NetworkMessage res = null;
-                    String cmd = req.getCommand();
-                    System.out.println("[요청] " + cmd);
-
-                    switch (cmd) {
-                        // [1] 회원 관리
-                        case "LOGIN":
-                            String[] login = ((String) req.getData()).split(",");
-                            User user = userMgr.findUserById(login[0]);
-                            // ⭐ [평문 비교] 클라이언트에서 평문 비밀번호를 보내므로, 서버도 평문으로 비교
-                            res = (user != null && user.getPassword().equals(login[1])) ? new NetworkMessage(true, "성공", user) : new NetworkMessage(false, "ID 또는 비밀번호가 일치하지 않습니다.", null);
-                            break;
-                        case "SIGNUP":
-                            User newUser = (User) req.getData();
-                            // ⭐ [평문 저장] 클라이언트에서 평문 비밀번호를 보내므로, 해싱 없이 바로 저장
-                            if (userMgr.isUserIdExists(newUser.getId())) res = new NetworkMessage(false, "ID중복", 1);
-                            else if (userMgr.addUser(newUser)) res = new NetworkMessage(true, "가입성공", 0);
-                            else res = new NetworkMessage(false, "저장실패", 2);
-                            break;
-                        case "DELETE_USER":
-                            res = new NetworkMessage(userMgr.deleteUser((String)req.getData()), "탈퇴", null);
-                            break;
-                        case "USER_GET_BY_ID":
-                            User targetUser = userMgr.findUserById((String)req.getData());
-                            res = (targetUser != null) ? new NetworkMessage(true, "조회성공", targetUser) : new NetworkMessage(false, "조회실패", null);
-                            break;
-                        case "USER_GET_ALL":
-                            res = new NetworkMessage(true, "전체사용자", userMgr.readAllUsers());
-                            break;
-                        case "USER_ADD_ADMIN":
-                            User userToAdd = (User) req.getData();
-                            if (userMgr.isUserIdExists(userToAdd.getId())) res = new NetworkMessage(false, "ID중복", 1);
-                            else if (userMgr.addUser(userToAdd)) res = new NetworkMessage(true, "추가성공", 0);
-                            else res = new NetworkMessage(false, "저장실패", 2);
-                            break;
-                        case "USER_UPDATE_ADMIN":
-                            User userToUpdate = (User) req.getData();
-                            res = new NetworkMessage(userMgr.updateUser(userToUpdate), "수정성공", 0);
-                            break;
-
-                        // [2] 예약 관리
-                        case "RES_SAVE":
-                            res = new NetworkMessage(resMgr.saveReservation((Map<String,Object>)req.getData()), "예약저장", null);
-                            break;
-                        case "RES_SEARCH":
-                            String[] search = ((String)req.getData()).split(",");
-                            res = new NetworkMessage(true, "검색", resMgr.searchReservation(search[0], search[1]));
-                            break;
-                        case "RES_GET_BY_ID":
-                            res = new NetworkMessage(true, "조회", resMgr.getReservationById((String)req.getData()));
-                            break;
-                        case "RES_UPDATE_STATUS":
-                            String[] us = ((String)req.getData()).split(",");
-                            res = new NetworkMessage(resMgr.updateStatus(us[0], us[1]), "상태변경", null);
-                            break;
-                        case "RES_GET_BOOKED":
-                            String[] bd = ((String)req.getData()).split(",");
-                            res = new NetworkMessage(true, "방목록", resMgr.getBookedRooms(bd[0], bd[1]));
-                            break;
-                        case "RES_CHECKOUT":
-                            String[] coData = ((String)req.getData()).split(",");
-                            String coRoom = coData[0];
-                            int coLateFee = (coData.length > 1) ? Integer.parseInt(coData[1]) : 0;
-                            res = new NetworkMessage(resMgr.processCheckoutByRoom(coRoom, coLateFee), "체크아웃", null);
-                            break;
-                        case "RES_VALIDATE_CHECKIN":
-                            String[] vd = ((String)req.getData()).split(",");
-                            String inputCode = vd[0];
-                            String inputRoom = vd[1];
-
-                            // [수정] validateReservationAndCheckIn 대신 validateRoomServiceAccess 호출
-                            // (상태 변경 없이, 투숙 중인지 확인만 하는 메서드)
-                            res = new NetworkMessage(resMgr.validateRoomServiceAccess(inputCode, inputRoom), "검증", null);
-                            break;
-                        case "RES_GET_ALL":
-                            // ReservationDataManager에 구현된 readAllReservations() 메서드를 호출합니다.
-                            res = new NetworkMessage(true, "전체조회", resMgr.readAllReservations());
-                            break;
-                        // ⭐ [NEW] AddRequestPanel에서 요청하는 객실 투숙 상태 확인
-                        case "RES_ROOM_CHECKIN_STATUS":
-                            String roomNumToCheck = (String) req.getData();
-                            // resMgr(ReservationDataManager)에서 투숙 상태 확인 메서드 호출
-                            boolean isCheckedIn = resMgr.isRoomCheckedIn(roomNumToCheck);
-                            res = new NetworkMessage(true, "상태확인", isCheckedIn);
-                            break;
-
-                        // [3] 룸서비스 관리
-                        case "RS_GET_ALL_MENU": res = new NetworkMessage(true, "메뉴", rsMgr.getAllMenu()); break;
-                        case "RS_GET_CATEGORIES": res = new NetworkMessage(true, "카테고리", rsMgr.getAllCategories()); break;
-                        case "RS_GET_MENU_BY_CAT": res = new NetworkMessage(true, "메뉴", rsMgr.getMenuByCategory((String)req.getData())); break;
-                        case "RS_ADD_MENU":
-                            Map<String,Object> am = (Map<String,Object>)req.getData();
-                            res = new NetworkMessage(true, "추가", rsMgr.addMenuItem((String)am.get("name"),(Integer)am.get("price"),(String)am.get("cat")));
-                            break;
-                        case "RS_UPDATE_MENU":
-                            Map<String,Object> um = (Map<String,Object>)req.getData();
-                            res = new NetworkMessage(rsMgr.updateMenuItem((String)um.get("id"),(String)um.get("name"),(Integer)um.get("price"),(String)um.get("cat")), "수정", null);
-                            break;
-                        case "RS_DELETE_MENU": res = new NetworkMessage(rsMgr.deleteMenuItem((String)req.getData()), "삭제", null); break;
-                        case "RS_ADD_REQUEST":
-                            // ⭐ [확인] 클라이언트에서 보낸 Map 데이터를 정확히 파싱합니다.
-                            Map<String,Object> ar = (Map<String,Object>)req.getData();
-                            res = new NetworkMessage(true, "주문", rsMgr.addServiceRequest((String)ar.get("room"),(String)ar.get("items"),(Long)ar.get("price")));
-                            break;
-                        case "RS_GET_ALL_REQUESTS": res = new NetworkMessage(true, "요청목록", rsMgr.getAllRequests()); break;
-                        case "RS_GET_REQ_BY_STATUS": res = new NetworkMessage(true, "상태별", rsMgr.getRequestsByStatus((String)req.getData())); break;
-                        case "RS_UPDATE_REQ_STATUS":
-                            String[] urs = ((String)req.getData()).split(",");
-                            res = new NetworkMessage(rsMgr.updateRequestStatus(urs[0], urs[1]), "상태변경", null);
-                            break;
-                        case "RS_UPDATE_STATUS_BY_ROOM":
-                            String[] rstat = ((String)req.getData()).split(",");
-                            res = new NetworkMessage(rsMgr.updateStatusByRoomAndStatus(rstat[0], rstat[1], rstat[2]), "일괄변경", null);
-                            break;
-
-                        // ========================================================
-                        // [4] 보고서 생성 (지연료 분리 로직 수정 완료)
-                        // ========================================================
-                        case "REPORT_GENERATE":
-                            String[] rdates = ((String) req.getData()).split(",");
-                            String start = rdates[0], end = rdates[1];
-
-                            List<String[]> resList = resMgr.getReservationsByPeriod(start, end);
-                            List<String[]> rsList = rsMgr.getPaidRequestsByPeriod(start, end);
-
-                            long roomRev = 0;
-                            long fnbRev = 0;
-                            long lateFeeRev = 0;
-                            long occNights = 0;
-
-                            int totalRooms = 24;
-                            LocalDate sDate = LocalDate.parse(start), eDate = LocalDate.parse(end);
-                            long days = ChronoUnit.DAYS.DAYS.between(sDate, eDate) + 1;
-                            long capacity = totalRooms * days;
-
-                            for (String[] r : resList) {
-                                try {
-                                    if (r.length > 12) {
-                                        String status = r[12];
-                                        String paymentMethod = r[11]; // 인덱스 11: 결제 방식
-                                        boolean shouldCountRevenue = false;
-
-                                        // ⭐ [최종 매출 집계 로직]
-                                        // Rule 1: CHECKED_IN/OUT은 무조건 매출로 인정
-                                        if (status.equals("CHECKED_IN") || status.equals("CHECKED_OUT")) {
-                                            shouldCountRevenue = true;
-                                        }
-                                        // Rule 2: PENDING 상태는 '카드결제'인 경우만 잠정 매출로 인정
-                                        else if (status.equals("PENDING")) {
-                                            if (paymentMethod.equals("카드결제")) {
-                                                shouldCountRevenue = true;
-                                            }
-                                        }
-
-                                        if (shouldCountRevenue) {
-                                            // 1. 객실 기본료만 더함 (인덱스 10)
-                                            try {
-                                                roomRev += Long.parseLong(r[10]);
-                                            } catch (NumberFormatException e) {}
-                                        }
-
-                                        // 2. 지연료는 'CHECKED_OUT'일 때만 계산
-                                        if (status.equals("CHECKED_OUT") && r.length > 15) {
-                                            String lfStr = r[15].trim();
-                                            if (!lfStr.isEmpty()) {
-                                                try {
-                                                    lateFeeRev += Long.parseLong(lfStr);
-                                                } catch (NumberFormatException nfe) {}
-                                            }
-                                        }
-                                    }
-
-                                    // [점유율 계산 로직] (기존 로직 유지)
-                                    LocalDate rIn = LocalDate.parse(r[3]);
-                                    LocalDate rOut = LocalDate.parse(r[4]);
-                                    LocalDate os = rIn.isAfter(sDate) ? rIn : sDate;
-                                    LocalDate oe = rOut.isBefore(eDate) ? rOut : eDate;
-
-                                    if (!os.isAfter(oe)) {
-                                        long n = ChronoUnit.DAYS.between(os, oe);
-                                        if (oe.isBefore(rOut)) {
-                                            n += 1;
-                                        }
-                                        occNights += Math.max(0, n);
-                                    }
-                                } catch(Exception e) {
-                                    continue;
-                                }
-                            }
-
-                            // 룸서비스 합산
-                            for (String[] rs : rsList) { try{ fnbRev += Long.parseLong(rs[3]); }catch(Exception e){} }
-
-                            double occRate = (capacity>0) ? ((double)occNights/capacity)*100 : 0;
-
-                            Map<String, Object> rpt = new HashMap<>();
-                            rpt.put("RoomRevenue", roomRev);
-                            rpt.put("FNBRevenue", fnbRev);
-                            rpt.put("LateFeeRevenue", lateFeeRev);
-                            rpt.put("TotalRevenue", roomRev + fnbRev + lateFeeRev);
-
-                            rpt.put("OccupancyRate", occRate);
-                            rpt.put("TotalCapacity", capacity);
-                            rpt.put("OccupiedNights", occNights);
-
-                            res = new NetworkMessage(true, "보고서", rpt);
-                            break;
-
-                        // ========================================================
-                        // [5] 객실 및 가격 관리
-                        // ========================================================
-                        case "ROOM_GET_ALL":
-                            res = new NetworkMessage(true, "조회", roomMgr.getAllRooms());
-                            break;
-
-                        // ⭐ [NEW] 예약 화면에서 가격 물어볼 때 사용
-                        case "ROOM_GET_PRICE":
-                            String targetRoom = (String) req.getData();
-                            int currentPrice = roomMgr.getRoomPrice(targetRoom);
-                            res = new NetworkMessage(true, "가격확인", currentPrice);
-                            break;
-
-                        case "ROOM_ADD":
-                            Map<String, Object> ra = (Map<String, Object>) req.getData();
-                            res = new NetworkMessage(roomMgr.addRoom((String)ra.get("roomNum"), (String)ra.get("grade"), (Integer)ra.get("price")), "추가", null);
-                            break;
-
-                        // ⭐ [수정] 사유(reason)까지 받아서 처리하도록 변경
-                        case "ROOM_UPDATE":
-                            Map<String, Object> ru = (Map<String, Object>) req.getData();
-                            String rNum = (String) ru.get("roomNum");
-                            String rGrade = (String) ru.get("grade");
-                            int rPrice = (Integer) ru.get("price");
-                            String rReason = (String) ru.get("reason");
-
-                            res = new NetworkMessage(roomMgr.updateRoom(rNum, rGrade, rPrice, rReason), "수정", null);
-                            break;
-
-                        case "ROOM_DELETE":
-                            res = new NetworkMessage(roomMgr.deleteRoom((String)req.getData()), "삭제", null);
-                            break;
-
-                        default: res = new NetworkMessage(false, "알수없는명령", null);
-                    }
-                    out.writeObject(res); out.flush();
-                } catch (EOFException e) { break; }
+                    req = channel.read();
+                } catch (EOFException | SocketTimeoutException e) {
+                    break; // 클라이언트 종료 또는 유휴 시간 초과
+                }
+                boolean subscribe = "RS_SUBSCRIBE".equals(req.getCommand());
+                if (pipeline != null && req.getRequestId() != 0 && !subscribe) {
+                    pipeline.submit(req);
+                    continue;
+                }
+                // 순서대로 처리할 요청은 앞서 넘긴 요청이 모두 끝난 뒤에 처리
+                if (pipeline != null) pipeline.awaitIdle();
+                if (subscribe) {
+                    // 이 연결은 이제 주문 알림 전용 (연결이 끊길 때까지 서버 -> 클라이언트 방향으로만 보냄)
+                    orderFeed.serve(channel, rsMgr::getAllRequests);
+                    break;
+                }
+                NetworkMessage res = process(req);
+                res.setRequestId(req.getRequestId());
+                channel.write(res);
+                commands.recordResponse(req, res);
             }
-        } catch (Exception e) { e.printStackTrace(); }
+            if (pipeline != null) pipeline.awaitIdle(); // 받은 요청에는 모두 응답하고 닫음
+        } catch (Exception e) {
+            if (running) Log.error("서버", "연결 처리 중 오류", e, "remote", socket.getInetAddress());
+        } finally {
+            activeSockets.remove(socket);
+        }
+    }
+
+    // ==========================================================
+    // 요청 1건 처리 (명령 표에서 처리기를 찾아 실행)
+    // ==========================================================
+    NetworkMessage process(NetworkMessage req) {
+        return commands.dispatch(req);
+    }
+
+    private void registerCommands() {
+        UserCommands.register(commands, userMgr);
+        ReservationCommands.register(commands, resMgr, roomMgr);
+        RoomServiceCommands.register(commands, rsMgr);
+        ReportCommands.register(commands, reportEngine);
+        RoomCommands.register(commands, roomMgr);
+        AdminCommands.register(commands, metrics);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package hms.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 처리 시간 분포 (HdrHistogram과 같은 로그-선형 구간, 외부 라이브러리 없음)
+ * - 값(나노초)을 2의 거듭제곱 구간으로 나누고, 각 구간을 다시 SUB_BUCKETS개로 똑같이 나눠 셉니다.
+ *   -> 어떤 값이든 오차가 1/SUB_BUCKETS(약 1.6%) 이내, 메모리는 값 크기와 상관없이 고정 (명령 하나에 약 20KB)
+ * - record는 잠금 없이 칸 하나를 원자적으로 더하기만 하므로 여러 스레드에서 동시에 불러도 됩니다.
+ * - 백분위 값은 그 칸에 들어가는 가장 큰 값으로 돌려줍니다. (실제 최대값을 넘지 않음)
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // 이보다 큰 값(약 73분)은 마지막 칸에 넣음
+    private static final long MAX_TRACKABLE = (1L << 42) - 1;
+    private static final int BUCKETS = indexOf(MAX_TRACKABLE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(Math.min(v, MAX_TRACKABLE)));
+        total.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    long count() { return total.sum(); }
+    long sum() { return sum.sum(); }
+    long max() { return max.get(); }
+
+    /**
+     * @param percentile 0~100
+     * @return 해당 백분위의 값(나노초), 기록이 없으면 0
+     */
+    long percentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(highestValueIn(i), max());
+        }
+        return max();
+    }
+
+    // 64 미만은 값 그대로, 그 위는 (2의 거듭제곱 구간 번호, 구간 안의 위치)
+    private static int indexOf(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((v >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long highestValueIn(int index) {
+        int block = index / SUB_BUCKETS;
+        long sub = index % SUB_BUCKETS;
+        if (block == 0) return sub;
+        int shift = block - 1;
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,98 @@
+package hms.server;
+
+import hms.model.RoomServiceDataManager;
+import hms.network.MessageChannel;
+import hms.network.NetworkMessage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 룸서비스 주문 실시간 알림 (RS_SUBSCRIBE)
+ * - 직원 화면이 구독 전용 연결을 열면, 처음에 전체 주문을 한 번 보내고 이후에는 바뀐 주문 한 건씩만 보냅니다.
+ *   (새로고침 버튼/필터 변경마다 전체 목록을 다시 받지 않음)
+ * - 알림 메시지: success=true, message = EVENT_CREATED / EVENT_UPDATED / PING, data = 변경 후 주문 행
+ * - 주문 변경은 저장소 잠금 안에서 알려오므로 구독자별 대기열에 넣기만 하고, 실제 전송은 구독 연결의 스레드가 합니다.
+ * - 대기열이 넘칠 만큼 느린 구독자는 연결을 끊습니다. (클라이언트가 다시 구독하면 전체 목록부터 새로 받음)
+ * - 일정 시간 알림이 없으면 PING을 보내서 끊긴 연결을 정리합니다.
+ */
+final class OrderFeed implements RoomServiceDataManager.RequestListener {
+
+    static final String EVENT_CREATED = "created";
+    static final String EVENT_UPDATED = "updated";
+    static final String PING = "ping";
+
+    private static final NetworkMessage PING_MESSAGE = new NetworkMessage(true, PING, null);
+    private static final NetworkMessage STOP = new NetworkMessage(false, "stop", null);
+
+    /** 구독 연결 1개 */
+    private static final class Subscriber {
+        final BlockingQueue<NetworkMessage> queue;
+        volatile boolean overflowed;
+
+        Subscriber(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final int queueCapacity;
+    private final long heartbeatMillis;
+    private volatile boolean closed;
+
+    OrderFeed(int queueCapacity, long heartbeatMillis) {
+        this.queueCapacity = queueCapacity;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    static OrderFeed fromSystemProperties() {
+        return new OrderFeed(Integer.getInteger("hms.feed.queueCapacity", 1000),
+                Long.getLong("hms.feed.heartbeatMillis", 30_000));
+    }
+
+    @Override
+    public void requestChanged(String[] oldRow, String[] newRow) {
+        if (subscribers.isEmpty()) return;
+        NetworkMessage event = new NetworkMessage(true, (oldRow == null) ? EVENT_CREATED : EVENT_UPDATED, newRow);
+        for (Subscriber s : subscribers) {
+            if (!s.queue.offer(event)) s.overflowed = true;
+        }
+    }
+
+    /**
+     * 구독 연결을 맡아서 연결이 끊기거나 서버가 종료될 때까지 알림을 보냅니다. (호출한 스레드에서 실행)
+     * 구독 등록 후에 전체 목록을 받아 보내므로 그 사이의 변경이 빠지지 않습니다. (겹치는 알림은 같은 값)
+     */
+    void serve(MessageChannel channel, Supplier<List<String[]>> snapshot) {
+        Subscriber sub = new Subscriber(queueCapacity);
+        subscribers.add(sub);
+        try {
+            channel.write(new NetworkMessage(true, "구독", snapshot.get()));
+            while (!closed && !sub.overflowed) {
+                NetworkMessage m = sub.queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (m == STOP) break;
+                channel.write((m == null) ? PING_MESSAGE : m);
+            }
+        } catch (IOException e) {
+            // 클라이언트가 화면을 닫았거나 연결이 끊김 -> 구독 해제
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscribers.remove(sub);
+        }
+    }
+
+    /** 서버 종료 시: 모든 구독 연결의 전송을 멈춥니다. */
+    void close() {
+        closed = true;
+        for (Subscriber s : subscribers) {
+            if (!s.queue.offer(STOP)) s.overflowed = true;
+        }
+    }
+}
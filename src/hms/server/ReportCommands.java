@@ -0,0 +1,25 @@
+package hms.server;
+
+import hms.network.Command;
+import hms.network.NetworkMessage;
+
+import java.util.Map;
+
+/**
+ * [4] 보고서 생성 명령
+ */
+final class ReportCommands {
+
+    private ReportCommands() {}
+
+    static void register(CommandRegistry registry, ReportEngine reportEngine) {
+        registry.register(Command.REPORT_GENERATE, req -> {
+            // "시작,종료" 또는 "시작,종료,방식(rollup/serial/parallel)"
+            String[] rdates = ((String) req.getData()).split(",");
+            Map<String, Object> rpt = (rdates.length > 2)
+                    ? reportEngine.generate(rdates[0], rdates[1], ReportEngine.Mode.parse(rdates[2]))
+                    : reportEngine.generate(rdates[0], rdates[1]);
+            return new NetworkMessage(true, "보고서", rpt);
+        });
+    }
+}
@@ -0,0 +1,208 @@
+package hms.server;
+
+import hms.model.ReportRollup;
+import hms.model.Reservation;
+import hms.model.ReservationDataManager;
+import hms.model.RoomServiceDataManager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 매출/점유율 보고서 계산 (REPORT_GENERATE)
+ *
+ * 계산 방식 3가지 (-Dhms.report.mode, 요청마다 "시작,종료,방식"으로 지정 가능)
+ * - ROLLUP   : 일별 집계 칸 합산 (기본, 예약/주문 변경 시 미리 갱신됨)
+ * - SERIAL   : 기간에 걸친 예약/결제 주문을 한 줄씩 계산 (기존 방식)
+ * - PARALLEL : SERIAL과 같은 계산을 목록을 나눠 fork-join 풀에서 동시에 한 뒤 합산
+ * 세 방식 모두 결과가 같습니다. (정수 합계만 나눠 더하고, 점유율은 마지막에 한 번 계산)
+ */
+final class ReportEngine {
+
+    enum Mode {
+        ROLLUP, SERIAL, PARALLEL;
+
+        static Mode parse(String s) {
+            return Mode.valueOf(s.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final int TOTAL_ROOMS = 24;
+    // 이보다 작은 구간은 더 나누지 않고 한 스레드에서 계산
+    private static final int SLICE_ROWS = 2048;
+
+    private final ReservationDataManager resMgr;
+    private final RoomServiceDataManager rsMgr;
+    private final Mode defaultMode;
+    private final ReportRollup rollup;   // ROLLUP 모드일 때만 생성
+    private final ForkJoinPool pool;
+
+    ReportEngine(ReservationDataManager resMgr, RoomServiceDataManager rsMgr, Mode defaultMode, int parallelism) {
+        this.resMgr = resMgr;
+        this.rsMgr = rsMgr;
+        this.defaultMode = defaultMode;
+        this.rollup = (defaultMode == Mode.ROLLUP) ? new ReportRollup(resMgr, rsMgr) : null;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    static ReportEngine fromSystemProperties(ReservationDataManager resMgr, RoomServiceDataManager rsMgr) {
+        Mode mode = Mode.parse(System.getProperty("hms.report.mode", "rollup"));
+        int parallelism = Integer.getInteger("hms.report.parallelism", Runtime.getRuntime().availableProcessors());
+        return new ReportEngine(resMgr, rsMgr, mode, parallelism);
+    }
+
+    Mode getDefaultMode() { return defaultMode; }
+
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    // ==========================================================
+    // 보고서 생성
+    // ==========================================================
+    Map<String, Object> generate(String start, String end) {
+        return generate(start, end, defaultMode);
+    }
+
+    /**
+     * @param mode ROLLUP을 요청했지만 집계가 없으면(다른 기본 모드로 시작) SERIAL로 계산
+     */
+    Map<String, Object> generate(String start, String end, Mode mode) {
+        LocalDate sDate = LocalDate.parse(start), eDate = LocalDate.parse(end);
+        long days = ChronoUnit.DAYS.between(sDate, eDate) + 1;
+        long capacity = TOTAL_ROOMS * days;
+
+        Partial p;
+        if (mode == Mode.ROLLUP && rollup != null) {
+            // 일별 집계 칸 합산 (기간 일수만큼만)
+            ReportRollup.Totals t = rollup.summarize(sDate, eDate);
+            p = new Partial();
+            p.roomRev = t.roomRevenue;
+            p.fnbRev = t.fnbRevenue;
+            p.lateFeeRev = t.lateFeeRevenue;
+            p.occNights = t.occupiedNights;
+        } else {
+            p = calculate(resMgr.findReservationsByPeriod(sDate, eDate), rsMgr.getPaidRequestsByPeriod(start, end),
+                    sDate, eDate, mode);
+        }
+
+        double occRate = (capacity>0) ? ((double)p.occNights/capacity)*100 : 0;
+
+        Map<String, Object> rpt = new HashMap<>();
+        rpt.put("RoomRevenue", p.roomRev);
+        rpt.put("FNBRevenue", p.fnbRev);
+        rpt.put("LateFeeRevenue", p.lateFeeRev);
+        rpt.put("TotalRevenue", p.roomRev + p.fnbRev + p.lateFeeRev);
+
+        rpt.put("OccupancyRate", occRate);
+        rpt.put("TotalCapacity", capacity);
+        rpt.put("OccupiedNights", p.occNights);
+        return rpt;
+    }
+
+    // ==========================================================
+    // 원본 데이터 계산 (SERIAL / PARALLEL 공통)
+    // ==========================================================
+    /** 부분 합계 */
+    static final class Partial {
+        long roomRev;
+        long fnbRev;
+        long lateFeeRev;
+        long occNights;
+
+        Partial add(Partial o) {
+            roomRev += o.roomRev;
+            fnbRev += o.fnbRev;
+            lateFeeRev += o.lateFeeRev;
+            occNights += o.occNights;
+            return this;
+        }
+    }
+
+    /**
+     * 기간에 걸친 예약(resList)과 결제완료 주문(rsList)을 계산합니다. PARALLEL이면 fork-join 풀에서, 나머지는 한 스레드에서
+     */
+    Partial calculate(List<Reservation> resList, List<String[]> rsList, LocalDate sDate, LocalDate eDate, Mode mode) {
+        return (mode == Mode.PARALLEL)
+                ? pool.invoke(new ReportTask(resList, rsList, sDate, eDate))
+                : scan(resList, 0, resList.size(), rsList, 0, rsList.size(), sDate, eDate);
+    }
+
+    /** 예약 [resFrom, resTo) + 주문 [rsFrom, rsTo) 구간을 한 스레드에서 계산 */
+    private static Partial scan(List<Reservation> resList, int resFrom, int resTo,
+                                List<String[]> rsList, int rsFrom, int rsTo,
+                                LocalDate sDate, LocalDate eDate) {
+        Partial p = new Partial();
+        long from = sDate.toEpochDay(), to = eDate.toEpochDay();
+        for (int i = resFrom; i < resTo; i++) addReservation(resList.get(i), from, to, p);
+        // 룸서비스 합산
+        for (int i = rsFrom; i < rsTo; i++) {
+            try { p.fnbRev += Long.parseLong(rsList.get(i)[3]); } catch (Exception e) {}
+        }
+        return p;
+    }
+
+    private static void addReservation(Reservation r, long s, long e, Partial p) {
+        // 매출 인정 규칙 (CHECKED_IN/OUT 전부, PENDING은 카드결제만 / 지연료는 CHECKED_OUT만)
+        p.roomRev += r.roomRevenue();
+        p.lateFeeRev += r.lateFeeRevenue();
+
+        // [점유율 계산 로직] 기간과 겹치는 밤 수 (기존 로직 유지, 날짜는 epochDay)
+        long os = Math.max(r.checkInDay(), s);
+        long oe = Math.min(r.checkOutDay(), e);
+        if (os <= oe) {
+            long n = oe - os;
+            if (oe < r.checkOutDay()) {
+                n += 1;
+            }
+            p.occNights += Math.max(0, n);
+        }
+    }
+
+    /**
+     * 예약/주문 목록을 반씩 나눠 가며 계산하는 fork-join 작업
+     * - 두 목록을 같은 비율로 나누므로 한쪽이 비어 있어도 다른 쪽이 고르게 나뉩니다.
+     */
+    private static final class ReportTask extends RecursiveTask<Partial> {
+        private final List<Reservation> resList;
+        private final List<String[]> rsList;
+        private final int resFrom, resTo, rsFrom, rsTo;
+        private final LocalDate sDate, eDate;
+
+        ReportTask(List<Reservation> resList, List<String[]> rsList, LocalDate sDate, LocalDate eDate) {
+            this(resList, 0, resList.size(), rsList, 0, rsList.size(), sDate, eDate);
+        }
+
+        private ReportTask(List<Reservation> resList, int resFrom, int resTo,
+                           List<String[]> rsList, int rsFrom, int rsTo,
+                           LocalDate sDate, LocalDate eDate) {
+            this.resList = resList;
+            this.resFrom = resFrom;
+            this.resTo = resTo;
+            this.rsList = rsList;
+            this.rsFrom = rsFrom;
+            this.rsTo = rsTo;
+            this.sDate = sDate;
+            this.eDate = eDate;
+        }
+
+        @Override
+        protected Partial compute() {
+            if ((resTo - resFrom) + (rsTo - rsFrom) <= SLICE_ROWS) {
+                return scan(resList, resFrom, resTo, rsList, rsFrom, rsTo, sDate, eDate);
+            }
+            int resMid = (resFrom + resTo) >>> 1;
+            int rsMid = (rsFrom + rsTo) >>> 1;
+            ReportTask left = new ReportTask(resList, resFrom, resMid, rsList, rsFrom, rsMid, sDate, eDate);
+            ReportTask right = new ReportTask(resList, resMid, resTo, rsList, rsMid, rsTo, sDate, eDate);
+            left.fork();
+            return right.compute().add(left.join());
+        }
+    }
+}
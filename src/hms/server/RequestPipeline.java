@@ -0,0 +1,79 @@
+package hms.server;
+
+import hms.network.MessageChannel;
+import hms.network.NetworkMessage;
+import hms.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 연결 1개에서 요청 번호가 붙은 요청들을 동시에 처리 (바이너리 프로토콜 2 이상)
+ * - 연결을 읽는 스레드는 요청을 넘기기만 하고 바로 다음 요청을 읽습니다.
+ * - 각 요청은 실행기에서 따로 처리되고, 끝난 순서대로 같은 요청 번호를 붙여 응답합니다.
+ * - 한 연결에서 동시에 처리하는 요청은 depth개까지. 다 차면 읽는 스레드가 자리가 날 때까지 기다립니다.
+ * - 처리 중 예외가 나면 연결을 끊지 않고 그 요청에만 실패 응답을 보냅니다. (다른 요청은 계속 진행)
+ */
+final class RequestPipeline {
+
+    private final MessageChannel channel;
+    private final Executor executor;
+    private final CommandRegistry commands;
+    private final int depth;
+    private final Semaphore slots;
+
+    RequestPipeline(MessageChannel channel, Executor executor, int depth, CommandRegistry commands) {
+        this.channel = channel;
+        this.executor = executor;
+        this.commands = commands;
+        this.depth = depth;
+        this.slots = new Semaphore(depth);
+    }
+
+    /** 요청 1건을 실행기에 넘깁니다. (처리 중인 요청이 depth개면 기다림) */
+    void submit(NetworkMessage req) throws InterruptedException {
+        slots.acquire();
+        try {
+            executor.execute(() -> {
+                try {
+                    handle(req);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 서버 종료 중 -> 읽는 스레드에서 바로 처리
+            try {
+                handle(req);
+            } finally {
+                slots.release();
+            }
+        }
+    }
+
+    /** 넘긴 요청이 모두 응답될 때까지 기다립니다. (번호 없는 요청을 순서대로 처리하기 전, 연결 종료 전) */
+    void awaitIdle() {
+        slots.acquireUninterruptibly(depth);
+        slots.release(depth);
+    }
+
+    private void handle(NetworkMessage req) {
+        NetworkMessage res;
+        try {
+            res = commands.dispatch(req);
+        } catch (RuntimeException e) {
+            Log.error("서버", "요청 처리 중 오류", e, "command", req.getCommand(), "requestId", req.getRequestId());
+            res = new NetworkMessage(false, "서버오류", null);
+        }
+        res.setRequestId(req.getRequestId());
+        try {
+            channel.write(res);
+            commands.recordResponse(req, res);
+        } catch (IOException e) {
+            // 응답을 못 보냄 -> 연결을 닫아서 읽는 스레드도 끝나게 함
+            try { channel.close(); } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package hms.server;
+
+import hms.model.ReservationDataManager;
+import hms.model.RoomDataManager;
+import hms.model.UpdateResult;
+import hms.model.VersionClock;
+import hms.network.Command;
+import hms.network.NetworkMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [2] 예약 관리 명령
+ */
+final class ReservationCommands {
+
+    private ReservationCommands() {}
+
+    @SuppressWarnings("unchecked")
+    static void register(CommandRegistry registry, ReservationDataManager resMgr, RoomDataManager roomMgr) {
+        registry.register(Command.RES_SAVE, req ->
+                new NetworkMessage(resMgr.saveReservation((Map<String, Object>) req.getData()), "예약저장", null));
+        registry.register(Command.RES_BOOK, req -> {
+            // 빈 방 확인과 저장을 객실 잠금 안에서 한 번에 -> 성공 시 예약번호
+            try {
+                String bookedId = resMgr.bookIfAvailable((Map<String, Object>) req.getData());
+                if (bookedId == null) return new NetworkMessage(false, "이미 예약된 객실", null);
+                return new NetworkMessage(true, "예약저장", bookedId);
+            } catch (IOException e) {
+                return new NetworkMessage(false, "예약저장 실패", null);
+            }
+        });
+        registry.register(Command.RES_SEARCH, req -> {
+            String[] search = ((String) req.getData()).split(",");
+            return new NetworkMessage(true, "검색", resMgr.searchReservation(search[0], search[1]));
+        });
+        registry.register(Command.RES_GET_BY_ID, req ->
+                new NetworkMessage(true, "조회", resMgr.getReservationById((String) req.getData())));
+        registry.register(Command.RES_GET_BY_USER, req ->
+                new NetworkMessage(true, "조회", resMgr.getReservationsByUserId((String) req.getData())));
+        registry.register(Command.RES_GET_VERSIONED, req -> {
+            // {row, version} - version은 RES_UPDATE_STATUS의 세 번째 값으로 돌려보냄
+            String gvId = (String) req.getData();
+            long gvVersion = resMgr.getReservationVersion(gvId); // 행보다 먼저 읽음
+            String[] gvRow = resMgr.getReservationById(gvId);
+            if (gvRow == null) return new NetworkMessage(true, "조회", null);
+            Map<String, Object> gv = new HashMap<>();
+            gv.put("row", gvRow);
+            gv.put("version", gvVersion);
+            return new NetworkMessage(true, "조회", gv);
+        });
+        registry.register(Command.RES_UPDATE_STATUS, req -> {
+            // "예약번호,상태[,버전]" - 버전이 있으면 그 사이 다른 단말에서 바뀐 경우 "버전충돌"
+            String[] us = ((String) req.getData()).split(",");
+            long usVersion = (us.length > 2) ? Long.parseLong(us[2].trim()) : VersionClock.ANY;
+            UpdateResult result = resMgr.updateStatus(us[0], us[1], usVersion);
+            return new NetworkMessage(result.isUpdated(), result.isUpdated() ? "상태변경" : result.message(), null);
+        });
+        registry.register(Command.RES_GET_BOOKED, req -> {
+            String[] bd = ((String) req.getData()).split(",");
+            return new NetworkMessage(true, "방목록", resMgr.getBookedRooms(bd[0], bd[1]));
+        });
+        registry.register(Command.RES_GET_BOOKED_RANGE, req -> {
+            String[] br = ((String) req.getData()).split(",");
+            return new NetworkMessage(true, "날짜별 방목록", resMgr.getBookedRoomsByNight(br[0], br[1]));
+        });
+        registry.register(Command.RES_FIND_AVAILABILITY, req -> {
+            // {from, days, nights, grade(선택) 또는 rooms(선택)} -> 체크인일별 n박 가능한 객실
+            Map<String, Object> fa = (Map<String, Object>) req.getData();
+            List<String> faRooms = (List<String>) fa.get("rooms");
+            if (faRooms == null) {
+                String faGrade = (String) fa.get("grade");
+                faRooms = new ArrayList<>();
+                for (String[] room : roomMgr.getAllRooms()) {
+                    if (faGrade == null || room[1].equals(faGrade)) faRooms.add(room[0]);
+                }
+            }
+            return new NetworkMessage(true, "빈방검색", resMgr.findAvailability(faRooms, (String) fa.get("from"),
+                    ((Number) fa.get("days")).intValue(), ((Number) fa.get("nights")).intValue()));
+        });
+        registry.register(Command.RES_CHECKOUT, req -> {
+            String[] coData = ((String) req.getData()).split(",");
+            String coRoom = coData[0];
+            int coLateFee = (coData.length > 1) ? Integer.parseInt(coData[1]) : 0;
+            return new NetworkMessage(resMgr.processCheckoutByRoom(coRoom, coLateFee), "체크아웃", null);
+        });
+        registry.register(Command.RES_VALIDATE_CHECKIN, req -> {
+            String[] vd = ((String) req.getData()).split(",");
+            String inputCode = vd[0];
+            String inputRoom = vd[1];
+
+            // [수정] validateReservationAndCheckIn 대신 validateRoomServiceAccess 호출
+            // (상태 변경 없이, 투숙 중인지 확인만 하는 메서드)
+            return new NetworkMessage(resMgr.validateRoomServiceAccess(inputCode, inputRoom), "검증", null);
+        });
+        registry.register(Command.RES_GET_ALL, req ->
+                // ReservationDataManager에 구현된 readAllReservations() 메서드를 호출합니다.
+                new NetworkMessage(true, "전체조회", resMgr.readAllReservations()));
+        // ⭐ [NEW] AddRequestPanel에서 요청하는 객실 투숙 상태 확인
+        registry.register(Command.RES_ROOM_CHECKIN_STATUS, req -> {
+            String roomNumToCheck = (String) req.getData();
+            // resMgr(ReservationDataManager)에서 투숙 상태 확인 메서드 호출
+            boolean isCheckedIn = resMgr.isRoomCheckedIn(roomNumToCheck);
+            return new NetworkMessage(true, "상태확인", isCheckedIn);
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package hms.server;
+
+import hms.model.RoomDataManager;
+import hms.model.UpdateResult;
+import hms.model.VersionClock;
+import hms.network.Command;
+import hms.network.NetworkMessage;
+
+import java.util.Map;
+
+/**
+ * [5] 객실 및 가격 관리 명령
+ */
+final class RoomCommands {
+
+    private RoomCommands() {}
+
+    @SuppressWarnings("unchecked")
+    static void register(CommandRegistry registry, RoomDataManager roomMgr) {
+        registry.register(Command.ROOM_GET_ALL, req -> new NetworkMessage(true, "조회", roomMgr.getAllRooms()));
+
+        // ⭐ [NEW] 예약 화면에서 가격 물어볼 때 사용
+        registry.register(Command.ROOM_GET_PRICE, req -> {
+            String targetRoom = (String) req.getData();
+            int currentPrice = roomMgr.getRoomPrice(targetRoom);
+            return new NetworkMessage(true, "가격확인", currentPrice);
+        });
+
+        registry.register(Command.ROOM_ADD, req -> {
+            Map<String, Object> ra = (Map<String, Object>) req.getData();
+            return new NetworkMessage(roomMgr.addRoom((String) ra.get("roomNum"), (String) ra.get("grade"), (Integer) ra.get("price")), "추가", null);
+        });
+
+        // ⭐ [수정] 사유(reason)까지 받아서 처리하도록 변경
+        registry.register(Command.ROOM_UPDATE, req -> {
+            Map<String, Object> ru = (Map<String, Object>) req.getData();
+            String rNum = (String) ru.get("roomNum");
+            String rGrade = (String) ru.get("grade");
+            int rPrice = (Integer) ru.get("price");
+            String rReason = (String) ru.get("reason");
+            // ROOM_GET_ALL에서 받은 버전 (없으면 검사 안 함)
+            Number rVersion = (Number) ru.get("version");
+
+            UpdateResult result = roomMgr.updateRoom(rNum, rGrade, rPrice, rReason,
+                    (rVersion == null) ? VersionClock.ANY : rVersion.longValue());
+            return new NetworkMessage(result.isUpdated(), result.message(), null);
+        });
+
+        registry.register(Command.ROOM_DELETE, req -> new NetworkMessage(roomMgr.deleteRoom((String) req.getData()), "삭제", null));
+    }
+}
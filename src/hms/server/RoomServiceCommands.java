@@ -0,0 +1,49 @@
+package hms.server;
+
+import hms.model.RoomServiceDataManager;
+import hms.network.Command;
+import hms.network.NetworkMessage;
+
+import java.util.Map;
+
+/**
+ * [3] 룸서비스 관리 명령
+ * - RS_SUBSCRIBE는 연결 자체를 알림 전용으로 바꾸므로 여기서 처리하지 않고 HMSServer.handleClient가 맡습니다.
+ */
+final class RoomServiceCommands {
+
+    private RoomServiceCommands() {}
+
+    @SuppressWarnings("unchecked")
+    static void register(CommandRegistry registry, RoomServiceDataManager rsMgr) {
+        registry.register(Command.RS_GET_ALL_MENU, req -> new NetworkMessage(true, "메뉴", rsMgr.getAllMenu()));
+        registry.register(Command.RS_GET_CATEGORIES, req -> new NetworkMessage(true, "카테고리", rsMgr.getAllCategories()));
+        registry.register(Command.RS_GET_MENU_BY_CAT, req -> new NetworkMessage(true, "메뉴", rsMgr.getMenuByCategory((String) req.getData())));
+        registry.register(Command.RS_ADD_MENU, req -> {
+            Map<String, Object> am = (Map<String, Object>) req.getData();
+            return new NetworkMessage(true, "추가", rsMgr.addMenuItem((String) am.get("name"), (Integer) am.get("price"), (String) am.get("cat")));
+        });
+        registry.register(Command.RS_UPDATE_MENU, req -> {
+            Map<String, Object> um = (Map<String, Object>) req.getData();
+            return new NetworkMessage(rsMgr.updateMenuItem((String) um.get("id"), (String) um.get("name"), (Integer) um.get("price"), (String) um.get("cat")), "수정", null);
+        });
+        registry.register(Command.RS_DELETE_MENU, req -> new NetworkMessage(rsMgr.deleteMenuItem((String) req.getData()), "삭제", null));
+        registry.register(Command.RS_ADD_REQUEST, req -> {
+            // ⭐ [확인] 클라이언트에서 보낸 Map 데이터를 정확히 파싱합니다.
+            Map<String, Object> ar = (Map<String, Object>) req.getData();
+            String id = rsMgr.addServiceRequest((String) ar.get("room"), (String) ar.get("items"), (Long) ar.get("price"));
+            return (id != null) ? new NetworkMessage(true, "주문", id) : new NetworkMessage(false, "주문 저장 실패", null);
+        });
+        registry.register(Command.RS_GET_ALL_REQUESTS, req -> new NetworkMessage(true, "요청목록", rsMgr.getAllRequests()));
+        registry.register(Command.RS_GET_REQ_BY_STATUS, req -> new NetworkMessage(true, "상태별", rsMgr.getRequestsByStatus((String) req.getData())));
+        registry.register(Command.RS_UPDATE_REQ_STATUS, req -> {
+            String[] urs = ((String) req.getData()).split(",");
+            return new NetworkMessage(rsMgr.updateRequestStatus(urs[0], urs[1]), "상태변경", null);
+        });
+        registry.register(Command.RS_UPDATE_STATUS_BY_ROOM, req -> {
+            String[] rstat = ((String) req.getData()).split(",");
+            return new NetworkMessage(rsMgr.updateStatusByRoomAndStatus(rstat[0], rstat[1], rstat[2]), "일괄변경", null);
+        });
+        registry.register(Command.RS_GET_ROOM_FOLIO, req -> new NetworkMessage(true, "청구내역", rsMgr.getRoomFolio((String) req.getData())));
+    }
+}
@@ -0,0 +1,67 @@
+package hms.server;
+
+/**
+ * 서버 실행 설정
+ * - java -jar HMS_Server.jar 실행 시 -D 옵션으로 값을 바꿀 수 있습니다.
+ *   (예: java -Dhms.server.mode=pool -Dhms.server.workers=32 -jar HMS_Server.jar)
+ */
+public class ServerConfig {
+
+    /** 클라이언트 처리 방식 */
+    public enum ExecutionMode {
+        VIRTUAL, // 접속마다 가상 스레드 1개 (기본값)
+        POOL     // 고정 크기 워커 풀 + 대기 큐 (연결 하나가 끊길 때까지 워커 하나를 씀 -> 동시 접속은 워커 수까지)
+    }
+
+    private final int port;
+    private final ExecutionMode mode;
+    private final int workerThreads;      // POOL 모드 워커 수
+    private final int queueCapacity;      // POOL 모드 대기 큐 크기
+    private final int queueTimeoutMillis; // POOL 모드에서 워커를 기다리는 연결의 최대 대기 시간 (넘으면 혼잡 응답 후 끊음)
+    private final int maxConnections;     // 서버 전체 동시 접속 한도
+    private final int maxConnectionsPerHost; // 같은 IP에서의 동시 접속 한도
+    private final int idleTimeoutMillis;  // 요청 없이 열려 있는 연결을 끊는 시간 (0 = 무제한)
+    private final int shutdownGraceSeconds; // 종료 시 처리 중인 요청을 기다리는 시간
+    private final int pipelineDepth;      // 한 연결에서 동시에 처리하는 번호 붙은 요청 수 (0 = 순서대로 처리)
+
+    public ServerConfig(int port, ExecutionMode mode, int workerThreads, int queueCapacity, int queueTimeoutMillis,
+                        int maxConnections, int maxConnectionsPerHost,
+                        int idleTimeoutMillis, int shutdownGraceSeconds, int pipelineDepth) {
+        this.port = port;
+        this.mode = mode;
+        this.workerThreads = workerThreads;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+        this.pipelineDepth = pipelineDepth;
+    }
+
+    public static ServerConfig fromSystemProperties() {
+        return new ServerConfig(
+                Integer.getInteger("hms.server.port", 5000),
+                ExecutionMode.valueOf(System.getProperty("hms.server.mode", "virtual").trim().toUpperCase()),
+                Integer.getInteger("hms.server.workers", 64),
+                Integer.getInteger("hms.server.queue", 256),
+                Integer.getInteger("hms.server.queueTimeoutMillis", 5000),
+                Integer.getInteger("hms.server.maxConnections", 5000),
+                Integer.getInteger("hms.server.maxConnectionsPerHost", 500),
+                Integer.getInteger("hms.server.idleTimeoutMillis", 10 * 60 * 1000),
+                Integer.getInteger("hms.server.shutdownGraceSeconds", 10),
+                Integer.getInteger("hms.server.pipelineDepth", 32)
+        );
+    }
+
+    public int getPort() { return port; }
+    public ExecutionMode getMode() { return mode; }
+    public int getWorkerThreads() { return workerThreads; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public int getQueueTimeoutMillis() { return queueTimeoutMillis; }
+    public int getMaxConnections() { return maxConnections; }
+    public int getMaxConnectionsPerHost() { return maxConnectionsPerHost; }
+    public int getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public int getShutdownGraceSeconds() { return shutdownGraceSeconds; }
+    public int getPipelineDepth() { return pipelineDepth; }
+}
@@ -0,0 +1,208 @@
+package hms.server;
+
+import com.sun.net.httpserver.HttpServer;
+import hms.network.Command;
+import hms.util.Log;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * 서버 지표 내보내기 (명령별 처리 시간 분포/호출 수/오류·실패 수/처리 중 요청 수/바이트 + 전체 접속 수)
+ * - ADMIN_METRICS 명령: 표 형태 (columns + rows)
+ * - HTTP: -Dhms.metrics.httpPort=포트 를 주면 127.0.0.1:포트/metrics 에서 Prometheus 텍스트 형식 (기본 꺼짐)
+ * - JMX: hms:type=ServerMetrics (기본 켜짐, -Dhms.metrics.jmx=false 로 끔)
+ * - 누적값만 내보냅니다. 초당 처리량은 두 번 읽은 값의 차이로 계산합니다.
+ */
+final class ServerMetrics implements ServerMetricsMXBean {
+
+    static final String[] COLUMNS = {"command", "requests", "errors", "failures", "inFlight", "bytesIn", "bytesOut",
+            "meanUs", "p50Us", "p90Us", "p99Us", "maxUs"};
+
+    private static final String JMX_NAME = "hms:type=ServerMetrics";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final CommandRegistry commands;
+    private final IntSupplier activeConnections;
+    private final int httpPort;
+    private final boolean jmx;
+    private final long startNanos = System.nanoTime();
+    private HttpServer http;
+    private ObjectName jmxName;
+
+    ServerMetrics(CommandRegistry commands, IntSupplier activeConnections, int httpPort, boolean jmx) {
+        this.commands = commands;
+        this.activeConnections = activeConnections;
+        this.httpPort = httpPort;
+        this.jmx = jmx;
+    }
+
+    static ServerMetrics fromSystemProperties(CommandRegistry commands, IntSupplier activeConnections) {
+        return new ServerMetrics(commands, activeConnections,
+                Integer.getInteger("hms.metrics.httpPort", 0),
+                Boolean.parseBoolean(System.getProperty("hms.metrics.jmx", "true")));
+    }
+
+    /** HTTP/JMX 노출 시작 (실패해도 서버는 계속 동작) */
+    synchronized void start() {
+        if (jmx) {
+            try {
+                ObjectName name = new ObjectName(JMX_NAME);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+                jmxName = name;
+            } catch (Exception e) {
+                Log.warn("지표", "JMX 등록 실패", "error", e);
+            }
+        }
+        if (httpPort > 0) {
+            try {
+                http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), httpPort), 0);
+                http.createContext("/metrics", exchange -> {
+                    try (exchange) {
+                        if (!"GET".equals(exchange.getRequestMethod())) {
+                            exchange.sendResponseHeaders(405, -1);
+                            return;
+                        }
+                        byte[] body = toPrometheus().getBytes(StandardCharsets.UTF_8);
+                        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                        exchange.sendResponseHeaders(200, body.length);
+                        try (OutputStream os = exchange.getResponseBody()) {
+                            os.write(body);
+                        }
+                    }
+                });
+                http.start();
+                Log.info("지표", "HTTP 지표 노출", "url", "http://127.0.0.1:" + httpPort + "/metrics");
+            } catch (IOException e) {
+                http = null;
+                Log.error("지표", "HTTP 시작 실패", e, "port", httpPort);
+            }
+        }
+    }
+
+    synchronized void close() {
+        if (http != null) {
+            http.stop(0);
+            http = null;
+        }
+        if (jmxName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(jmxName);
+            } catch (Exception ignored) {}
+            jmxName = null;
+        }
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return activeConnections.getAsInt();
+    }
+
+    @Override
+    public long getUptimeSeconds() {
+        return (System.nanoTime() - startNanos) / 1_000_000_000L;
+    }
+
+    @Override
+    public List<CommandStats> getCommands() {
+        List<CommandStats> list = new ArrayList<>();
+        for (Map.Entry<Command, CommandRegistry.Stats> e : commands.stats().entrySet()) {
+            CommandRegistry.Stats s = e.getValue();
+            LatencyHistogram h = s.getLatency();
+            long n = h.count();
+            list.add(new CommandStats(e.getKey().name(), n, s.getErrors(), s.getFailures(), s.getInFlight(), s.getBytesIn(), s.getBytesOut(),
+                    (n == 0) ? 0 : h.sum() / 1000.0 / n, micros(h.percentile(50)), micros(h.percentile(90)),
+                    micros(h.percentile(99)), micros(h.max())));
+        }
+        return list;
+    }
+
+    /** ADMIN_METRICS 응답 데이터: {columns: String[], rows: List<String[]>, activeConnections, uptimeSeconds} */
+    Map<String, Object> toMessageData() {
+        List<String[]> rows = new ArrayList<>();
+        for (CommandStats c : getCommands()) {
+            if (c.getRequests() == 0 && c.getInFlight() == 0) continue;
+            rows.add(new String[]{c.getCommand(), String.valueOf(c.getRequests()), String.valueOf(c.getErrors()),
+                    String.valueOf(c.getFailures()), String.valueOf(c.getInFlight()), String.valueOf(c.getBytesIn()), String.valueOf(c.getBytesOut()),
+                    fmt(c.getMeanMicros()), fmt(c.getP50Micros()), fmt(c.getP90Micros()), fmt(c.getP99Micros()),
+                    fmt(c.getMaxMicros())});
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("columns", COLUMNS.clone());
+        data.put("rows", rows);
+        data.put("activeConnections", getActiveConnections());
+        data.put("uptimeSeconds", getUptimeSeconds());
+        return data;
+    }
+
+    /** Prometheus 텍스트 형식 (시간은 초 단위) */
+    String toPrometheus() {
+        List<CommandStats> stats = getCommands();
+        Map<Command, CommandRegistry.Stats> raw = commands.stats();
+        StringBuilder sb = new StringBuilder(8192);
+
+        sb.append("# HELP hms_active_connections Open client connections\n# TYPE hms_active_connections gauge\n");
+        sb.append("hms_active_connections ").append(getActiveConnections()).append('\n');
+        sb.append("# HELP hms_uptime_seconds Seconds since server start\n# TYPE hms_uptime_seconds gauge\n");
+        sb.append("hms_uptime_seconds ").append(getUptimeSeconds()).append('\n');
+
+        family(sb, "hms_requests_total", "counter", "Requests handled per command");
+        for (CommandStats c : stats) line(sb, "hms_requests_total", c.getCommand(), null, c.getRequests());
+        family(sb, "hms_request_errors_total", "counter", "Requests whose handler threw");
+        for (CommandStats c : stats) line(sb, "hms_request_errors_total", c.getCommand(), null, c.getErrors());
+        family(sb, "hms_request_failures_total", "counter", "Requests answered with success=false");
+        for (CommandStats c : stats) line(sb, "hms_request_failures_total", c.getCommand(), null, c.getFailures());
+        family(sb, "hms_requests_in_flight", "gauge", "Requests currently being handled");
+        for (CommandStats c : stats) line(sb, "hms_requests_in_flight", c.getCommand(), null, c.getInFlight());
+        family(sb, "hms_request_bytes_total", "counter", "Request bytes received on the wire");
+        for (CommandStats c : stats) line(sb, "hms_request_bytes_total", c.getCommand(), null, c.getBytesIn());
+        family(sb, "hms_response_bytes_total", "counter", "Response bytes sent on the wire");
+        for (CommandStats c : stats) line(sb, "hms_response_bytes_total", c.getCommand(), null, c.getBytesOut());
+
+        family(sb, "hms_request_duration_seconds", "summary", "Handler time per command");
+        for (Map.Entry<Command, CommandRegistry.Stats> e : raw.entrySet()) {
+            String cmd = e.getKey().name();
+            LatencyHistogram h = e.getValue().getLatency();
+            for (double q : QUANTILES) {
+                line(sb, "hms_request_duration_seconds", cmd, q, h.percentile(q * 100) / 1e9);
+            }
+            line(sb, "hms_request_duration_seconds_sum", cmd, null, h.sum() / 1e9);
+            line(sb, "hms_request_duration_seconds_count", cmd, null, h.count());
+        }
+        family(sb, "hms_request_duration_max_seconds", "gauge", "Longest handler time per command");
+        for (Map.Entry<Command, CommandRegistry.Stats> e : raw.entrySet()) {
+            line(sb, "hms_request_duration_max_seconds", e.getKey().name(), null, e.getValue().getLatency().max() / 1e9);
+        }
+        return sb.toString();
+    }
+
+    private static void family(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void line(StringBuilder sb, String name, String command, Double quantile, Number value) {
+        sb.append(name).append("{command=\"").append(command).append('"');
+        if (quantile != null) sb.append(",quantile=\"").append(quantile).append('"');
+        sb.append("} ").append(value).append('\n');
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private static String fmt(double v) {
+        return String.format(Locale.ROOT, "%.1f", v);
+    }
+}
@@ -0,0 +1,67 @@
+package hms.server;
+
+import javax.management.ConstructorParameters;
+import java.util.List;
+
+/**
+ * 서버 지표 JMX 인터페이스 (jconsole 등에서 hms:type=ServerMetrics)
+ * - 값은 ServerMetrics가 읽는 시점에 명령 표(CommandRegistry)에서 모읍니다.
+ */
+public interface ServerMetricsMXBean {
+
+    /** 현재 열린 클라이언트 연결 수 */
+    int getActiveConnections();
+
+    /** 서버 시작 후 지난 시간(초) */
+    long getUptimeSeconds();
+
+    /** 등록된 명령별 통계 (명령 id 순) */
+    List<CommandStats> getCommands();
+
+    /** 명령 1개의 통계 (시간은 마이크로초) */
+    final class CommandStats {
+        private final String command;
+        private final long requests;
+        private final long errors;      // 처리기 예외
+        private final long failures;    // 실패 응답 (success=false)
+        private final long inFlight;
+        private final long bytesIn;
+        private final long bytesOut;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p90Micros;
+        private final double p99Micros;
+        private final double maxMicros;
+
+        @ConstructorParameters({"command", "requests", "errors", "failures", "inFlight", "bytesIn", "bytesOut",
+                "meanMicros", "p50Micros", "p90Micros", "p99Micros", "maxMicros"})
+        public CommandStats(String command, long requests, long errors, long failures, long inFlight, long bytesIn, long bytesOut,
+                            double meanMicros, double p50Micros, double p90Micros, double p99Micros, double maxMicros) {
+            this.command = command;
+            this.requests = requests;
+            this.errors = errors;
+            this.failures = failures;
+            this.inFlight = inFlight;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p90Micros = p90Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public String getCommand() { return command; }
+        public long getRequests() { return requests; }
+        public long getErrors() { return errors; }
+        public long getFailures() { return failures; }
+        public long getInFlight() { return inFlight; }
+        public long getBytesIn() { return bytesIn; }
+        public long getBytesOut() { return bytesOut; }
+        public double getMeanMicros() { return meanMicros; }
+        public double getP50Micros() { return p50Micros; }
+        public double getP90Micros() { return p90Micros; }
+        public double getP99Micros() { return p99Micros; }
+        public double getMaxMicros() { return maxMicros; }
+    }
+}
@@ -0,0 +1,50 @@
+package hms.server;
+
+import hms.model.UpdateResult;
+import hms.model.User;
+import hms.model.UserDataManager;
+import hms.network.Command;
+import hms.network.NetworkMessage;
+
+/**
+ * [1] 회원 관리 명령
+ */
+final class UserCommands {
+
+    private UserCommands() {}
+
+    static void register(CommandRegistry registry, UserDataManager userMgr) {
+        registry.register(Command.LOGIN, req -> {
+            String[] login = ((String) req.getData()).split(",");
+            User user = userMgr.findUserById(login[0]);
+            // ⭐ [평문 비교] 클라이언트에서 평문 비밀번호를 보내므로, 서버도 평문으로 비교
+            return (user != null && user.getPassword().equals(login[1])) ? new NetworkMessage(true, "성공", user) : new NetworkMessage(false, "ID 또는 비밀번호가 일치하지 않습니다.", null);
+        });
+        registry.register(Command.SIGNUP, req -> {
+            User newUser = (User) req.getData();
+            // ⭐ [평문 저장] 클라이언트에서 평문 비밀번호를 보내므로, 해싱 없이 바로 저장
+            if (userMgr.isUserIdExists(newUser.getId())) return new NetworkMessage(false, "ID중복", 1);
+            if (userMgr.addUser(newUser)) return new NetworkMessage(true, "가입성공", 0);
+            return new NetworkMessage(false, "저장실패", 2);
+        });
+        registry.register(Command.DELETE_USER, req ->
+                new NetworkMessage(userMgr.deleteUser((String) req.getData()), "탈퇴", null));
+        registry.register(Command.USER_GET_BY_ID, req -> {
+            User targetUser = userMgr.findUserById((String) req.getData());
+            return (targetUser != null) ? new NetworkMessage(true, "조회성공", targetUser) : new NetworkMessage(false, "조회실패", null);
+        });
+        registry.register(Command.USER_GET_ALL, req ->
+                new NetworkMessage(true, "전체사용자", userMgr.readAllUsers()));
+        registry.register(Command.USER_ADD_ADMIN, req -> {
+            User userToAdd = (User) req.getData();
+            if (userMgr.isUserIdExists(userToAdd.getId())) return new NetworkMessage(false, "ID중복", 1);
+            if (userMgr.addUser(userToAdd)) return new NetworkMessage(true, "추가성공", 0);
+            return new NetworkMessage(false, "저장실패", 2);
+        });
+        registry.register(Command.USER_UPDATE_ADMIN, req -> {
+            // 조회 때 받은 버전이 User에 들어 있음 -> 그 사이 다른 곳에서 수정됐으면 "버전충돌"
+            UpdateResult result = userMgr.updateUser((User) req.getData());
+            return new NetworkMessage(result.isUpdated(), result.isUpdated() ? "수정성공" : result.message(), 0);
+        });
+    }
+}
@@ -0,0 +1,244 @@
+package hms.util;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 서버용 비동기 로그
+ * - 호출한 스레드는 기록 1건을 원형 대기열(LogRing)에 넣기만 하고 바로 돌아갑니다. (잠금/입출력 없음)
+ *   문자열 만들기와 콘솔/파일 쓰기는 전용 스레드(hms-log-writer) 하나가 합니다.
+ * - 대기열이 가득 차면 기다리지 않고 버리고, 버린 개수를 나중에 한 줄로 남깁니다.
+ * - 한 줄 형식: 시각 수준 [스레드] 분류: 메시지 키=값 키=값 ...
+ *   필드는 (키, 값) 쌍으로 넘깁니다. 값은 기록 스레드에서 문자열로 바뀌므로 나중에 바뀌지 않는 값을 넘길 것
+ * - 설정 (-D)
+ *   hms.log.level      : DEBUG / INFO(기본) / WARN / ERROR
+ *   hms.log.console    : 콘솔 출력 (true, WARN 이상은 System.err)
+ *   hms.log.bufferSize : 대기열 크기 (8192)
+ *   hms.log.maxBytes, hms.log.files : 파일 하나의 최대 크기(10MB) / 보관할 이전 파일 수(5)
+ * - 파일 기록은 toFile로 켭니다. (서버 main에서 호출)
+ */
+public final class Log {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final Object[] NO_FIELDS = new Object[0];
+
+    /** 기록 1건 (넣는 스레드가 만들고, 기록 스레드가 읽기만 함) */
+    private static final class Event {
+        final long millis = System.currentTimeMillis();
+        final Level level;
+        final String thread = Thread.currentThread().getName();
+        final String category;
+        final String message;
+        final Throwable error;
+        final Object[] fields;
+
+        Event(Level level, String category, String message, Throwable error, Object[] fields) {
+            this.level = level;
+            this.category = category;
+            this.message = message;
+            this.error = error;
+            this.fields = fields;
+        }
+    }
+
+    private static final Level threshold = parseLevel(System.getProperty("hms.log.level", "INFO"));
+    private static final boolean console = Boolean.parseBoolean(System.getProperty("hms.log.console", "true"));
+    private static final LogRing<Event> ring = new LogRing<>(Integer.getInteger("hms.log.bufferSize", 8192));
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile RollingLogFile file;
+    private static volatile String pendingFile; // toFile로 받은 경로 (기록 스레드가 열어서 씀)
+    private static volatile boolean writerIdle;
+    private static final Thread writer;
+
+    static {
+        writer = new Thread(Log::writeLoop, "hms-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // 종료 시 남은 기록을 마저 씀
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "hms-log-flush"));
+    }
+
+    private Log() {}
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    public static void debug(String category, String message, Object... fields) {
+        log(Level.DEBUG, category, message, null, fields);
+    }
+
+    public static void info(String category, String message, Object... fields) {
+        log(Level.INFO, category, message, null, fields);
+    }
+
+    public static void warn(String category, String message, Object... fields) {
+        log(Level.WARN, category, message, null, fields);
+    }
+
+    public static void error(String category, String message, Throwable error, Object... fields) {
+        log(Level.ERROR, category, message, error, fields);
+    }
+
+    /**
+     * 이후 기록을 path에도 씁니다. (크기가 넘으면 이전 파일로 밀어냄)
+     * 파일은 기록 스레드가 열며, 열지 못하면 콘솔에 오류를 남기고 콘솔에만 씁니다.
+     */
+    public static void toFile(String path) {
+        pendingFile = path;
+        LockSupport.unpark(writer);
+    }
+
+    /** 지금까지 넣은 기록을 모두 쓸 때까지 기다립니다. (최대 5초) */
+    public static void flush() {
+        long target = ring.offered();
+        long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+        // 기록 스레드가 대기열을 비운 뒤 출력까지 flush하면 writerIdle = true
+        while ((ring.taken() < target || !writerIdle) && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void log(Level level, String category, String message, Throwable error, Object[] fields) {
+        if (!isEnabled(level)) return;
+        if (!ring.offer(new Event(level, category, message, error, (fields == null) ? NO_FIELDS : fields))) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (writerIdle) LockSupport.unpark(writer);
+    }
+
+    // ==========================================================
+    // 기록 스레드
+    // ==========================================================
+    private static void writeLoop() {
+        StringBuilder sb = new StringBuilder(256);
+        long reportedDrops = 0;
+        while (true) {
+            if (pendingFile != null) openPendingFile(sb); // toFile 뒤에 넣은 기록부터 파일에 들어가도록 먼저 엶
+            Event e = ring.poll();
+            if (e != null) {
+                write(e, sb);
+                continue;
+            }
+
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                write(new Event(Level.WARN, "로그", "대기열이 가득 차서 기록을 버림", null,
+                        new Object[]{"dropped", drops - reportedDrops}), sb);
+                reportedDrops = drops;
+            }
+            flushOutputs();
+
+            writerIdle = true;
+            if (ring.taken() == ring.offered() && pendingFile == null) LockSupport.parkNanos(IDLE_PARK_NANOS);
+            writerIdle = false;
+        }
+    }
+
+    private static void openPendingFile(StringBuilder sb) {
+        String path = pendingFile;
+        pendingFile = null;
+        try {
+            RollingLogFile next = new RollingLogFile(path, Long.getLong("hms.log.maxBytes", 10L * 1024 * 1024),
+                    Integer.getInteger("hms.log.files", 5));
+            RollingLogFile old = file;
+            file = next;
+            if (old != null) old.close();
+        } catch (IOException e) {
+            write(new Event(Level.ERROR, "로그", "로그 파일을 열지 못함", e, new Object[]{"file", path}), sb);
+        }
+    }
+
+    private static void write(Event e, StringBuilder sb) {
+        sb.setLength(0);
+        format(e, sb);
+        String line = sb.toString();
+        if (console) {
+            PrintStream ps = (e.level.compareTo(Level.WARN) >= 0) ? System.err : System.out;
+            ps.println(line);
+        }
+        RollingLogFile f = file;
+        if (f != null) {
+            try {
+                f.write(line);
+            } catch (IOException ex) {
+                file = null;
+                System.err.println("로그 파일 쓰기 실패 - 이후 콘솔에만 기록: " + ex.getMessage());
+            }
+        }
+    }
+
+    private static void flushOutputs() {
+        if (console) {
+            System.out.flush();
+            System.err.flush();
+        }
+        RollingLogFile f = file;
+        if (f != null) {
+            try { f.flush(); } catch (IOException ignored) {}
+        }
+    }
+
+    private static void format(Event e, StringBuilder sb) {
+        TIME.formatTo(Instant.ofEpochMilli(e.millis), sb);
+        sb.append(' ').append(String.format(Locale.ROOT, "%-5s", e.level))
+          .append(" [").append(e.thread).append("] ")
+          .append(e.category).append(": ").append(e.message);
+        Object[] f = e.fields;
+        for (int i = 0; i + 1 < f.length; i += 2) {
+            sb.append(' ').append(f[i]).append('=');
+            appendValue(sb, f[i + 1]);
+        }
+        if (e.error != null) {
+            StringWriter trace = new StringWriter();
+            e.error.printStackTrace(new PrintWriter(trace));
+            sb.append(System.lineSeparator()).append(trace.toString().stripTrailing());
+        }
+    }
+
+    // 공백/따옴표/등호가 있는 값만 따옴표로 감쌈
+    private static void appendValue(StringBuilder sb, Object value) {
+        String s = String.valueOf(value);
+        boolean quote = s.isEmpty();
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = Character.isWhitespace(c) || c == '"' || c == '=';
+        }
+        if (!quote) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\');
+            if (c == '\n') sb.append("\\n");
+            else if (c != '\r') sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static Level parseLevel(String s) {
+        try {
+            return Level.valueOf(s.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package hms.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 고정 크기 원형 대기열 (여러 스레드가 넣고, 한 스레드만 꺼냄)
+ * - 칸마다 순번을 두어, 넣는 쪽은 꼬리 위치를 CAS로 하나 차지한 뒤 값을 쓰고 순번을 올려 공개합니다. (잠금 없음)
+ * - 가득 차면 기다리지 않고 false를 돌려줍니다. (버릴지 말지는 호출한 쪽이 정함)
+ * - 꺼내는 쪽은 다음 칸의 순번이 공개됐을 때만 값을 가져가고, 칸을 한 바퀴 뒤 순번으로 되돌려 비웁니다.
+ */
+final class LogRing<T> {
+
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // 꺼내는 스레드만 씀
+
+    /** @param capacity 2의 거듭제곱으로 올림 */
+    LogRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.sequence = new AtomicLongArray(size);
+        this.items = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) sequence.set(i, i);
+    }
+
+    /** @return 넣었으면 true, 가득 찼으면 false */
+    boolean offer(T item) {
+        long pos = tail.get();
+        while (true) {
+            int idx = (int) pos & mask;
+            long diff = sequence.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items.lazySet(idx, item);
+                    sequence.set(idx, pos + 1); // 공개 (꺼내는 쪽은 이 값을 보고 가져감)
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // 한 바퀴 전 값이 아직 안 빠짐 = 가득 참
+            } else {
+                pos = tail.get(); // 다른 스레드가 먼저 차지함
+            }
+        }
+    }
+
+    /** @return 다음 값, 비었으면 null (한 스레드에서만 호출) */
+    T poll() {
+        long pos = head;
+        int idx = (int) pos & mask;
+        if (sequence.get(idx) != pos + 1) return null;
+        T item = items.get(idx);
+        items.lazySet(idx, null);
+        sequence.set(idx, pos + mask + 1);
+        head = pos + 1;
+        return item;
+    }
+
+    /** 지금까지 넣은 개수 */
+    long offered() {
+        return tail.get();
+    }
+
+    /** 지금까지 꺼낸 개수 */
+    long taken() {
+        return head;
+    }
+}
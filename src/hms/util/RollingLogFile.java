@@ -0,0 +1,71 @@
+package hms.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 크기 제한이 있는 로그 파일 (로그 기록 스레드에서만 사용)
+ * - 파일이 maxBytes를 넘으면 이름을 하나씩 밀고(hms.log -> hms.log.1 -> ... -> hms.log.N) 새 파일을 엽니다.
+ * - 가장 오래된 파일(N번)은 지웁니다.
+ */
+final class RollingLogFile {
+
+    private final Path path;
+    private final long maxBytes;
+    private final int keepFiles;
+    private BufferedWriter out;
+    private long size;
+
+    RollingLogFile(String path, long maxBytes, int keepFiles) throws IOException {
+        this.path = Paths.get(path);
+        this.maxBytes = maxBytes;
+        this.keepFiles = Math.max(1, keepFiles);
+        Path parent = this.path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        open();
+    }
+
+    void write(String line) throws IOException {
+        long bytes = line.getBytes(StandardCharsets.UTF_8).length + 1L;
+        if (size > 0 && size + bytes > maxBytes) roll();
+        out.write(line);
+        out.newLine();
+        size += bytes;
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    void close() throws IOException {
+        out.close();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+        size = Files.size(path);
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        Files.deleteIfExists(numbered(keepFiles));
+        for (int i = keepFiles - 1; i >= 1; i--) {
+            Path from = numbered(i);
+            if (Files.exists(from)) Files.move(from, numbered(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(path, numbered(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private Path numbered(int n) {
+        return Paths.get(path + "." + n);
+    }
+}
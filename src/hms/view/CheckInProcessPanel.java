@@ -1,6 +1,7 @@
 package hms.view;
 
 import hms.controller.ReservationController;
+import hms.model.UpdateResult;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener; // ActionListener import 추가
@@ -81,11 +82,18 @@ public class CheckInProcessPanel extends JPanel {
     private void handleCheckInConfirm() {
         String reservationId = reservationDetails[0];
 
-        boolean success = controller.updateReservationStatus(reservationId, "CHECKED_IN");
+        UpdateResult result = controller.updateReservationStatus(reservationId, "CHECKED_IN");
 
-        if (success) {
+        if (result == UpdateResult.STALE) {
             JOptionPane.showMessageDialog(this,
-                    "예약 번호 " + reservationId + "의 체크인이 성공적으로 확정되었습니다.\n객실: " + reservationDetails[9],
+                    "다른 단말에서 이 예약이 먼저 변경되었습니다.\n예약 번호를 다시 조회해 주세요.",
+                    "체크인 실패", JOptionPane.WARNING_MESSAGE);
+            if (parentFrame != null) {
+                parentFrame.dispose();
+            }
+        } else if (result.isUpdated()) {
+            JOptionPane.showMessageDialog(this,
+                    "예약 번호 " + reservationId + "의 체크인이 성공적으로 확정되었습니다.\n객실: " + reservationDetails[ReservationController.RES_IDX_ROOM_NUM],
                     "체크인 성공", JOptionPane.INFORMATION_MESSAGE);
 
             // 체크인 성공 후, 현재 창을 닫고 AdminMainFrame으로 돌아가도록 처리합니다.
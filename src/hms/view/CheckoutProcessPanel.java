@@ -2,9 +2,11 @@ package hms.view;
 
 import hms.controller.ReservationController;
 import hms.controller.RoomServiceController;
+import hms.model.Reservation;
 import javax.swing.*;
 import java.awt.*;
 import java.util.List;
+import java.util.Map;
 import java.text.NumberFormat; // ⭐ 금액 포맷용 임포트
 import java.util.Locale;       // ⭐ 로케일 임포트
 
@@ -18,9 +20,9 @@ public class CheckoutProcessPanel extends JPanel {
     private JTextArea billArea;
 
     // 데이터 인덱스 상수
-    private static final int RES_IDX_ROOM_NUM = 9;
+    private static final int RES_IDX_ROOM_NUM = Reservation.IDX_ROOM_NUM;
     // [추가] 지연료 계산을 위해 체크아웃 예정 날짜 인덱스(4)가 필요함
-    private static final int RES_IDX_SCHED_CHECKOUT_DATE = 4;
+    private static final int RES_IDX_SCHED_CHECKOUT_DATE = Reservation.IDX_CHECKOUT_DATE;
 
     public CheckoutProcessPanel(CheckInOutFrame parentFrame, ReservationController controller, RoomServiceController serviceController, String[] reservationData) {
         this.parentFrame = parentFrame;
@@ -61,11 +63,12 @@ public class CheckoutProcessPanel extends JPanel {
     private void loadAndDisplayBill() {
         String roomNumber = reservationData[RES_IDX_ROOM_NUM];
 
-        // 1. 룸서비스 총액 계산
-        long serviceCost = calculateRoomServiceCost(roomNumber);
+        // 1. 룸서비스 청구 내역 (서버에서 이 객실 것만 한 번에 받아옴)
+        Map<String, Object> folio = serviceController.getRoomFolio(roomNumber);
+        long serviceCost = calculateRoomServiceCost(folio);
 
         // ⭐ [NEW] 룸서비스 상세 내역 텍스트 생성
-        String serviceDetailsText = getRoomServiceDetailsText(roomNumber);
+        String serviceDetailsText = getRoomServiceDetailsText(folio);
 
         // 2. [핵심 변경] 컨트롤러에게 기본 청구서 텍스트 생성 요청
         String baseBillText = controller.generateCheckoutBillText(reservationData, (int)serviceCost);
@@ -79,44 +82,37 @@ public class CheckoutProcessPanel extends JPanel {
         billArea.setCaretPosition(0);
     }
 
-    private long calculateRoomServiceCost(String roomNumber) {
-        long total = 0;
-        // 완료 상태인 요청만 가져옵니다.
-        List<String[]> reqs = serviceController.getRequestsByStatus("완료");
-        for (String[] req : reqs) {
-            // req[1]: roomNumber, req[3]: price
-            if (req[1].equals(roomNumber)) {
-                try { total += Long.parseLong(req[3]); } catch (Exception e) {}
-            }
-        }
-        return total;
+    private long calculateRoomServiceCost(Map<String, Object> folio) {
+        // 완료 상태 주문 합계 (서버에서 계산)
+        if (folio == null || !(folio.get("total") instanceof Long)) return 0;
+        return (Long) folio.get("total");
     }
 
     /**
      * ⭐ [NEW HELPER] 룸서비스 상세 내역 텍스트를 생성합니다.
      */
-    private String getRoomServiceDetailsText(String roomNumber) {
+    private String getRoomServiceDetailsText(Map<String, Object> folio) {
         StringBuilder sb = new StringBuilder();
-        // 완료 상태인 요청 목록을 가져옵니다.
-        List<String[]> reqs = serviceController.getRequestsByStatus("완료");
+        // 완료 상태인 이 객실 주문 목록
+        List<String[]> charges = (folio == null) ? null : (List<String[]>) folio.get("charges");
 
         boolean foundItems = false;
         NumberFormat nf = NumberFormat.getNumberInstance(Locale.KOREA);
 
-        for (String[] req : reqs) {
-            // req[0]: ID, req[1]: roomNumber, req[2]: items list, req[3]: price, req[5]: time
-            if (req[1].equals(roomNumber)) {
+        if (charges != null) {
+            for (String[] c : charges) {
+                // c[0]: ID, c[1]: time, c[2]: items list, c[3]: price
                 foundItems = true;
 
-                String requestTime = req[5]; // 요청 시간 (timestamp)
-                String itemsList = req[2]; // ex: "커피 x 2, 샌드위치 x 1"
+                String requestTime = c[1]; // 요청 시간 (timestamp)
+                String itemsList = c[2]; // ex: "커피 x 2, 샌드위치 x 1"
 
                 // 시간 포맷을 간단하게 변경 (YYYYMMDDHHmmss -> HH:mm)
                 String formattedTime = requestTime.length() >= 12 ? requestTime.substring(8, 10) + ":" + requestTime.substring(10, 12) : requestTime;
 
                 // 줄 바꿈 및 포맷팅: [시간] - 품목 목록 (총액)
                 long price = 0;
-                try { price = Long.parseLong(req[3]); } catch (Exception e) {}
+                try { price = Long.parseLong(c[3]); } catch (Exception e) {}
 
                 sb.append(" [")
                         .append(formattedTime)
@@ -1,6 +1,7 @@
 package hms.view;
 
 import hms.controller.ReservationController;
+import hms.model.Reservation;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -15,20 +16,20 @@ import java.util.ArrayList;
  */
 public class ReservationCheckPanel extends JPanel {
 
-    // 예약 데이터 배열의 인덱스 상수를 명시합니다. (HMSServer와 동일)
-    private static final int RES_IDX_ID = 0;
-    private static final int RES_IDX_NAME = 1;
-    private static final int RES_IDX_PHONE = 2;
-    private static final int RES_IDX_IN_DATE = 3;
-    private static final int RES_IDX_OUT_DATE = 4;
-    private static final int RES_IDX_IN_TIME = 5;
-    private static final int RES_IDX_OUT_TIME = 6;
-    private static final int RES_IDX_GUESTS = 7;
-    private static final int RES_IDX_GRADE = 8;
-    private static final int RES_IDX_ROOM_NUM = 9;
-    private static final int RES_IDX_TOTAL_PRICE = 10;
-    private static final int RES_IDX_PAYMENT_METHOD = 11;
-    private static final int RES_IDX_STATUS = 12;
+    // 예약 데이터 배열의 인덱스 상수 (칸 위치는 Reservation에서 한 곳만 정의, 서버와 동일)
+    private static final int RES_IDX_ID = Reservation.IDX_ID;
+    private static final int RES_IDX_NAME = Reservation.IDX_NAME;
+    private static final int RES_IDX_PHONE = Reservation.IDX_PHONE;
+    private static final int RES_IDX_IN_DATE = Reservation.IDX_CHECK_IN_DATE;
+    private static final int RES_IDX_OUT_DATE = Reservation.IDX_CHECKOUT_DATE;
+    private static final int RES_IDX_IN_TIME = Reservation.IDX_IN_TIME;
+    private static final int RES_IDX_OUT_TIME = Reservation.IDX_OUT_TIME;
+    private static final int RES_IDX_GUESTS = Reservation.IDX_GUESTS;
+    private static final int RES_IDX_GRADE = Reservation.IDX_GRADE;
+    private static final int RES_IDX_ROOM_NUM = Reservation.IDX_ROOM_NUM;
+    private static final int RES_IDX_TOTAL_PRICE = Reservation.IDX_TOTAL_PRICE;
+    private static final int RES_IDX_PAYMENT_METHOD = Reservation.IDX_PAYMENT_METHOD;
+    private static final int RES_IDX_STATUS = Reservation.IDX_STATUS;
 
     private static final String STATUS_OBLIGATORY_CHARGE = "OBLIGATORY_CHARGE";
 
@@ -147,13 +148,7 @@ public class ReservationCheckPanel extends JPanel {
      * (JTextArea 출력을 위해 HTML 태그를 사용하지 않습니다.)
      */
     private String formatReservationSummary(String[] data) {
-        long totalPriceValue;
-
-        try {
-            totalPriceValue = Long.parseLong(data[RES_IDX_TOTAL_PRICE].trim());
-        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
-            totalPriceValue = 0;
-        }
+        long totalPriceValue = Reservation.of(data).totalPrice();
 
         String priceFormatted = NumberFormat.getNumberInstance(Locale.US).format(totalPriceValue);
 
@@ -3,6 +3,7 @@ package hms.view;
 import hms.controller.ReservationController;
 import hms.controller.UserController;
 import hms.model.User;
+import hms.network.NetworkMessage;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -49,6 +50,12 @@ public class ReservationManagerPanel extends JPanel {
     private String customerName;
     private String phoneNumber;
 
+    // 같은 날짜로 단계를 오갈 때 서버에 다시 묻지 않도록 예약된 방 목록을 잠시 보관
+    private static final long BOOKED_CACHE_MILLIS = 15_000;
+    private String bookedCacheKey;
+    private List<String> bookedCache;
+    private long bookedCacheTime;
+
 
     // ----------------------------------------------------
     // 2. 생성자
@@ -116,6 +123,7 @@ public class ReservationManagerPanel extends JPanel {
         // ⭐ 전달받은 이름과 전화번호 저장
         this.customerName = name;
         this.phoneNumber = phone;
+        this.bookedCache = null; // 날짜가 바뀌었을 수 있으므로 다시 조회
 
         long diffInMillies = Math.abs(checkOut.getTime() - checkIn.getTime());
         this.nights = TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
@@ -137,7 +145,14 @@ public class ReservationManagerPanel extends JPanel {
         String checkInStr = sdf.format(checkInDate);
         String checkOutStr = sdf.format(checkOutDate);
 
-        return reservationController.getBookedRooms(checkInStr, checkOutStr);
+        String key = checkInStr + "," + checkOutStr;
+        long now = System.currentTimeMillis();
+        if (bookedCache == null || !key.equals(bookedCacheKey) || now - bookedCacheTime > BOOKED_CACHE_MILLIS) {
+            bookedCache = reservationController.getBookedRooms(checkInStr, checkOutStr);
+            bookedCacheKey = key;
+            bookedCacheTime = now;
+        }
+        return bookedCache;
     }
 
     /**
@@ -292,11 +307,18 @@ public class ReservationManagerPanel extends JPanel {
         finalData.put("estimatedOutTime", estimatedOutTime);
         finalData.put("userId", getCurrentUserId());
 
-        boolean success = reservationController.saveReservationToFile(finalData);
+        // 빈 방 확인과 저장을 서버에서 한 번에 (3단계에서 본 뒤 다른 사람이 먼저 예약했을 수 있음)
+        NetworkMessage res = reservationController.bookReservation(finalData);
+        bookedCache = null;
 
-        if (success) {
+        if (res.isSuccess()) {
             JOptionPane.showMessageDialog(reservationFrame, "예약이 성공적으로 완료되었습니다!", "예약 완료", JOptionPane.INFORMATION_MESSAGE);
             goBackToMain(true);
+        } else if ("이미 예약된 객실".equals(res.getMessage())) {
+            JOptionPane.showMessageDialog(reservationFrame,
+                    selectedRoom + "호는 방금 다른 예약이 확정되었습니다.\n다른 객실을 선택해 주세요.",
+                    "예약 불가", JOptionPane.WARNING_MESSAGE);
+            showStep("roomShow"); // 객실 현황을 다시 불러와서 보여줌
         } else {
             JOptionPane.showMessageDialog(reservationFrame, "예약 저장 중 오류가 발생했습니다.", "시스템 오류", JOptionPane.ERROR_MESSAGE);
         }
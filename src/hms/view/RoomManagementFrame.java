@@ -1,17 +1,23 @@
 package hms.view;
 
 import hms.controller.RoomController;
+import hms.model.UpdateResult;
+import hms.model.VersionClock;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RoomManagementFrame extends JFrame {
     private final JFrame parentFrame;
     private final RoomController controller;
     private JTable roomTable;
     private DefaultTableModel tableModel;
+    // 객실번호 -> 목록을 불러올 때의 버전
+    private final Map<String, Long> roomVersions = new HashMap<>();
 
     public RoomManagementFrame(JFrame parentFrame, RoomController controller) {
         this.parentFrame = parentFrame;
@@ -71,8 +77,13 @@ public class RoomManagementFrame extends JFrame {
 
     private void loadData() {
         tableModel.setRowCount(0);
+        roomVersions.clear();
         List<String[]> rooms = controller.getAllRooms();
         for (String[] r : rooms) {
+            // 수정 요청에 같이 보낼 버전 (목록을 불러온 뒤 다른 단말에서 바뀌었는지 서버가 확인)
+            if (r.length > RoomController.ROOM_IDX_VERSION) {
+                roomVersions.put(r[0], Long.parseLong(r[RoomController.ROOM_IDX_VERSION]));
+            }
             try {
                 int price = Integer.parseInt(r[2]);
                 tableModel.addRow(new Object[]{r[0], r[1], String.format("%,d", price)});
@@ -158,9 +169,14 @@ public class RoomManagementFrame extends JFrame {
                 }
 
                 // 컨트롤러 호출 (reason 포함)
-                if(controller.updateRoom(curNum, (String)gradeBox.getSelectedItem(), price, reason)) {
+                UpdateResult result = controller.updateRoom(curNum, (String)gradeBox.getSelectedItem(), price, reason,
+                        roomVersions.getOrDefault(curNum, VersionClock.ANY));
+                if(result.isUpdated()) {
                     loadData(); // 테이블 새로고침
                     JOptionPane.showMessageDialog(this, "수정이 완료되었습니다.");
+                } else if (result == UpdateResult.STALE) {
+                    loadData(); // 최신 값으로 다시 불러옴
+                    JOptionPane.showMessageDialog(this, "다른 단말에서 먼저 수정된 객실입니다.\n새로 불러온 정보를 확인한 뒤 다시 수정해 주세요.");
                 } else {
                     JOptionPane.showMessageDialog(this, "수정 실패: 서버 오류");
                 }
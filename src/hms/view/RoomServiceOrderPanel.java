@@ -19,6 +19,7 @@ public class RoomServiceOrderPanel extends JPanel {
     private JTextField quantityField;
     private JLabel totalLabel;
     private JComboBox<String> categoryFilter;
+    private boolean fillingCategories; // 콤보박스를 채우는 중에는 필터 변경으로 보지 않음
 
     public RoomServiceOrderPanel(UserMainFrame parentFrame) {
         this.parentFrame = parentFrame;
@@ -36,8 +37,7 @@ public class RoomServiceOrderPanel extends JPanel {
         JPanel footerPanel = createFooterPanel();
         add(footerPanel, BorderLayout.SOUTH);
 
-        loadCategories();
-        loadMenuData();
+        loadMenuScreen();
     }
 
     private JPanel createMenuListPanel() {
@@ -110,24 +110,33 @@ public class RoomServiceOrderPanel extends JPanel {
     }
 
     private void handleCategoryFilterChange(ActionEvent e) {
-        if (categoryFilter.getSelectedItem() != null) loadMenuData();
+        if (!fillingCategories && categoryFilter.getSelectedItem() != null) loadMenuData();
     }
 
-    private void loadCategories() {
-        // Controller 호출
-        List<String> categories = controller.getAllCategories();
-        categoryFilter.removeAllItems();
-        categoryFilter.addItem("전체 메뉴");
-        for (String category : categories) categoryFilter.addItem(category);
+    // 화면 첫 로딩: 카테고리와 전체 메뉴를 한 번에 받아서 채움
+    private void loadMenuScreen() {
+        RoomServiceController.MenuScreen screen = controller.loadMenuScreen();
+        fillingCategories = true;
+        try {
+            categoryFilter.removeAllItems();
+            categoryFilter.addItem("전체 메뉴");
+            for (String category : screen.categories) categoryFilter.addItem(category);
+        } finally {
+            fillingCategories = false;
+        }
+        showMenu(screen.menu);
     }
 
     private void loadMenuData() {
         String selectedCategory = (String) categoryFilter.getSelectedItem();
         if (selectedCategory != null && selectedCategory.equals("전체 메뉴")) selectedCategory = null;
 
-        menuTableModel.setRowCount(0);
         // Controller 호출
-        List<String[]> menuItems = controller.getMenuByCategory(selectedCategory);
+        showMenu(controller.getMenuByCategory(selectedCategory));
+    }
+
+    private void showMenu(List<String[]> menuItems) {
+        menuTableModel.setRowCount(0);
         for (String[] item : menuItems) {
             menuTableModel.addRow(new Object[]{item[0], item[1], item[2], item[3]});
         }
@@ -7,9 +7,14 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.text.NumberFormat;
 import java.util.Locale;
+import java.util.Map;
 
 public class ServiceRequestPanel extends JPanel {
 
@@ -22,6 +27,17 @@ public class ServiceRequestPanel extends JPanel {
     private JButton processButton, completeButton, refreshButton;
     private JComboBox<String> statusFilter;
 
+    // ⭐ [NEW] 실시간 주문 알림: 구독 중이면 서버가 보내는 변경분으로 이 목록을 갱신하고, 화면은 여기서 필터링
+    // (EDT에서만 접근, 주문번호 -> 주문, 주문 순서 유지)
+    private final Map<String, String[]> liveOrders = new LinkedHashMap<>();
+    private Closeable orderFeed;   // null이면 구독 안 됨 -> 기존처럼 서버에서 직접 조회
+    private SwingWorker<Closeable, Void> subscribing;  // 구독 연결 중 (연결/전체 목록 수신은 EDT 밖에서)
+    private final List<String[]> earlyOrders = new ArrayList<>();  // 구독 연결 중에 먼저 도착한 알림
+    private boolean earlyClosed;   // 구독 연결 중에 알림 연결이 먼저 끊김
+    private int feedGeneration;    // 구독 해제마다 증가 -> 해제 전에 시작한 구독의 결과/알림은 버림
+    private Timer resubscribeTimer;
+    private static final int RESUBSCRIBE_DELAY_MILLIS = 3000;
+
     // ⭐ [NEW] 서버 데이터와 일치하는 상태 상수 정의
     public static final String STATUS_PENDING_KR = "대기중";
     public static final String STATUS_PROCESSING_KR = "처리중";
@@ -59,6 +75,123 @@ public class ServiceRequestPanel extends JPanel {
         loadRequestData();
     }
 
+    // ==========================================================
+    // ⭐ [NEW] 실시간 주문 알림 구독 (화면이 떠 있는 동안만)
+    // ==========================================================
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        subscribeOrderFeed(false);
+    }
+
+    @Override
+    public void removeNotify() {
+        unsubscribeOrderFeed();
+        super.removeNotify();
+    }
+
+    /**
+     * EDT에서 호출. 연결과 전체 목록 수신은 SwingWorker에서 하고(화면이 멈추지 않음),
+     * 전체 목록을 먼저 반영한 뒤에 그 사이 도착한 알림을 적용합니다.
+     * @param retry 실패하면 잠시 후 다시 구독 (끊긴 구독을 다시 잇는 중일 때)
+     */
+    private void subscribeOrderFeed(boolean retry) {
+        if (orderFeed != null || subscribing != null) return;
+        int generation = feedGeneration;
+        RoomServiceController.OrderFeedListener listener = new RoomServiceController.OrderFeedListener() {
+            @Override public void orderChanged(String[] order) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != feedGeneration) return;
+                    if (subscribing != null) {
+                        earlyOrders.add(order); // 전체 목록 반영 후에 적용
+                        return;
+                    }
+                    if (orderFeed == null) return;
+                    liveOrders.put(order[0], order);
+                    loadRequestData();
+                });
+            }
+
+            @Override public void feedClosed() {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != feedGeneration) return;
+                    if (subscribing != null) {
+                        earlyClosed = true;
+                        return;
+                    }
+                    orderFeed = null;
+                    // 서버 재시작 등: 잠시 후 다시 구독 (그 사이에는 기존처럼 직접 조회)
+                    if (isDisplayable()) scheduleResubscribe();
+                });
+            }
+        };
+        List<String[]> initial = new ArrayList<>();
+        subscribing = new SwingWorker<Closeable, Void>() {
+            @Override protected Closeable doInBackground() {
+                return roomServiceController.subscribeOrders(initial, listener);
+            }
+
+            @Override protected void done() {
+                Closeable feed;
+                try {
+                    feed = get();
+                } catch (Exception e) {
+                    feed = null;
+                }
+                if (generation != feedGeneration) {
+                    // 연결 중에 화면이 닫힘
+                    closeQuietly(feed);
+                    return;
+                }
+                subscribing = null;
+                List<String[]> early = new ArrayList<>(earlyOrders);
+                earlyOrders.clear();
+                boolean closed = earlyClosed;
+                earlyClosed = false;
+                if (feed == null || closed) {
+                    // 서버가 지원하지 않거나 연결 실패: 새로고침 버튼으로 직접 조회
+                    closeQuietly(feed);
+                    if ((retry || closed) && isDisplayable()) scheduleResubscribe();
+                    return;
+                }
+                orderFeed = feed;
+                liveOrders.clear();
+                for (String[] order : initial) liveOrders.put(order[0], order);
+                for (String[] order : early) liveOrders.put(order[0], order);
+                loadRequestData();
+            }
+        };
+        subscribing.execute();
+    }
+
+    private void scheduleResubscribe() {
+        if (resubscribeTimer != null) resubscribeTimer.stop();
+        resubscribeTimer = new Timer(RESUBSCRIBE_DELAY_MILLIS, e -> {
+            if (isDisplayable()) subscribeOrderFeed(true);
+        });
+        resubscribeTimer.setRepeats(false);
+        resubscribeTimer.start();
+    }
+
+    private void unsubscribeOrderFeed() {
+        feedGeneration++;
+        subscribing = null;
+        earlyOrders.clear();
+        earlyClosed = false;
+        if (resubscribeTimer != null) {
+            resubscribeTimer.stop();
+            resubscribeTimer = null;
+        }
+        closeQuietly(orderFeed);
+        orderFeed = null;
+        liveOrders.clear();
+    }
+
+    private static void closeQuietly(Closeable c) {
+        if (c == null) return;
+        try { c.close(); } catch (IOException ignored) {}
+    }
+
     private JPanel createNorthPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         panel.add(new JLabel("상태 필터:"));
@@ -112,13 +245,22 @@ public class ServiceRequestPanel extends JPanel {
     }
 
     private void loadRequestData() {
+        // 갱신 후에도 선택했던 주문을 유지
+        int selected = requestTable.getSelectedRow();
+        Object selectedId = (selected >= 0) ? tableModel.getValueAt(selected, 0) : null;
         tableModel.setRowCount(0);
 
         String selectedStatus = (String) statusFilter.getSelectedItem();
         List<String[]> requests;
 
         // ⭐ [핵심 수정] 필터링 로직 적용
-        if (STATUS_ALL.equals(selectedStatus)) {
+        if (orderFeed != null) {
+            // 실시간 구독 중: 서버에 다시 묻지 않고 받아둔 목록에서 필터링
+            requests = new ArrayList<>();
+            for (String[] req : liveOrders.values()) {
+                if (STATUS_ALL.equals(selectedStatus) || req[4].trim().equals(selectedStatus)) requests.add(req);
+            }
+        } else if (STATUS_ALL.equals(selectedStatus)) {
             requests = roomServiceController.getAllRequests();
         } else {
             // 서버에 필터링을 요청할 때, 서버가 인식하는 문자열을 보냅니다.
@@ -148,6 +290,10 @@ public class ServiceRequestPanel extends JPanel {
 
             // 데이터 배열: {ID, 객실 번호, 청구 항목, 금액, 상태, 요청 시간}
             tableModel.addRow(new Object[]{req[0], req[1], itemSummaryFormatted, priceFormatted, req[4], req[5]});
+            if (req[0].equals(selectedId)) {
+                int row = tableModel.getRowCount() - 1;
+                requestTable.setRowSelectionInterval(row, row);
+            }
         }
 
         requestTable.repaint();
@@ -164,7 +310,7 @@ public class ServiceRequestPanel extends JPanel {
         // Controller 호출
         if (roomServiceController.updateRequestStatus(orderId, newStatus)) {
             JOptionPane.showMessageDialog(this, "상태 변경 완료: " + newStatus);
-            loadRequestData(); // 갱신된 데이터를 다시 로드하여 테이블을 업데이트
+            loadRequestData(); // 갱신된 데이터를 다시 로드하여 테이블을 업데이트 (구독 중이면 알림으로 이미 반영됨)
         } else {
             JOptionPane.showMessageDialog(this, "상태 변경 실패");
         }
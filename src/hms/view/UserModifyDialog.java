@@ -1,7 +1,9 @@
 package hms.view;
 
 import hms.controller.UserController;
+import hms.model.UpdateResult;
 import hms.model.User;
+import hms.model.VersionClock;
 import hms.network.NetworkMessage;
 
 import javax.swing.*;
@@ -35,6 +37,8 @@ public class UserModifyDialog extends JDialog {
     // 모드 구분 플래그: 수정 결과 및 본인 수정 여부
     private boolean isSelfEdit = false;
     private boolean isUpdated = false;
+    // 폼에 불러온 회원의 버전 (수정 요청에 같이 보내서, 그 사이 다른 곳에서 수정됐는지 서버가 확인)
+    private long loadedVersion = VersionClock.ANY;
 
     // GUI 컴포넌트
     private JTextField idField;
@@ -172,6 +176,7 @@ public class UserModifyDialog extends JDialog {
 
         if (user != null) {
             // 조회 성공 시 필드에 데이터 바인딩
+            loadedVersion = user.getVersion();
             nameField.setText(user.getName());
             numberField.setText(user.getPhoneNumber());
             ageField.setText(String.valueOf(user.getAge()));
@@ -229,12 +234,15 @@ public class UserModifyDialog extends JDialog {
 
         // 2. User 객체 생성 및 서버 수정 요청
         // User 객체 생성 (평문 비밀번호를 포함)
-        User updatedUser = new User(id, newPw, name, number, age, role);
+        User updatedUser = new User(id, newPw, name, number, age, role, loadedVersion);
 
         // 서버에 수정 요청 전송 (USER_UPDATE_ADMIN 명령 호출)
-        boolean success = userController.updateUserByAdmin(updatedUser);
+        UpdateResult result = userController.updateUserByAdmin(updatedUser);
 
-        if (success) {
+        if (result == UpdateResult.STALE) {
+            JOptionPane.showMessageDialog(this, "다른 곳에서 먼저 수정된 회원입니다.\n최신 정보를 다시 불러옵니다.", "수정 충돌", JOptionPane.WARNING_MESSAGE);
+            loadUserDataToForm();
+        } else if (result.isUpdated()) {
             JOptionPane.showMessageDialog(this, "정보가 수정되었습니다.", "성공", JOptionPane.INFORMATION_MESSAGE);
             isUpdated = true;
 
@@ -0,0 +1,172 @@
+package hms.model;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static hms.test.Assert.*;
+
+/** BTreeFile 저장/삭제/다시 열기/vacuum */
+class BTreeFileTest {
+
+    private static byte[] value(long key, int round) {
+        return ("row-" + key + "-" + round + "-" + "x".repeat((int) (key % 50))).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** 파일 내용이 expected와 키 순서까지 같은지 */
+    private static void assertContent(String what, TreeMap<Long, byte[]> expected, BTreeFile file) throws Exception {
+        List<Long> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        file.scan((k, v) -> {
+            keys.add(k);
+            values.add(new String(v, StandardCharsets.UTF_8));
+        });
+        assertEquals(what + " 키", new ArrayList<>(expected.keySet()), keys);
+        List<String> want = new ArrayList<>();
+        for (byte[] v : expected.values()) want.add(new String(v, StandardCharsets.UTF_8));
+        assertEquals(what + " 값", want, values);
+        assertEquals(what + " 개수", (long) expected.size(), file.size());
+    }
+
+    private static void deleteAll(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    static void testSplitRemoveAndReopen() throws Exception {
+        Path dir = Files.createTempDirectory("btree");
+        Path db = dir.resolve("t.db");
+        TreeMap<Long, byte[]> expected = new TreeMap<>();
+        try {
+            try (BTreeFile file = new BTreeFile(db)) {
+                // 가운데부터 섞어 넣어 잎/가지 나누기가 여러 번 일어나게 함
+                for (long i = 0; i < 20_000; i++) {
+                    long key = (i * 7919) % 20_000;
+                    file.put(key, value(key, 0));
+                    expected.put(key, value(key, 0));
+                }
+                file.commit();
+                for (long key = 0; key < 20_000; key += 3) {
+                    assertTrue("지울 키 있음", file.delete(key));
+                    expected.remove(key);
+                }
+                assertFalse("없는 키 삭제", file.delete(-1));
+                file.commit();
+                assertContent("commit 후", expected, file);
+                assertEquals("한 건 조회", new String(value(7, 0), StandardCharsets.UTF_8), new String(file.get(7), StandardCharsets.UTF_8));
+                assertEquals("지운 키 조회", null, file.get(3));
+            }
+            try (BTreeFile file = new BTreeFile(db)) {
+                assertContent("다시 연 뒤", expected, file);
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    static void testRollbackDropsUncommittedChanges() throws Exception {
+        Path dir = Files.createTempDirectory("btree");
+        try (BTreeFile file = new BTreeFile(dir.resolve("t.db"))) {
+            TreeMap<Long, byte[]> expected = new TreeMap<>();
+            for (long key = 0; key < 1000; key++) {
+                file.put(key, value(key, 0));
+                expected.put(key, value(key, 0));
+            }
+            file.commit();
+            file.put(5000, value(5000, 1));
+            file.delete(10);
+            file.rollback();
+            assertContent("되돌린 뒤", expected, file);
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    static void testVacuumKeepsDataAndShrinksFile() throws Exception {
+        Path dir = Files.createTempDirectory("btree");
+        Path db = dir.resolve("t.db");
+        TreeMap<Long, byte[]> expected = new TreeMap<>();
+        try {
+            try (BTreeFile file = new BTreeFile(db, 16)) {
+                for (long key = 0; key < 2000; key++) expected.put(key, value(key, 0));
+                for (var e : expected.entrySet()) file.put(e.getKey(), e.getValue());
+                file.commit();
+                long before = 0;
+                // 한 건씩 고쳐 commit -> 매번 경로 페이지가 새로 쓰여 버려진 페이지가 쌓임 (도중에 vacuum 시작)
+                for (int round = 1; round <= 300; round++) {
+                    long key = (round * 37L) % 2000;
+                    file.put(key, value(key, round));
+                    expected.put(key, value(key, round));
+                    if (round % 5 == 0) {
+                        file.delete(key + 1);
+                        expected.remove(key + 1);
+                    }
+                    file.commit();
+                    before = Math.max(before, Files.size(db));
+                }
+                file.awaitVacuum();
+                assertTrue("vacuum 후 파일이 작아짐", Files.size(db) < before);
+                assertFalse("임시 파일 없음", Files.exists(dir.resolve("t.db.tmp")));
+                assertContent("vacuum 후", expected, file);
+
+                // 교체한 파일에도 계속 쓸 수 있음
+                file.put(99_999, value(99_999, 0));
+                expected.put(99_999L, value(99_999, 0));
+                file.commit();
+                file.awaitVacuum();
+            }
+            try (BTreeFile file = new BTreeFile(db)) {
+                assertContent("다시 연 뒤", expected, file);
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    static void testVacuumSeesChangesMadeWhileCopying() throws Exception {
+        Path dir = Files.createTempDirectory("btree");
+        Path db = dir.resolve("t.db");
+        TreeMap<Long, byte[]> expected = new TreeMap<>();
+        try (BTreeFile file = new BTreeFile(db, 16)) {
+            for (long key = 0; key < 30_000; key++) {
+                file.put(key, value(key, 0));
+                expected.put(key, value(key, 0));
+            }
+            file.commit();
+            // 버려진 페이지를 만들어 vacuum을 시작시키고, 옮기는 동안 계속 바꾸고 지움 (commit하지 않은 채 끝나는 경우 포함)
+            for (int round = 1; round <= 400; round++) {
+                long key = (round * 7919L) % 30_000;
+                file.put(key, value(key, round));
+                expected.put(key, value(key, round));
+                file.delete(key + 2);
+                expected.remove(key + 2);
+                file.commit();
+            }
+            // 파일 교체는 commit하지 않은 변경이 없을 때만 -> 잠시 뒤 다른 스레드에서 commit
+            file.put(123_456, value(123_456, 0));
+            expected.put(123_456L, value(123_456, 0));
+            Thread committer = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                    file.commit();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            committer.start();
+            file.awaitVacuum();
+            committer.join();
+            assertContent("vacuum 후", expected, file);
+        }
+        try (BTreeFile file = new BTreeFile(db)) {
+            assertContent("다시 연 뒤", expected, file);
+        } finally {
+            deleteAll(dir);
+        }
+    }
+}
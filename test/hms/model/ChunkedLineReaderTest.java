@@ -0,0 +1,98 @@
+package hms.model;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static hms.test.Assert.*;
+
+/** ChunkedLineReader 결과가 BufferedReader.readLine + split(",", -1)과 같은지 (구간 경계 포함) */
+class ChunkedLineReaderTest {
+
+    private static final String[] SAMPLES = {
+            "",
+            "\n",
+            "\r\n",
+            "a",
+            "a,b,c\n",
+            "a\n\nb",
+            "R1,홍길동,010,2026-01-10,2026-01-12\r\nR2,,,,\rR3,김철수\n",
+            ",,\n,\n",
+            "줄바꿈 없는 마지막 줄,끝",
+            "x\r\r\ny\r",
+    };
+
+    static void testMatchesReadLineAndSplit() throws Exception {
+        for (String text : SAMPLES) {
+            assertEquals("내용 " + escape(text), expected(text).toArray(), read(text, 256L << 20).toArray());
+        }
+    }
+
+    static void testChunkBoundariesAnywhere() throws Exception {
+        for (String text : SAMPLES) {
+            List<String[]> expected = expected(text);
+            int bytes = text.getBytes(StandardCharsets.UTF_8).length;
+            for (long chunk = 1; chunk <= bytes + 1; chunk++) {
+                assertEquals("구간 " + chunk + " 내용 " + escape(text), expected.toArray(), read(text, chunk).toArray());
+            }
+        }
+    }
+
+    static void testLongLineAcrossManyChunks() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) sb.append("칸").append(i).append(',');
+        sb.append("끝\r\n짧은 줄\n");
+        String text = sb.toString();
+        assertEquals("긴 줄", expected(text).toArray(), read(text, 7).toArray());
+    }
+
+    static void testFileCanBeReplacedRightAfterRead() throws Exception {
+        Path dir = Files.createTempDirectory("chunked");
+        Path file = dir.resolve("rows.txt");
+        Path tmp = dir.resolve("rows.txt.tmp");
+        try {
+            Files.write(file, "a,b\nc,d\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals("줄 수", 2, ChunkedLineReader.forEachLine(file, fields -> { }, 3));
+            // checkpoint와 같은 교체: 읽은 뒤 파일에 남은 매핑이 있으면 Windows에서 실패
+            Files.write(tmp, "e,f\n".getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            List<String[]> lines = new ArrayList<>();
+            ChunkedLineReader.forEachLine(file, lines::add);
+            assertEquals("교체된 내용", new Object[]{new String[]{"e", "f"}}, lines.toArray());
+        } finally {
+            Files.deleteIfExists(tmp);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static List<String[]> read(String text, long chunk) throws Exception {
+        Path file = Files.createTempFile("chunked", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            List<String[]> lines = new ArrayList<>();
+            int n = ChunkedLineReader.forEachLine(file, lines::add, chunk);
+            assertEquals("돌려준 줄 수", lines.size(), n);
+            return lines;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<String[]> expected(String text) throws Exception {
+        List<String[]> lines = new ArrayList<>();
+        BufferedReader br = new BufferedReader(new StringReader(text));
+        String line;
+        while ((line = br.readLine()) != null) lines.add(line.split(",", -1));
+        return lines;
+    }
+
+    private static String escape(String s) {
+        return "\"" + s.replace("\r", "\\r").replace("\n", "\\n") + "\"";
+    }
+}
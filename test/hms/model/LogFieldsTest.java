@@ -0,0 +1,23 @@
+package hms.model;
+
+import static hms.test.Assert.*;
+
+/** LogFields 칸 바꿔 적기/되돌리기 */
+class LogFieldsTest {
+
+    static void testRoundTripKeepsSeparatorsInsideValues() {
+        String[] fields = {"A", "RS-1", "301", "피자 x 1, 콜라 x 2", "100%", "줄\n바꿈\r", ""};
+        String body = LogFields.join(fields);
+        assertFalse("본문에 줄바꿈 없음", body.contains("\n") || body.contains("\r"));
+        assertEquals("칸 수", 7, body.split(",", -1).length);
+        assertEquals("되돌린 칸", fields, LogFields.split(body));
+    }
+
+    static void testPlainValuesAreWrittenAsIs() {
+        assertEquals("바꿀 글자 없음", "S,RS-1,완료", LogFields.join("S", "RS-1", "완료"));
+    }
+
+    static void testUnknownPercentSequenceIsKept() {
+        assertEquals("모르는 % 조합", new String[]{"50%", "%zz", "%2"}, LogFields.split("50%,%zz,%2"));
+    }
+}
@@ -0,0 +1,47 @@
+package hms.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/** 테스트용 메모리 저장소 (checkpoint에 넘어온 줄을 기록, 실패시키기 가능) */
+class MemoryRepository implements RowRepository {
+
+    final TreeMap<Long, String> rows = new TreeMap<>();
+    final List<Map<Long, String>> checkpoints = new ArrayList<>();
+    boolean failNext;
+
+    MemoryRepository(String... lines) {
+        for (String line : lines) rows.put((long) rows.size(), line);
+    }
+
+    @Override
+    public void load(RowVisitor visitor) {
+        for (Map.Entry<Long, String> e : rows.entrySet()) visitor.row(e.getKey(), e.getValue().split(",", -1));
+    }
+
+    @Override
+    public void append(long key, String line) {
+        rows.put(key, line);
+    }
+
+    @Override
+    public void checkpoint(Map<Long, String> changed, Supplier<List<String>> all) throws IOException {
+        if (failNext) {
+            failNext = false;
+            throw new IOException("테스트용 실패");
+        }
+        checkpoints.add(new TreeMap<>(changed));
+        for (Map.Entry<Long, String> e : changed.entrySet()) {
+            if (e.getValue() == null) rows.remove(e.getKey());
+            else rows.put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,174 @@
+package hms.model;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static hms.test.Assert.*;
+import static hms.test.TestFiles.*;
+
+/** ReservationChangeLog 기록/replay (CRC, 끊긴 꼬리 잘라내기, 봉인 파일, 묶음 fsync) */
+class ReservationChangeLogTest {
+
+    static void testChangesRoundTrip() throws Exception {
+        withDir("reslog", dir -> {
+            Path file = dir.resolve("changes.log");
+            String[] row = {"R2", "홍길동", "010", "2026-01-10", "2026-01-12", "", "", "2", "스위트", "301", "300000", "카드결제", "PENDING", "", "kim", "0"};
+            try (ReservationChangeLog log = new ReservationChangeLog(file.toString())) {
+                log.append("R1", "CHECKED_IN", "", "0");
+                log.append("R1", "CHECKED_OUT", "2026-01-12 11:30", "20000");
+                log.appendAdd(row);
+                assertEquals("쓴 기록 수", 3, log.pendingCount());
+            }
+            ReservationChangeLog log = new ReservationChangeLog(file.toString());
+            List<String[]> changes = log.replay();
+            assertEquals("기록 수", 3, changes.size());
+            assertEquals("체크인", new String[]{"U", "R1", "CHECKED_IN", "", "0"}, changes.get(0));
+            assertEquals("체크아웃", new String[]{"U", "R1", "CHECKED_OUT", "2026-01-12 11:30", "20000"}, changes.get(1));
+            String[] add = new String[row.length + 1];
+            add[0] = "A";
+            System.arraycopy(row, 0, add, 1, row.length);
+            assertEquals("새 예약", add, changes.get(2));
+            assertEquals("대기 기록 수", 3, log.pendingCount());
+        });
+    }
+
+    static void testTruncatedTailIsDropped() throws Exception {
+        withDir("reslog", dir -> {
+            Path file = dir.resolve("changes.log");
+            try (ReservationChangeLog log = new ReservationChangeLog(file.toString())) {
+                log.append("R1", "CHECKED_IN", "", "0");
+            }
+            // 쓰다가 끊긴 줄 (줄바꿈/CRC 일부 없음)
+            String cut = logLine("U,R2,CHECKED_IN,,0");
+            Files.write(file, cut.substring(0, cut.length() - 4).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+            List<String[]> changes = new ReservationChangeLog(file.toString()).replay();
+            assertEquals("끊긴 줄 제외", 1, changes.size());
+            assertEquals("남은 기록", "R1", changes.get(0)[1]);
+        });
+    }
+
+    static void testAppendAfterTornOnlyRecordSurvivesRecovery() throws Exception {
+        withDir("reslog", dir -> {
+            Path file = dir.resolve("changes.log");
+            // 첫(유일한) 기록을 쓰다가 끊김 -> 복구할 기록 0건
+            String cut = logLine("U,R1,CHECKED_IN,,0");
+            Files.write(file, cut.substring(0, cut.length() - 3).getBytes(StandardCharsets.UTF_8));
+            try (ReservationChangeLog log = new ReservationChangeLog(file.toString())) {
+                assertTrue("복구 없음", log.replay().isEmpty());
+                log.append("R2", "CHECKED_IN", "", "0");
+                log.append("R2", "CHECKED_OUT", "2026-01-12 11:00", "0");
+            }
+            List<String[]> changes = new ReservationChangeLog(file.toString()).replay();
+            assertEquals("끊긴 줄 뒤에 쓴 기록", 2, changes.size());
+            assertEquals("체크아웃", new String[]{"U", "R2", "CHECKED_OUT", "2026-01-12 11:00", "0"}, changes.get(1));
+        });
+    }
+
+    static void testMalformedRecordIsSkipped() throws Exception {
+        withDir("reslog", dir -> {
+            Path file = dir.resolve("changes.log");
+            String text = logLine("U,R1,CHECKED_IN")   // CRC는 맞지만 칸 수가 다름 -> 그 줄만 건너뜀
+                    + logLine("U,R2,CHECKED_IN,,0");
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+            List<String[]> changes = new ReservationChangeLog(file.toString()).replay();
+            assertEquals("정상 기록", 1, changes.size());
+            assertEquals("예약", "R2", changes.get(0)[1]);
+        });
+    }
+
+    static void testCorruptRecordStopsReplay() throws Exception {
+        withDir("reslog", dir -> {
+            Path file = dir.resolve("changes.log");
+            String text = logLine("U,R1,CHECKED_IN,,0")
+                    + "U,R2,CHECKED_IN,,0,deadbeef\n"   // CRC 틀림 -> 이후 무시
+                    + logLine("U,R3,CHECKED_IN,,0");
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+            List<String[]> changes = new ReservationChangeLog(file.toString()).replay();
+            assertEquals("손상 전 기록만", 1, changes.size());
+            assertEquals("첫 기록", "R1", changes.get(0)[1]);
+            assertEquals("손상된 줄부터 잘라냄", logLine("U,R1,CHECKED_IN,,0"),
+                    new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        });
+    }
+
+    static void testRotatedSegmentsReplayInOrderUntilDeleted() throws Exception {
+        withDir("reslog", dir -> {
+            Path file = dir.resolve("changes.log");
+            try (ReservationChangeLog log = new ReservationChangeLog(file.toString())) {
+                log.replay();
+                log.append("R1", "CHECKED_IN", "", "0");
+                long first = log.rotate();
+                log.append("R1", "CHECKED_OUT", "t", "0");
+                long second = log.rotate();
+                assertTrue("봉인 번호 증가", second > first);
+                assertEquals("빈 파일은 봉인하지 않음", second, log.rotate());
+                log.append("R2", "CHECKED_IN", "", "0");
+                assertEquals("봉인 포함 대기 기록 수", 3, log.pendingCount());
+            }
+
+            // 합치기 전에 멈춤: 봉인 파일(번호 순) -> 지금 파일 순서로 모두 다시 적용
+            ReservationChangeLog log = new ReservationChangeLog(file.toString());
+            List<String[]> changes = log.replay();
+            List<String> order = new ArrayList<>();
+            for (String[] c : changes) order.add(c[1] + ":" + c[2]);
+            assertEquals("순서", List.of("R1:CHECKED_IN", "R1:CHECKED_OUT", "R2:CHECKED_IN"), order);
+
+            long sealed = log.rotate();
+            log.append("R3", "CHECKED_IN", "", "0"); // 합치는 동안 들어온 기록
+            log.deleteSealed(sealed);
+            assertEquals("합친 뒤 대기 기록 수", 1, log.pendingCount());
+            log.close();
+
+            List<String[]> left = new ReservationChangeLog(file.toString()).replay();
+            assertEquals("새 파일의 기록만 남음", 1, left.size());
+            assertEquals("남은 기록", "R3", left.get(0)[1]);
+        });
+    }
+
+    static void testConcurrentAppendsAreAllDurable() throws Exception {
+        withDir("reslog", dir -> {
+            Path file = dir.resolve("changes.log");
+            final int threads = 8;
+            final int perThread = 50;
+            try (ReservationChangeLog log = new ReservationChangeLog(file.toString())) {
+                log.replay();
+                List<Thread> workers = new ArrayList<>();
+                List<Throwable> errors = new java.util.concurrent.CopyOnWriteArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    final int id = t;
+                    Thread w = new Thread(() -> {
+                        try {
+                            for (int i = 0; i < perThread; i++) log.append("R" + id, "S" + i, "", "0");
+                        } catch (Throwable e) {
+                            errors.add(e);
+                        }
+                    });
+                    workers.add(w);
+                    w.start();
+                }
+                for (Thread w : workers) w.join();
+                assertTrue("쓰기 오류 없음 " + errors, errors.isEmpty());
+            }
+            List<String[]> changes = new ReservationChangeLog(file.toString()).replay();
+            assertEquals("모든 기록", threads * perThread, changes.size());
+            int[] next = new int[threads];
+            for (String[] c : changes) {
+                int id = Integer.parseInt(c[1].substring(1));
+                assertEquals("스레드별 순서", "S" + next[id]++, c[2]);
+            }
+        });
+    }
+
+    static void testMissingFileReplaysEmpty() throws Exception {
+        withDir("reslog", dir -> {
+            assertTrue("빈 목록", new ReservationChangeLog(dir.resolve("none.txt").toString()).replay().isEmpty());
+        });
+    }
+}
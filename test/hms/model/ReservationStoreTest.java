@@ -0,0 +1,186 @@
+package hms.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static hms.test.Assert.*;
+
+/** ReservationStore 인덱스 조회가 예전 방식(파일 순회)과 같은지, 변경/버전/저장 */
+class ReservationStoreTest {
+
+    private static final String[] NAMES = {"홍길동", "김철수", " 김철수", "이영희"};
+    private static final String[] PHONES = {"010-1111-2222", "010-3333-4444", "010-3333-4444 "};
+    private static final String[] ROOMS = {"101", "102", "201", " 201", "301"};
+    private static final String[] STATUSES = {"PENDING", "CHECKED_IN", " CHECKED_IN", "CHECKED_OUT"};
+    private static final String[] USERS = {"kim", "lee", " lee", ""};
+
+    static void testIndexesMatchLinearScan() throws Exception {
+        Random rnd = new Random(20260110L);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) lines.add(randomLine(rnd, i));
+        ReservationStore store = new ReservationStore();
+        store.load(new MemoryRepository(lines.toArray(new String[0])));
+        assertEquals("모든 줄 보관 (빈 줄/깨진 줄 포함)", 1500, store.size());
+        crossCheck("로드 직후", store);
+
+        // 새 예약과 상태/객실 변경(인덱스 키가 바뀜)을 섞은 뒤 다시 비교
+        for (int i = 0; i < 800; i++) {
+            if (rnd.nextInt(3) == 0) {
+                store.addNew(Reservation.parse(randomLine(rnd, 1500 + i)));
+            } else {
+                String status = STATUSES[rnd.nextInt(STATUSES.length)];
+                String room = ROOMS[rnd.nextInt(ROOMS.length)];
+                store.update(id(rnd.nextInt(600)), r -> {
+                    r[Reservation.IDX_STATUS] = status;
+                    r[Reservation.IDX_ROOM_NUM] = room;
+                    return r;
+                });
+            }
+        }
+        crossCheck("변경 후", store);
+    }
+
+    static void testUpdateBumpsVersionAndSkipsShortRows() throws Exception {
+        ReservationStore store = new ReservationStore();
+        store.load(new MemoryRepository(
+                row("260110-000001", "홍길동", "101", "PENDING", "kim"),
+                "260110-000002,김철수,010"));   // 상태 칸이 없는 줄
+        long before = store.versionOf("260110-000001");
+        Reservation updated = store.update(" 260110-000001 ", r -> {
+            r[Reservation.IDX_STATUS] = "CHECKED_IN";
+            return r;
+        });
+        assertEquals("새 상태", ReservationStatus.CHECKED_IN, updated.status());
+        assertTrue("버전 증가", store.versionOf("260110-000001") > before);
+        assertEquals("체크인 조회", updated, store.findFirstByRoomAndStatus("101", ReservationStatus.CHECKED_IN));
+        assertEquals("이전 상태 인덱스에서 빠짐", null, store.findFirstByRoomAndStatus("101", ReservationStatus.PENDING));
+        assertEquals("상태 칸 없는 줄은 바꾸지 않음", null, store.update("260110-000002", r -> r));
+        assertEquals("없는 예약 버전", VersionClock.ANY, store.versionOf("없음"));
+    }
+
+    static void testFlushWritesReplacedAndAddedRows() throws Exception {
+        MemoryRepository repo = new MemoryRepository(
+                row("260110-000001", "홍길동", "101", "PENDING", "kim"),
+                row("260110-000002", "김철수", "102", "PENDING", "lee"));
+        ReservationStore store = new ReservationStore();
+        store.load(repo);
+        store.update("260110-000002", r -> {
+            r[Reservation.IDX_STATUS] = "CHECKED_IN";
+            return r;
+        });
+        String added = row("260111-000003", "이영희", "201", "PENDING", "kim");
+        store.addNew(Reservation.parse(added));
+
+        repo.failNext = true;
+        try {
+            store.flushTo(repo);
+            fail("저장 실패가 전달되지 않음");
+        } catch (java.io.IOException expected) {
+            // 정상
+        }
+        store.flushTo(repo); // 실패한 행을 다시 씀
+        assertEquals("바뀐 행과 새 행만", Map.of(
+                1L, row("260110-000002", "김철수", "102", "CHECKED_IN", "lee"),
+                2L, added), repo.checkpoints.get(0));
+        assertEquals("저장소 내용", Arrays.asList(
+                row("260110-000001", "홍길동", "101", "PENDING", "kim"),
+                row("260110-000002", "김철수", "102", "CHECKED_IN", "lee"),
+                added), new ArrayList<>(repo.rows.values()));
+    }
+
+    // ==========================================================
+    // 비교용: 예전 ReservationDataManager처럼 전체 줄을 순서대로 순회
+    // ==========================================================
+    private static void crossCheck(String when, ReservationStore store) {
+        List<Reservation> all = store.allRows();
+        for (int i = 0; i < 700; i++) {
+            String id = id(i);
+            Reservation expected = null;
+            for (Reservation r : all) {
+                if (!r.isBlank() && r.id().trim().equals(id)) {
+                    expected = r;
+                    break;
+                }
+            }
+            assertEquals(when + " 예약번호 " + id, expected, store.findById(id));
+
+            String suffix = id.substring(id.lastIndexOf('-') + 1);
+            for (String room : ROOMS) {
+                for (String code : new String[]{id, suffix}) {
+                    Reservation byCode = null;
+                    for (Reservation r : all) {
+                        if (r.isBlank() || !r.has(Reservation.IDX_STATUS) || !r.room().equals(room)) continue;
+                        String rid = r.id().trim();
+                        if (rid.equals(code) || rid.substring(rid.lastIndexOf('-') + 1).equals(code)) {
+                            byCode = r;
+                            break;
+                        }
+                    }
+                    assertEquals(when + " 인증 " + code + "/" + room, byCode, store.findByCodeAndRoom(code, room));
+                }
+            }
+        }
+        for (String name : NAMES) {
+            for (String phone : PHONES) {
+                Reservation expected = null;
+                for (Reservation r : all) {
+                    if (!r.isBlank() && r.has(Reservation.IDX_PHONE)
+                            && r.name().trim().equals(name.trim()) && r.phone().trim().equals(phone.trim())) {
+                        expected = r;
+                        break;
+                    }
+                }
+                assertEquals(when + " 이름/전화 " + name + "/" + phone, expected, store.findByNamePhone(name, phone));
+            }
+        }
+        for (String room : ROOMS) {
+            for (ReservationStatus status : ReservationStatus.values()) {
+                if (status == ReservationStatus.UNKNOWN) continue;
+                Reservation expected = null;
+                for (Reservation r : all) {
+                    if (!r.isBlank() && r.has(Reservation.IDX_STATUS) && r.room().trim().equals(room.trim())
+                            && r.statusCode().trim().equals(status.code())) {
+                        expected = r;
+                        break;
+                    }
+                }
+                assertEquals(when + " 객실/상태 " + room + "/" + status, expected,
+                        store.findFirstByRoomAndStatus(room, status));
+            }
+        }
+        for (String user : new String[]{"kim", "lee"}) {
+            List<Reservation> expected = new ArrayList<>();
+            for (Reservation r : all) {
+                if (!r.isBlank() && r.has(Reservation.IDX_USER_ID) && r.userId().trim().equals(user)) expected.add(r);
+            }
+            assertEquals(when + " 회원 " + user, expected.toArray(), store.findByUserId(user).toArray());
+        }
+    }
+
+    private static String randomLine(Random rnd, int i) {
+        int kind = rnd.nextInt(40);
+        if (kind == 0) return "";                                              // 빈 줄
+        // 예약번호가 겹치는 줄, 앞뒤 공백, 상태 칸이 없는 짧은 줄을 일부러 섞음
+        String id = id(rnd.nextInt(10) == 0 ? rnd.nextInt(Math.max(1, i)) : i);
+        if (kind == 1) id = " " + id;
+        String name = NAMES[rnd.nextInt(NAMES.length)];
+        String phone = PHONES[rnd.nextInt(PHONES.length)];
+        if (kind == 2) return String.join(",", id, name, phone);               // 상태 칸 없음
+        String line = String.join(",", id, name, phone, "2026-01-10", "2026-01-12", "15:00", "11:00", "2", "스위트",
+                ROOMS[rnd.nextInt(ROOMS.length)], "300000", "카드결제", STATUSES[rnd.nextInt(STATUSES.length)], "");
+        // 회원 ID/지연료 칸이 없는 예전 형식도 섞음
+        return (kind == 3) ? line : line + "," + USERS[rnd.nextInt(USERS.length)] + ",0";
+    }
+
+    private static String row(String id, String name, String room, String status, String user) {
+        return String.join(",", id, name, "010-1111-2222", "2026-01-10", "2026-01-12", "15:00", "11:00", "2", "스위트",
+                room, "300000", "카드결제", status, "", user, "0");
+    }
+
+    private static String id(int i) {
+        return String.format("260110-%06d", i);
+    }
+}
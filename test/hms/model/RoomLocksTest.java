@@ -0,0 +1,54 @@
+package hms.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static hms.test.Assert.*;
+
+/** 객실 번호 정규화(Reservation.roomKey) - 잠금과 예약 가능 색인이 같은 객실로 보는지 */
+class RoomLocksTest {
+
+    static void testSameRoomWithSpacesSharesStripe() {
+        RoomLocks locks = new RoomLocks(64);
+        assertTrue("공백 차이는 같은 잠금", locks.of("301") == locks.of(" 301 "));
+        assertTrue("null도 잠금이 있음", locks.of(null) != null);
+    }
+
+    static void testStripeCountRoundsUpToPowerOfTwo() {
+        RoomLocks locks = new RoomLocks(3);
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 1000; i++) seen.add(locks.of(String.valueOf(i)));
+        assertEquals("잠금 개수", 4, seen.size());
+    }
+
+    static void testAvailabilityIndexIgnoresSurroundingSpaces() {
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        index.rowChanged(null, row(" 301 ", "2026-01-10", "2026-01-12"));
+
+        LocalDate today = LocalDate.of(2026, 1, 1);
+        LocalTime now = LocalTime.NOON;
+        assertTrue("공백 없는 번호로 조회", index.isBooked("301", LocalDate.of(2026, 1, 11), LocalDate.of(2026, 1, 13), today, now));
+        assertTrue("공백 있는 번호로 조회", index.isBooked("301 ", LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 11), today, now));
+        assertFalse("겹치지 않는 기간", index.isBooked("301", LocalDate.of(2026, 1, 12), LocalDate.of(2026, 1, 14), today, now));
+        assertEquals("목록의 객실 번호", List.of("301"),
+                index.bookedRooms(LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 11), today, now));
+    }
+
+    private static Reservation row(String room, String in, String out) {
+        String[] cols = new String[Reservation.IDX_LATE_FEE + 1];
+        Arrays.fill(cols, "");
+        cols[Reservation.IDX_ID] = "R1";
+        cols[Reservation.IDX_CHECK_IN_DATE] = in;
+        cols[Reservation.IDX_CHECKOUT_DATE] = out;
+        cols[Reservation.IDX_ROOM_NUM] = room;
+        cols[Reservation.IDX_PAYMENT_METHOD] = Reservation.PAYMENT_CARD;
+        cols[Reservation.IDX_STATUS] = ReservationStatus.PENDING.name();
+        cols[Reservation.IDX_LATE_FEE] = "0";
+        return Reservation.of(cols);
+    }
+}
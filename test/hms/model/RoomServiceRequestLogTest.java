@@ -0,0 +1,114 @@
+package hms.model;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static hms.test.Assert.*;
+import static hms.test.TestFiles.*;
+
+/** RoomServiceRequestLog 기록/replay (CRC, 칸 바꿔 적기, 예전 기록) */
+class RoomServiceRequestLogTest {
+
+    private static RoomServiceRequestLog open(Path file) {
+        return new RoomServiceRequestLog(file.toString(), RoomServiceRequestLog.Durability.FSYNC, 1, Integer.MAX_VALUE, 3600);
+    }
+
+    /** 기록 후 닫기 (합치기는 실패로 돌려 기록 파일을 남김) */
+    private static void write(Path file, String[]... records) throws Exception {
+        RoomServiceRequestLog log = open(file);
+        log.replay();
+        log.start(() -> false);
+        for (String[] r : records) assertTrue("쓰기 성공", log.append(r).get());
+        log.close();
+    }
+
+    static void testMultiItemOrderRoundTrips() throws Exception {
+        withFile("rslog", file -> {
+            String[] add = {"A", "RS-1", "301", "피자 x 1, 콜라 x 2", "25000", "요청됨", "2026-01-01 10:00"};
+            String[] status = {"S", "RS-1", "완료"};
+            write(file, add, status);
+
+            List<String[]> records = open(file).replay();
+            assertEquals("기록 수", 2, records.size());
+            assertEquals("주문 기록", add, records.get(0));
+            assertEquals("상태 기록", status, records.get(1));
+        });
+    }
+
+    static void testTruncatedTailIsDropped() throws Exception {
+        withFile("rslog", file -> {
+            write(file, new String[]{"S", "RS-1", "완료"}, new String[]{"S", "RS-2", "완료"});
+            byte[] all = Files.readAllBytes(file);
+            Files.write(file, java.util.Arrays.copyOf(all, all.length - 3)); // 마지막 줄이 쓰다 끊김
+
+            List<String[]> records = open(file).replay();
+            assertEquals("끊긴 줄 앞까지만", 1, records.size());
+            assertEquals("남은 기록", "RS-1", records.get(0)[1]);
+        });
+    }
+
+    static void testAppendAfterTornOnlyRecordSurvivesRecovery() throws Exception {
+        withFile("rslog", file -> {
+            String cut = logLine("S,RS-1,완료");
+            Files.write(file, cut.substring(0, cut.length() - 3).getBytes(StandardCharsets.UTF_8)); // 복구할 기록 0건
+            write(file, new String[]{"S", "RS-2", "처리중"}, new String[]{"S", "RS-2", "완료"});
+
+            List<String[]> records = open(file).replay();
+            assertEquals("끊긴 줄 뒤에 쓴 기록", 2, records.size());
+            assertEquals("마지막 기록", new String[]{"S", "RS-2", "완료"}, records.get(1));
+        });
+    }
+
+    static void testApplyRunsBeforeCompletionAndCompaction() throws Exception {
+        withFile("rslog", file -> {
+            // 기록 1건마다 합치기
+            RoomServiceRequestLog log = new RoomServiceRequestLog(file.toString(), RoomServiceRequestLog.Durability.FSYNC, 1, 1, 3600);
+            log.replay();
+            List<String> events = new CopyOnWriteArrayList<>();
+            log.start(() -> { events.add("compact"); return true; });
+            CompletableFuture<Boolean> done = log.append(() -> events.add("apply"), "S", "RS-1", "완료");
+            assertTrue("쓰기 성공", done.get());
+            assertEquals("완료 전에 반영", "apply", events.get(0));
+            log.close();
+            assertEquals("반영 후 합치기", List.of("apply", "compact"), events);
+            assertEquals("합친 뒤 기록 비움", 0L, Files.size(file));
+        });
+    }
+
+    static void testMalformedRecordIsSkippedNotFatal() throws Exception {
+        withFile("rslog", file -> {
+            String text = logLine("S,RS-1")                 // CRC는 맞지만 칸이 모자람 -> 그 줄만 건너뜀
+                    + logLine("X,RS-1,완료")                 // 모르는 종류
+                    + logLine("S,RS-2,완료");
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+            List<String[]> records = open(file).replay();
+            assertEquals("유효한 기록만", 1, records.size());
+            assertEquals("뒤 기록 유지", "RS-2", records.get(0)[1]);
+        });
+    }
+
+    static void testLegacyUnescapedItemsAreSalvaged() throws Exception {
+        withFile("rslog", file -> {
+            // 칸을 바꿔 적기 전 형식: 품목의 쉼표가 그대로 들어간 기록
+            Files.write(file, logLine("A,RS-9,302,햄버거 x 1, 사이다 x 1,9000,요청됨,2025-12-31 23:00")
+                    .getBytes(StandardCharsets.UTF_8));
+            Files.write(file, logLine("S,RS-9,완료").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+            List<String[]> records = open(file).replay();
+            assertEquals("기록 수", 2, records.size());
+            assertEquals("품목 복원",
+                    new String[]{"A", "RS-9", "302", "햄버거 x 1, 사이다 x 1", "9000", "요청됨", "2025-12-31 23:00"},
+                    records.get(0));
+        });
+    }
+
+    static void testMissingFileReplaysEmpty() throws Exception {
+        withDir("rslog", dir -> assertEquals("없는 파일", 0, open(dir.resolve("none.txt")).replay().size()));
+    }
+}
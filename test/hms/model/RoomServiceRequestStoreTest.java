@@ -0,0 +1,152 @@
+package hms.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static hms.test.Assert.*;
+
+/** RoomServiceRequestStore 인덱스 조회가 예전 방식(전체 목록 순회)과 같은지, 변경/저장 */
+class RoomServiceRequestStoreTest {
+
+    private static final String[] ROOMS = {"101", "102", "201", "301", " 301"};
+    private static final String[] STATUSES = {"요청됨", "처리중", "완료", "완료 ", "결제완료"};
+
+    static void testIndexesMatchLinearScan() throws Exception {
+        Random rnd = new Random(20260110L);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) lines.add(String.join(",", randomRow(rnd, i)));
+        lines.add("RS-짧은줄,101,피자");   // 6칸 미만 -> 버림
+        RoomServiceRequestStore store = new RoomServiceRequestStore();
+        store.load(new MemoryRepository(lines.toArray(new String[0])));
+        assertEquals("짧은 줄 제외", 1500, store.size());
+        crossCheck("로드 직후", store, rnd);
+
+        // 추가와 상태 변경(인덱스 키가 바뀜)을 섞은 뒤 다시 비교
+        for (int i = 0; i < 1000; i++) {
+            if (rnd.nextInt(3) == 0) {
+                store.add(randomRow(rnd, 1500 + i));
+            } else {
+                String status = STATUSES[rnd.nextInt(STATUSES.length)];
+                store.update(id(rnd.nextInt(600)), r -> {
+                    r[4] = status;
+                    return r;
+                });
+            }
+        }
+        crossCheck("변경 후", store, rnd);
+    }
+
+    static void testDuplicateIdFindsFirstRowAndUpdatesIt() throws Exception {
+        RoomServiceRequestStore store = new RoomServiceRequestStore();
+        store.load(new MemoryRepository(
+                "RS-1,101,피자 x 1,10000,요청됨,20260110120000",
+                "RS-1,102,콜라 x 1,3000,요청됨,20260110130000"));
+        assertEquals("먼저 나온 줄", "101", store.findById("RS-1")[1]);
+        store.update("RS-1", r -> {
+            r[4] = "완료";
+            return r;
+        });
+        assertEquals("첫 줄만 바뀜", 1, store.findByStatus("완료").size());
+        assertEquals("첫 줄만 바뀜 (객실)", "101", store.findByStatus("완료").get(0)[1]);
+        assertEquals("없는 주문", null, store.update("RS-9", r -> r));
+    }
+
+    static void testFlushWritesChangedRowsAndRetriesAfterFailure() throws Exception {
+        MemoryRepository repo = new MemoryRepository(
+                "RS-1,101,피자 x 1,10000,요청됨,20260110120000",
+                "RS-2,102,콜라 x 1,3000,요청됨,20260110130000");
+        RoomServiceRequestStore store = new RoomServiceRequestStore();
+        store.load(repo);
+        store.update("RS-2", r -> {
+            r[4] = "완료";
+            return r;
+        });
+        store.add(new String[]{"RS-3", "201", "와인 x 1", "60000", "요청됨", "20260110140000"});
+
+        repo.failNext = true;
+        try {
+            store.flushTo(repo);
+            fail("저장 실패가 전달되지 않음");
+        } catch (java.io.IOException expected) {
+            // 정상
+        }
+        store.flushTo(repo); // 실패한 행을 다시 씀
+        assertEquals("저장 횟수", 1, repo.checkpoints.size());
+        assertEquals("바뀐 행만", Map.of(
+                1L, "RS-2,102,콜라 x 1,3000,완료,20260110130000",
+                2L, "RS-3,201,와인 x 1,60000,요청됨,20260110140000"), repo.checkpoints.get(0));
+
+        store.flushTo(repo);
+        assertEquals("바뀐 것 없으면 빈 checkpoint", Map.of(), repo.checkpoints.get(1));
+    }
+
+    // ==========================================================
+    // 비교용: 예전 RoomServiceDataManager처럼 전체 목록을 순회
+    // ==========================================================
+    private static void crossCheck(String when, RoomServiceRequestStore store, Random rnd) {
+        List<String[]> all = store.allRows();
+        for (int i = 0; i < 700; i++) {
+            String id = id(i);
+            String[] expected = null;
+            for (String[] p : all) {
+                if (p[0].equals(id)) {
+                    expected = p;
+                    break;
+                }
+            }
+            assertEquals(when + " 주문번호 " + id, expected, store.findById(id));
+        }
+        for (String status : STATUSES) {
+            List<String[]> expected = new ArrayList<>();
+            for (String[] p : all) if (p[4].trim().equals(status.trim())) expected.add(p);
+            assertEquals(when + " 상태 " + status, expected.toArray(), store.findByStatus(status).toArray());
+        }
+        for (String room : ROOMS) {
+            List<String[]> expected = new ArrayList<>();
+            for (String[] p : all) if (p[1].equals(room)) expected.add(p);
+            assertEquals(when + " 객실 " + room, expected.toArray(), store.findByRoom(room).toArray());
+            for (String status : STATUSES) {
+                List<String[]> both = new ArrayList<>();
+                for (String[] p : all) if (p[1].equals(room) && p[4].equals(status)) both.add(p);
+                assertEquals(when + " 객실+상태 " + room + "/" + status, both.toArray(),
+                        store.findByRoomAndStatus(room, status).toArray());
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            String status = STATUSES[rnd.nextInt(STATUSES.length)];
+            long from = time(rnd.nextInt(40));
+            long to = time(rnd.nextInt(40));
+            List<String[]> expected = new ArrayList<>();
+            for (String[] p : all) {
+                if (!p[4].trim().equals(status.trim())) continue;
+                try {
+                    long t = Long.parseLong(p[5].trim());
+                    if (t >= from && t <= to) expected.add(p);
+                } catch (NumberFormatException ignored) {
+                    // 시각이 숫자가 아닌 줄은 제외
+                }
+            }
+            assertEquals(when + " 기간 " + status + " " + from + "~" + to, expected.toArray(),
+                    store.findByStatusAndTime(status, from, to).toArray());
+        }
+    }
+
+    private static String[] randomRow(Random rnd, int i) {
+        // 주문번호가 겹치는 줄, 앞뒤 공백이 있는 상태/객실, 숫자가 아닌 시각을 일부러 섞음
+        String id = id(rnd.nextInt(10) == 0 ? rnd.nextInt(Math.max(1, i)) : i);
+        String time = (rnd.nextInt(20) == 0) ? "시각없음" : " " + time(rnd.nextInt(40));
+        return new String[]{id, ROOMS[rnd.nextInt(ROOMS.length)], "피자 x " + (1 + rnd.nextInt(3)),
+                String.valueOf(10000 * (1 + rnd.nextInt(3))), STATUSES[rnd.nextInt(STATUSES.length)], time};
+    }
+
+    private static String id(int i) {
+        return "RS-" + i;
+    }
+
+    // 2026-01-01부터 day일 뒤 정오 (1월 안)
+    private static long time(int day) {
+        return 20260101120000L + (long) (day % 31) * 1000000L;
+    }
+}
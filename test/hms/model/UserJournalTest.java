@@ -0,0 +1,72 @@
+package hms.model;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static hms.test.Assert.*;
+import static hms.test.TestFiles.*;
+
+/** UserJournal 기록/replay (CRC, 쉼표가 들어간 값) */
+class UserJournalTest {
+
+    static void testRecordsWithCommasRoundTrip() throws Exception {
+        withFile("userlog", file -> {
+            try (UserJournal journal = new UserJournal(file.toString())) {
+                journal.appendUser(UserJournal.RECORD_ADD, new User("kim", "pa,ss%", "김, 철수", "010-1234-5678", 30, "USER"));
+                journal.appendUser(UserJournal.RECORD_UPDATE, new User("kim", "new", "김철수", "010", 31, "ADMIN"));
+                journal.appendDelete("lee");
+                assertEquals("쓴 기록 수", 3, journal.pendingCount());
+            }
+            List<String[]> records = new UserJournal(file.toString()).replay();
+            assertEquals("기록 수", 3, records.size());
+            assertEquals("가입", new String[]{"A", "kim", "pa,ss%", "김, 철수", "010-1234-5678", "30", "USER"}, records.get(0));
+            assertEquals("수정", new String[]{"U", "kim", "new", "김철수", "010", "31", "ADMIN"}, records.get(1));
+            assertEquals("삭제", new String[]{"D", "lee"}, records.get(2));
+        });
+    }
+
+    static void testMalformedRecordIsSkippedAndCorruptTailStops() throws Exception {
+        withFile("userlog", file -> {
+            String text = logLine("A,kim,pw,김,철수,010,30,USER")   // 예전 형식의 쉼표 든 이름 -> 그 줄만 건너뜀
+                    + logLine("D,lee")
+                    + "D,park,deadbeef\n"                         // CRC 틀림 -> 이후 무시
+                    + logLine("D,choi");
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+            UserJournal journal = new UserJournal(file.toString());
+            List<String[]> records = journal.replay();
+            assertEquals("유효한 기록만", 1, records.size());
+            assertEquals("삭제 기록", new String[]{"D", "lee"}, records.get(0));
+            assertEquals("대기 기록 수", 1, journal.pendingCount());
+        });
+    }
+
+    static void testAppendAfterTornOnlyRecordSurvivesRecovery() throws Exception {
+        withFile("userlog", file -> {
+            String cut = logLine("D,lee");
+            Files.write(file, cut.substring(0, cut.length() - 2).getBytes(StandardCharsets.UTF_8));
+            try (UserJournal journal = new UserJournal(file.toString())) {
+                assertTrue("복구 없음", journal.replay().isEmpty());
+                journal.appendUser(UserJournal.RECORD_ADD, new User("kim", "pw", "김철수", "010", 30, "USER"));
+                journal.appendDelete("park");
+            }
+            List<String[]> records = new UserJournal(file.toString()).replay();
+            assertEquals("끊긴 줄 뒤에 쓴 기록", 2, records.size());
+            assertEquals("삭제", new String[]{"D", "park"}, records.get(1));
+        });
+    }
+
+    static void testTruncateEmptiesJournal() throws Exception {
+        withFile("userlog", file -> {
+            try (UserJournal journal = new UserJournal(file.toString())) {
+                journal.appendDelete("lee");
+                journal.truncate();
+                assertEquals("비운 뒤 크기", 0L, Files.size(file));
+                Files.write(file, logLine("D,kim").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+                assertEquals("비운 뒤 새 기록", 1, new UserJournal(file.toString()).replay().size());
+            }
+        });
+    }
+}
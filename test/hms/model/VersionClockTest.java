@@ -0,0 +1,66 @@
+package hms.model;
+
+import static hms.test.Assert.*;
+
+/** 행 버전 검사: 조회 뒤 다른 곳에서 바뀐 행의 수정은 STALE, 결과 코드 주고받기 */
+class VersionClockTest {
+
+    private static final String ROW = "260110-000001,홍길동,010,2026-01-10,2026-01-12,15:00,11:00,2,스위트,301,300000,카드결제,PENDING,,kim,0";
+
+    static void testSecondEditorWithOldVersionIsStale() throws Exception {
+        ReservationStore store = new ReservationStore();
+        store.load(new MemoryRepository(ROW));
+        String id = "260110-000001";
+
+        // 두 단말이 같은 버전으로 조회
+        long seenByA = store.versionOf(id);
+        long seenByB = store.versionOf(id);
+        assertEquals("같은 버전", seenByA, seenByB);
+
+        // A가 먼저 수정 (ReservationDataManager.applyChange와 같은 검사)
+        assertEquals("A 수정", UpdateResult.UPDATED, edit(store, id, seenByA, "CHECKED_IN"));
+        // B는 예전 버전으로 수정 시도 -> 거절, 행은 A의 값 그대로
+        assertEquals("B 수정", UpdateResult.STALE, edit(store, id, seenByB, "CHECKED_OUT"));
+        assertEquals("A의 값 유지", ReservationStatus.CHECKED_IN, store.findById(id).status());
+
+        // B가 다시 조회하면 수정 가능, 버전 검사 없는 예전 클라이언트(ANY)는 항상 수정
+        assertEquals("다시 조회 후 수정", UpdateResult.UPDATED, edit(store, id, store.versionOf(id), "CHECKED_OUT"));
+        assertEquals("버전 없이 수정", UpdateResult.UPDATED, edit(store, id, VersionClock.ANY, "PENDING"));
+        assertEquals("없는 예약", UpdateResult.NOT_FOUND, edit(store, "없음", VersionClock.ANY, "PENDING"));
+    }
+
+    static void testVersionsIncreaseAcrossRestart() throws Exception {
+        VersionClock before = new VersionClock();
+        long a = before.next();
+        long b = before.next();
+        assertTrue("증가", b > a);
+        assertFalse("ANY가 아닌 번호", a == VersionClock.ANY);
+        Thread.sleep(2);
+        // 재시작 뒤 새 시계의 번호는 재시작 전에 받은 번호와 겹치지 않음
+        assertTrue("재시작 뒤 번호", new VersionClock().next() > b);
+
+        assertTrue("같은 버전", VersionClock.matches(b, b));
+        assertFalse("다른 버전", VersionClock.matches(a, b));
+        assertTrue("ANY는 검사 안 함", VersionClock.matches(VersionClock.ANY, b));
+    }
+
+    static void testResultSurvivesResponseMessage() {
+        // 서버는 실패 응답 메시지에 message()를 넣고, 클라이언트는 of()로 되찾음
+        for (UpdateResult r : UpdateResult.values()) {
+            assertEquals("응답으로 " + r, r, UpdateResult.of(r.isUpdated(), r.message()));
+        }
+        assertEquals("성공은 메시지와 무관", UpdateResult.UPDATED, UpdateResult.of(true, "아무거나"));
+        assertEquals("모르는 실패 메시지", UpdateResult.FAILED, UpdateResult.of(false, "서버 오류"));
+        assertEquals("메시지 없음", UpdateResult.FAILED, UpdateResult.of(false, null));
+    }
+
+    private static UpdateResult edit(ReservationStore store, String id, long expected, String status) {
+        if (store.findById(id) == null) return UpdateResult.NOT_FOUND;
+        if (!VersionClock.matches(expected, store.versionOf(id))) return UpdateResult.STALE;
+        store.update(id, r -> {
+            r[Reservation.IDX_STATUS] = status;
+            return r;
+        });
+        return UpdateResult.UPDATED;
+    }
+}
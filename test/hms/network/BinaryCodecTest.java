@@ -0,0 +1,212 @@
+package hms.network;
+
+import hms.model.User;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static hms.test.Assert.*;
+
+/** BinaryCodec 버전별 인코딩/디코딩 (1: 기본, 2: 요청 번호, 3: 회원 행 버전) */
+class BinaryCodecTest {
+
+    static void testHandshakeAcceptsSupportedVersionsOnly() {
+        for (int v = BinaryCodec.MIN_VERSION; v <= BinaryCodec.VERSION; v++) {
+            assertEquals("버전 " + v, v, BinaryCodec.handshakeVersion(BinaryCodec.handshake(v)));
+        }
+        assertEquals("모르는 버전", -1, BinaryCodec.handshakeVersion(BinaryCodec.handshake(BinaryCodec.VERSION + 1)));
+        assertEquals("버전 0", -1, BinaryCodec.handshakeVersion(BinaryCodec.handshake(0)));
+        assertEquals("머리글 다름", -1, BinaryCodec.handshakeVersion(new byte[]{'H', 'M', 'S', 'X', 1}));
+        assertEquals("길이 다름", -1, BinaryCodec.handshakeVersion(new byte[]{'H', 'M', 'S', 'B'}));
+    }
+
+    static void testAllValueTypesRoundTrip() throws IOException {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("charges", rows());
+        map.put("total", 43000L);
+        map.put(7, null);
+        List<Object> mixed = new ArrayList<>(Arrays.asList("a", 1, -2L, 1.5, true, false, null, new String[]{"x", null, ""}));
+
+        Object[] values = {
+                null, "", "예약 301호, 2박", Integer.MAX_VALUE, Integer.MIN_VALUE, 0, -1,
+                Long.MAX_VALUE, Long.MIN_VALUE, 3.25, Double.NaN, true, false,
+                new String[]{"R1", null, "", "홍길동"}, new String[0],
+                new ArrayList<>(), mixed, map, LocalDate.of(2026, 1, 10)
+        };
+        for (int v = BinaryCodec.MIN_VERSION; v <= BinaryCodec.VERSION; v++) {
+            for (Object value : values) {
+                Object back = roundTrip(new NetworkMessage(true, "메시지", value), v).getData();
+                assertEquals("버전 " + v + " 값 " + show(value), normalize(value), normalize(back));
+            }
+            List<?> rowsBack = (List<?>) roundTrip(new NetworkMessage(true, null, rows()), v).getData();
+            assertEquals("버전 " + v + " 행 목록", rows().toArray(), rowsBack.toArray());
+        }
+    }
+
+    static void testCommandAndFlagsRoundTrip() throws IOException {
+        for (int v = BinaryCodec.MIN_VERSION; v <= BinaryCodec.VERSION; v++) {
+            NetworkMessage req = roundTrip(new NetworkMessage("RES_GET_BOOKED", "2026-01-10"), v);
+            assertEquals("알려진 명령", "RES_GET_BOOKED", req.getCommand());
+            assertEquals("요청 데이터", "2026-01-10", req.getData());
+
+            NetworkMessage custom = roundTrip(new NetworkMessage("NOT_A_COMMAND", null), v);
+            assertEquals("목록에 없는 명령", "NOT_A_COMMAND", custom.getCommand());
+
+            NetworkMessage res = roundTrip(new NetworkMessage(false, "실패 사유", null), v);
+            assertEquals("응답 명령 없음", null, res.getCommand());
+            assertFalse("실패 플래그", res.isSuccess());
+            assertEquals("메시지", "실패 사유", res.getMessage());
+        }
+    }
+
+    static void testRequestIdOnlyFromPipeliningVersion() throws IOException {
+        NetworkMessage msg = new NetworkMessage("RS_GET_ALL", null);
+        msg.setRequestId(300);
+        for (int v = BinaryCodec.MIN_VERSION; v <= BinaryCodec.VERSION; v++) {
+            int expected = (v >= BinaryCodec.PIPELINING_VERSION) ? 300 : 0;
+            assertEquals("버전 " + v + " 요청 번호", expected, roundTrip(msg, v).getRequestId());
+        }
+    }
+
+    static void testUserVersionOnlyFromRowVersionVersion() throws IOException {
+        User user = new User("kim", "p,w", "김철수", "010-1234-5678", 30, "USER", 42);
+        for (int v = BinaryCodec.MIN_VERSION; v <= BinaryCodec.VERSION; v++) {
+            User back = (User) roundTrip(new NetworkMessage(true, null, user), v).getData();
+            assertEquals("아이디", "kim", back.getId());
+            assertEquals("비밀번호", "p,w", back.getPassword());
+            assertEquals("이름", "김철수", back.getName());
+            assertEquals("전화", "010-1234-5678", back.getPhoneNumber());
+            assertEquals("나이", 30, back.getAge());
+            assertEquals("권한", "USER", back.getRole());
+            long expected = (v >= BinaryCodec.ROW_VERSION_VERSION) ? 42L : 0L;
+            assertEquals("버전 " + v + " 행 버전", expected, back.getVersion());
+        }
+    }
+
+    static void testUnknownTagIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryCodec.encode(new NetworkMessage(true, "x", null), out, BinaryCodec.VERSION);
+        byte[] body = bytes.toByteArray();
+        body[body.length - 1] = 99; // 마지막 바이트 = 데이터의 값 태그
+        try {
+            BinaryCodec.decode(body, BinaryCodec.VERSION);
+            fail("모르는 태그를 읽음");
+        } catch (StreamCorruptedException expected) {
+            // 정상
+        }
+    }
+
+    static void testMalformedCountsAndLengthsAreRejected() throws IOException {
+        byte[] minusOne = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        byte[] huge = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}; // Integer.MAX_VALUE
+        byte[][] values = {
+                concat(new byte[]{11}, minusOne),                  // ROWS 음수 개수
+                concat(new byte[]{11}, huge),                      // ROWS 개수 > 남은 바이트
+                concat(new byte[]{8}, huge),                       // LIST
+                concat(new byte[]{9}, new byte[]{3, 0, 0}),        // MAP 3쌍인데 2바이트뿐
+                concat(new byte[]{12}, huge),                      // SERIALIZED 길이
+                concat(new byte[]{12}, minusOne),
+                concat(new byte[]{7}, minusOne),                   // 문자열 배열 음수 개수
+                concat(new byte[]{7}, new byte[]{5, 1}),           // 문자열 배열 5개인데 1바이트뿐
+                concat(new byte[]{1}, huge),                       // 문자열 길이 > 남은 바이트
+                concat(new byte[]{1}, minusOne),                   // 문자열 음수 길이
+                concat(new byte[]{1}, new byte[]{4, 'a', 'b'}),    // 3바이트라면서 2바이트뿐
+        };
+        for (byte[] value : values) {
+            try {
+                BinaryCodec.decode(frame(value), BinaryCodec.VERSION);
+                fail("잘못된 값을 읽음: " + Arrays.toString(value));
+            } catch (StreamCorruptedException expected) {
+                // 정상: 배열을 만들기 전에 거부
+            }
+        }
+        // 경계: 남은 바이트를 꼭 맞게 쓰는 값은 그대로 읽음
+        assertEquals("꼭 맞는 문자열", "ab", BinaryCodec.decode(frame(new byte[]{1, 3, 'a', 'b'}), BinaryCodec.VERSION).getData());
+        assertEquals("빈 배열", new String[0], BinaryCodec.decode(frame(new byte[]{7, 0}), BinaryCodec.VERSION).getData());
+    }
+
+    static void testChannelFramesConsecutiveMessages() throws IOException {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        BinaryChannel writer = new BinaryChannel(new ByteArrayInputStream(new byte[0]), wire, BinaryCodec.VERSION);
+        NetworkMessage first = new NetworkMessage("RS_GET_ALL", null);
+        first.setRequestId(1);
+        NetworkMessage second = new NetworkMessage(true, "목록", rows());
+        second.setRequestId(2);
+        writer.write(first);
+        writer.write(second);
+        assertEquals("기록된 크기", wire.size(), first.getWireSize() + second.getWireSize());
+
+        BinaryChannel reader = new BinaryChannel(new BufferedInputStream(new ByteArrayInputStream(wire.toByteArray())),
+                new ByteArrayOutputStream(), BinaryCodec.VERSION);
+        assertTrue("첫 메시지 대기", reader.awaitMessage());
+        NetworkMessage a = reader.read();
+        NetworkMessage b = reader.read();
+        assertEquals("첫 요청 번호", 1, a.getRequestId());
+        assertEquals("첫 명령", "RS_GET_ALL", a.getCommand());
+        assertEquals("둘째 요청 번호", 2, b.getRequestId());
+        assertEquals("둘째 데이터", rows().toArray(), ((List<?>) b.getData()).toArray());
+        assertFalse("끝", reader.awaitMessage());
+    }
+
+    private static NetworkMessage roundTrip(NetworkMessage msg, int version) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCodec.encode(msg, new DataOutputStream(bytes), version);
+        return BinaryCodec.decode(bytes.toByteArray(), version);
+    }
+
+    // 데이터 값 자리에 value 바이트를 그대로 넣은 본문 (앞부분은 정상 인코딩)
+    private static byte[] frame(byte[] value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCodec.encode(new NetworkMessage(true, "x", null), new DataOutputStream(bytes), BinaryCodec.VERSION);
+        byte[] head = bytes.toByteArray();
+        return concat(Arrays.copyOf(head, head.length - 1), value); // 마지막 바이트 = NULL 태그
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    private static List<String[]> rows() {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"RS-1", "301", "피자 x 1, 콜라 x 2", "23000", "완료", "20260110120000"});
+        rows.add(new String[]{"RS-2", "302", "", "0", null, ""});
+        return rows;
+    }
+
+    // 배열이 들어 있는 값도 equals로 비교할 수 있게 목록으로 바꿈
+    private static Object normalize(Object v) {
+        if (v instanceof Object[]) {
+            List<Object> out = new ArrayList<>();
+            for (Object o : (Object[]) v) out.add(normalize(o));
+            return out;
+        }
+        if (v instanceof List) {
+            List<Object> out = new ArrayList<>();
+            for (Object o : (List<?>) v) out.add(normalize(o));
+            return out;
+        }
+        if (v instanceof Map) {
+            Map<Object, Object> out = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) v).entrySet()) out.put(normalize(e.getKey()), normalize(e.getValue()));
+            return out;
+        }
+        return v;
+    }
+
+    private static String show(Object v) {
+        return String.valueOf(normalize(v));
+    }
+}
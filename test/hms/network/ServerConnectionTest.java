@@ -0,0 +1,145 @@
+package hms.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static hms.test.Assert.*;
+
+/** ServerConnection 재전송 규칙 (서버가 받지 못한 요청만 다시 보냄) */
+class ServerConnectionTest {
+
+    /** 요청마다 정해진 방식으로 응답하는 가짜 서버 */
+    private static final class FakeServer implements AutoCloseable {
+        static final String REPLY = "reply";             // 응답
+        static final String REPLY_CLOSE = "replyClose";  // 응답 후 연결 닫기 (유휴 연결 정리와 같음)
+        static final String CLOSE = "close";             // 요청을 읽고 응답 없이 닫기 (재시작과 같음)
+        static final String PARTIAL = "partial";         // 응답 첫 바이트만 보내고 닫기
+
+        final ServerSocket server = new ServerSocket(0);
+        final AtomicInteger received = new AtomicInteger();
+        private final Deque<String> script = new ArrayDeque<>();
+
+        FakeServer(String... steps) throws IOException {
+            for (String s : steps) script.add(s);
+            Thread t = new Thread(this::acceptLoop, "fake-server");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        int port() { return server.getLocalPort(); }
+
+        private synchronized String next() {
+            String s = script.poll();
+            return (s == null) ? REPLY : s;
+        }
+
+        private void acceptLoop() {
+            try {
+                while (true) {
+                    Socket s = server.accept();
+                    Thread t = new Thread(() -> serve(s), "fake-conn");
+                    t.setDaemon(true);
+                    t.start();
+                }
+            } catch (IOException e) {
+                // 닫힘
+            }
+        }
+
+        private void serve(Socket s) {
+            try (s) {
+                MessageChannel ch = MessageChannel.accept(s);
+                while (true) {
+                    NetworkMessage req = ch.read();
+                    received.incrementAndGet();
+                    String step = next();
+                    if (step.equals(CLOSE)) return;
+                    if (step.equals(PARTIAL)) {
+                        OutputStream out = s.getOutputStream();
+                        out.write(0);
+                        out.flush();
+                        return;
+                    }
+                    NetworkMessage res = new NetworkMessage(true, "ok", req.getData());
+                    res.setRequestId(req.getRequestId());
+                    ch.write(res);
+                    if (step.equals(REPLY_CLOSE)) return;
+                }
+            } catch (Exception e) {
+                // 연결 끊김
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+
+    static void testResendsWhenReusedConnectionWasClosed() throws Exception {
+        try (FakeServer server = new FakeServer(FakeServer.REPLY_CLOSE)) {
+            ServerConnection conn = new ServerConnection("127.0.0.1", server.port(), 2);
+            assertEquals("첫 요청", "a", conn.send("PING", "a").getData());
+            Thread.sleep(100); // 서버가 닫은 연결이 풀에 남아 있음
+            assertEquals("새 연결로 다시 보냄", "b", conn.send("PING", "b").getData());
+            assertEquals("서버가 처리한 요청 수", 2, server.received.get());
+            conn.closeAll();
+        }
+    }
+
+    static void testResendsWhenClosedBeforeAnyReplyByte() throws Exception {
+        try (FakeServer server = new FakeServer(FakeServer.REPLY, FakeServer.CLOSE)) {
+            ServerConnection conn = new ServerConnection("127.0.0.1", server.port(), 2);
+            conn.send("PING", "a");
+            assertEquals("새 연결로 다시 보냄", "b", conn.send("PING", "b").getData());
+            assertEquals("받은 요청 수 (닫힌 연결 1 + 새 연결 1)", 3, server.received.get());
+            conn.closeAll();
+        }
+    }
+
+    static void testDoesNotResendAfterReplyStarted() throws Exception {
+        try (FakeServer server = new FakeServer(FakeServer.REPLY, FakeServer.PARTIAL)) {
+            ServerConnection conn = new ServerConnection("127.0.0.1", server.port(), 2);
+            conn.send("PING", "a");
+            try {
+                conn.send("PING", "b");
+                fail("응답 도중 끊기면 실패해야 함");
+            } catch (IOException expected) {
+                // 서버가 이미 처리했을 수 있음
+            }
+            assertEquals("다시 보내지 않음", 2, server.received.get());
+            conn.closeAll();
+        }
+    }
+
+    static void testPipelineResendsOnlyUndeliveredRequest() throws Exception {
+        try (FakeServer server = new FakeServer(FakeServer.REPLY, FakeServer.CLOSE)) {
+            ServerConnection conn = new ServerConnection("127.0.0.1", server.port(), 2);
+            assertEquals("첫 요청", "a", conn.sendAsync("PING", "a").join().getData());
+            assertEquals("새 연결로 다시 보냄", "b", conn.sendAsync("PING", "b").join().getData());
+            assertEquals("받은 요청 수", 3, server.received.get());
+            conn.closeAll();
+        }
+    }
+
+    static void testPipelineDoesNotResendAfterReplyStarted() throws Exception {
+        try (FakeServer server = new FakeServer(FakeServer.REPLY, FakeServer.PARTIAL)) {
+            ServerConnection conn = new ServerConnection("127.0.0.1", server.port(), 2);
+            conn.sendAsync("PING", "a").join();
+            try {
+                conn.sendAsync("PING", "b").join();
+                fail("응답 도중 끊기면 실패해야 함");
+            } catch (CompletionException expected) {
+                assertTrue("IOException으로 실패", expected.getCause() instanceof IOException);
+            }
+            assertEquals("다시 보내지 않음", 2, server.received.get());
+            conn.closeAll();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package hms.server;
+
+import hms.network.MessageChannel;
+import hms.network.NetworkMessage;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/** 테스트용 통로: 쓴 메시지를 모아 두고, 쓰기를 막거나 실패시킬 수 있음 (읽기는 쓰지 않음) */
+class FakeChannel implements MessageChannel {
+
+    final BlockingQueue<NetworkMessage> written = new LinkedBlockingQueue<>();
+    // 열려 있는 동안 write가 기다림 (느린 클라이언트)
+    volatile CountDownLatch writeGate = new CountDownLatch(0);
+    volatile boolean failWrites;
+    volatile boolean closed;
+
+    @Override
+    public NetworkMessage read() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void write(NetworkMessage msg) throws IOException {
+        try {
+            writeGate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("중단됨");
+        }
+        if (failWrites || closed) throw new IOException("연결 끊김");
+        written.add(msg);
+    }
+
+    @Override
+    public boolean awaitMessage() {
+        return false;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsRequestIds() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /** 다음으로 쓴 메시지 (2초 안에 없으면 실패) */
+    NetworkMessage next() throws InterruptedException {
+        NetworkMessage m = written.poll(2, TimeUnit.SECONDS);
+        if (m == null) throw new AssertionError("메시지가 오지 않음");
+        return m;
+    }
+}
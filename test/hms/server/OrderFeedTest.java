@@ -0,0 +1,91 @@
+package hms.server;
+
+import hms.network.NetworkMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static hms.test.Assert.*;
+
+/** OrderFeed 구독: 전체 목록 -> 변경 알림 순서, PING, 느린 구독자 끊기, 종료 */
+class OrderFeedTest {
+
+    private static final String[] ORDER = {"RS-1", "301", "피자 x 1", "10000", "대기중", "20260110120000"};
+
+    static void testSnapshotThenChangesInOrder() throws Exception {
+        OrderFeed feed = new OrderFeed(100, 60_000);
+        FakeChannel ch = new FakeChannel();
+        String[] paid = ORDER.clone();
+        paid[4] = "결제완료";
+        List<String[]> snapshot = new ArrayList<>();
+        snapshot.add(ORDER);
+
+        // 전체 목록을 만드는 도중의 변경도 빠지지 않음 (구독 등록이 먼저)
+        Thread server = start(() -> feed.serve(ch, () -> {
+            feed.requestChanged(null, ORDER);
+            return snapshot;
+        }));
+        NetworkMessage first = ch.next();
+        assertEquals("처음은 전체 목록", snapshot.toArray(), ((List<?>) first.getData()).toArray());
+        assertEquals("목록 중 추가된 주문", OrderFeed.EVENT_CREATED, ch.next().getMessage());
+
+        feed.requestChanged(ORDER, paid);
+        NetworkMessage updated = ch.next();
+        assertEquals("변경 알림", OrderFeed.EVENT_UPDATED, updated.getMessage());
+        assertEquals("변경 후 행", paid, updated.getData());
+
+        feed.close();
+        server.join(2000);
+        assertFalse("종료하면 전송 멈춤", server.isAlive());
+    }
+
+    static void testIdleSubscriberGetsPing() throws Exception {
+        OrderFeed feed = new OrderFeed(100, 20);
+        FakeChannel ch = new FakeChannel();
+        Thread server = start(() -> feed.serve(ch, ArrayList::new));
+        ch.next(); // 전체 목록
+        assertEquals("알림 없으면 PING", OrderFeed.PING, ch.next().getMessage());
+        feed.close();
+        server.join(2000);
+        assertFalse("종료", server.isAlive());
+    }
+
+    static void testSlowSubscriberIsDropped() throws Exception {
+        OrderFeed feed = new OrderFeed(2, 60_000);
+        FakeChannel ch = new FakeChannel();
+        CountDownLatch gate = new CountDownLatch(1);
+        ch.writeGate = gate; // 전체 목록 전송부터 막힘
+        Thread server = start(() -> feed.serve(ch, ArrayList::new));
+        waitUntilBlocked(server);
+
+        for (int i = 0; i < 5; i++) feed.requestChanged(null, ORDER); // 대기열(2) 넘침
+        gate.countDown();
+        server.join(2000);
+        assertFalse("넘친 구독자는 끊음", server.isAlive());
+        assertTrue("넘친 뒤 알림을 계속 보내지 않음", ch.written.size() <= 3);
+    }
+
+    static void testWriteFailureUnsubscribes() throws Exception {
+        OrderFeed feed = new OrderFeed(100, 60_000);
+        FakeChannel ch = new FakeChannel();
+        Thread server = start(() -> feed.serve(ch, ArrayList::new));
+        ch.next();
+        ch.failWrites = true; // 클라이언트가 화면을 닫음
+        feed.requestChanged(null, ORDER);
+        server.join(2000);
+        assertFalse("쓰기 실패 시 구독 해제", server.isAlive());
+    }
+
+    private static Thread start(Runnable r) {
+        Thread t = new Thread(r, "feed-test");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static void waitUntilBlocked(Thread t) throws InterruptedException {
+        for (int i = 0; i < 200 && t.getState() != Thread.State.WAITING; i++) Thread.sleep(5);
+        assertEquals("쓰기에서 대기", Thread.State.WAITING, t.getState());
+    }
+}
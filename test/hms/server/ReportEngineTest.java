@@ -0,0 +1,145 @@
+package hms.server;
+
+import hms.model.ReportRollup;
+import hms.model.Reservation;
+import hms.model.RoomServiceDataManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static hms.test.Assert.*;
+
+/** 보고서 계산 3방식(ROLLUP / SERIAL / PARALLEL)이 같은 결과를 내는지 (추가/변경이 섞인 데이터) */
+class ReportEngineTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2026, 1, 1);
+    private static final String[] STATUSES = {"PENDING", "CHECKED_IN", "CHECKED_OUT"};
+    private static final String[] PAYMENTS = {"카드결제", "현장결제"};
+    private static final String[] ORDER_STATUSES = {"결제완료", " 결제완료", "완료", "대기중"};
+
+    static void testRollupMatchesSerialAndParallel() throws Exception {
+        Random rnd = new Random(20260110L);
+        ReportEngine engine = new ReportEngine(null, null, ReportEngine.Mode.SERIAL, 4);
+        try {
+            ReportRollup rollup = new ReportRollup();
+            List<Reservation> reservations = new ArrayList<>();
+            List<String[]> orders = new ArrayList<>();
+            // 여러 조각으로 나뉘도록 (SLICE_ROWS보다 많이)
+            for (int i = 0; i < 3000; i++) {
+                Reservation r = Reservation.of(randomReservation(rnd, i));
+                reservations.add(r);
+                rollup.rowChanged(null, r);
+            }
+            for (int i = 0; i < 2000; i++) {
+                String[] o = randomOrder(rnd, i);
+                orders.add(o);
+                rollup.requestChanged(null, o);
+            }
+            compare("추가 후", engine, rollup, reservations, orders, rnd);
+
+            // 체크인/체크아웃/날짜 변경, 주문 결제 처리 (빼고 다시 더하기)
+            for (int i = 0; i < 1500; i++) {
+                int k = rnd.nextInt(reservations.size());
+                Reservation old = reservations.get(k);
+                Reservation updated = Reservation.of(randomReservation(rnd, k));
+                reservations.set(k, updated);
+                rollup.rowChanged(old, updated);
+
+                int j = rnd.nextInt(orders.size());
+                String[] oldOrder = orders.get(j);
+                String[] paid = oldOrder.clone();
+                paid[4] = ORDER_STATUSES[rnd.nextInt(ORDER_STATUSES.length)];
+                orders.set(j, paid);
+                rollup.requestChanged(oldOrder, paid);
+            }
+            compare("변경 후", engine, rollup, reservations, orders, rnd);
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private static void compare(String when, ReportEngine engine, ReportRollup rollup,
+                                List<Reservation> reservations, List<String[]> orders, Random rnd) {
+        for (int i = 0; i < 60; i++) {
+            LocalDate s = FIRST.plusDays(rnd.nextInt(100) - 5);
+            LocalDate e = s.plusDays(rnd.nextInt(40));
+            List<Reservation> resList = byPeriod(reservations, s, e);
+            List<String[]> rsList = paidByPeriod(orders, s, e);
+
+            ReportEngine.Partial serial = engine.calculate(resList, rsList, s, e, ReportEngine.Mode.SERIAL);
+            ReportEngine.Partial parallel = engine.calculate(resList, rsList, s, e, ReportEngine.Mode.PARALLEL);
+            ReportRollup.Totals t = rollup.summarize(s, e);
+            String what = when + " " + s + "~" + e;
+
+            assertEquals(what + " 객실 매출", serial.roomRev, t.roomRevenue);
+            assertEquals(what + " 룸서비스 매출", serial.fnbRev, t.fnbRevenue);
+            assertEquals(what + " 지연료", serial.lateFeeRev, t.lateFeeRevenue);
+            assertEquals(what + " 점유 객실 수", serial.occNights, t.occupiedNights);
+
+            assertEquals(what + " 병렬 객실 매출", serial.roomRev, parallel.roomRev);
+            assertEquals(what + " 병렬 룸서비스 매출", serial.fnbRev, parallel.fnbRev);
+            assertEquals(what + " 병렬 지연료", serial.lateFeeRev, parallel.lateFeeRev);
+            assertEquals(what + " 병렬 점유 객실 수", serial.occNights, parallel.occNights);
+        }
+    }
+
+    // ReservationDataManager.findReservationsByPeriod와 같은 조건
+    private static List<Reservation> byPeriod(List<Reservation> all, LocalDate s, LocalDate e) {
+        List<Reservation> out = new ArrayList<>();
+        for (Reservation r : all) {
+            if (r.columnCount() < 12 || !r.hasStayDates()) continue;
+            if (s.toEpochDay() <= r.checkOutDay() && e.toEpochDay() >= r.checkInDay()) out.add(r);
+        }
+        return out;
+    }
+
+    // RoomServiceDataManager.getPaidRequestsByPeriod와 같은 조건
+    private static List<String[]> paidByPeriod(List<String[]> all, LocalDate s, LocalDate e) {
+        long from = Long.parseLong(s.toString().replace("-", "") + "000000");
+        long to = Long.parseLong(e.toString().replace("-", "") + "235959");
+        List<String[]> out = new ArrayList<>();
+        for (String[] p : all) {
+            if (!p[4].trim().equals(RoomServiceDataManager.STATUS_PAID)) continue;
+            try {
+                long t = Long.parseLong(p[5].trim());
+                if (t >= from && t <= to) out.add(p);
+            } catch (NumberFormatException ignored) {
+                // 시각이 숫자가 아닌 주문은 제외
+            }
+        }
+        return out;
+    }
+
+    private static String[] randomReservation(Random rnd, int i) {
+        LocalDate in = FIRST.plusDays(rnd.nextInt(90));
+        LocalDate out = in.plusDays(rnd.nextInt(6));       // 당일 퇴실(0박) 포함
+        String inStr = in.toString();
+        String outStr = out.toString();
+        int odd = rnd.nextInt(50);
+        if (odd == 0) outStr = in.minusDays(2).toString();  // 체크아웃 < 체크인
+        if (odd == 1) inStr = "2026-02-30";                  // 날짜가 아님
+        String status = STATUSES[rnd.nextInt(STATUSES.length)];
+        String fee = (status.equals("CHECKED_OUT") && rnd.nextInt(4) == 0) ? "20000" : "0";
+        String[] row = {"260101-" + String.format("%06d", i), "손님" + i, "010", inStr, outStr, "15:00", "11:00", "2",
+                "스위트", "301", String.valueOf(100000 * (1 + rnd.nextInt(3))), PAYMENTS[rnd.nextInt(PAYMENTS.length)],
+                status, "", "kim", fee};
+        // 지연료 칸이 없는 예전 형식, 12칸이 안 되는 줄도 섞음
+        if (odd == 2) return Arrays.copyOf(row, 15);
+        if (odd == 3) return Arrays.copyOf(row, 11);
+        return row;
+    }
+
+    private static String[] randomOrder(Random rnd, int i) {
+        LocalDate day = FIRST.plusDays(rnd.nextInt(95));
+        String time = day.toString().replace("-", "") + String.format("%02d%02d00", rnd.nextInt(24), rnd.nextInt(60));
+        int odd = rnd.nextInt(40);
+        if (odd == 0) time = "20260230120000";   // 없는 날짜 (숫자로는 기간 안)
+        if (odd == 1) time = "20260110250000";   // 시각이 235959 초과
+        if (odd == 2) time = "시각없음";
+        String price = (odd == 3) ? "가격" : String.valueOf(1000 * (1 + rnd.nextInt(30)));
+        return new String[]{"RS-" + i, "301", "피자 x 1", price, ORDER_STATUSES[rnd.nextInt(ORDER_STATUSES.length)], time};
+    }
+}
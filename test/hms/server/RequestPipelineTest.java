@@ -0,0 +1,175 @@
+package hms.server;
+
+import hms.network.Command;
+import hms.network.NetworkMessage;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static hms.test.Assert.*;
+
+/** 파이프라인 요청: 끝난 순서대로 같은 요청 번호로 응답, 요청별 오류 응답, 동시 처리 수 제한 */
+class RequestPipelineTest {
+
+    static void testResponsesReturnOutOfOrderWithTheirIds() throws Exception {
+        CountDownLatch slow = new CountDownLatch(1);
+        CommandRegistry commands = new CommandRegistry();
+        commands.register(Command.RES_SEARCH, req -> {
+            await(slow);
+            return new NetworkMessage(true, "검색", req.getData());
+        });
+        commands.register(Command.RES_GET_BY_ID, req -> new NetworkMessage(true, "조회", req.getData()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            FakeChannel ch = new FakeChannel();
+            RequestPipeline pipeline = new RequestPipeline(ch, pool, 8, commands);
+            pipeline.submit(request(Command.RES_SEARCH, 1, "홍길동"));
+            pipeline.submit(request(Command.RES_GET_BY_ID, 2, "260110-000001"));
+
+            // 느린 검색을 기다리지 않고 조회 응답이 먼저 나감
+            NetworkMessage first = ch.next();
+            assertEquals("먼저 끝난 요청 번호", 2, first.getRequestId());
+            assertEquals("조회 응답", "260110-000001", first.getData());
+
+            slow.countDown();
+            NetworkMessage second = ch.next();
+            assertEquals("나중 요청 번호", 1, second.getRequestId());
+            assertEquals("검색 응답", "홍길동", second.getData());
+
+            pipeline.awaitIdle();
+            assertEquals("검색 호출 수", 1L, commands.stats().get(Command.RES_SEARCH).getCalls());
+            assertFalse("연결 유지", ch.closed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static void testHandlerErrorAnswersOnlyThatRequest() throws Exception {
+        CommandRegistry commands = new CommandRegistry();
+        commands.register(Command.RES_UPDATE_STATUS, req -> {
+            throw new IllegalStateException("처리기 오류");
+        });
+        commands.register(Command.RES_GET_BY_ID, req -> new NetworkMessage(true, "조회", req.getData()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            FakeChannel ch = new FakeChannel();
+            RequestPipeline pipeline = new RequestPipeline(ch, pool, 8, commands);
+            pipeline.submit(request(Command.RES_UPDATE_STATUS, 7, "260110-000001"));
+            pipeline.submit(request(Command.RES_GET_BY_ID, 8, "260110-000001"));
+            pipeline.submit(request("없는명령", 9, null));
+            pipeline.awaitIdle();
+
+            NetworkMessage[] byId = new NetworkMessage[10];
+            for (int i = 0; i < 3; i++) {
+                NetworkMessage m = ch.next();
+                byId[m.getRequestId()] = m;
+            }
+            assertFalse("오류 요청은 실패", byId[7].isSuccess());
+            assertEquals("오류 응답", "서버오류", byId[7].getMessage());
+            assertTrue("다른 요청은 정상", byId[8].isSuccess());
+            assertEquals("모르는 명령", "알수없는명령", byId[9].getMessage());
+            assertEquals("오류 수", 1L, commands.stats().get(Command.RES_UPDATE_STATUS).getErrors());
+            assertFalse("오류가 나도 연결 유지", ch.closed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static void testSubmitWaitsWhenDepthIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CommandRegistry commands = new CommandRegistry();
+        commands.register(Command.RES_SEARCH, req -> {
+            await(release);
+            return new NetworkMessage(true, "검색", null);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            FakeChannel ch = new FakeChannel();
+            RequestPipeline pipeline = new RequestPipeline(ch, pool, 2, commands);
+            pipeline.submit(request(Command.RES_SEARCH, 1, null));
+            pipeline.submit(request(Command.RES_SEARCH, 2, null));
+
+            // 세 번째 요청은 자리가 날 때까지 읽는 스레드를 멈춤
+            Thread reader = new Thread(() -> {
+                try {
+                    pipeline.submit(request(Command.RES_SEARCH, 3, null));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "pipeline-reader");
+            reader.setDaemon(true);
+            reader.start();
+            for (int i = 0; i < 200 && reader.getState() != Thread.State.WAITING; i++) Thread.sleep(5);
+            assertEquals("자리가 찰 때 대기", Thread.State.WAITING, reader.getState());
+            assertEquals("처리 중 2건", 2L, commands.stats().get(Command.RES_SEARCH).getInFlight());
+
+            release.countDown();
+            reader.join(2000);
+            assertFalse("자리가 나면 넘김", reader.isAlive());
+            pipeline.awaitIdle();
+            assertEquals("모두 응답", 3, ch.written.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static void testRejectedTaskRunsOnCallerThread() throws Exception {
+        String[] handledBy = new String[1];
+        CommandRegistry commands = new CommandRegistry();
+        commands.register(Command.RES_GET_BY_ID, req -> {
+            handledBy[0] = Thread.currentThread().getName();
+            return new NetworkMessage(true, "조회", null);
+        });
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.SECONDS);
+
+        // 서버 종료 중(실행기가 받지 않음)에도 요청은 응답됨
+        FakeChannel ch = new FakeChannel();
+        RequestPipeline pipeline = new RequestPipeline(ch, pool, 2, commands);
+        pipeline.submit(request(Command.RES_GET_BY_ID, 5, null));
+        assertEquals("호출한 스레드에서 처리", Thread.currentThread().getName(), handledBy[0]);
+        assertEquals("응답 번호", 5, ch.next().getRequestId());
+        pipeline.awaitIdle(); // 자리도 돌려받음
+    }
+
+    static void testWriteFailureClosesChannel() throws Exception {
+        CommandRegistry commands = new CommandRegistry();
+        commands.register(Command.RES_GET_BY_ID, req -> new NetworkMessage(true, "조회", null));
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            FakeChannel ch = new FakeChannel();
+            ch.failWrites = true;
+            RequestPipeline pipeline = new RequestPipeline(ch, pool, 2, commands);
+            pipeline.submit(request(Command.RES_GET_BY_ID, 1, null));
+            pipeline.awaitIdle();
+            assertTrue("응답을 못 보내면 연결 닫음", ch.closed);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static NetworkMessage request(Command command, int requestId, Object data) {
+        return request(command.name(), requestId, data);
+    }
+
+    private static NetworkMessage request(String command, int requestId, Object data) {
+        NetworkMessage m = new NetworkMessage(command, data);
+        m.setRequestId(requestId);
+        return m;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("풀리지 않음");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
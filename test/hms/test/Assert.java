@@ -0,0 +1,35 @@
+package hms.test;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/** 테스트용 확인 메서드 (외부 라이브러리 없음, 실패하면 AssertionError) */
+public final class Assert {
+
+    private Assert() {}
+
+    public static void assertTrue(String what, boolean condition) {
+        if (!condition) throw new AssertionError(what);
+    }
+
+    public static void assertFalse(String what, boolean condition) {
+        assertTrue(what, !condition);
+    }
+
+    public static void assertEquals(String what, Object expected, Object actual) {
+        boolean same = (expected instanceof Object[] && actual instanceof Object[])
+                ? Arrays.deepEquals((Object[]) expected, (Object[]) actual)
+                : Objects.equals(expected, actual);
+        if (!same) {
+            throw new AssertionError(what + ": 기대 " + show(expected) + ", 실제 " + show(actual));
+        }
+    }
+
+    public static void fail(String what) {
+        throw new AssertionError(what);
+    }
+
+    private static String show(Object v) {
+        return (v instanceof Object[]) ? Arrays.deepToString((Object[]) v) : String.valueOf(v);
+    }
+}
@@ -0,0 +1,51 @@
+package hms.test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/** 테스트용 임시 파일/폴더와 변경 기록 줄 (끝나면 지움) */
+public final class TestFiles {
+
+    /** 임시 경로를 받아 실행하는 테스트 본문 */
+    public interface PathBody {
+        void run(Path path) throws Exception;
+    }
+
+    private TestFiles() {}
+
+    /** 빈 임시 파일을 만들어 body를 실행하고 지웁니다. */
+    public static void withFile(String prefix, PathBody body) throws Exception {
+        Path file = Files.createTempFile(prefix, ".txt");
+        try {
+            body.run(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** 임시 폴더를 만들어 body를 실행하고 안의 파일까지 모두 지웁니다. (봉인 파일, .tmp 등이 생기는 테스트용) */
+    public static void withDir(String prefix, PathBody body) throws Exception {
+        Path dir = Files.createTempDirectory(prefix);
+        try {
+            body.run(dir);
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * 변경 기록 파일의 한 줄 "본문,CRC32(16진수)\n" (hms.model.LogLines.line과 같은 형식)
+     * 형식을 테스트 쪽에서 따로 만들어서, 기록 파일 형식이 바뀌면 테스트가 알아채도록 합니다.
+     */
+    public static String logLine(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return body + "," + Long.toHexString(crc.getValue()) + "\n";
+    }
+}
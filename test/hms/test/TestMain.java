@@ -0,0 +1,65 @@
+package hms.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 테스트 실행기 (test 폴더, 외부 라이브러리 없음)
+ * - 아래 목록의 클래스에서 이름이 test로 시작하는 static 메서드를 하나씩 실행합니다.
+ * - 실패가 하나라도 있으면 종료 코드 1
+ *
+ * 사용법 (프로젝트 폴더에서):
+ *   javac -encoding UTF-8 -cp libs/jcalendar-1.4.jar -d out/test $(find src test -name "*.java")
+ *   java -cp out/test:libs/jcalendar-1.4.jar hms.test.TestMain [클래스이름일부]
+ */
+public final class TestMain {
+
+    private static final String[] TESTS = {
+            "hms.model.BTreeFileTest",
+            "hms.model.ChunkedLineReaderTest",
+            "hms.model.LogFieldsTest",
+            "hms.model.ReservationChangeLogTest",
+            "hms.model.ReservationStoreTest",
+            "hms.model.RoomLocksTest",
+            "hms.model.RoomServiceRequestLogTest",
+            "hms.model.RoomServiceRequestStoreTest",
+            "hms.model.UserJournalTest",
+            "hms.model.VersionClockTest",
+            "hms.network.BinaryCodecTest",
+            "hms.network.ServerConnectionTest",
+            "hms.server.OrderFeedTest",
+            "hms.server.ReportEngineTest",
+            "hms.server.RequestPipelineTest",
+            "hms.util.LogRingTest",
+    };
+
+    public static void main(String[] args) throws Exception {
+        String filter = (args.length > 0) ? args[0] : "";
+        int passed = 0;
+        int failed = 0;
+        for (String name : TESTS) {
+            if (!name.contains(filter)) continue;
+            Method[] methods = Class.forName(name).getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method m : methods) {
+                if (!m.getName().startsWith("test") || !Modifier.isStatic(m.getModifiers()) || m.getParameterCount() != 0) continue;
+                m.setAccessible(true);
+                String label = name.substring(name.lastIndexOf('.') + 1) + "." + m.getName();
+                try {
+                    m.invoke(null);
+                    passed++;
+                    System.out.println("통과  " + label);
+                } catch (InvocationTargetException e) {
+                    failed++;
+                    System.out.println("실패  " + label + " - " + e.getCause());
+                    e.getCause().printStackTrace(System.out);
+                }
+            }
+        }
+        System.out.println("통과 " + passed + " / 실패 " + failed);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
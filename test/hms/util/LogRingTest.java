@@ -0,0 +1,77 @@
+package hms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static hms.test.Assert.*;
+
+/** LogRing 원형 대기열 (순서, 가득 참, 한 바퀴 돈 뒤, 여러 스레드가 동시에 넣기) */
+class LogRingTest {
+
+    static void testFifoAndFullRing() {
+        LogRing<Integer> ring = new LogRing<>(3); // 4칸으로 올림
+        for (int i = 0; i < 4; i++) assertTrue("넣기 " + i, ring.offer(i));
+        assertFalse("가득 참", ring.offer(99));
+        assertEquals("넣은 개수", 4L, ring.offered());
+        for (int i = 0; i < 4; i++) assertEquals("꺼내기 " + i, i, ring.poll());
+        assertEquals("빈 대기열", null, ring.poll());
+        assertEquals("꺼낸 개수", 4L, ring.taken());
+    }
+
+    static void testWrapsAroundManyTimes() {
+        LogRing<Integer> ring = new LogRing<>(4);
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 1000; round++) {
+            for (int i = 0; i < 3; i++) assertTrue("넣기", ring.offer(next++));
+            for (int i = 0; i < 3; i++) assertEquals("순서", expected++, ring.poll());
+        }
+        assertEquals("빈 대기열", null, ring.poll());
+    }
+
+    static void testConcurrentProducersLoseNothing() throws Exception {
+        final int producers = 4;
+        final int perProducer = 50_000;
+        LogRing<long[]> ring = new LogRing<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long[] item = {id, i};
+                    while (!ring.offer(item)) Thread.yield(); // 가득 차면 꺼낼 때까지 다시 시도
+                }
+            }, "ring-producer-" + p);
+            threads.add(t);
+            t.start();
+        }
+        start.countDown();
+
+        int[] nextSeq = new int[producers];
+        int received = 0;
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (received < producers * perProducer) {
+            long[] item = ring.poll();
+            if (item == null) {
+                if (System.currentTimeMillis() > deadline) fail("시간 초과: 받은 개수 " + received);
+                Thread.yield();
+                continue;
+            }
+            int id = (int) item[0];
+            assertEquals("스레드 " + id + " 순서", (long) nextSeq[id], item[1]);
+            nextSeq[id]++;
+            received++;
+        }
+        for (Thread t : threads) t.join();
+        assertEquals("남은 값 없음", null, ring.poll());
+        assertEquals("넣은 개수", (long) producers * perProducer, ring.offered());
+        assertEquals("꺼낸 개수", (long) producers * perProducer, ring.taken());
+    }
+}